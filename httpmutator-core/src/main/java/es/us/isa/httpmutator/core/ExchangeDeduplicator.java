@@ -0,0 +1,255 @@
+package es.us.isa.httpmutator.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.CountingOutputStream;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Bounded cache of the mutants selected for already-seen responses, keyed by a
+ * content fingerprint of status code, headers and body.
+ *
+ * <p>The fingerprint is a 128-bit murmur3 hash computed by streaming the
+ * response into the hasher (headers in sorted order, body serialized by Jackson
+ * directly into the hash), so no intermediate string is built. A hash hit is
+ * confirmed with a structural {@code equals} on the cached original before it is
+ * reused, so collisions can never replay the wrong mutants.</p>
+ *
+ * <p>Mutant ids ({@code MutantId}) cannot serve as the key: they are derived
+ * from the exchange id, which differs between duplicates, and only exist once
+ * the response has been mutated. Replayed mutants get fresh ids for the
+ * duplicate's exchange.</p>
+ *
+ * <p>Entries are evicted in least-recently-used order once {@code maxEntries}
+ * or {@code maxBytes} is exceeded. An entry weighs its canonical body size (the
+ * bytes hashed for the fingerprint) once for the original and once per cached
+ * mutant, since each mutated response is about as large; a response heavier
+ * than the whole budget is not cached at all. Not thread-safe; owned by a single
+ * {@link HttpMutator}.</p>
+ *
+ * <h2>Recording</h2>
+ * <p>The mutants of a response are collected by a {@link Recording} while the
+ * response is processed. The recording is dropped, and the response not cached,
+ * as soon as it outweighs the cache or a caller limit on the bytes it retains
+ * (the {@link MemoryBudget} of the owner), so caching never holds more of an
+ * exchange in memory than either budget allows.</p>
+ */
+final class ExchangeDeduplicator {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<HashCode, CachedResponse> cache;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private long cachedBytes = 0;
+    private long duplicates = 0;
+
+    ExchangeDeduplicator(int maxEntries, long maxBytes) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be > 0");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be > 0");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        // The hasher sink must stay open after each body is written
+        this.mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    Fingerprint fingerprint(StandardHttpResponse response) {
+        Hasher hasher = HASH.newHasher();
+        hasher.putInt(response.getStatusCode());
+
+        Map<String, Object> headers = response.getHeaders();
+        if (headers != null) {
+            for (Map.Entry<String, Object> h : new TreeMap<>(headers).entrySet()) {
+                hasher.putString(h.getKey(), StandardCharsets.UTF_8).putByte((byte) 0);
+                hasher.putString(String.valueOf(h.getValue()), StandardCharsets.UTF_8).putByte((byte) 0);
+            }
+        }
+        hasher.putByte((byte) 1);
+
+        long bytes = 0;
+        if (response.getBody() != null) {
+            try (CountingOutputStream sink = new CountingOutputStream(Funnels.asOutputStream(hasher))) {
+                mapper.writeValue(sink, response.getBody());
+                bytes = sink.getCount();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to fingerprint response body", e);
+            }
+        }
+        return new Fingerprint(hasher.hash(), bytes);
+    }
+
+    /**
+     * Returns the cached mutants for {@code response}, or {@code null} if it has
+     * not been seen (or was evicted).
+     */
+    List<EmittedMutant> lookup(Fingerprint key, StandardHttpResponse response) {
+        CachedResponse cached = cache.get(key.hash);
+        if (cached == null || !sameContent(cached.original, response)) {
+            return null;
+        }
+        duplicates++;
+        return cached.mutants;
+    }
+
+    /**
+     * Starts collecting the mutants emitted for {@code response}.
+     *
+     * @param mutantBytes      estimated bytes retained by each recorded mutant
+     * @param maxRetainedBytes the recording is dropped once its mutants exceed this
+     */
+    Recording record(Fingerprint key, StandardHttpResponse response, long mutantBytes, long maxRetainedBytes) {
+        return new Recording(key, response, mutantBytes, maxRetainedBytes);
+    }
+
+    /** Caches the recorded mutants, unless the recording was dropped. */
+    void store(Recording recording) {
+        if (recording.mutants != null) {
+            store(recording.key, recording.response, recording.mutants);
+        }
+    }
+
+    /**
+     * Caches the mutants selected for {@code response}, evicting the least recently
+     * used entries until both budgets hold again.
+     */
+    void store(Fingerprint key, StandardHttpResponse response, List<EmittedMutant> mutants) {
+        long weight = Math.max(key.bytes, 1) * (1 + mutants.size());
+        if (weight > maxBytes) {
+            return;
+        }
+        CachedResponse previous = cache.put(key.hash,
+                new CachedResponse(response, Collections.unmodifiableList(mutants), weight));
+        if (previous != null) {
+            cachedBytes -= previous.weight;
+        }
+        cachedBytes += weight;
+        Iterator<CachedResponse> eldest = cache.values().iterator();
+        while (cache.size() > maxEntries || cachedBytes > maxBytes) {
+            cachedBytes -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    /** Number of exchanges served from the cache so far. */
+    long getDuplicateCount() {
+        return duplicates;
+    }
+
+    /** Estimated size of the cached responses, in bytes. */
+    long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    int getCachedCount() {
+        return cache.size();
+    }
+
+    private static boolean sameContent(StandardHttpResponse a, StandardHttpResponse b) {
+        return a.getStatusCode() == b.getStatusCode()
+                && Objects.equals(a.getHeaders(), b.getHeaders())
+                && Objects.equals(a.getBody(), b.getBody());
+    }
+
+    /** Content hash of a response and the size of its canonical body. */
+    static final class Fingerprint {
+        final HashCode hash;
+        final long bytes;
+
+        Fingerprint(HashCode hash, long bytes) {
+            this.hash = hash;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class CachedResponse {
+        final StandardHttpResponse original;
+        final List<EmittedMutant> mutants;
+        final long weight;
+
+        CachedResponse(StandardHttpResponse original, List<EmittedMutant> mutants, long weight) {
+            this.original = original;
+            this.mutants = mutants;
+            this.weight = weight;
+        }
+    }
+
+    /** Mutants emitted for one response while it is processed. */
+    final class Recording {
+        private final Fingerprint key;
+        private final StandardHttpResponse response;
+        private final long mutantBytes;
+        private final long maxRetainedBytes;
+
+        private List<EmittedMutant> mutants = new ArrayList<>();
+        private long weight;
+        private long retained = 0;
+
+        private Recording(Fingerprint key, StandardHttpResponse response, long mutantBytes, long maxRetainedBytes) {
+            this.key = key;
+            this.response = response;
+            this.mutantBytes = mutantBytes;
+            this.maxRetainedBytes = maxRetainedBytes;
+            this.weight = Math.max(key.bytes, 1);
+        }
+
+        void add(StandardHttpResponse mutated, Mutant mutant) {
+            if (mutants == null) {
+                return;
+            }
+            weight += Math.max(key.bytes, 1);
+            retained += mutantBytes;
+            if (weight > maxBytes || retained > maxRetainedBytes) {
+                // Could not be cached anyway: release what was collected
+                mutants = null;
+                return;
+            }
+            mutants.add(new EmittedMutant(mutated, mutant));
+        }
+
+        /** @return whether the recording was dropped for exceeding a budget */
+        boolean isDropped() {
+            return mutants == null;
+        }
+
+        /** @return number of mutants held (0 once dropped) */
+        int size() {
+            return mutants == null ? 0 : mutants.size();
+        }
+    }
+
+    /** One selected mutant together with the response built from it. */
+    static final class EmittedMutant {
+        final StandardHttpResponse mutated;
+        final Mutant mutant;
+
+        EmittedMutant(StandardHttpResponse mutated, Mutant mutant) {
+            this.mutated = mutated;
+            this.mutant = mutant;
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package es.us.isa.httpmutator.core;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import es.us.isa.httpmutator.core.metrics.MutationMetrics;
+import es.us.isa.httpmutator.core.metrics.OperatorProfiler;
+import es.us.isa.httpmutator.core.metrics.PipelineEvents;
+import es.us.isa.httpmutator.core.metrics.ProgressTracker;
 import es.us.isa.httpmutator.core.model.HttpExchange;
 import es.us.isa.httpmutator.core.model.Mutant;
 import es.us.isa.httpmutator.core.model.MutantGroup;
+import es.us.isa.httpmutator.core.model.MutantId;
 import es.us.isa.httpmutator.core.model.StandardHttpResponse;
 import es.us.isa.httpmutator.core.reader.HttpExchangeReader;
 import es.us.isa.httpmutator.core.reporter.MutantReporter;
+import es.us.isa.httpmutator.core.stats.CoverageIndex;
 import es.us.isa.httpmutator.core.strategy.MutationStrategy;
 import es.us.isa.httpmutator.core.util.RandomUtils;
+import es.us.isa.httpmutator.core.writer.CanonicalBytesWriter;
+import es.us.isa.httpmutator.core.writer.CanonicalJsonBuffer;
 import es.us.isa.httpmutator.core.writer.MutantWriter;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 
@@ -25,6 +38,9 @@ import java.util.function.Consumer;
  */
 public class HttpMutator implements AutoCloseable {
 
+    /** Default memory budget of {@link #withDeduplication(int)}, in bytes (64 MB). */
+    public static final long DEFAULT_DEDUPLICATION_BYTES = 64L << 20;
+
     private final HttpMutatorEngine engine;
 
     /**
@@ -47,6 +63,61 @@ public class HttpMutator implements AutoCloseable {
      */
     private long randomSeed;
 
+    /**
+     * Optional input deduplication; {@code null} when disabled.
+     */
+    private ExchangeDeduplicator deduplicator;
+
+    /**
+     * Reused serialization buffer shared by all {@link CanonicalBytesWriter}s;
+     * created on first use.
+     */
+    private CanonicalJsonBuffer canonicalBuffer;
+
+    /**
+     * Optional live metrics published over JMX; {@code null} when disabled.
+     */
+    private MutationMetrics metrics;
+
+    /**
+     * Optional operator cost profile, written to {@link #profileReport} on close;
+     * {@code null} when disabled.
+     */
+    private OperatorProfiler profiler;
+    private Path profileReport;
+
+    /**
+     * Optional progress reporting of the streaming API; {@code null} when disabled.
+     */
+    private ProgressTracker progress;
+
+    /**
+     * Optional cap on the body mutants buffered per group; {@code null} when disabled.
+     */
+    private MemoryBudget memoryBudget;
+
+    /**
+     * Optional cross-run coverage of (endpoint, path, operator); {@code null} when disabled.
+     */
+    private CoverageIndex coverage;
+    private boolean skipCovered;
+    private String coverageEndpoint; // endpoint of the exchange being processed
+
+    /** Mutants emitted so far in the current exchange, by occurrence-0 id (see {@link MutantId}). */
+    private final Map<Long, Integer> idOccurrences = new HashMap<>();
+    /** Position of the current exchange in the run; keys the mutant ids of exchanges with generated ids. */
+    private long exchangeOrdinal = -1;
+
+    // Per-exchange accumulators for metrics (exchanges are processed one at a time)
+    private long streamClock;
+    private Object readEvent; // JFR event of the exchange being read, if recorded
+    private long parseNanos = -1;
+    private int generatedCount;
+    private int selectedCount;
+    private int writtenCount;
+    private long serializeNanos;
+    private long writeNanos;
+
     private boolean closed = false;
 
     public HttpMutator() {
@@ -100,6 +171,143 @@ public class HttpMutator implements AutoCloseable {
         return this;
     }
 
+    /**
+     * Enables content-hash deduplication of input exchanges.
+     *
+     * <p>Each distinct response (status code, headers and body) is mutated once;
+     * later exchanges with byte-identical content re-emit the cached mutant set to
+     * writers, reporters and consumers under their own {@link HttpExchange}, so
+     * per-id output and reporting stay complete. Up to {@code maxCachedResponses}
+     * distinct responses are remembered (LRU), within
+     * {@value #DEFAULT_DEDUPLICATION_BYTES} bytes; see
+     * {@link #withDeduplication(int, long)}. Re-emitted
+     * {@link StandardHttpResponse} and {@link Mutant} instances are shared between
+     * duplicates and must be treated as read-only.</p>
+     *
+     * @param maxCachedResponses maximum number of distinct responses kept in the cache
+     */
+    public HttpMutator withDeduplication(int maxCachedResponses) {
+        return withDeduplication(maxCachedResponses, DEFAULT_DEDUPLICATION_BYTES);
+    }
+
+    /**
+     * Enables deduplication with an explicit memory budget. Each cached response
+     * weighs its serialized body size times one plus its number of mutants; the
+     * least recently used responses are dropped once {@code maxCachedBytes} is
+     * exceeded, and a response heavier than the whole budget is never cached.
+     * With a {@link #withMemoryBudget(MemoryBudget) memory budget}, a response
+     * whose mutants would retain more than it allows is not cached either; its
+     * mutants are released as soon as it is exceeded.
+     *
+     * @param maxCachedResponses maximum number of distinct responses kept in the cache
+     * @param maxCachedBytes     estimated memory budget of the cache, in bytes
+     */
+    public HttpMutator withDeduplication(int maxCachedResponses, long maxCachedBytes) {
+        this.deduplicator = new ExchangeDeduplicator(maxCachedResponses, maxCachedBytes);
+        return this;
+    }
+
+    /**
+     * Enables live metrics (throughput, writer gauges and per-exchange latency
+     * histograms) and publishes them as an MXBean named
+     * {@code es.us.isa.httpmutator:type=HttpMutator,name=<name>} until
+     * {@link #close()}. See {@link MutationMetrics}.
+     *
+     * @param name JMX name of this instance; a suffix is added if it is taken
+     */
+    public HttpMutator withMetrics(String name) {
+        if (metrics == null) {
+            metrics = new MutationMetrics(Collections.unmodifiableList(writers));
+            metrics.register(name);
+        }
+        return this;
+    }
+
+    public HttpMutator withMetrics() {
+        return withMetrics("HttpMutator");
+    }
+
+    /**
+     * Enables the operator profiling mode: wall time, allocated bytes and mutant
+     * size of every operator application, per mutator/operator pair and body
+     * depth. The sorted report is written to {@code report} on {@link #close()}.
+     * Profiling slows mutation down noticeably; see {@link OperatorProfiler}.
+     */
+    public HttpMutator withOperatorProfiling(Path report) {
+        this.profileReport = Objects.requireNonNull(report, "report must not be null");
+        if (profiler == null) {
+            profiler = new OperatorProfiler();
+            engine.setProfiler(profiler);
+        }
+        return this;
+    }
+
+    /**
+     * Reports progress (consumed input, throughput, ETA, output size) of the
+     * streaming API at the tracker's interval, and once more on {@link #close()}.
+     * Unless the caller already wrapped its input with
+     * {@link ProgressTracker#count(InputStream)}, {@code mutateStream} counts the
+     * stream it is given.
+     */
+    public HttpMutator withProgress(ProgressTracker progress) {
+        this.progress = Objects.requireNonNull(progress, "progress must not be null");
+        return this;
+    }
+
+    /**
+     * Caps the estimated memory of the body mutants a group buffers while it is
+     * generated, splitting or sampling groups that exceed it (see
+     * {@link MemoryBudget}). The decisions are written to the budget's report, if
+     * any, on {@link #close()}.
+     */
+    public HttpMutator withMemoryBudget(MemoryBudget memoryBudget) {
+        this.memoryBudget = Objects.requireNonNull(memoryBudget, "memoryBudget must not be null");
+        engine.setMemoryBudget(memoryBudget);
+        return this;
+    }
+
+    /**
+     * Records every emitted mutant's (endpoint, path, operator) combination in
+     * {@code coverage}, which is saved to its file, if any, on {@link #close()}.
+     * With {@code skipCovered}, mutants whose combination is already covered
+     * (by an earlier run, a merged index, or earlier in this one) are removed from
+     * each group before the strategy selects, and groups left empty are skipped.
+     * See {@link CoverageIndex}.
+     */
+    public HttpMutator withCoverage(CoverageIndex coverage, boolean skipCovered) {
+        this.coverage = Objects.requireNonNull(coverage, "coverage must not be null");
+        this.skipCovered = skipCovered;
+        return this;
+    }
+
+    /**
+     * @return the coverage index, or {@code null} if {@link #withCoverage(CoverageIndex, boolean)} was not called
+     */
+    public CoverageIndex getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * @return the operator profile, or {@code null} if {@link #withOperatorProfiling(Path)} was not called
+     */
+    public OperatorProfiler getOperatorProfiler() {
+        return profiler;
+    }
+
+    /**
+     * @return the live metrics, or {@code null} if {@link #withMetrics(String)} was not called
+     */
+    public MutationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return number of exchanges served from the deduplication cache (0 when disabled)
+     */
+    public long getDeduplicatedExchangeCount() {
+        return deduplicator == null ? 0 : deduplicator.getDuplicateCount();
+    }
+
     public long getRandomSeed() {
         return randomSeed;
     }
@@ -122,10 +330,13 @@ public class HttpMutator implements AutoCloseable {
 
     /**
      * Core pipeline:
+     * - (optional) replay cached mutants for a duplicate response
      * - engine.getAllMutants
      * - strategy.selectMutants
+     * - assign each selected mutant its stable id ({@link MutantId})
      * - build StandardHttpResponse for each mutant
-     * - notify reporters
+     * - write it (serialized once for all CanonicalBytesWriters)
+     * - notify reporters (per mutant, then once per exchange)
      * - invoke extraHandler (per context)
      */
     private void processExchange(HttpExchange exchange, Consumer<StandardHttpResponse> perMutantConsumer) {
@@ -134,35 +345,205 @@ public class HttpMutator implements AutoCloseable {
         ensureStrategyConfigured();
 
         StandardHttpResponse original = exchange.getResponse();
+        long start = 0;
+        if (metrics != null) {
+            start = System.nanoTime();
+            generatedCount = selectedCount = writtenCount = 0;
+            serializeNanos = writeNanos = 0;
+        }
+        if (coverage != null) {
+            coverageEndpoint = CoverageIndex.endpointOf(exchange);
+        }
+        idOccurrences.clear();
+        exchangeOrdinal++;
+
+        ExchangeDeduplicator.Fingerprint fingerprint = null;
+        ExchangeDeduplicator.Recording recording = null;
+        if (deduplicator != null) {
+            fingerprint = deduplicator.fingerprint(original);
+            List<ExchangeDeduplicator.EmittedMutant> cached = deduplicator.lookup(fingerprint, original);
+            if (cached != null) {
+                try {
+                    long w0 = metrics != null ? System.nanoTime() : 0;
+                    for (ExchangeDeduplicator.EmittedMutant e : cached) {
+                        if (skipCovered && coverage.isCovered(coverageEndpoint, e.mutant)) {
+                            continue;
+                        }
+                        emit(exchange, e.mutated, identify(exchange, e.mutant), perMutantConsumer);
+                    }
+                    if (metrics != null) {
+                        // Replayed responses are already deserialized: all of it is writing
+                        writeNanos += System.nanoTime() - w0;
+                    }
+                    finishExchange(exchange);
+                } catch (UncheckedIOException e) {
+                    throw new RuntimeException("I/O error while writing mutated responses", e.getCause());
+                }
+                recordMetrics(start);
+                return;
+            }
+        }
+
         JsonNode responseNode = original.toJsonNode();
+        if (deduplicator != null) {
+            // Each recorded mutant retains a copy of the response tree, which the memory budget must cover
+            recording = memoryBudget == null
+                    ? deduplicator.record(fingerprint, original, 0, Long.MAX_VALUE)
+                    : deduplicator.record(fingerprint, original,
+                    MemoryBudget.estimateCopyBytes(responseNode), memoryBudget.getMaxBytes());
+        }
+        ExchangeDeduplicator.Recording sink = recording;
 
         try {
-            engine.getAllMutants(responseNode, (MutantGroup group) -> {
-                for (Mutant mutant : strategy.selectMutants(group)) {
+            engine.getAllMutants(responseNode, exchange.getId(), (MutantGroup generated) -> {
+                if (metrics != null) {
+                    generatedCount += generated.getMutants().size();
+                }
+                MutantGroup group = skipCovered ? uncovered(generated) : generated;
+                if (group.getMutants().isEmpty()) {
+                    return;
+                }
+                Object selection = PipelineEvents.beginSelection();
+                List<Mutant> selected = strategy.selectMutants(group);
+                PipelineEvents.endSelection(selection, exchange.getId(), group.getIdentifier(),
+                        group.getMutants().size(), selected.size());
+                if (metrics != null) {
+                    selectedCount += selected.size();
+                }
+                // Metrics time the group once, splitting it by the first mutant's serialize/write ratio
+                long g0 = metrics != null ? System.nanoTime() : 0;
+                long sampleSerialize = 0;
+                long sampleTotal = 0;
+                for (Mutant candidate : selected) {
+                    Mutant mutant = identify(exchange, candidate);
                     JsonNode mutatedNode = mutant.getMutatedNode();
-                    StandardHttpResponse mutated =
-                            StandardHttpResponse.fromJsonNode(mutatedNode);
-
-                    for (MutantWriter writer : writers) {
-                        try {
-                            writer.write(exchange, mutated, mutant);
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
+                    StandardHttpResponse mutated;
+                    if (metrics != null && sampleTotal == 0) {
+                        long s0 = System.nanoTime();
+                        mutated = StandardHttpResponse.fromJsonNode(mutatedNode);
+                        long s1 = System.nanoTime();
+                        emit(exchange, mutated, mutant, perMutantConsumer);
+                        sampleSerialize = s1 - s0;
+                        sampleTotal = Math.max(1, System.nanoTime() - s0);
+                    } else {
+                        mutated = StandardHttpResponse.fromJsonNode(mutatedNode);
+                        emit(exchange, mutated, mutant, perMutantConsumer);
                     }
 
-                    for (MutantReporter reporter : reporters) {
-                        reporter.onMutant(exchange, mutated, mutant);
-                    }
-
-                    if (perMutantConsumer != null) {
-                        perMutantConsumer.accept(mutated);
+                    if (sink != null) {
+                        sink.add(mutated, mutant);
                     }
                 }
+                if (metrics != null && sampleTotal > 0) {
+                    long span = System.nanoTime() - g0;
+                    long serialized = (long) (span * ((double) sampleSerialize / sampleTotal));
+                    serializeNanos += serialized;
+                    writeNanos += span - serialized;
+                }
             });
+            finishExchange(exchange);
         } catch (UncheckedIOException e) {
             throw new RuntimeException("I/O error while writing mutated responses", e.getCause());
         }
+
+        if (deduplicator != null) {
+            deduplicator.store(recording);
+        }
+        recordMetrics(start);
+    }
+
+    /** @return {@code mutant} with its id for {@code exchange} (ids of replayed mutants are replaced) */
+    private Mutant identify(HttpExchange exchange, Mutant mutant) {
+        long first = idOf(exchange, mutant, 0);
+        int occurrence = idOccurrences.merge(first, 1, Integer::sum) - 1;
+        long id = occurrence == 0 ? first : idOf(exchange, mutant, occurrence);
+        return mutant.withId(id);
+    }
+
+    /** Generated exchange ids are random per process, so those exchanges are keyed by position. */
+    private long idOf(HttpExchange exchange, Mutant mutant, int occurrence) {
+        return exchange.hasGeneratedId()
+                ? MutantId.of(randomSeed, exchangeOrdinal, mutant, occurrence)
+                : MutantId.of(randomSeed, exchange.getId(), mutant, occurrence);
+    }
+
+    private MutantGroup uncovered(MutantGroup group) {
+        List<Mutant> mutants = new ArrayList<>(group.getMutants().size());
+        for (Mutant mutant : group.getMutants()) {
+            if (!coverage.isCovered(coverageEndpoint, mutant)) {
+                mutants.add(mutant);
+            }
+        }
+        return mutants.size() == group.getMutants().size() ? group : new MutantGroup(group.getIdentifier(), mutants);
+    }
+
+    private void recordMetrics(long start) {
+        if (metrics == null) {
+            return;
+        }
+        metrics.recordExchange(parseNanos, generatedCount, selectedCount, writtenCount,
+                System.nanoTime() - start, serializeNanos, writeNanos);
+        parseNanos = -1;
+    }
+
+    private void emit(HttpExchange exchange,
+                      StandardHttpResponse mutated,
+                      Mutant mutant,
+                      Consumer<StandardHttpResponse> perMutantConsumer) {
+        CanonicalJsonBuffer canonical = null;
+        for (MutantWriter writer : writers) {
+            Object event = PipelineEvents.beginWrite();
+            try {
+                if (writer instanceof CanonicalBytesWriter && ((CanonicalBytesWriter) writer).acceptsCanonicalBytes()) {
+                    if (canonical == null) {
+                        if (canonicalBuffer == null) {
+                            canonicalBuffer = new CanonicalJsonBuffer();
+                        }
+                        canonical = canonicalBuffer.serialize(mutated);
+                    }
+                    ((CanonicalBytesWriter) writer).writeCanonical(exchange, mutated, mutant, canonical);
+                    PipelineEvents.endWrite(event, exchange.getId(), writer, canonical.length());
+                } else {
+                    writer.write(exchange, mutated, mutant);
+                    PipelineEvents.endWrite(event, exchange.getId(), writer, -1);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (metrics != null && !writers.isEmpty()) {
+            writtenCount++;
+        }
+
+        for (MutantReporter reporter : reporters) {
+            Object event = PipelineEvents.beginReport();
+            reporter.onMutant(exchange, mutated, mutant);
+            PipelineEvents.endReport(event, exchange.getId(), reporter, "onMutant");
+        }
+
+        if (coverage != null) {
+            coverage.record(coverageEndpoint, mutant);
+        }
+
+        if (progress != null) {
+            progress.mutantEmitted();
+        }
+
+        if (perMutantConsumer != null) {
+            perMutantConsumer.accept(mutated);
+        }
+    }
+
+    private void finishExchange(HttpExchange exchange) {
+        for (MutantReporter reporter : reporters) {
+            try {
+                Object event = PipelineEvents.beginReport();
+                reporter.onExchangeFinished(exchange);
+                PipelineEvents.endReport(event, exchange.getId(), reporter, "onExchangeFinished");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     @Override
@@ -186,7 +567,9 @@ public class HttpMutator implements AutoCloseable {
         // 2. Notify reporters
         for (MutantReporter reporter : reporters) {
             try {
+                Object event = PipelineEvents.beginReport();
                 reporter.onFinished();
+                PipelineEvents.endReport(event, null, reporter, "onFinished");
             } catch (RuntimeException e) {
                 if (firstException == null) {
                     firstException = new IOException("Reporter failed: " + e.getMessage(), e);
@@ -194,7 +577,50 @@ public class HttpMutator implements AutoCloseable {
             }
         }
 
-        // 3. Throw the first exception encountered
+        // 3. Final progress report (output complete)
+        if (progress != null) {
+            progress.finish();
+        }
+
+        // 4. Write the operator profile
+        if (profiler != null) {
+            try {
+                profiler.writeReport(profileReport);
+            } catch (IOException e) {
+                if (firstException == null) {
+                    firstException = e;
+                }
+            }
+        }
+
+        // 5. Write the memory budget decisions
+        if (memoryBudget != null && memoryBudget.getReport() != null) {
+            try {
+                memoryBudget.writeReport(memoryBudget.getReport());
+            } catch (IOException e) {
+                if (firstException == null) {
+                    firstException = e;
+                }
+            }
+        }
+
+        // 6. Save the coverage index
+        if (coverage != null) {
+            try {
+                coverage.save();
+            } catch (IOException e) {
+                if (firstException == null) {
+                    firstException = e;
+                }
+            }
+        }
+
+        // 7. Stop publishing metrics
+        if (metrics != null) {
+            metrics.unregister();
+        }
+
+        // 8. Throw the first exception encountered
         if (firstException != null) {
             throw firstException;
         }
@@ -203,12 +629,91 @@ public class HttpMutator implements AutoCloseable {
 
     // ===================== Streaming API (reader + writers + reporters) =====================
 
+    /** Starts timing the read of the next exchange. */
+    private void startReading() {
+        streamClock = System.nanoTime();
+        readEvent = PipelineEvents.beginRead();
+    }
+
+    /** Processes an exchange produced by a reader; the time since the previous one is its parse time. */
+    private void processStreamed(HttpExchange exchange) {
+        if (metrics != null) {
+            parseNanos = System.nanoTime() - streamClock;
+        }
+        PipelineEvents.endRead(readEvent, exchange.getId());
+        processExchange(exchange, null);
+        if (progress != null) {
+            progress.exchangeFinished();
+        }
+        startReading();
+    }
+
+    /** Starts the clocks of a streaming run. */
+    private void beginStream() {
+        if (progress != null) {
+            progress.start();
+        }
+        startReading();
+    }
+
     public void mutateStream(HttpExchangeReader exchangeReader, Reader in) throws IOException {
         Objects.requireNonNull(exchangeReader, "exchangeReader must not be null");
         Objects.requireNonNull(in, "in must not be null");
+        if (progress != null && !progress.isCounting()) {
+            in = progress.count(in);
+        }
+
+        try {
+            beginStream();
+            exchangeReader.read(in, this::processStreamed);
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Byte-stream variant of {@link #mutateStream(HttpExchangeReader, Reader)}, for
+     * binary input formats such as Smile (text formats are decoded as UTF-8).
+     */
+    public void mutateStream(HttpExchangeReader exchangeReader, InputStream in) throws IOException {
+        Objects.requireNonNull(exchangeReader, "exchangeReader must not be null");
+        Objects.requireNonNull(in, "in must not be null");
+        if (progress != null && !progress.isCounting()) {
+            in = progress.count(in);
+        }
 
         try {
-            exchangeReader.read(in, httpExchange -> processExchange(httpExchange, null));
+            beginStream();
+            exchangeReader.read(in, this::processStreamed);
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Pull-based variant of {@link #mutateStream(HttpExchangeReader, Reader)}: mutates
+     * exchanges as they are taken from {@code exchanges}, e.g. a cursor obtained from
+     * {@link HttpExchangeReader#iterator(Reader)} or a limited/filtered
+     * {@code reader.stream(in, false).limit(n).iterator()}.
+     */
+    public void mutateStream(Iterator<HttpExchange> exchanges) throws IOException {
+        Objects.requireNonNull(exchanges, "exchanges must not be null");
+
+        try {
+            beginStream();
+            while (exchanges.hasNext()) {
+                processStreamed(exchanges.next());
+            }
         } catch (RuntimeException e) {
             if (e.getCause() instanceof IOException) {
                 throw (IOException) e.getCause();
@@ -1,34 +1,45 @@
 package es.us.isa.httpmutator.core;
 
+import com.github.luben.zstd.ZstdInputStream;
+import es.us.isa.httpmutator.core.metrics.ProgressListener;
+import es.us.isa.httpmutator.core.metrics.ProgressTracker;
 import es.us.isa.httpmutator.core.reader.HarExchangeReader;
 import es.us.isa.httpmutator.core.reader.HttpExchangeReader;
 import es.us.isa.httpmutator.core.reader.JsonlExchangeReader;
+import es.us.isa.httpmutator.core.reader.SmileExchangeReader;
+import es.us.isa.httpmutator.core.reporter.CorpusProfileReporter;
 import es.us.isa.httpmutator.core.reporter.CsvReporter;
 import es.us.isa.httpmutator.core.reporter.MutantReporter;
+import es.us.isa.httpmutator.core.stats.CoverageIndex;
 import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
 import es.us.isa.httpmutator.core.strategy.MutationStrategy;
 import es.us.isa.httpmutator.core.strategy.RandomSingleStrategy;
 import es.us.isa.httpmutator.core.writer.HarMutantWriter;
 import es.us.isa.httpmutator.core.writer.JsonlMutantWriter;
 import es.us.isa.httpmutator.core.writer.MutantWriter;
+import es.us.isa.httpmutator.core.writer.ShardedZstdJsonlMutantWriter;
+import es.us.isa.httpmutator.core.writer.SmileMutantWriter;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Simple CLI entry point for HttpMutator.
  *
  * Responsibilities:
  * - Parse basic command-line arguments
- * - Open input file as Reader
+ * - Open input file as a (possibly zstd-decompressed) byte stream
  * - Create appropriate HttpExchangeReader based on input format
  * - Create MutantWriter(s) that write to files under an output directory
  * - Wire everything into a configured HttpMutator and run mutateStream(...)
@@ -67,7 +78,7 @@ public final class HttpMutatorCli {
     // ============================================================
 
     private static void run(CliConfig config) throws IOException {
-        // 1) Prepare input Reader
+        // 1) Prepare input stream
         Path input = config.inputFile;
         if (!Files.exists(input)) {
             throw new IllegalArgumentException("Input file does not exist: " + input);
@@ -80,13 +91,30 @@ public final class HttpMutatorCli {
         List<MutantReporter> reporters = createReporters(config);
 
         MutationStrategy strategy = createStrategy(config);
+        ProgressTracker progress = createProgress(config);
 
-        try (Reader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+        try (InputStream in = openInput(input, progress);
              HttpMutator mutator = new HttpMutator(config.randomSeed)
                      .withMutationStrategy(strategy)
                      .withWriters(writers)
                      .withReporters(reporters)) {
 
+            if (config.jmx) {
+                mutator.withMetrics(config.baseName);
+            }
+            if (config.profileOperators) {
+                mutator.withOperatorProfiling(config.outputDir.resolve(config.baseName + "-operator-profile.csv"));
+            }
+            if (progress != null) {
+                mutator.withProgress(progress);
+            }
+            if (config.memoryBudgetMb > 0) {
+                mutator.withMemoryBudget(new MemoryBudget(config.memoryBudgetMb << 20, config.memoryPolicy)
+                        .withReport(config.outputDir.resolve(config.baseName + "-memory-budget.csv")));
+            }
+            if (config.coverageFile != null) {
+                mutator.withCoverage(openCoverage(config), true);
+            }
             mutator.mutateStream(exchangeReader, in);
         }
     }
@@ -95,12 +123,53 @@ public final class HttpMutatorCli {
     // Factory helpers
     // ============================================================
 
+    private static InputStream openInput(Path input, ProgressTracker progress) throws IOException {
+        InputStream file = Files.newInputStream(input);
+        if (progress != null) {
+            // Count the file itself, so that progress matches its size even when decompressing
+            file = progress.count(file);
+        }
+        InputStream raw = new BufferedInputStream(file, 1 << 16);
+        if (input.getFileName().toString().toLowerCase().endsWith(".zst")) {
+            return new ZstdInputStream(raw);
+        }
+        return raw;
+    }
+
+    private static CoverageIndex openCoverage(CliConfig config) throws IOException {
+        CoverageIndex coverage = CoverageIndex.open(config.coverageFile);
+        for (Path other : config.mergeCoverage) {
+            coverage.merge(CoverageIndex.load(other));
+        }
+        return coverage;
+    }
+
+    private static ProgressTracker createProgress(CliConfig config) throws IOException {
+        if (config.progressSeconds <= 0) {
+            return null;
+        }
+        Path outputDir = config.outputDir;
+        return new ProgressTracker(ProgressListener.stderr(), config.progressSeconds, TimeUnit.SECONDS)
+                .withTotalBytes(Files.size(config.inputFile))
+                .withOutputSize(() -> directorySize(outputDir));
+    }
+
+    private static long directorySize(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(f -> f.toFile().length()).sum();
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
     private static HttpExchangeReader createExchangeReader(CliConfig config) {
         switch (config.format) {
             case JSONL:
                 return new JsonlExchangeReader();
             case HAR:
                 return new HarExchangeReader();
+            case SMILE:
+                return new SmileExchangeReader();
             default:
                 throw new IllegalArgumentException("Unsupported format: " + config.format);
         }
@@ -121,38 +190,56 @@ public final class HttpMutatorCli {
 
     /**
      * Output selection rules:
-     * - If neither --writeHar nor --writeJsonl is provided -> default JSONL output.
+     * - If none of --writeHar, --writeJsonl, --writeSmile is provided -> default JSONL output.
      * - If only --writeHar is provided -> only HAR output.
      * - If only --writeJsonl is provided -> only JSONL output.
-     * - If both are provided -> output both.
+     * - If several are provided -> output all of them.
+     * - --smileShardSize turns the Smile output into zstd shards under the output directory.
      */
     private static List<MutantWriter> createWriters(CliConfig config) throws IOException {
         List<MutantWriter> writers = new ArrayList<>();
 
-        boolean anySpecified = config.writeHar || config.writeJsonl;
+        boolean anySpecified = config.writeHar || config.writeJsonl || config.writeSmile;
         boolean writeJsonl = !anySpecified || config.writeJsonl;
         boolean writeHar = config.writeHar;
 
         if (writeJsonl) {
             Path jsonlOut = config.outputDir.resolve(config.baseName + "-mutants.jsonl");
-            Writer jsonlWriter = Files.newBufferedWriter(
+            OutputStream jsonlStream = Files.newOutputStream(
                     jsonlOut,
-                    StandardCharsets.UTF_8,
                     StandardOpenOption.CREATE,
                     StandardOpenOption.TRUNCATE_EXISTING
             );
-            writers.add(new JsonlMutantWriter(jsonlWriter, config.includeMeta));
+            writers.add(new JsonlMutantWriter(jsonlStream, config.includeMeta));
         }
 
         if (writeHar) {
             Path harOut = config.outputDir.resolve(config.baseName + "-mutants.har");
-            Writer harWriter = Files.newBufferedWriter(
+            OutputStream harStream = Files.newOutputStream(
                     harOut,
-                    StandardCharsets.UTF_8,
                     StandardOpenOption.CREATE,
                     StandardOpenOption.TRUNCATE_EXISTING
             );
-            writers.add(new HarMutantWriter(harWriter));
+            writers.add(new HarMutantWriter(harStream));
+        }
+
+        if (config.writeSmile) {
+            if (config.smileShardSize > 0) {
+                writers.add(new SmileMutantWriter(
+                        config.outputDir,
+                        config.baseName + "-mutants",
+                        config.smileShardSize,
+                        ShardedZstdJsonlMutantWriter.DEFAULT_ZSTD_LEVEL,
+                        config.includeMeta));
+            } else {
+                Path smileOut = config.outputDir.resolve(config.baseName + "-mutants.smile");
+                OutputStream smileStream = Files.newOutputStream(
+                        smileOut,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING
+                );
+                writers.add(new SmileMutantWriter(smileStream, config.includeMeta));
+            }
         }
 
         return writers;
@@ -177,6 +264,12 @@ public final class HttpMutatorCli {
                     break;
                 }
 
+                case "profile": {
+                    Path out = config.outputDir.resolve(config.baseName + "-corpus-profile.json");
+                    reporters.add(new CorpusProfileReporter(out));
+                    break;
+                }
+
                 default:
                     throw new IllegalArgumentException("Unknown reporter: " + name);
             }
@@ -191,7 +284,8 @@ public final class HttpMutatorCli {
 
     private enum InputFormat {
         JSONL,
-        HAR
+        HAR,
+        SMILE
     }
 
     // strategies exposed by CLI
@@ -214,6 +308,22 @@ public final class HttpMutatorCli {
         // Output toggles
         final boolean writeHar;
         final boolean writeJsonl;
+        final boolean writeSmile;
+        final long smileShardSize;
+
+        final boolean jmx;
+
+        final boolean profileOperators;
+
+        final long progressSeconds;
+
+        final long memoryBudgetMb;
+
+        final MemoryBudget.Policy memoryPolicy;
+
+        final Path coverageFile;
+
+        final List<Path> mergeCoverage;
 
         private CliConfig(Path inputFile,
                           InputFormat format,
@@ -224,7 +334,16 @@ public final class HttpMutatorCli {
                           List<String> reporterNames,
                           StrategyName strategy,
                           boolean writeHar,
-                          boolean writeJsonl) {
+                          boolean writeJsonl,
+                          boolean writeSmile,
+                          long smileShardSize,
+                          boolean jmx,
+                          boolean profileOperators,
+                          long progressSeconds,
+                          long memoryBudgetMb,
+                          MemoryBudget.Policy memoryPolicy,
+                          Path coverageFile,
+                          List<Path> mergeCoverage) {
             this.inputFile = inputFile;
             this.format = format;
             this.outputDir = outputDir;
@@ -235,6 +354,15 @@ public final class HttpMutatorCli {
             this.strategy = strategy;
             this.writeHar = writeHar;
             this.writeJsonl = writeJsonl;
+            this.writeSmile = writeSmile;
+            this.smileShardSize = smileShardSize;
+            this.jmx = jmx;
+            this.profileOperators = profileOperators;
+            this.progressSeconds = progressSeconds;
+            this.memoryBudgetMb = memoryBudgetMb;
+            this.memoryPolicy = memoryPolicy;
+            this.coverageFile = coverageFile;
+            this.mergeCoverage = mergeCoverage;
         }
 
         static CliConfig parse(String[] args) {
@@ -254,6 +382,15 @@ public final class HttpMutatorCli {
             // Output flags (default selection implemented in createWriters)
             boolean writeHar = false;
             boolean writeJsonl = false;
+            boolean writeSmile = false;
+            long smileShardSize = 0;
+            boolean jmx = false;
+            boolean profileOperators = false;
+            long progressSeconds = 0;
+            long memoryBudgetMb = 0;
+            MemoryBudget.Policy memoryPolicy = MemoryBudget.Policy.SPLIT;
+            Path coverageFile = null;
+            List<Path> mergeCoverage = new ArrayList<>();
 
             for (int i = 0; i < args.length; i++) {
                 String arg = args[i];
@@ -272,13 +409,15 @@ public final class HttpMutatorCli {
                     case "--format":
                     case "-f":
                         if (i + 1 >= args.length) {
-                            throw new IllegalArgumentException("--format requires 'jsonl' or 'har'");
+                            throw new IllegalArgumentException("--format requires 'jsonl', 'har' or 'smile'");
                         }
                         String fmt = args[++i].trim().toLowerCase();
                         if ("jsonl".equals(fmt)) {
                             format = InputFormat.JSONL;
                         } else if ("har".equals(fmt)) {
                             format = InputFormat.HAR;
+                        } else if ("smile".equals(fmt)) {
+                            format = InputFormat.SMILE;
                         } else {
                             throw new IllegalArgumentException("Unknown format: " + fmt);
                         }
@@ -327,6 +466,78 @@ public final class HttpMutatorCli {
                         writeJsonl = true;
                         break;
 
+                    case "--writeSmile":
+                        writeSmile = true;
+                        break;
+
+                    case "--smileShardSize":
+                        if (i + 1 >= args.length) {
+                            throw new IllegalArgumentException("--smileShardSize requires a record count");
+                        }
+                        smileShardSize = Long.parseLong(args[++i]);
+                        if (smileShardSize <= 0) {
+                            throw new IllegalArgumentException("--smileShardSize must be > 0");
+                        }
+                        break;
+
+                    case "--jmx":
+                        jmx = true;
+                        break;
+
+                    case "--profileOperators":
+                        profileOperators = true;
+                        break;
+
+                    case "--memoryBudget":
+                        if (i + 1 >= args.length) {
+                            throw new IllegalArgumentException("--memoryBudget requires a size in MB");
+                        }
+                        memoryBudgetMb = Long.parseLong(args[++i]);
+                        if (memoryBudgetMb <= 0) {
+                            throw new IllegalArgumentException("--memoryBudget must be > 0");
+                        }
+                        // Converted to bytes with << 20
+                        if (memoryBudgetMb > Long.MAX_VALUE >> 20) {
+                            throw new IllegalArgumentException(
+                                    "--memoryBudget must be <= " + (Long.MAX_VALUE >> 20) + " MB");
+                        }
+                        break;
+
+                    case "--memoryPolicy":
+                        if (i + 1 >= args.length) {
+                            throw new IllegalArgumentException("--memoryPolicy requires split or sample");
+                        }
+                        String policy = args[++i].toUpperCase(Locale.ROOT);
+                        if (!policy.equals("SPLIT") && !policy.equals("SAMPLE")) {
+                            throw new IllegalArgumentException("Unsupported memory policy: " + args[i]);
+                        }
+                        memoryPolicy = MemoryBudget.Policy.valueOf(policy);
+                        break;
+
+                    case "--progress":
+                        if (i + 1 >= args.length) {
+                            throw new IllegalArgumentException("--progress requires an interval in seconds");
+                        }
+                        progressSeconds = Long.parseLong(args[++i]);
+                        if (progressSeconds <= 0) {
+                            throw new IllegalArgumentException("--progress must be > 0");
+                        }
+                        break;
+
+                    case "--coverage":
+                        if (i + 1 >= args.length) {
+                            throw new IllegalArgumentException("--coverage requires a file");
+                        }
+                        coverageFile = Paths.get(args[++i]);
+                        break;
+
+                    case "--mergeCoverage":
+                        if (i + 1 >= args.length) {
+                            throw new IllegalArgumentException("--mergeCoverage requires a file");
+                        }
+                        mergeCoverage.add(Paths.get(args[++i]));
+                        break;
+
                     case "--help":
                     case "-h":
                         printUsage();
@@ -343,23 +554,32 @@ public final class HttpMutatorCli {
             }
             if (format == null) {
                 String name = input.getFileName().toString().toLowerCase();
+                if (name.endsWith(".zst")) {
+                    name = name.substring(0, name.length() - ".zst".length());
+                }
                 if (name.endsWith(".jsonl")) {
                     format = InputFormat.JSONL;
                 } else if (name.endsWith(".har") || name.endsWith(".har.json")) {
                     format = InputFormat.HAR;
+                } else if (name.endsWith(".smile")) {
+                    format = InputFormat.SMILE;
                 } else {
                     throw new IllegalArgumentException(
-                            "Cannot infer format from file extension, please specify --format jsonl|har");
+                            "Cannot infer format from file extension, please specify --format jsonl|har|smile");
                 }
             }
             if (baseName == null) {
                 baseName = "mutants";
             }
+            if (!mergeCoverage.isEmpty() && coverageFile == null) {
+                throw new IllegalArgumentException("--mergeCoverage requires --coverage");
+            }
 
             return new CliConfig(
                     input, format, outputDir, baseName,
                     includeMeta, randomSeed, reporterNames, strategy,
-                    writeHar, writeJsonl
+                    writeHar, writeJsonl, writeSmile, smileShardSize, jmx, profileOperators, progressSeconds,
+                    memoryBudgetMb, memoryPolicy, coverageFile, mergeCoverage
             );
         }
 
@@ -376,7 +596,11 @@ public final class HttpMutatorCli {
             }
         }
 
+        /** {@code x.jsonl} and {@code x.jsonl.zst} both give {@code x}. */
         private static String stripExtension(String fileName) {
+            if (fileName.toLowerCase().endsWith(".zst")) {
+                fileName = fileName.substring(0, fileName.length() - ".zst".length());
+            }
             int dot = fileName.lastIndexOf('.');
             if (dot <= 0) {
                 return fileName;
@@ -389,21 +613,31 @@ public final class HttpMutatorCli {
         System.err.println("Usage: java -jar httpmutator.jar [options]");
         System.err.println();
         System.err.println("Required:");
-        System.err.println("  -i, --input <file>        Input file (JSONL or HAR)");
+        System.err.println("  -i, --input <file>        Input file (JSONL, HAR or Smile; '.zst' is decompressed)");
         System.err.println();
         System.err.println("Optional:");
-        System.err.println("  -f, --format <fmt>        Input format: jsonl | har");
+        System.err.println("  -f, --format <fmt>        Input format: jsonl | har | smile");
         System.err.println("  -o, --output <dir>        Output directory (default: hm-output)");
         System.err.println("  -s, --strategy <name>     Mutation strategy (default: random)");
         System.err.println("        Supported: exhaustive(all), random");
-        System.err.println("      --includeMeta         Include mutation metadata fields in JSONL output");
+        System.err.println("      --includeMeta         Include mutation metadata fields in JSONL/Smile output");
         System.err.println("      --seed <long>         Random seed (default: 42)");
         System.err.println("      --writeJsonl          Write JSONL output (default if no output flags are specified)");
         System.err.println("      --writeHar            Write HAR output");
+        System.err.println("      --writeSmile          Write Smile (binary JSON) output");
+        System.err.println("      --smileShardSize <n>  Write Smile output as zstd shards of n records");
+        System.err.println("      --jmx                 Publish live throughput/latency metrics as a JMX MBean");
+        System.err.println("      --progress <seconds>  Print progress (percent, throughput, ETA, output size) to stderr at this interval");
+        System.err.println("      --memoryBudget <MB>   Cap the body mutants buffered per group (report: <baseName>-memory-budget.csv)");
+        System.err.println("      --memoryPolicy <p>    What to do past the budget: split (default) or sample");
+        System.err.println("      --coverage <file>     Skip (endpoint, path, operator) combinations covered in this index, and update it");
+        System.err.println("      --mergeCoverage <file> Merge another coverage index into --coverage first (repeatable)");
+        System.err.println("      --profileOperators    Write per-operator time/allocation/size costs to <baseName>-operator-profile.csv");
         System.err.println("  -h, --help                Show this help and exit");
         System.err.println();
         System.err.println("Reporters:");
         System.err.println("  --reporter csv            Per-request operator counts");
+        System.err.println("  --reporter profile        Traffic shape sketches (sizes, depth, paths, top endpoints)");
         System.err.println("  --reporter none           Disable reporters");
         System.err.println();
         System.err.println("Examples:");
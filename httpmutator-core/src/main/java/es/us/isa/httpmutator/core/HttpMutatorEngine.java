@@ -5,6 +5,7 @@ import static es.us.isa.httpmutator.core.util.PropertyManager.readProperty;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import es.us.isa.httpmutator.core.body.value.boolean0.BooleanMutator;
@@ -22,6 +23,8 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import es.us.isa.httpmutator.core.body.BodyMutator;
 import es.us.isa.httpmutator.core.headers.HeaderMutator;
+import es.us.isa.httpmutator.core.metrics.OperatorProfiler;
+import es.us.isa.httpmutator.core.metrics.PipelineEvents;
 import es.us.isa.httpmutator.core.model.MutantGroup;
 import es.us.isa.httpmutator.core.model.Mutant;
 import es.us.isa.httpmutator.core.sc.StatusCodeMutator;
@@ -48,6 +51,9 @@ public class HttpMutatorEngine {
     private StringMutator stringMutator;
     private NullMutator nullMutator;
 
+    private OperatorProfiler profiler;
+    private MemoryBudget memoryBudget;
+
     private final static double defaultPossibility = 1.0;
 
     public HttpMutatorEngine() {
@@ -66,6 +72,30 @@ public class HttpMutatorEngine {
         nullMutator = Boolean.parseBoolean(readProperty("operator.value.null.enabled")) ? new NullMutator() : null;
     }
 
+    /**
+     * Profiles the cost of every operator application; {@code null} disables profiling.
+     */
+    public void setProfiler(OperatorProfiler profiler) {
+        this.profiler = profiler;
+        if (bodyMutator != null) {
+            bodyMutator.setProfiler(profiler);
+        }
+    }
+
+    public OperatorProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Limits the body mutants buffered per group; {@code null} disables the limit.
+     */
+    public void setMemoryBudget(MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        if (bodyMutator != null) {
+            bodyMutator.setMemoryBudget(memoryBudget);
+        }
+    }
+
     public void getAllMutants(String response, Consumer<MutantGroup> consumer) {
         JsonNode responseNode = null;
         try {
@@ -84,10 +114,28 @@ public class HttpMutatorEngine {
      * @param consumer    consumer to process each mutant as it's generated
      */
     public void getAllMutants(JsonNode node, Consumer<MutantGroup> consumer) {
+        getAllMutants(node, null, consumer);
+    }
+
+    /**
+     * Same as {@link #getAllMutants(JsonNode, Consumer)}; {@code exchangeId} only
+     * labels the {@link PipelineEvents} emitted for each component.
+     */
+    public void getAllMutants(JsonNode node, String exchangeId, Consumer<MutantGroup> consumer) {
         if (!isValidResponse(node)) {
             logger.warn("Response must include status code, headers, and body");
             return;
         }
+        if (memoryBudget != null) {
+            memoryBudget.beginExchange(exchangeId);
+        }
+
+        if (PipelineEvents.isGenerationEnabled()) {
+            traced(exchangeId, "Status Code", node, consumer, this::processStatusCodeMutants);
+            traced(exchangeId, "Headers", node, consumer, this::processHeaderMutants);
+            traced(exchangeId, "Body", node, consumer, this::processBodyMutants);
+            return;
+        }
 
         // Process status code mutants
         processStatusCodeMutants(node, consumer);
@@ -99,27 +147,47 @@ public class HttpMutatorEngine {
         processBodyMutants(node, consumer);
     }
 
+    /**
+     * Runs one component wrapped in a generation event. Only called while JFR
+     * records generations, so the method references are not built otherwise.
+     */
+    private void traced(String exchangeId, String component, JsonNode node, Consumer<MutantGroup> consumer,
+                        BiConsumer<JsonNode, Consumer<MutantGroup>> phase) {
+        Object event = PipelineEvents.beginGeneration();
+        if (event == null) {
+            phase.accept(node, consumer);
+            return;
+        }
+        int[] counts = new int[2]; // groups, mutants
+        phase.accept(node, group -> {
+            counts[0]++;
+            counts[1] += group.getMutants().size();
+            consumer.accept(group);
+        });
+        PipelineEvents.endGeneration(event, exchangeId, component, counts[0], counts[1]);
+    }
+
     // ========== Component-specific processing methods ==========
 
     void processStatusCodeMutants(JsonNode node, Consumer<MutantGroup> consumer) {
         if (statusCodeMutator != null) {
             int statusCode = node.get("Status Code").asInt();
-            statusCodeMutator.getAllMutants(statusCode, defaultPossibility, mutantGroup -> {
+            statusCodeMutator.getAllMutants(statusCode, defaultPossibility, profiled(mutantGroup -> {
                 // Assemble complete response with mutated status code
                 MutantGroup assembledGroup = assembleStatusCodeMutants(node, mutantGroup);
                 consumer.accept(assembledGroup);
-            });
+            }));
         }
     }
 
     void processHeaderMutants(JsonNode node, Consumer<MutantGroup> consumer) {
         if (headerMutator != null) {
             JsonNode headers = node.get("Headers");
-            headerMutator.getAllMutants(headers, defaultPossibility, mutantGroup -> {
+            headerMutator.getAllMutants(headers, defaultPossibility, profiled(mutantGroup -> {
                 // Assemble complete response with mutated headers
                 MutantGroup assembledGroup = assembleHeaderMutants(node, mutantGroup);
                 consumer.accept(assembledGroup);
-            });
+            }));
         }
     }
 
@@ -132,58 +200,44 @@ public class HttpMutatorEngine {
                 consumer.accept(assembledGroup);
             });
         } else if (longMutator != null && (body.isLong() || body.isInt())) {
-            List<Mutant> currentPathMutants = new ArrayList<>();
-            longMutator.getOperators().forEach((n, operator) -> {
-                Object v = operator.mutate(body.asLong());
-                Mutant mutant = new Mutant("Body", JsonManager.toJsonNode(v, objectMapper), LongMutator.class, operator.getClass());
-                currentPathMutants.add(mutant);
-            });
-            if (!currentPathMutants.isEmpty()) {
-                MutantGroup mutantGroup = new MutantGroup("Body", currentPathMutants);
-                MutantGroup assembledGroup = assembleBodyMutants(node, mutantGroup);
-                consumer.accept(assembledGroup);
-            }
+            processScalarBodyMutants(node, longMutator, body.asLong(), consumer);
         } else if (doubleMutator != null && body.isDouble()) {
-            List<Mutant> currentPathMutants = new ArrayList<>();
-            doubleMutator.getOperators().forEach((n, operator) -> {
-                Object v = operator.mutate(body.asDouble());
-                Mutant mutant = new Mutant("Body", JsonManager.toJsonNode(v, objectMapper), DoubleMutator.class, operator.getClass());
-                currentPathMutants.add(mutant);
-            });
-            if (!currentPathMutants.isEmpty()) {
-                MutantGroup mutantGroup = new MutantGroup("Body", currentPathMutants);
-                MutantGroup assembledGroup = assembleBodyMutants(node, mutantGroup);
-                consumer.accept(assembledGroup);
-            }
+            processScalarBodyMutants(node, doubleMutator, body.asDouble(), consumer);
         } else if (stringMutator != null && body.isTextual()) {
-            List<Mutant> currentPathMutants = new ArrayList<>();
-            stringMutator.getOperators().forEach((n, operator) -> {
-                Object v = operator.mutate(body.asText());
-                Mutant mutant = new Mutant("Body", JsonManager.toJsonNode(v, objectMapper), StringMutator.class, operator.getClass());
-                currentPathMutants.add(mutant);
-            });
-            if (!currentPathMutants.isEmpty()) {
-                MutantGroup mutantGroup = new MutantGroup("Body", currentPathMutants);
-                MutantGroup assembledGroup = assembleBodyMutants(node, mutantGroup);
-                consumer.accept(assembledGroup);
-            }
+            processScalarBodyMutants(node, stringMutator, body.asText(), consumer);
         } else if (nullMutator != null && body.isNull()) {
-            List<Mutant> currentPathMutants = new ArrayList<>();
-            nullMutator.getOperators().forEach((n, operator) -> {
-                Object v = operator.mutate(null);
-                Mutant mutant = new Mutant("Body", JsonManager.toJsonNode(v, objectMapper), NullMutator.class, operator.getClass());
-                currentPathMutants.add(mutant);
-            });
-            if (!currentPathMutants.isEmpty()) {
-                MutantGroup mutantGroup = new MutantGroup("Body", currentPathMutants);
-                MutantGroup assembledGroup = assembleBodyMutants(node, mutantGroup);
-                consumer.accept(assembledGroup);
-            }
+            processScalarBodyMutants(node, nullMutator, null, consumer);
         } else {
             throw new IllegalArgumentException("Body must be an object, array, string, long, or double to be mutated: " + body.getNodeType());
         }
     }
 
+    /** Applies every operator of {@code mutator} to a scalar body ({@code value}). */
+    private void processScalarBodyMutants(JsonNode node, AbstractMutator mutator, Object value,
+                                          Consumer<MutantGroup> consumer) {
+        List<Mutant> currentPathMutants = new ArrayList<>();
+        for (AbstractOperator operator : mutator.getOperators().values()) {
+            long startNanos = profiler != null ? profiler.start() : 0;
+            long startAllocated = profiler != null ? profiler.allocatedBytes() : 0;
+            Object v = operator.mutate(value);
+            Mutant mutant = new Mutant("Body", JsonManager.toJsonNode(v, objectMapper), mutator.getClass(), operator.getClass());
+            if (profiler != null) {
+                profiler.record(mutator.getClass(), operator.getClass(), 0, startNanos, startAllocated, mutant.getMutatedNode());
+            }
+            currentPathMutants.add(mutant);
+        }
+        if (!currentPathMutants.isEmpty()) {
+            MutantGroup mutantGroup = new MutantGroup("Body", currentPathMutants);
+            MutantGroup assembledGroup = assembleBodyMutants(node, mutantGroup);
+            consumer.accept(assembledGroup);
+        }
+    }
+
+    /** Charges the time spent producing each group to its mutants when profiling. */
+    private Consumer<MutantGroup> profiled(Consumer<MutantGroup> consumer) {
+        return profiler != null ? profiler.timeGroups(consumer) : consumer;
+    }
+
     // ========== Response assembly methods ==========
 
     /**
@@ -0,0 +1,271 @@
+package es.us.isa.httpmutator.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.MutantGroup;
+import es.us.isa.httpmutator.core.util.RandomUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Caps the estimated memory held by one group of body mutants while it is being
+ * built, so that a huge response cannot make the engine hold hundreds of full
+ * copies of its body at once.
+ *
+ * <p>Every body mutant is a deep copy of the whole body. Jackson shares value
+ * nodes (strings, numbers) and field names between copies, so a copy retains
+ * roughly the skeleton of the tree: its object and array nodes with their maps
+ * and lists. That size is estimated once per body
+ * ({@link #estimateCopyBytes(JsonNode)}) and divided into the budget to give the
+ * number of mutants a group may buffer. When a group would grow past it, the
+ * {@link Policy} decides:</p>
+ * <ul>
+ *     <li>{@link Policy#SPLIT}: emit the buffered mutants as a partial group and
+ *         keep generating. Nothing is lost, but strategies that pick per group
+ *         (e.g. random single) see several smaller groups for that path.</li>
+ *     <li>{@link Policy#SAMPLE}: keep generating but buffer a uniform reservoir
+ *         sample of at most the budget, and emit one group at the end.</li>
+ * </ul>
+ *
+ * <h2>Decisions</h2>
+ * <p>Every group that hit the budget is recorded as a {@link Decision} (the
+ * first {@link #MAX_DECISIONS}; later ones are only counted) and can be written
+ * as CSV with {@link #writeReport(Path)}; {@link HttpMutator} does it on close
+ * when {@link #withReport(Path)} is set.</p>
+ *
+ * <p>Status code, header and scalar body mutants are small or not tree copies
+ * and are not budgeted. Not thread-safe; owned by a single {@link HttpMutator}.</p>
+ */
+public final class MemoryBudget {
+
+    /** What to do with a group that exceeds the budget. */
+    public enum Policy {
+        SPLIT,
+        SAMPLE
+    }
+
+    public static final int MAX_DECISIONS = 10_000;
+
+    public static final String REPORT_HEADER =
+            "exchange_id,path,policy,estimated_mutant_bytes,generated,kept,groups";
+
+    // Rough HotSpot sizes with compressed oops (see estimateCopyBytes)
+    private static final long OBJECT_NODE_BYTES = 16 + 56 + 16;
+    private static final long OBJECT_FIELD_BYTES = 40 + 8;
+    private static final long ARRAY_NODE_BYTES = 16 + 24 + 16;
+    private static final long ARRAY_ELEMENT_BYTES = 4;
+
+    private final long maxBytes;
+    private final Policy policy;
+    private Path report;
+
+    private String exchangeId;
+    private final List<Decision> decisions = new ArrayList<>();
+    private long limitedGroups = 0;
+    private long droppedMutants = 0;
+
+    public MemoryBudget(long maxBytes, Policy policy) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be > 0");
+        this.maxBytes = maxBytes;
+        this.policy = Objects.requireNonNull(policy, "policy must not be null");
+    }
+
+    /** CSV file the decisions are written to when the owning {@link HttpMutator} closes. */
+    public MemoryBudget withReport(Path report) {
+        this.report = Objects.requireNonNull(report, "report must not be null");
+        return this;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public Path getReport() {
+        return report;
+    }
+
+    // ===================== Engine side =====================
+
+    /** Labels the decisions of the following groups. */
+    public void beginExchange(String exchangeId) {
+        this.exchangeId = exchangeId;
+    }
+
+    /**
+     * Opens the buffer of one group.
+     *
+     * @param path        group identifier (e.g. {@code Body/user})
+     * @param mutantBytes estimated retained bytes of each mutant
+     * @param consumer    receives the group, or its parts with {@link Policy#SPLIT}
+     */
+    public GroupBuffer open(String path, long mutantBytes, Consumer<MutantGroup> consumer) {
+        return new GroupBuffer(path, mutantBytes, consumer);
+    }
+
+    /**
+     * Estimates the bytes retained by a deep copy of {@code node}: its object and
+     * array nodes with their maps and lists (value nodes and field names are
+     * shared with the original).
+     */
+    public static long estimateCopyBytes(JsonNode node) {
+        long bytes = 0;
+        Deque<JsonNode> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            JsonNode n = pending.pop();
+            if (n.isObject()) {
+                bytes += OBJECT_NODE_BYTES + OBJECT_FIELD_BYTES * n.size();
+            } else if (n.isArray()) {
+                bytes += ARRAY_NODE_BYTES + ARRAY_ELEMENT_BYTES * n.size();
+            } else {
+                continue;
+            }
+            for (JsonNode child : n) {
+                if (child.isContainerNode()) {
+                    pending.push(child);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Buffers the mutants of one group within the budget. {@link #close()} emits
+     * what is left.
+     */
+    public final class GroupBuffer {
+        private final String path;
+        private final long mutantBytes;
+        private final Consumer<MutantGroup> consumer;
+        private final int capacity;
+
+        private List<Mutant> mutants = new ArrayList<>();
+        private int generated = 0;
+        private int emitted = 0;
+        private int groups = 0;
+
+        private GroupBuffer(String path, long mutantBytes, Consumer<MutantGroup> consumer) {
+            this.path = path;
+            this.mutantBytes = Math.max(1, mutantBytes);
+            this.consumer = consumer;
+            this.capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / this.mutantBytes));
+        }
+
+        public void add(Mutant mutant) {
+            generated++;
+            if (mutants.size() < capacity) {
+                mutants.add(mutant);
+            } else if (policy == Policy.SPLIT) {
+                flush();
+                mutants.add(mutant);
+            } else {
+                // Reservoir sampling: every mutant seen so far is kept with equal probability
+                int slot = RandomUtils.nextInt(generated);
+                if (slot < capacity) {
+                    mutants.set(slot, mutant);
+                }
+            }
+        }
+
+        public void close() {
+            if (!mutants.isEmpty()) {
+                flush();
+            }
+            if (generated > capacity) {
+                limitedGroups++;
+                droppedMutants += generated - emitted;
+                if (decisions.size() < MAX_DECISIONS) {
+                    decisions.add(new Decision(exchangeId, path, policy, mutantBytes, generated, emitted, groups));
+                }
+            }
+        }
+
+        private void flush() {
+            consumer.accept(new MutantGroup(path, mutants));
+            emitted += mutants.size();
+            groups++;
+            mutants = new ArrayList<>();
+        }
+    }
+
+    // ===================== Decisions =====================
+
+    /** One group that hit the budget. */
+    public static final class Decision {
+        public final String exchangeId;
+        public final String path;
+        public final Policy policy;
+        public final long estimatedMutantBytes;
+        public final int generated;
+        public final int kept;
+        public final int groups;
+
+        Decision(String exchangeId, String path, Policy policy, long estimatedMutantBytes,
+                 int generated, int kept, int groups) {
+            this.exchangeId = exchangeId;
+            this.path = path;
+            this.policy = policy;
+            this.estimatedMutantBytes = estimatedMutantBytes;
+            this.generated = generated;
+            this.kept = kept;
+            this.groups = groups;
+        }
+    }
+
+    /** @return the recorded decisions (at most {@link #MAX_DECISIONS}) */
+    public List<Decision> getDecisions() {
+        return Collections.unmodifiableList(decisions);
+    }
+
+    /** @return number of groups that hit the budget */
+    public long getLimitedGroups() {
+        return limitedGroups;
+    }
+
+    /** @return mutants dropped by {@link Policy#SAMPLE} */
+    public long getDroppedMutants() {
+        return droppedMutants;
+    }
+
+    /** Writes the decisions as CSV ({@link #REPORT_HEADER}), replacing {@code file}. */
+    public void writeReport(Path file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            bw.write(REPORT_HEADER);
+            bw.write("\n");
+            for (Decision d : decisions) {
+                bw.write(csv(d.exchangeId) + "," + csv(d.path) + "," + d.policy + "," + d.estimatedMutantBytes
+                        + "," + d.generated + "," + d.kept + "," + d.groups);
+                bw.write("\n");
+            }
+            if (limitedGroups > decisions.size()) {
+                bw.write("# " + (limitedGroups - decisions.size()) + " more limited groups not listed\n");
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
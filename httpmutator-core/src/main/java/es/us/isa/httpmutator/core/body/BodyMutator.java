@@ -25,6 +25,8 @@ import com.google.common.collect.Lists;
 
 import es.us.isa.httpmutator.core.AbstractMutator;
 import es.us.isa.httpmutator.core.AbstractOperator;
+import es.us.isa.httpmutator.core.MemoryBudget;
+import es.us.isa.httpmutator.core.metrics.OperatorProfiler;
 import es.us.isa.httpmutator.core.model.Mutant;
 import es.us.isa.httpmutator.core.model.MutantGroup;
 import es.us.isa.httpmutator.core.body.array.ArrayMutator;
@@ -76,12 +78,32 @@ public class BodyMutator {
     private ObjectMutator objectMutator;
     private ArrayMutator arrayMutator;
 
+    private OperatorProfiler profiler; // Optional: cost of each operator application
+    private MemoryBudget memoryBudget; // Optional: cap on the mutants buffered per group
+    private long mutantBytes; // For getAllMutants() with a budget: estimated size of each mutant (a copy of rootJson)
+
     public BodyMutator() {
         objectMapper = new ObjectMapper();
         resetJsonMutator();
         resetMutators();
     }
 
+    /**
+     * Profiles every operator applied by the streaming {@link #getAllMutants(JsonNode, double, Consumer)};
+     * {@code null} disables profiling.
+     */
+    public void setProfiler(OperatorProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Limits the mutants buffered per group by the streaming
+     * {@link #getAllMutants(JsonNode, double, Consumer)}; {@code null} disables the limit.
+     */
+    public void setMemoryBudget(MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
     // ========== Core method: streaming processing by path ==========
 
     /**
@@ -103,6 +125,9 @@ public class BodyMutator {
             firstIteration = false;
             firstIterationOccurred = true;
             rootJson = jsonNode.deepCopy(); // Save root JSON copy
+            if (memoryBudget != null) {
+                mutantBytes = MemoryBudget.estimateCopyBytes(rootJson);
+            }
         }
 
         try {
@@ -145,6 +170,8 @@ public class BodyMutator {
 
         // Handle root-level mutations for current path (corresponding to original firstIteration logic)
         if (parentPath.isEmpty() && mutator != null) {
+            MemoryBudget.GroupBuffer buffer = memoryBudget != null
+                    ? memoryBudget.open("Body" + parentPath, mutantBytes, consumer) : null;
             if (mutator instanceof AbstractObjectOrArrayMutator) {
                 ((AbstractObjectOrArrayMutator) mutator).resetFirstLevelOperators();
             } else {
@@ -152,20 +179,33 @@ public class BodyMutator {
             }
             
             for (AbstractOperator operator : mutator.getOperators().values()) {
-                JsonNode jsonNodeCopy = jsonNode.deepCopy();
-                if (RandomUtils.nextDouble() < probability && operator.isApplicable(jsonNodeCopy)) {
-                    JsonNode mutant = (JsonNode) operator.mutate(jsonNodeCopy);
-                    currentPathMutants.add(new Mutant(
+                // Applicability checks are read-only: only applicable operators pay for the copy
+                if (RandomUtils.nextDouble() < probability && operator.isApplicable(jsonNode)) {
+                    long startNanos = profiler != null ? profiler.start() : 0;
+                    long startAllocated = profiler != null ? profiler.allocatedBytes() : 0;
+                    JsonNode mutant = (JsonNode) operator.mutate(jsonNode.deepCopy());
+                    if (profiler != null) {
+                        profiler.record(mutator.getClass(), operator.getClass(), 0, startNanos, startAllocated, mutant);
+                    }
+                    Mutant m = new Mutant(
                         "Body" + parentPath,
                         mutant,
                         mutator.getClass(),
                         operator.getClass()
-                    ));
+                    );
+                    if (buffer != null) {
+                        buffer.add(m);
+                    } else {
+                        currentPathMutants.add(m);
+                    }
                 }
             }
             
             ((AbstractObjectOrArrayMutator) mutator).resetOperators();
-                        
+
+            if (buffer != null) {
+                buffer.close();
+            }
             // If root path has mutations, send immediately to consumer
             if (!currentPathMutants.isEmpty()) {
                 consumer.accept(new MutantGroup("Body" + parentPath, currentPathMutants));
@@ -184,10 +224,15 @@ public class BodyMutator {
             String currentPath = parentPath + "/" + (index == null ? propertyName : index);
             
             // Generate mutations for current element and process immediately
+            MemoryBudget.GroupBuffer buffer = memoryBudget != null
+                    ? memoryBudget.open("Body" + currentPath, mutantBytes, consumer) : null;
             List<Mutant> elementMutants = generateMutantsForElement(
-                element, parentPath, propertyName, index, probability
+                element, parentPath, propertyName, index, probability, buffer
             );
-            
+            if (buffer != null) {
+                buffer.close();
+            }
+
             if (!elementMutants.isEmpty()) {
                 consumer.accept(new MutantGroup("Body" + currentPath, elementMutants));
             }
@@ -204,16 +249,19 @@ public class BodyMutator {
     /**
      * Generate mutants for a single element
      * This method is responsible for specific mutation generation logic
+     * (mutants go to {@code buffer} instead of the returned list when it is not null)
      */
     private List<Mutant> generateMutantsForElement(JsonNode element, String parentPath,
                                                   String propertyName, Integer index, 
-                                                  double probability) {
+                                                  double probability, MemoryBudget.GroupBuffer buffer) {
         List<Mutant> mutants = new ArrayList<>();
         AbstractMutator mutator = getMutator(element);
         
         if (mutator != null) {
             for (AbstractOperator operator : mutator.getOperators().values()) {
                 if (RandomUtils.nextDouble() < probability && operator.isApplicable(getNodeElement(element))) {
+                    long startNanos = profiler != null ? profiler.start() : 0;
+                    long startAllocated = profiler != null ? profiler.allocatedBytes() : 0;
                     JsonNode mutatedJson = getMutatedJson(
                         rootJson, // Use saved root JSON copy
                         parentPath, 
@@ -221,12 +269,21 @@ public class BodyMutator {
                         index, 
                         operator
                     );
-                    mutants.add(new Mutant(
+                    if (profiler != null) {
+                        profiler.record(mutator.getClass(), operator.getClass(),
+                                OperatorProfiler.depthOf(parentPath) + 1, startNanos, startAllocated, mutatedJson);
+                    }
+                    Mutant m = new Mutant(
                         "Body" + parentPath + "/" + (index == null ? propertyName : index),
                         mutatedJson,
                         mutator.getClass(),
                         operator.getClass()
-                    ));
+                    );
+                    if (buffer != null) {
+                        buffer.add(m);
+                    } else {
+                        mutants.add(m);
+                    }
                 }
             }
         }
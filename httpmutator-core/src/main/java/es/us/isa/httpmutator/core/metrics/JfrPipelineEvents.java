@@ -0,0 +1,211 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event types behind {@link PipelineEvents}. Only loaded once
+ * {@link PipelineEvents#isAvailable()} has confirmed that {@code jdk.jfr} exists.
+ *
+ * <p>Every {@code beginX} first asks a never-committed probe instance whether
+ * the event type is enabled, so a disabled type costs one flag check and no
+ * allocation.</p>
+ */
+final class JfrPipelineEvents {
+
+    private static final String PREFIX = "es.us.isa.httpmutator.";
+
+    private JfrPipelineEvents() {
+    }
+
+    // ===================== Event types =====================
+
+    @Name(PREFIX + "ExchangeRead")
+    @Label("Exchange Read")
+    @Description("Time the input reader spent producing one exchange")
+    @Category({"HttpMutator", "Pipeline"})
+    @StackTrace(false)
+    static final class ExchangeRead extends Event {
+        @Label("Exchange Id")
+        String exchangeId;
+    }
+
+    @Name(PREFIX + "MutantGeneration")
+    @Label("Mutant Generation")
+    @Description("Engine generation of one response component; includes the selection, writes and reports of its groups")
+    @Category({"HttpMutator", "Pipeline"})
+    @StackTrace(false)
+    static final class MutantGeneration extends Event {
+        @Label("Exchange Id")
+        String exchangeId;
+        @Label("Component")
+        String component;
+        @Label("Groups")
+        int groups;
+        @Label("Mutants")
+        int mutants;
+    }
+
+    @Name(PREFIX + "StrategySelection")
+    @Label("Strategy Selection")
+    @Description("Mutation strategy choosing the mutants to keep from one group")
+    @Category({"HttpMutator", "Pipeline"})
+    @StackTrace(false)
+    static final class StrategySelection extends Event {
+        @Label("Exchange Id")
+        String exchangeId;
+        @Label("Group")
+        String group;
+        @Label("Generated")
+        int generated;
+        @Label("Selected")
+        int selected;
+    }
+
+    @Name(PREFIX + "MutantWrite")
+    @Label("Mutant Write")
+    @Description("One writer writing one mutated response")
+    @Category({"HttpMutator", "Pipeline"})
+    @StackTrace(false)
+    static final class MutantWrite extends Event {
+        @Label("Exchange Id")
+        String exchangeId;
+        @Label("Writer")
+        String writer;
+        @Label("Canonical Bytes")
+        @Description("Size of the canonical JSON record, or -1 if the writer serializes on its own")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name(PREFIX + "ReporterCall")
+    @Label("Reporter Call")
+    @Description("One call into a mutant reporter")
+    @Category({"HttpMutator", "Pipeline"})
+    @StackTrace(false)
+    static final class ReporterCall extends Event {
+        @Label("Exchange Id")
+        String exchangeId;
+        @Label("Reporter")
+        String reporter;
+        @Label("Method")
+        String method;
+    }
+
+    private static final ExchangeRead READ = new ExchangeRead();
+    private static final MutantGeneration GENERATION = new MutantGeneration();
+    private static final StrategySelection SELECTION = new StrategySelection();
+    private static final MutantWrite WRITE = new MutantWrite();
+    private static final ReporterCall REPORT = new ReporterCall();
+
+    // ===================== Begin / end =====================
+
+    static boolean isGenerationEnabled() {
+        return GENERATION.isEnabled();
+    }
+
+    static Object beginRead() {
+        if (!READ.isEnabled()) {
+            return null;
+        }
+        ExchangeRead e = new ExchangeRead();
+        e.begin();
+        return e;
+    }
+
+    static void endRead(Object event, String exchangeId) {
+        ExchangeRead e = (ExchangeRead) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.exchangeId = exchangeId;
+            e.commit();
+        }
+    }
+
+    static Object beginGeneration() {
+        if (!GENERATION.isEnabled()) {
+            return null;
+        }
+        MutantGeneration e = new MutantGeneration();
+        e.begin();
+        return e;
+    }
+
+    static void endGeneration(Object event, String exchangeId, String component, int groups, int mutants) {
+        MutantGeneration e = (MutantGeneration) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.exchangeId = exchangeId;
+            e.component = component;
+            e.groups = groups;
+            e.mutants = mutants;
+            e.commit();
+        }
+    }
+
+    static Object beginSelection() {
+        if (!SELECTION.isEnabled()) {
+            return null;
+        }
+        StrategySelection e = new StrategySelection();
+        e.begin();
+        return e;
+    }
+
+    static void endSelection(Object event, String exchangeId, String group, int generated, int selected) {
+        StrategySelection e = (StrategySelection) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.exchangeId = exchangeId;
+            e.group = group;
+            e.generated = generated;
+            e.selected = selected;
+            e.commit();
+        }
+    }
+
+    static Object beginWrite() {
+        if (!WRITE.isEnabled()) {
+            return null;
+        }
+        MutantWrite e = new MutantWrite();
+        e.begin();
+        return e;
+    }
+
+    static void endWrite(Object event, String exchangeId, Object writer, long bytes) {
+        MutantWrite e = (MutantWrite) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.exchangeId = exchangeId;
+            e.writer = writer.getClass().getSimpleName();
+            e.bytes = bytes;
+            e.commit();
+        }
+    }
+
+    static Object beginReport() {
+        if (!REPORT.isEnabled()) {
+            return null;
+        }
+        ReporterCall e = new ReporterCall();
+        e.begin();
+        return e;
+    }
+
+    static void endReport(Object event, String exchangeId, Object reporter, String method) {
+        ReporterCall e = (ReporterCall) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.exchangeId = exchangeId;
+            e.reporter = reporter.getClass().getSimpleName();
+            e.method = method;
+            e.commit();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, log-linear histogram of durations in nanoseconds.
+ *
+ * <p>Every power of two is split into 4 buckets, so quantiles are reported
+ * with at most 25% relative error over the whole {@code long} range in 256
+ * counters. {@link #record(long)} does not allocate and takes no lock.</p>
+ *
+ * <p>Thread-safe. Snapshots taken while values are recorded may be slightly
+ * inconsistent (e.g. a count one higher than the bucket total).</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos duration in nanoseconds; negative values count as {@code 0}
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(v));
+        count.increment();
+        sum.add(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) {
+            // retry
+        }
+    }
+
+    static int bucketOf(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - 2)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS * (exp - 1) + sub;
+    }
+
+    /** @return the largest value that falls in {@code bucket} */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exp = bucket / SUB_BUCKETS + 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exp - 2);
+        return lower + (1L << (exp - 2)) - 1;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @param quantile in {@code [0, 1]}
+     * @return an upper bound of the quantile in nanoseconds, {@code 0} if empty
+     */
+    public long getQuantileNanos(double quantile) {
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /** @return a point-in-time summary in microseconds */
+    public LatencySnapshot snapshot() {
+        long n = count.sum();
+        return new LatencySnapshot(
+                n,
+                n == 0 ? 0 : sum.sum() / 1e3 / n,
+                getQuantileNanos(0.50) / 1e3,
+                getQuantileNanos(0.90) / 1e3,
+                getQuantileNanos(0.99) / 1e3,
+                max.get() / 1e3);
+    }
+}
@@ -0,0 +1,69 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events and derives their rate: the mean rate since creation and an
+ * exponentially weighted one-minute rate (as in Unix load averages).
+ *
+ * <p>{@link #mark(long)} only adds to a {@link LongAdder}; the moving average
+ * is brought up to date in 5-second ticks when it is read, so marking never
+ * reads the clock.</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+public final class Meter {
+
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final double TICK_SECONDS = 5.0;
+    private static final double ALPHA = 1 - Math.exp(-TICK_SECONDS / 60.0);
+    /** Ticks after which the average has forgotten everything older (1 hour). */
+    private static final long MAX_CATCH_UP_TICKS = 720;
+
+    private final LongAdder count = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    // moving average state; guarded by "this"
+    private long lastTickNanos = startNanos;
+    private long lastTickCount = 0;
+    private double rate = 0;
+    private boolean initialized = false;
+
+    public void mark() {
+        count.increment();
+    }
+
+    public void mark(long n) {
+        count.add(n);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** @return events per second since the meter was created */
+    public double getMeanRate() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : getCount() / seconds;
+    }
+
+    /** @return exponentially weighted events per second over the last minute */
+    public synchronized double getOneMinuteRate() {
+        long now = System.nanoTime();
+        long ticks = (now - lastTickNanos) / TICK_NANOS;
+        if (ticks > 0) {
+            long current = count.sum();
+            // Events since the last tick are spread evenly over the elapsed ticks
+            double instant = (current - lastTickCount) / (ticks * TICK_SECONDS);
+            for (long i = Math.min(ticks, MAX_CATCH_UP_TICKS); i > 0; i--) {
+                rate = initialized ? rate + ALPHA * (instant - rate) : instant;
+                initialized = true;
+            }
+            lastTickCount = current;
+            lastTickNanos += ticks * TICK_NANOS;
+        }
+        // Before the first tick, the mean rate is the best estimate
+        return initialized ? rate : getMeanRate();
+    }
+}
@@ -0,0 +1,47 @@
+package es.us.isa.httpmutator.core.metrics;
+
+/**
+ * JMX view of a running {@code HttpMutator} (see {@link MutationMetrics}).
+ *
+ * <p>Rates are exponentially weighted over the last minute, in events per
+ * second. Latencies are per exchange: parse is the time the reader spent
+ * producing the exchange, serialize is the conversion of its mutated trees
+ * into responses, write is the time spent in writers (including canonical
+ * serialization) and reporters, and mutate is the rest of the processing time
+ * (engine and strategy). Each group of mutants is timed as a whole and split
+ * into serialize and write by the ratio measured on its first mutant, so the
+ * clock is read a constant number of times per group rather than per mutant.</p>
+ */
+public interface MutationMetricsMXBean {
+
+    long getExchangesRead();
+
+    double getExchangesReadPerSecond();
+
+    long getMutantsGenerated();
+
+    double getMutantsGeneratedPerSecond();
+
+    long getMutantsSelected();
+
+    double getMutantsSelectedPerSecond();
+
+    long getMutantsWritten();
+
+    double getMutantsWrittenPerSecond();
+
+    /** Mutants waiting in the queues of asynchronous writers. */
+    int getWriterQueueDepth();
+
+    long getBytesBeforeCompression();
+
+    long getBytesAfterCompression();
+
+    LatencySnapshot getParseLatency();
+
+    LatencySnapshot getMutateLatency();
+
+    LatencySnapshot getSerializeLatency();
+
+    LatencySnapshot getWriteLatency();
+}
@@ -0,0 +1,300 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.MutantGroup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Opt-in cost profile of the mutation operators: wall time, allocated bytes and
+ * size of the produced mutants, per (mutator, operator) pair and per body depth.
+ *
+ * <p>The engine brackets every operator application with {@link #start()} /
+ * {@link #allocatedBytes()} and {@link #record}, once the operator was found
+ * applicable. For body operators that includes the copy of the body the
+ * operator works on, which is where large documents hurt. Status code and header mutators emit whole groups, so their
+ * cost is measured per group ({@link #timeGroups(Consumer)}) and split evenly
+ * over its mutants.</p>
+ *
+ * <h2>Depth</h2>
+ * <p>Depth is the number of segments of the body path the operator was applied
+ * to: 0 for the body root (and for status code, header and scalar body
+ * mutants), 1 for {@code Body/user}, 2 for {@code Body/user/id}, and so on.</p>
+ *
+ * <h2>Allocation</h2>
+ * <p>Allocated bytes come from {@code com.sun.management.ThreadMXBean} and are
+ * those of the current thread. When the JVM does not support the measurement
+ * the column is reported as {@code -1}.</p>
+ *
+ * <h2>Report</h2>
+ * <p>{@link #writeReport(Path)} writes a CSV with one {@code depth=all} row per
+ * pair, most expensive (total time) first, each followed by its per-depth rows:</p>
+ * <pre>
+ * mutator,operator,depth,invocations,total_ms,mean_us,allocated_bytes,mean_allocated_bytes,mutant_bytes,mean_mutant_bytes
+ * ObjectMutator,ObjectAddElementOperator,all,120,35.210,293.417,...
+ * ObjectMutator,ObjectAddElementOperator,0,40,30.002,750.050,...
+ * </pre>
+ *
+ * <p>Thread-safe.</p>
+ */
+public final class OperatorProfiler {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final String HEADER = "mutator,operator,depth,invocations,total_ms,mean_us,"
+            + "allocated_bytes,mean_allocated_bytes,mutant_bytes,mean_mutant_bytes";
+
+    private final com.sun.management.ThreadMXBean allocation;
+
+    private final Map<Key, Cell> cells = new ConcurrentHashMap<>();
+
+    public OperatorProfiler() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean sun = null;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            sun = (com.sun.management.ThreadMXBean) threads;
+            if (sun.isThreadAllocatedMemorySupported() && !sun.isThreadAllocatedMemoryEnabled()) {
+                sun.setThreadAllocatedMemoryEnabled(true);
+            }
+            if (!sun.isThreadAllocatedMemorySupported() || !sun.isThreadAllocatedMemoryEnabled()) {
+                sun = null;
+            }
+        }
+        this.allocation = sun;
+    }
+
+    // ===================== Recording =====================
+
+    /** @return the start timestamp of an operator application */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /** @return bytes allocated so far by the current thread, or {@code -1} if unsupported */
+    public long allocatedBytes() {
+        return allocation == null ? -1 : allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Records one operator application started at {@code startNanos} with
+     * {@code startAllocated} bytes allocated by the thread.
+     *
+     * @param mutant the produced node, or {@code null} if the operator produced none
+     */
+    public void record(Class<?> mutatorClass, Class<?> operatorClass, int depth,
+                       long startNanos, long startAllocated, JsonNode mutant) {
+        long nanos = System.nanoTime() - startNanos;
+        long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+        cell(mutatorClass, operatorClass, depth).add(1, nanos, allocated, serializedSize(mutant));
+    }
+
+    /**
+     * Wraps a consumer of mutant groups so that the time and allocation between
+     * groups (i.e. spent producing the next one, not consuming it) is charged to
+     * the group's mutants at depth 0. The clock starts when this method is called.
+     */
+    public Consumer<MutantGroup> timeGroups(Consumer<MutantGroup> downstream) {
+        Objects.requireNonNull(downstream, "downstream must not be null");
+        long[] mark = {start(), allocatedBytes()};
+        return group -> {
+            long nanos = System.nanoTime() - mark[0];
+            long allocated = mark[1] < 0 ? -1 : allocatedBytes() - mark[1];
+            List<Mutant> mutants = group.getMutants();
+            int n = mutants.size();
+            for (Mutant m : mutants) {
+                cell(m.getMutatorClass(), m.getOperatorClass(), 0)
+                        .add(1, nanos / n, allocated < 0 ? -1 : allocated / n, serializedSize(m.getMutatedNode()));
+            }
+            downstream.accept(group);
+            mark[0] = start();
+            mark[1] = allocatedBytes();
+        };
+    }
+
+    /** @return depth of a body path such as {@code "/user/id"} (0 for the root) */
+    public static int depthOf(String path) {
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    // ===================== Report =====================
+
+    /**
+     * @return the profile rows ({@code depth} {@code -1} for the per-pair totals),
+     *         in report order
+     */
+    public List<Row> rows() {
+        Map<Key, Cell> totals = new ConcurrentHashMap<>();
+        for (Map.Entry<Key, Cell> e : cells.entrySet()) {
+            Key k = e.getKey();
+            totals.computeIfAbsent(new Key(k.mutatorClass, k.operatorClass, -1), x -> new Cell()).addAll(e.getValue());
+        }
+
+        List<Row> pairs = new ArrayList<>();
+        totals.forEach((k, c) -> pairs.add(c.toRow(k)));
+        pairs.sort(Comparator.comparingLong((Row r) -> r.totalNanos).reversed()
+                .thenComparing(r -> r.mutator).thenComparing(r -> r.operator));
+
+        List<Row> perDepth = new ArrayList<>();
+        cells.forEach((k, c) -> perDepth.add(c.toRow(k)));
+        perDepth.sort(Comparator.comparingInt(r -> r.depth));
+
+        List<Row> rows = new ArrayList<>();
+        for (Row pair : pairs) {
+            rows.add(pair);
+            for (Row r : perDepth) {
+                if (r.mutator.equals(pair.mutator) && r.operator.equals(pair.operator)) {
+                    rows.add(r);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /** Writes the profile as CSV (see the class comment), replacing {@code file}. */
+    public void writeReport(Path file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            bw.write(HEADER);
+            bw.write("\n");
+            for (Row r : rows()) {
+                bw.write(r.toCsv());
+                bw.write("\n");
+            }
+        }
+    }
+
+    /** One line of the report. */
+    public static final class Row {
+        public final String mutator;
+        public final String operator;
+        /** Body depth, or {@code -1} for the total over all depths. */
+        public final int depth;
+        public final long invocations;
+        public final long totalNanos;
+        /** Allocated bytes, or {@code -1} if not measured. */
+        public final long allocatedBytes;
+        public final long mutantBytes;
+
+        Row(String mutator, String operator, int depth, long invocations,
+            long totalNanos, long allocatedBytes, long mutantBytes) {
+            this.mutator = mutator;
+            this.operator = operator;
+            this.depth = depth;
+            this.invocations = invocations;
+            this.totalNanos = totalNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.mutantBytes = mutantBytes;
+        }
+
+        String toCsv() {
+            long n = Math.max(1, invocations);
+            return mutator + "," + operator + "," + (depth < 0 ? "all" : Integer.toString(depth))
+                    + "," + invocations
+                    + "," + String.format(Locale.ROOT, "%.3f", totalNanos / 1e6)
+                    + "," + String.format(Locale.ROOT, "%.3f", totalNanos / 1e3 / n)
+                    + "," + allocatedBytes
+                    + "," + (allocatedBytes < 0 ? -1 : allocatedBytes / n)
+                    + "," + mutantBytes
+                    + "," + mutantBytes / n;
+        }
+    }
+
+    // -----------------------------
+    // Internals
+    // -----------------------------
+    private Cell cell(Class<?> mutatorClass, Class<?> operatorClass, int depth) {
+        return cells.computeIfAbsent(new Key(mutatorClass, operatorClass, depth), k -> new Cell());
+    }
+
+    private static long serializedSize(JsonNode node) {
+        if (node == null) {
+            return 0;
+        }
+        CountingOutputStream out = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try {
+            MAPPER.writeValue(out, node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.getCount();
+    }
+
+    private static final class Key {
+        final Class<?> mutatorClass;
+        final Class<?> operatorClass;
+        final int depth;
+
+        Key(Class<?> mutatorClass, Class<?> operatorClass, int depth) {
+            this.mutatorClass = mutatorClass;
+            this.operatorClass = operatorClass;
+            this.depth = depth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return mutatorClass == k.mutatorClass && operatorClass == k.operatorClass && depth == k.depth;
+        }
+
+        @Override
+        public int hashCode() {
+            return (mutatorClass.hashCode() * 31 + operatorClass.hashCode()) * 31 + depth;
+        }
+    }
+
+    private static final class Cell {
+        final LongAdder invocations = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder allocated = new LongAdder();
+        volatile boolean allocationUnknown = false;
+        final LongAdder mutantBytes = new LongAdder();
+
+        void add(long n, long nanos, long allocated, long mutantBytes) {
+            this.invocations.add(n);
+            this.nanos.add(nanos);
+            if (allocated < 0) {
+                allocationUnknown = true;
+            } else {
+                this.allocated.add(allocated);
+            }
+            this.mutantBytes.add(mutantBytes);
+        }
+
+        void addAll(Cell other) {
+            add(other.invocations.sum(), other.nanos.sum(),
+                    other.allocationUnknown ? -1 : other.allocated.sum(), other.mutantBytes.sum());
+        }
+
+        Row toRow(Key k) {
+            return new Row(k.mutatorClass.getSimpleName(), k.operatorClass.getSimpleName(), k.depth,
+                    invocations.sum(), nanos.sum(), allocationUnknown ? -1 : allocated.sum(), mutantBytes.sum());
+        }
+    }
+}
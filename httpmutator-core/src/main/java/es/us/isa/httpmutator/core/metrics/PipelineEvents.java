@@ -0,0 +1,120 @@
+package es.us.isa.httpmutator.core.metrics;
+
+/**
+ * Java Flight Recorder events around the work units of the mutation pipeline,
+ * so that JFR samples of a run can be correlated with the exchange being
+ * processed.
+ *
+ * <h2>Events</h2>
+ * <p>All events live in the {@code HttpMutator/Pipeline} category, are named
+ * {@code es.us.isa.httpmutator.<Type>} and carry the exchange id:</p>
+ * <ul>
+ *     <li>{@code ExchangeRead}: the reader producing one exchange (streaming API only).</li>
+ *     <li>{@code MutantGeneration}: the engine generating one component
+ *         ({@code Status Code}, {@code Headers}, {@code Body}), with group and
+ *         mutant counts. Groups are consumed as they are generated, so the
+ *         following events are nested inside it.</li>
+ *     <li>{@code StrategySelection}: the strategy filtering one group, with
+ *         generated and selected counts.</li>
+ *     <li>{@code MutantWrite}: one writer writing one mutant, with the canonical
+ *         record size when the writer consumes it.</li>
+ *     <li>{@code ReporterCall}: one reporter callback.</li>
+ * </ul>
+ *
+ * <p>The events are disabled unless a recording enables them, e.g.
+ * {@code jfr configure +es.us.isa.httpmutator.MutantWrite#enabled=true} or a
+ * custom {@code .jfc}. A disabled event costs a flag check; on JVMs without
+ * {@code jdk.jfr} (Java 8 before 8u262) the event classes are never loaded and
+ * every {@code beginX} returns {@code null}.</p>
+ *
+ * <h2>Usage</h2>
+ * <pre>
+ * Object event = PipelineEvents.beginWrite();
+ * writer.write(...);
+ * if (event != null) PipelineEvents.endWrite(event, exchangeId, writer, bytes);
+ * </pre>
+ * The handles are opaque; a non-null handle must be ended once, on the thread
+ * that began it.
+ */
+public final class PipelineEvents {
+
+    private static final boolean AVAILABLE = detect();
+
+    private PipelineEvents() {
+    }
+
+    /** @return true if this JVM supports Flight Recorder events */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    public static Object beginRead() {
+        return AVAILABLE ? JfrPipelineEvents.beginRead() : null;
+    }
+
+    public static void endRead(Object event, String exchangeId) {
+        if (event != null) {
+            JfrPipelineEvents.endRead(event, exchangeId);
+        }
+    }
+
+    /**
+     * @return true if a recording currently enables {@code MutantGeneration}
+     *         events; callers may skip building per-event context otherwise
+     */
+    public static boolean isGenerationEnabled() {
+        return AVAILABLE && JfrPipelineEvents.isGenerationEnabled();
+    }
+
+    public static Object beginGeneration() {
+        return AVAILABLE ? JfrPipelineEvents.beginGeneration() : null;
+    }
+
+    public static void endGeneration(Object event, String exchangeId, String component, int groups, int mutants) {
+        if (event != null) {
+            JfrPipelineEvents.endGeneration(event, exchangeId, component, groups, mutants);
+        }
+    }
+
+    public static Object beginSelection() {
+        return AVAILABLE ? JfrPipelineEvents.beginSelection() : null;
+    }
+
+    public static void endSelection(Object event, String exchangeId, String group, int generated, int selected) {
+        if (event != null) {
+            JfrPipelineEvents.endSelection(event, exchangeId, group, generated, selected);
+        }
+    }
+
+    public static Object beginWrite() {
+        return AVAILABLE ? JfrPipelineEvents.beginWrite() : null;
+    }
+
+    /**
+     * @param bytes size of the canonical record handed to the writer, or {@code -1}
+     */
+    public static void endWrite(Object event, String exchangeId, Object writer, long bytes) {
+        if (event != null) {
+            JfrPipelineEvents.endWrite(event, exchangeId, writer, bytes);
+        }
+    }
+
+    public static Object beginReport() {
+        return AVAILABLE ? JfrPipelineEvents.beginReport() : null;
+    }
+
+    public static void endReport(Object event, String exchangeId, Object reporter, String method) {
+        if (event != null) {
+            JfrPipelineEvents.endReport(event, exchangeId, reporter, method);
+        }
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, PipelineEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
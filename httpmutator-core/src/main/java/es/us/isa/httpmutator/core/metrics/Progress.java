@@ -0,0 +1,132 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One progress report of a {@link ProgressTracker}. Rates cover the interval
+ * since the previous report (the whole run for the final one); the ETA
+ * extrapolates the mean input rate of the whole run.
+ */
+public final class Progress {
+
+    private final long elapsedNanos;
+    private final long inputBytes;
+    private final long totalInputBytes;
+    private final long exchanges;
+    private final long mutants;
+    private final double inputBytesPerSecond;
+    private final double mutantsPerSecond;
+    private final long outputBytes;
+    private final boolean finished;
+
+    Progress(long elapsedNanos, long inputBytes, long totalInputBytes, long exchanges, long mutants,
+             double inputBytesPerSecond, double mutantsPerSecond, long outputBytes, boolean finished) {
+        this.elapsedNanos = elapsedNanos;
+        this.inputBytes = inputBytes;
+        this.totalInputBytes = totalInputBytes;
+        this.exchanges = exchanges;
+        this.mutants = mutants;
+        this.inputBytesPerSecond = inputBytesPerSecond;
+        this.mutantsPerSecond = mutantsPerSecond;
+        this.outputBytes = outputBytes;
+        this.finished = finished;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** @return input bytes consumed so far */
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    /** @return size of the whole input, or {@code -1} if unknown */
+    public long getTotalInputBytes() {
+        return totalInputBytes;
+    }
+
+    public long getExchanges() {
+        return exchanges;
+    }
+
+    public long getMutants() {
+        return mutants;
+    }
+
+    public double getInputBytesPerSecond() {
+        return inputBytesPerSecond;
+    }
+
+    public double getMutantsPerSecond() {
+        return mutantsPerSecond;
+    }
+
+    /** @return current size of the output, or {@code -1} if unknown */
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    /** @return true for the final report, sent when the run is closed */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /** @return percent of the input consumed (0-100), or {@code -1} if the input size is unknown */
+    public double getPercentComplete() {
+        if (totalInputBytes <= 0) {
+            return -1;
+        }
+        return Math.min(100.0, 100.0 * inputBytes / totalInputBytes);
+    }
+
+    /** @return estimated time to completion, or {@code -1} if it cannot be estimated yet */
+    public long getEtaNanos() {
+        if (finished) {
+            return 0;
+        }
+        if (totalInputBytes <= 0 || inputBytes <= 0) {
+            return -1;
+        }
+        long remaining = Math.max(0, totalInputBytes - inputBytes);
+        return (long) (elapsedNanos * (remaining / (double) inputBytes));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        double percent = getPercentComplete();
+        if (finished) {
+            sb.append("done");
+        } else if (percent >= 0) {
+            sb.append(String.format(Locale.ROOT, "%5.1f%%", percent));
+        } else {
+            sb.append(bytes(inputBytes)).append(" read");
+        }
+        sb.append(String.format(Locale.ROOT, " | %s/s | %d exchanges | %d mutants (%.0f/s)",
+                bytes((long) inputBytesPerSecond), exchanges, mutants, mutantsPerSecond));
+        if (outputBytes >= 0) {
+            sb.append(" | out ").append(bytes(outputBytes));
+        }
+        sb.append(" | elapsed ").append(duration(elapsedNanos));
+        long eta = getEtaNanos();
+        if (!finished && eta >= 0) {
+            sb.append(" | ETA ").append(duration(eta));
+        }
+        return sb.toString();
+    }
+
+    private static String bytes(long n) {
+        if (n < 1024) {
+            return n + " B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(n)) / 10;
+        return String.format(Locale.ROOT, "%.1f %sB", n / (double) (1L << (unit * 10)), "KMGTPE".charAt(unit - 1));
+    }
+
+    private static String duration(long nanos) {
+        long s = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        return String.format(Locale.ROOT, "%d:%02d:%02d", s / 3600, (s / 60) % 60, s % 60);
+    }
+}
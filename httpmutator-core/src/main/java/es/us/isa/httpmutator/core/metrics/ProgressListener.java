@@ -0,0 +1,15 @@
+package es.us.isa.httpmutator.core.metrics;
+
+/**
+ * Receives the periodic reports of a {@link ProgressTracker}.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    void onProgress(Progress progress);
+
+    /** @return a listener printing one line per report to {@code System.err} */
+    static ProgressListener stderr() {
+        return progress -> System.err.println("[HttpMutator] " + progress);
+    }
+}
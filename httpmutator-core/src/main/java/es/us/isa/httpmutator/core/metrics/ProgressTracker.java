@@ -0,0 +1,205 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Periodic progress of a streaming run, measured on the consumed input.
+ *
+ * <p>The input is wrapped by {@link #count(InputStream)} (or
+ * {@link #count(Reader)}, which counts characters); {@code HttpMutator} does it
+ * itself when nobody else did. Wrap the raw file rather than a decompressing
+ * stream on top of it so that the position matches
+ * {@link #withTotalBytes(long)}.</p>
+ *
+ * <p>Work per exchange is two counter updates and one {@code nanoTime} call;
+ * the listener only runs once per interval and once more on {@link #finish()}.</p>
+ *
+ * <p>Not thread-safe: the wrapped input and the notifications must come from
+ * the thread running the stream.</p>
+ */
+public final class ProgressTracker {
+
+    private final ProgressListener listener;
+    private final long intervalNanos;
+
+    private long totalBytes = -1;
+    private LongSupplier outputSize;
+
+    private boolean counting = false;
+    private long inputBytes = 0;
+    private long exchanges = 0;
+    private long mutants = 0;
+
+    private long startNanos = -1;
+    private long lastReportNanos;
+    private long lastReportBytes;
+    private long lastReportMutants;
+    private boolean finished = false;
+
+    public ProgressTracker(ProgressListener listener, long interval, TimeUnit unit) {
+        this.listener = Objects.requireNonNull(listener, "listener must not be null");
+        Objects.requireNonNull(unit, "unit must not be null");
+        if (interval <= 0) throw new IllegalArgumentException("interval must be > 0");
+        this.intervalNanos = unit.toNanos(interval);
+    }
+
+    /** Size of the whole input, enabling percent complete and ETA. */
+    public ProgressTracker withTotalBytes(long totalBytes) {
+        if (totalBytes < 0) throw new IllegalArgumentException("totalBytes must be >= 0");
+        this.totalBytes = totalBytes;
+        return this;
+    }
+
+    /** Current size of the output (e.g. of the output directory), queried once per report. */
+    public ProgressTracker withOutputSize(LongSupplier outputSize) {
+        this.outputSize = Objects.requireNonNull(outputSize, "outputSize must not be null");
+        return this;
+    }
+
+    // ===================== Input =====================
+
+    /** @return {@code in}, counting the bytes read from it as consumed input */
+    public InputStream count(InputStream in) {
+        Objects.requireNonNull(in, "in must not be null");
+        counting = true;
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    inputBytes++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    inputBytes += n;
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                inputBytes += skipped;
+                return skipped;
+            }
+        };
+    }
+
+    /** @return {@code in}, counting the characters read from it as consumed input */
+    public Reader count(Reader in) {
+        Objects.requireNonNull(in, "in must not be null");
+        counting = true;
+        return new FilterReader(in) {
+            @Override
+            public int read() throws IOException {
+                int c = super.read();
+                if (c >= 0) {
+                    inputBytes++;
+                }
+                return c;
+            }
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                int n = super.read(cbuf, off, len);
+                if (n > 0) {
+                    inputBytes += n;
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                inputBytes += skipped;
+                return skipped;
+            }
+        };
+    }
+
+    /**
+     * @return true once some input has been wrapped by {@code count}, until the
+     *         stream reading it {@link #finish() finishes}
+     */
+    public boolean isCounting() {
+        return counting;
+    }
+
+    // ===================== Notifications =====================
+
+    /** Starts the clock; called when the stream starts (implicitly by the first notification). */
+    public void start() {
+        if (startNanos < 0) {
+            startNanos = System.nanoTime();
+            lastReportNanos = startNanos;
+        }
+    }
+
+    public void mutantEmitted() {
+        mutants++;
+    }
+
+    /** Counts a finished exchange and reports if the interval has elapsed. */
+    public void exchangeFinished() {
+        exchanges++;
+        long now = System.nanoTime();
+        if (startNanos < 0) {
+            start();
+        } else if (now - lastReportNanos >= intervalNanos) {
+            report(now, false);
+        }
+    }
+
+    /** Sends the final report; later calls do nothing. */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        // The wrapped input belongs to the finished stream
+        counting = false;
+        start();
+        report(System.nanoTime(), true);
+    }
+
+    /** @return a report of the current state, without notifying the listener */
+    public Progress snapshot() {
+        start();
+        long now = System.nanoTime();
+        return progress(now, finished);
+    }
+
+    // -----------------------------
+    // Internals
+    // -----------------------------
+    private void report(long now, boolean last) {
+        Progress progress = progress(now, last);
+        lastReportNanos = now;
+        lastReportBytes = inputBytes;
+        lastReportMutants = mutants;
+        listener.onProgress(progress);
+    }
+
+    /** Rates cover the last interval, or the whole run for the final report. */
+    private Progress progress(long now, boolean last) {
+        long since = last ? startNanos : lastReportNanos;
+        double seconds = Math.max(1e-9, (now - since) / 1e9);
+        long bytes = last ? inputBytes : inputBytes - lastReportBytes;
+        long emitted = last ? mutants : mutants - lastReportMutants;
+        long output = outputSize == null ? -1 : outputSize.getAsLong();
+        return new Progress(now - startNanos, inputBytes, totalBytes, exchanges, mutants,
+                bytes / seconds, emitted / seconds, output, last);
+    }
+}
@@ -0,0 +1,116 @@
+package es.us.isa.httpmutator.core.model;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Endpoint keys of exchanges: the request method and a templated path, e.g.
+ * {@code GET /users/{id}/orders}.
+ *
+ * <p>Query and host are ignored, and path segments that look like identifiers
+ * are replaced by {@value #ID_SEGMENT}, so that {@code /users/1} and
+ * {@code /users/2} are the same endpoint. A segment is an identifier if it is
+ * all digits, a UUID, or a hex string of at least {@value #MIN_HEX_ID_LENGTH}
+ * characters with at least one digit (object ids, hashes).</p>
+ *
+ * <p>Every component that groups by endpoint (partitioned output, coverage,
+ * corpus profiles) uses these keys, so they agree with each other.</p>
+ */
+public final class Endpoints {
+
+    /** Key of exchanges without a request or URL. */
+    public static final String UNKNOWN = "unknown";
+
+    /** Replacement of identifier segments. */
+    public static final String ID_SEGMENT = "{id}";
+
+    public static final int MIN_HEX_ID_LENGTH = 8;
+
+    private Endpoints() {
+        // utility class
+    }
+
+    /**
+     * @return the endpoint key of {@code exchange}, e.g. {@code GET /users/{id}},
+     *         or {@link #UNKNOWN} if it has no request URL
+     */
+    public static String keyOf(HttpExchange exchange) {
+        StandardHttpRequest request = exchange == null ? null : exchange.getRequest();
+        if (request == null || request.getUrl() == null) {
+            return UNKNOWN;
+        }
+        String path;
+        try {
+            path = new URI(request.getUrl()).getRawPath();
+        } catch (URISyntaxException e) {
+            path = null;
+        }
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        return request.getMethod() + " " + templatePath(path);
+    }
+
+    /** @return {@code path} with its identifier segments replaced by {@value #ID_SEGMENT} */
+    public static String templatePath(String path) {
+        StringBuilder sb = null;
+        int start = 0;
+        int n = path.length();
+        for (int i = 0; i <= n; i++) {
+            if (i < n && path.charAt(i) != '/') {
+                continue;
+            }
+            if (isId(path, start, i)) {
+                if (sb == null) {
+                    sb = new StringBuilder(n).append(path, 0, start);
+                }
+                sb.append(ID_SEGMENT);
+            } else if (sb != null) {
+                sb.append(path, start, i);
+            }
+            if (sb != null && i < n) {
+                sb.append('/');
+            }
+            start = i + 1;
+        }
+        return sb == null ? path : sb.toString();
+    }
+
+    /** @return true if {@code s[from, to)} is an identifier segment */
+    static boolean isId(String s, int from, int to) {
+        int length = to - from;
+        if (length == 0) {
+            return false;
+        }
+        boolean digits = true;
+        boolean hex = true;
+        boolean anyDigit = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            anyDigit |= digit;
+            digits &= digit;
+            hex &= digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        }
+        return digits
+                || (hex && anyDigit && length >= MIN_HEX_ID_LENGTH)
+                || isUuid(s, from, to);
+    }
+
+    private static boolean isUuid(String s, int from, int to) {
+        if (to - from != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = s.charAt(from + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -4,7 +4,8 @@
 package es.us.isa.httpmutator.core.model;
 
 import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a single HTTP interaction (request–response pair) in a unified,
@@ -34,6 +35,16 @@ import java.util.UUID;
  */
 public final class HttpExchange {
 
+    /**
+     * Random per-process prefix of generated ids, so that runs do not collide.
+     * Generated ids therefore differ between runs; {@code HttpMutator} derives
+     * mutant ids of such exchanges from their position in the run instead
+     * (see {@link #hasGeneratedId()}).
+     */
+    private static final String ID_PREFIX =
+            "ex-" + Long.toHexString(ThreadLocalRandom.current().nextLong() ^ System.nanoTime()) + "-";
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
     /** Canonical HTTP request (may be null depending on input format). */
     private final StandardHttpRequest request;
 
@@ -43,6 +54,9 @@ public final class HttpExchange {
     /** Stable identifier for correlation across readers/writers. */
     private final String id;
 
+    /** Whether {@link #id} was generated because the input had none. */
+    private final boolean generatedId;
+
     /**
      * Constructs a canonical HTTP exchange.
      *
@@ -58,11 +72,8 @@ public final class HttpExchange {
         this.response = Objects.requireNonNull(response, "response must not be null");
 
         // Auto-generate id if missing
-        if (id == null || id.trim().isEmpty()) {
-            this.id = generateId();
-        } else {
-            this.id = id;
-        }
+        this.generatedId = id == null || id.trim().isEmpty();
+        this.id = generatedId ? generateId() : id;
     }
 
     public HttpExchange(StandardHttpRequest request, StandardHttpResponse response) {
@@ -70,16 +81,12 @@ public final class HttpExchange {
     }
 
     /**
-     * Unique ID generator for HttpExchange.
-     * Current strategy: UUID-based, prefixed for readability.
-     *
-     * Can be replaced later with:
-     * - sequential ID
-     * - SHA-1 hash of request+response
-     * - timestamp-based ID
+     * Unique ID generator for HttpExchange: {@code ex-<random process prefix>-<sequence>}.
+     * Unlike {@code UUID.randomUUID()} it does not draw from {@code SecureRandom}
+     * for every exchange without an id.
      */
     private static String generateId() {
-        return "ex-" + UUID.randomUUID();
+        return ID_PREFIX + ID_SEQUENCE.incrementAndGet();
     }
 
     public StandardHttpRequest getRequest() {
@@ -93,4 +100,9 @@ public final class HttpExchange {
     public String getId() {
         return id;
     }
+
+    /** @return true if the id was generated (random per process) rather than given by the input */
+    public boolean hasGeneratedId() {
+        return generatedId;
+    }
 }
\ No newline at end of file
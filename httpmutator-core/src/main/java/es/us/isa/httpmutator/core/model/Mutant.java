@@ -13,7 +13,16 @@ import es.us.isa.httpmutator.core.AbstractOperator;
  * Immutable: all fields are final and cannot be changed after construction.
  *
  * Stores the JSONPath of the original node and the classes of the mutator and
- * operator used.
+ * operator used, and optionally a stable 64-bit id ({@link MutantId}) assigned
+ * by {@code HttpMutator} once the mutant is selected. The id is not part of
+ * {@link #equals(Object)} and cannot shortcut it: it identifies where a mutant
+ * came from (seed, exchange id, path, operator), not what it contains. Equal
+ * mutants of exchanges with different ids (or with generated ids) get different
+ * ids, while exchanges sharing an input id get the same ids for the same
+ * path and operator even if their mutated trees differ, so equality has to
+ * compare the trees.
+ * {@link #hashCode()} leaves out the mutated tree, so hashing a mutant does not
+ * walk it.
  *
  * author: Lixin Xu
  */
@@ -32,6 +41,9 @@ public final class Mutant {
     /** The class of the operator used to perform the mutation. */
     private final Class<? extends AbstractOperator> operatorClass;
 
+    /** Stable id, or {@link MutantId#NONE} if not assigned. */
+    private final long id;
+
     /**
      * Constructs a new Mutant instance.
      *
@@ -44,10 +56,19 @@ public final class Mutant {
             JsonNode mutatedNode,
             Class<? extends AbstractMutator> mutatorClass,
             Class<? extends AbstractOperator> operatorClass) {
+        this(originalJsonPath, mutatedNode, mutatorClass, operatorClass, MutantId.NONE);
+    }
+
+    private Mutant(String originalJsonPath,
+            JsonNode mutatedNode,
+            Class<? extends AbstractMutator> mutatorClass,
+            Class<? extends AbstractOperator> operatorClass,
+            long id) {
         this.originalJsonPath = Objects.requireNonNull(originalJsonPath, "originalJsonPath must not be null");
         this.mutatedNode = Objects.requireNonNull(mutatedNode, "mutatedNode must not be null");
         this.mutatorClass = Objects.requireNonNull(mutatorClass, "mutatorClass must not be null");
         this.operatorClass = Objects.requireNonNull(operatorClass, "operatorClass must not be null");
+        this.id = id;
     }
 
     /** @return the JSONPath of the node before mutation */
@@ -86,9 +107,23 @@ public final class Mutant {
         return operatorClass;
     }
 
+    /** @return the stable id, or {@link MutantId#NONE} if not assigned */
+    public long getId() {
+        return id;
+    }
+
+    public boolean hasId() {
+        return id != MutantId.NONE;
+    }
+
+    /** @return a mutant sharing this one's mutated node, with the given id */
+    public Mutant withId(long id) {
+        return id == this.id ? this : new Mutant(originalJsonPath, mutatedNode, mutatorClass, operatorClass, id);
+    }
+
     public Mutant deepCopy() {
         JsonNode nodeCopy = mutatedNode.deepCopy();
-        return new Mutant(originalJsonPath, nodeCopy, mutatorClass, operatorClass);
+        return new Mutant(originalJsonPath, nodeCopy, mutatorClass, operatorClass, id);
     }
 
     @Override
@@ -106,12 +141,13 @@ public final class Mutant {
 
     @Override
     public int hashCode() {
-        return Objects.hash(originalJsonPath, mutatedNode, mutatorClass, operatorClass);
+        return Objects.hash(originalJsonPath, mutatorClass, operatorClass);
     }
 
     @Override
     public String toString() {
         return "Mutant{" +
+                (hasId() ? "id=" + MutantId.toHex(id) + ", " : "") +
                 "originalJsonPath='" + originalJsonPath + '\'' +
                 ", mutatorClass=" + mutatorClass.getSimpleName() +
                 ", operatorClass=" + operatorClass.getSimpleName() +
@@ -0,0 +1,97 @@
+package es.us.isa.httpmutator.core.model;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stable 64-bit mutant identifiers.
+ *
+ * <p>An id is the murmur3 hash of the random seed, the exchange id, the
+ * mutant's original JSON path, its mutator and operator class names, and an
+ * occurrence number that tells apart mutants sharing all of those within one
+ * exchange. The same input mutated with the same seed and configuration
+ * therefore yields the same ids, so outputs, reports and kill results can be
+ * joined on a single {@code long}. Ids are only unique if exchange ids are:
+ * exchanges sharing an input id give their mutants the same ids (keyed by the
+ * input id, not by the position of the exchange, so that reordering the input
+ * does not change them). Ids are written as 16 lowercase hex digits
+ * ({@link #toHex(long)}), which JSON consumers cannot round to a double.</p>
+ *
+ * <p>Exchanges without an id in the input get a random per-process one
+ * ({@link HttpExchange#hasGeneratedId()}), which would make their mutant ids
+ * differ on every run. Their ids use the exchange's ordinal in the run
+ * instead ({@link #of(long, long, Mutant, int)}), which is stable as long as
+ * the input order is.</p>
+ *
+ * <p>{@link #NONE} (0) means "not assigned"; derived ids are never 0.</p>
+ */
+public final class MutantId {
+
+    /** Id of a mutant that was not assigned one. */
+    public static final long NONE = 0L;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private MutantId() {
+        // utility class
+    }
+
+    /**
+     * @param seed       random seed of the run
+     * @param exchangeId id of the exchange the mutant belongs to (may be null)
+     * @param mutant     the mutant
+     * @param occurrence 0 for the first mutant of this exchange with the same path,
+     *                   mutator and operator, 1 for the next one, ...
+     * @return the mutant's id, never {@link #NONE}
+     */
+    public static long of(long seed, String exchangeId, Mutant mutant, int occurrence) {
+        return of(HASH.newHasher()
+                .putLong(seed)
+                .putString(exchangeId == null ? "" : exchangeId, StandardCharsets.UTF_8), mutant, occurrence);
+    }
+
+    /**
+     * Id of a mutant of an exchange identified by its position in the run, for
+     * exchanges whose id was generated.
+     *
+     * @param exchangeOrdinal 0 for the first exchange of the run, 1 for the next one, ...
+     */
+    public static long of(long seed, long exchangeOrdinal, Mutant mutant, int occurrence) {
+        // '\1' keeps these apart from the ids of exchanges with an input id
+        return of(HASH.newHasher()
+                .putLong(seed)
+                .putChar('\1')
+                .putLong(exchangeOrdinal), mutant, occurrence);
+    }
+
+    private static long of(Hasher exchange, Mutant mutant, int occurrence) {
+        long id = exchange
+                .putChar('\0')
+                .putString(mutant.getOriginalJsonPath(), StandardCharsets.UTF_8)
+                .putChar('\0')
+                .putString(mutant.getMutatorClass().getName(), StandardCharsets.UTF_8)
+                .putChar('\0')
+                .putString(mutant.getOperatorClass().getName(), StandardCharsets.UTF_8)
+                .putInt(occurrence)
+                .hash()
+                .asLong();
+        return id == NONE ? 1L : id;
+    }
+
+    /** @return {@code id} as 16 lowercase hex digits */
+    public static String toHex(long id) {
+        String hex = Long.toHexString(id);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    /** Parses an id written by {@link #toHex(long)}. */
+    public static long parseHex(String hex) {
+        if (hex == null || hex.isEmpty() || hex.length() > 16) {
+            throw new IllegalArgumentException("Not a mutant id: " + hex);
+        }
+        return Long.parseUnsignedLong(hex, 16);
+    }
+}
@@ -0,0 +1,141 @@
+package es.us.isa.httpmutator.core.reader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Declarative selection criteria for the exchanges produced by an
+ * {@link HttpExchangeReader}.
+ *
+ * <p>A filter is evaluated by {@link JsonlExchangeReader} and
+ * {@link HarExchangeReader} during a lightweight token pre-scan of each record,
+ * <em>before</em> the record is turned into a tree or a
+ * {@link es.us.isa.httpmutator.core.model.StandardHttpResponse}. Rejected
+ * records are skipped at token level, so they cost neither a full parse nor a
+ * conversion.</p>
+ *
+ * <h2>Criteria</h2>
+ * <ul>
+ *     <li>{@link #withStatusRange(int, int)}: inclusive status code range.</li>
+ *     <li>{@link #withContentType(String...)}: accepted media types, compared
+ *         case-insensitively and ignoring parameters such as {@code charset}.
+ *         A trailing {@code /*} matches a whole family (e.g. {@code "text/*"}).</li>
+ *     <li>{@link #withUrlPattern(String)}: regular expression that must be found
+ *         in the request URL. Records without a URL (canonical JSONL lines with no
+ *         top-level {@code "url"} field) are rejected.</li>
+ *     <li>{@link #withBodySizeRange(long, long)}: inclusive range for the body
+ *         size. For HAR this is {@code content.size} (falling back to the length
+ *         of {@code content.text}); for JSONL it is the serialized length of the
+ *         {@code "Body"} value in characters.</li>
+ * </ul>
+ *
+ * <p>All configured criteria must hold for a record to be accepted. A filter with
+ * no criteria accepts everything.</p>
+ *
+ * <h2>Example</h2>
+ * <pre>
+ * ExchangeFilter only2xxJson = new ExchangeFilter()
+ *         .withStatusRange(200, 299)
+ *         .withContentType("application/json");
+ * HttpExchangeReader reader = new JsonlExchangeReader(only2xxJson);
+ * </pre>
+ */
+public final class ExchangeFilter {
+
+    private int minStatus = Integer.MIN_VALUE;
+    private int maxStatus = Integer.MAX_VALUE;
+
+    /** Lower-cased media types; entries ending in "/" match a whole family. */
+    private final List<String> contentTypes = new ArrayList<>();
+
+    private Pattern urlPattern;
+
+    private long minBodySize = Long.MIN_VALUE;
+    private long maxBodySize = Long.MAX_VALUE;
+
+    public ExchangeFilter withStatusRange(int minInclusive, int maxInclusive) {
+        if (minInclusive > maxInclusive) {
+            throw new IllegalArgumentException("minInclusive must be <= maxInclusive");
+        }
+        this.minStatus = minInclusive;
+        this.maxStatus = maxInclusive;
+        return this;
+    }
+
+    public ExchangeFilter withContentType(String... mediaTypes) {
+        Objects.requireNonNull(mediaTypes, "mediaTypes must not be null");
+        for (String mediaType : mediaTypes) {
+            Objects.requireNonNull(mediaType, "mediaType must not be null");
+            String normalized = normalizeMediaType(mediaType);
+            if (normalized.endsWith("/*")) {
+                normalized = normalized.substring(0, normalized.length() - 1);
+            }
+            contentTypes.add(normalized);
+        }
+        return this;
+    }
+
+    public ExchangeFilter withUrlPattern(String regex) {
+        Objects.requireNonNull(regex, "regex must not be null");
+        return withUrlPattern(Pattern.compile(regex));
+    }
+
+    public ExchangeFilter withUrlPattern(Pattern pattern) {
+        this.urlPattern = Objects.requireNonNull(pattern, "pattern must not be null");
+        return this;
+    }
+
+    public ExchangeFilter withBodySizeRange(long minInclusive, long maxInclusive) {
+        if (minInclusive > maxInclusive) {
+            throw new IllegalArgumentException("minInclusive must be <= maxInclusive");
+        }
+        this.minBodySize = minInclusive;
+        this.maxBodySize = maxInclusive;
+        return this;
+    }
+
+    /**
+     * Evaluates the filter against the values extracted by a pre-scan.
+     *
+     * @param statusCode  response status code ({@code 0} if absent)
+     * @param contentType response media type, or {@code null} if absent
+     * @param url         request URL, or {@code null} if absent
+     * @param bodySize    body size as defined in the class documentation
+     * @return {@code true} if every configured criterion holds
+     */
+    public boolean test(int statusCode, String contentType, String url, long bodySize) {
+        if (statusCode < minStatus || statusCode > maxStatus) {
+            return false;
+        }
+        if (bodySize < minBodySize || bodySize > maxBodySize) {
+            return false;
+        }
+        if (!contentTypes.isEmpty() && !matchesContentType(contentType)) {
+            return false;
+        }
+        return urlPattern == null || (url != null && urlPattern.matcher(url).find());
+    }
+
+    private boolean matchesContentType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String actual = normalizeMediaType(contentType);
+        for (String expected : contentTypes) {
+            if (expected.endsWith("/") ? actual.startsWith(expected) : actual.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Strips parameters ({@code ; charset=...}) and lower-cases the media type. */
+    private static String normalizeMediaType(String raw) {
+        int semicolon = raw.indexOf(';');
+        String mediaType = semicolon >= 0 ? raw.substring(0, semicolon) : raw;
+        return mediaType.trim().toLowerCase(Locale.ROOT);
+    }
+}
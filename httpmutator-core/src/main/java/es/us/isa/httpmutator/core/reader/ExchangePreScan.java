@@ -0,0 +1,222 @@
+package es.us.isa.httpmutator.core.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Token-level extraction of the few fields an {@link ExchangeFilter} needs.
+ *
+ * <p>Both scans walk the record once with a {@link JsonParser}, reading scalars
+ * of interest and calling {@link JsonParser#skipChildren()} on everything else.
+ * No {@code JsonNode} is created.</p>
+ */
+final class ExchangePreScan {
+
+    private ExchangePreScan() {
+        // utility class
+    }
+
+    /**
+     * Pre-scans one canonical JSONL line ({@code "Status Code"}, {@code "Headers"},
+     * {@code "Body"} and optional top-level {@code "url"}).
+     *
+     * <p>Lines that are not a well-formed JSON object are accepted, so that the full
+     * parse reports them with its usual error message.</p>
+     */
+    static boolean acceptsCanonical(JsonFactory factory, String line, ExchangeFilter filter) throws IOException {
+        try (JsonParser p = factory.createParser(line)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return true;
+            }
+
+            int status = 0;
+            String contentType = null;
+            String url = null;
+            long bodySize = 0;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "Status Code":
+                        status = value.isScalarValue() ? p.getValueAsInt(0) : 0;
+                        break;
+                    case "Headers":
+                        if (value == JsonToken.START_OBJECT) {
+                            contentType = scanCanonicalContentType(p);
+                        }
+                        break;
+                    case "Body":
+                        bodySize = serializedLength(p, value);
+                        break;
+                    case "url":
+                        url = value == JsonToken.VALUE_STRING ? p.getText() : null;
+                        break;
+                    default:
+                        break;
+                }
+                p.skipChildren();
+            }
+
+            return filter.test(status, contentType, url, bodySize);
+        } catch (JsonProcessingException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Pre-scans one HAR {@code log.entries[*]} element. {@code p} must be a fresh
+     * parser over the entry (typically a {@code TokenBuffer} copy).
+     */
+    static boolean acceptsHarEntry(JsonParser p, ExchangeFilter filter) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            return true;
+        }
+
+        HarProbe probe = new HarProbe();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if (value == JsonToken.START_OBJECT && "request".equals(field)) {
+                scanHarRequest(p, probe);
+            } else if (value == JsonToken.START_OBJECT && "response".equals(field)) {
+                scanHarResponse(p, probe);
+            } else {
+                p.skipChildren();
+            }
+        }
+
+        String contentType = probe.mimeType != null ? probe.mimeType : probe.headerContentType;
+        long bodySize = probe.contentSize >= 0 ? probe.contentSize : Math.max(probe.textLength, 0);
+        return filter.test(probe.status, contentType, probe.url, bodySize);
+    }
+
+    // ===================== canonical helpers =====================
+
+    private static String scanCanonicalContentType(JsonParser p) throws IOException {
+        String contentType = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if (contentType == null && "content-type".equalsIgnoreCase(name)) {
+                if (value == JsonToken.VALUE_STRING) {
+                    contentType = p.getText();
+                } else if (value == JsonToken.START_ARRAY) {
+                    // multi-valued header: take the first textual value
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        if (contentType == null && p.currentToken() == JsonToken.VALUE_STRING) {
+                            contentType = p.getText();
+                        }
+                        p.skipChildren();
+                    }
+                    continue;
+                }
+            }
+            p.skipChildren();
+        }
+        return contentType;
+    }
+
+    /**
+     * Length of the current value as it appears in the source: text length for
+     * strings, {@code 0} for {@code null}, character span for objects and arrays.
+     * Leaves the parser on the last token of the value.
+     */
+    private static long serializedLength(JsonParser p, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return 0;
+        }
+        if (value.isScalarValue()) {
+            return p.getTextLength();
+        }
+        long start = p.getTokenLocation().getCharOffset();
+        p.skipChildren();
+        return p.getCurrentLocation().getCharOffset() - start;
+    }
+
+    // ===================== HAR helpers =====================
+
+    private static final class HarProbe {
+        int status = 0;
+        String url;
+        String mimeType;
+        String headerContentType;
+        long contentSize = -1;
+        long textLength = -1;
+    }
+
+    private static void scanHarRequest(JsonParser p, HarProbe probe) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if ("url".equals(field) && value == JsonToken.VALUE_STRING) {
+                probe.url = p.getText();
+            }
+            p.skipChildren();
+        }
+    }
+
+    private static void scanHarResponse(JsonParser p, HarProbe probe) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if ("status".equals(field) && value.isScalarValue()) {
+                probe.status = p.getValueAsInt(0);
+            } else if ("headers".equals(field) && value == JsonToken.START_ARRAY) {
+                scanHarHeaders(p, probe);
+            } else if ("content".equals(field) && value == JsonToken.START_OBJECT) {
+                scanHarContent(p, probe);
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    private static void scanHarHeaders(JsonParser p, HarProbe probe) throws IOException {
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            String name = null;
+            String value = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken token = p.nextToken();
+                if (token == JsonToken.VALUE_STRING) {
+                    if ("name".equals(field)) {
+                        name = p.getText();
+                    } else if ("value".equals(field)) {
+                        value = p.getText();
+                    }
+                }
+                p.skipChildren();
+            }
+            if (probe.headerContentType == null && "content-type".equalsIgnoreCase(name)) {
+                probe.headerContentType = value;
+            }
+        }
+        // Non-object array elements (malformed headers) are skipped with the array.
+        if (p.currentToken() != JsonToken.END_ARRAY) {
+            p.skipChildren();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                p.skipChildren();
+            }
+        }
+    }
+
+    private static void scanHarContent(JsonParser p, HarProbe probe) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if ("mimeType".equals(field) && value == JsonToken.VALUE_STRING) {
+                probe.mimeType = p.getText();
+            } else if ("size".equals(field) && value.isNumeric()) {
+                probe.contentSize = p.getLongValue();
+            } else if ("text".equals(field) && value == JsonToken.VALUE_STRING) {
+                probe.textLength = p.getTextLength();
+            }
+            p.skipChildren();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package es.us.isa.httpmutator.core.reader;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.collect.AbstractIterator;
 import es.us.isa.httpmutator.core.converter.ConversionException;
 import es.us.isa.httpmutator.core.converter.impl.HarConverter;
 import es.us.isa.httpmutator.core.model.HttpExchange;
@@ -11,7 +15,9 @@ import es.us.isa.httpmutator.core.model.StandardHttpResponse;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.util.function.Consumer;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Objects;
 
 /**
  * A {@link HttpExchangeReader} implementation that reads HTTP interactions from
@@ -25,7 +31,7 @@ import java.util.function.Consumer;
  *
  * <h2>Key Responsibilities</h2>
  * <ul>
- *     <li>Read and parse the HAR JSON structure.</li>
+ *     <li>Tokenize the HAR JSON structure incrementally up to {@code log.entries}.</li>
  *     <li>For each {@code log.entries[*]} element:
  *         <ul>
  *             <li>Extract {@code entry.request} and convert it to
@@ -41,8 +47,8 @@ import java.util.function.Consumer;
  *             <li>Assign a stable ID (HAR entry {@code id} if present, otherwise index).</li>
  *         </ul>
  *     </li>
- *     <li>Stream each {@link HttpExchange} to the provided consumer without
- *         holding all entries in memory.</li>
+ *     <li>Stream each {@link HttpExchange} to the provided consumer (or return it
+ *         from {@link #iterator(Reader)}) without holding all entries in memory.</li>
  * </ul>
  *
  * <h2>Normalization</h2>
@@ -52,6 +58,12 @@ import java.util.function.Consumer;
  * {@link StandardHttpRequest} and {@link StandardHttpResponse} expected by
  * {@code HttpMutatorEngine} and downstream writers.</p>
  *
+ * <h2>Filtering</h2>
+ * <p>When constructed with an {@link ExchangeFilter}, each entry is copied into a
+ * token buffer and pre-scanned ({@code request.url}, {@code response.status},
+ * content type and size). Rejected entries never become trees nor go through
+ * {@link HarConverter}. Ids of accepted entries keep their original index.</p>
+ *
  * <h2>Failure Behavior</h2>
  * <ul>
  *     <li>Malformed HAR input results in {@link IOException}.</li>
@@ -73,55 +85,128 @@ public class HarExchangeReader implements HttpExchangeReader {
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final HarConverter converter = new HarConverter();
 
+    /** Optional pre-scan filter; {@code null} accepts every entry. */
+    private final ExchangeFilter filter;
+
+    public HarExchangeReader() {
+        this.filter = null;
+    }
+
+    public HarExchangeReader(ExchangeFilter filter) {
+        this.filter = Objects.requireNonNull(filter, "filter must not be null");
+    }
+
+    /**
+     * Returns a lazy cursor over {@code log.entries[*]}. The HAR document is
+     * tokenized incrementally: only the entry being returned is materialized as a
+     * tree, so memory stays bounded by the largest single entry.
+     */
     @Override
-    public void read(Reader in, Consumer<HttpExchange> consumer) throws IOException {
+    public Iterator<HttpExchange> iterator(Reader in) throws IOException {
+        Objects.requireNonNull(in, "reader must not be null");
 
-        JsonNode root = objectMapper.readTree(
+        JsonParser parser = objectMapper.getFactory().createParser(
                 in instanceof BufferedReader ? in : new BufferedReader(in)
         );
+        // The caller owns the Reader
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 
-        JsonNode entries = root.path("log").path("entries");
-
-        if (!entries.isArray()) {
+        if (!seekToEntries(parser)) {
             throw new IOException("Invalid HAR: expected log.entries array");
         }
 
-        int index = 0;
-        for (JsonNode entry : entries) {
-            index++;
+        return new AbstractIterator<HttpExchange>() {
+            private int index = 0;
 
-            JsonNode rawRequestNode  = entry.path("request");
-            JsonNode rawResponseNode = entry.path("response");
+            @Override
+            protected HttpExchange computeNext() {
+                try {
+                    JsonToken token;
+                    while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                        index++;
+                        if (filter == null) {
+                            JsonNode entry = parser.readValueAsTree();
+                            return toExchange(entry, index);
+                        }
 
-            // Convert HAR request -> StandardHttpRequest (may be null)
-            StandardHttpRequest canonicalRequest = null;
-            try {
-                if (rawRequestNode != null && !rawRequestNode.isMissingNode() && !rawRequestNode.isNull()) {
-                    canonicalRequest = converter.toStandardRequest(rawRequestNode);
+                        TokenBuffer buffer = new TokenBuffer(parser);
+                        buffer.copyCurrentStructure(parser);
+                        if (ExchangePreScan.acceptsHarEntry(buffer.asParser(), filter)) {
+                            JsonNode entry = objectMapper.readTree(buffer.asParser());
+                            return toExchange(entry, index);
+                        }
+                    }
+                    if (token != JsonToken.END_ARRAY) {
+                        throw new IOException("Invalid HAR: log.entries[" + index + "] is not an object, got " + token);
+                    }
+                    // END_ARRAY of log.entries; the rest of the document is irrelevant
+                    return endOfData();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-            } catch (ConversionException e) {
-                throw new IOException("Failed to convert HAR request at index " + index, e);
             }
+        };
+    }
 
-            // Convert HAR response -> StandardHttpResponse (required)
-            StandardHttpResponse canonicalResponse;
-            try {
-                canonicalResponse = converter.toStandardResponse(rawResponseNode);
-            } catch (ConversionException e) {
-                throw new IOException("Failed to convert HAR response at index " + index, e);
-            }
-            if (canonicalResponse == null) {
-                throw new IOException("HAR entry missing valid response at index " + index);
+    /**
+     * Advances {@code parser} to the {@code START_ARRAY} token of {@code log.entries},
+     * skipping every other member of the document.
+     *
+     * @return {@code true} if the array was found
+     */
+    private static boolean seekToEntries(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String rootField = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("log".equals(rootField) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String logField = parser.getCurrentName();
+                    JsonToken logValue = parser.nextToken();
+                    if ("entries".equals(logField)) {
+                        return logValue == JsonToken.START_ARRAY;
+                    }
+                    parser.skipChildren();
+                }
+                return false;
             }
+            parser.skipChildren();
+        }
+        return false;
+    }
 
-            // Resolve entry ID (use explicit HAR id if present)
-            String id = entry.has("id")
-                    ? entry.get("id").asText()
-                    : String.valueOf(index);
+    private HttpExchange toExchange(JsonNode entry, int index) throws IOException {
+        JsonNode rawRequestNode  = entry.path("request");
+        JsonNode rawResponseNode = entry.path("response");
 
-            HttpExchange exchange = new HttpExchange(canonicalRequest, canonicalResponse, id);
+        // Convert HAR request -> StandardHttpRequest (may be null)
+        StandardHttpRequest canonicalRequest = null;
+        try {
+            if (rawRequestNode != null && !rawRequestNode.isMissingNode() && !rawRequestNode.isNull()) {
+                canonicalRequest = converter.toStandardRequest(rawRequestNode);
+            }
+        } catch (ConversionException e) {
+            throw new IOException("Failed to convert HAR request at index " + index, e);
+        }
 
-            consumer.accept(exchange);
+        // Convert HAR response -> StandardHttpResponse (required)
+        StandardHttpResponse canonicalResponse;
+        try {
+            canonicalResponse = converter.toStandardResponse(rawResponseNode);
+        } catch (ConversionException e) {
+            throw new IOException("Failed to convert HAR response at index " + index, e);
+        }
+        if (canonicalResponse == null) {
+            throw new IOException("HAR entry missing valid response at index " + index);
         }
+
+        // Resolve entry ID (use explicit HAR id if present)
+        String id = entry.has("id")
+                ? entry.get("id").asText()
+                : String.valueOf(index);
+
+        return new HttpExchange(canonicalRequest, canonicalResponse, id);
     }
-}
\ No newline at end of file
+}
@@ -3,8 +3,17 @@ package es.us.isa.httpmutator.core.reader;
 import es.us.isa.httpmutator.core.model.HttpExchange;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A reader that streams HTTP interactions ({@link HttpExchange}) from an input source.
@@ -31,8 +40,31 @@ import java.util.function.Consumer;
  *     <li>Ensure that each {@link HttpExchange} contains a non-null canonical response.</li>
  * </ul>
  *
+ * <h2>Push and pull styles</h2>
+ * Exchanges can be consumed in two ways:
+ * <ul>
+ *     <li>Push: {@link #read(Reader, Consumer)} feeds every exchange to a callback.</li>
+ *     <li>Pull: {@link #iterator(Reader)} returns a cursor that parses one exchange
+ *         per {@code next()} call, so callers control pacing, can stop early and
+ *         can batch exchanges. {@link #spliterator(Reader, int)} and
+ *         {@link #stream(Reader, boolean)} build on the cursor to hand the input
+ *         to {@code java.util.stream} pipelines, including parallel ones.</li>
+ * </ul>
+ * Implementations provide {@link #iterator(Reader)}; the default {@code read}
+ * drains it. A push-only source can still be adapted by returning a cursor that
+ * parses on demand.
+ *
+ * <h2>Byte input</h2>
+ * {@link #read(InputStream, Consumer)} and {@link #iterator(InputStream)} accept
+ * raw bytes, and {@link #spliterator(InputStream, int)} and
+ * {@link #stream(InputStream, boolean)} build on the latter. Text formats decode
+ * the bytes as UTF-8 and delegate to the {@link Reader} methods; binary formats
+ * (e.g. {@code SmileExchangeReader}) override the two base methods instead.
+ *
  * <h2>Error Handling</h2>
  * Implementations may throw {@link IOException} for input or parsing errors.
+ * Since {@link Iterator} methods cannot throw checked exceptions, pull-style
+ * cursors report them as {@link UncheckedIOException}.
  *
  * <h2>Example Implementations</h2>
  * <ul>
@@ -45,13 +77,130 @@ import java.util.function.Consumer;
  */
 public interface HttpExchangeReader {
 
+    /**
+     * Default number of exchanges handed to each split of {@link #spliterator(Reader)}.
+     * Exchanges are coarse work units, so small batches keep parallel pipelines balanced.
+     */
+    int DEFAULT_SPLIT_BATCH_SIZE = 64;
+
     /**
      * Reads HTTP interactions from the input and streams each interaction as an
      * {@link HttpExchange} to the provided {@code consumer}.
      *
+     * <p>The default implementation drains {@link #iterator(Reader)}.</p>
+     *
      * @param in       the input source (streamed)
      * @param consumer callback invoked for each parsed {@link HttpExchange}
      * @throws IOException if an input or parsing error occurs
      */
-    void read(Reader in, Consumer<HttpExchange> consumer) throws IOException;
-}
\ No newline at end of file
+    default void read(Reader in, Consumer<HttpExchange> consumer) throws IOException {
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        Iterator<HttpExchange> it = iterator(in);
+        while (true) {
+            HttpExchange exchange;
+            try {
+                if (!it.hasNext()) {
+                    return;
+                }
+                exchange = it.next();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            consumer.accept(exchange);
+        }
+    }
+
+    /**
+     * Opens a pull-style cursor over the exchanges contained in {@code in}.
+     *
+     * <p>Exchanges are parsed lazily, one per {@link Iterator#next()} call. The
+     * cursor does not close {@code in}; the caller keeps ownership of the input.</p>
+     *
+     * @param in the input source (streamed)
+     * @return a lazy iterator over the exchanges of the input
+     * @throws IOException if the input cannot be opened for reading
+     */
+    Iterator<HttpExchange> iterator(Reader in) throws IOException;
+
+    /**
+     * Reads exchanges from a byte stream. The default decodes UTF-8 and delegates
+     * to {@link #read(Reader, Consumer)}; binary formats override it.
+     *
+     * @param in       the input bytes (streamed, not closed)
+     * @param consumer callback invoked for each parsed {@link HttpExchange}
+     * @throws IOException if an input or parsing error occurs
+     */
+    default void read(InputStream in, Consumer<HttpExchange> consumer) throws IOException {
+        Objects.requireNonNull(in, "in must not be null");
+        read(new InputStreamReader(in, StandardCharsets.UTF_8), consumer);
+    }
+
+    /**
+     * Pull-style cursor over a byte stream. The default decodes UTF-8 and
+     * delegates to {@link #iterator(Reader)}; binary formats override it.
+     */
+    default Iterator<HttpExchange> iterator(InputStream in) throws IOException {
+        Objects.requireNonNull(in, "in must not be null");
+        return iterator(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Same as {@link #spliterator(Reader, int)} with {@link #DEFAULT_SPLIT_BATCH_SIZE}.
+     */
+    default Spliterator<HttpExchange> spliterator(Reader in) throws IOException {
+        return spliterator(in, DEFAULT_SPLIT_BATCH_SIZE);
+    }
+
+    /**
+     * Wraps {@link #iterator(Reader)} in a splittable {@link Spliterator}. Each
+     * {@code trySplit()} hands off the next {@code batchSize} exchanges, which lets
+     * the fork/join framework process batches in parallel while this reader keeps
+     * parsing sequentially.
+     *
+     * @param in        the input source (streamed)
+     * @param batchSize number of exchanges per split (must be positive)
+     * @return an ordered, non-null spliterator of unknown size
+     * @throws IOException if the input cannot be opened for reading
+     */
+    default Spliterator<HttpExchange> spliterator(Reader in, int batchSize) throws IOException {
+        return new HttpExchangeSpliterator(iterator(in), batchSize);
+    }
+
+    /**
+     * Same as {@link #spliterator(InputStream, int)} with {@link #DEFAULT_SPLIT_BATCH_SIZE}.
+     */
+    default Spliterator<HttpExchange> spliterator(InputStream in) throws IOException {
+        return spliterator(in, DEFAULT_SPLIT_BATCH_SIZE);
+    }
+
+    /**
+     * Like {@link #spliterator(Reader, int)}, over {@link #iterator(InputStream)}.
+     */
+    default Spliterator<HttpExchange> spliterator(InputStream in, int batchSize) throws IOException {
+        return new HttpExchangeSpliterator(iterator(in), batchSize);
+    }
+
+    /**
+     * Like {@link #stream(Reader, boolean)}, over {@link #spliterator(InputStream)}.
+     */
+    default Stream<HttpExchange> stream(InputStream in, boolean parallel) throws IOException {
+        return StreamSupport.stream(spliterator(in), parallel);
+    }
+
+    /**
+     * Returns a lazy {@link Stream} over the exchanges contained in {@code in}.
+     *
+     * <pre>
+     * // Mutate only the first 100 exchanges of a large trace
+     * reader.stream(in, false).limit(100).forEach(...);
+     * </pre>
+     *
+     * @param in       the input source (streamed)
+     * @param parallel whether the returned stream is parallel
+     * @return a stream backed by {@link #spliterator(Reader)}
+     * @throws IOException if the input cannot be opened for reading
+     */
+    default Stream<HttpExchange> stream(Reader in, boolean parallel) throws IOException {
+        return StreamSupport.stream(spliterator(in), parallel);
+    }
+}
@@ -0,0 +1,76 @@
+package es.us.isa.httpmutator.core.reader;
+
+import es.us.isa.httpmutator.core.model.HttpExchange;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * {@link Spliterator} over a lazy {@link HttpExchange} cursor.
+ *
+ * <p>The underlying input is inherently sequential, so splitting works by
+ * pulling the next {@code batchSize} exchanges into an array and handing that
+ * array off as an independent, sized spliterator. The remaining input stays with
+ * this instance. Unlike {@link Spliterators#spliteratorUnknownSize(Iterator, int)},
+ * whose batches grow to thousands of elements, the batch size is fixed and
+ * configurable, which suits coarse-grained work such as mutating whole exchanges.</p>
+ */
+final class HttpExchangeSpliterator implements Spliterator<HttpExchange> {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+
+    private final Iterator<HttpExchange> it;
+    private final int batchSize;
+
+    HttpExchangeSpliterator(Iterator<HttpExchange> it, int batchSize) {
+        this.it = Objects.requireNonNull(it, "iterator must not be null");
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super HttpExchange> action) {
+        Objects.requireNonNull(action, "action must not be null");
+        if (!it.hasNext()) {
+            return false;
+        }
+        action.accept(it.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super HttpExchange> action) {
+        Objects.requireNonNull(action, "action must not be null");
+        while (it.hasNext()) {
+            action.accept(it.next());
+        }
+    }
+
+    @Override
+    public Spliterator<HttpExchange> trySplit() {
+        if (!it.hasNext()) {
+            return null;
+        }
+        HttpExchange[] batch = new HttpExchange[batchSize];
+        int n = 0;
+        while (n < batchSize && it.hasNext()) {
+            batch[n++] = it.next();
+        }
+        return Spliterators.spliterator(batch, 0, n, CHARACTERISTICS);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
@@ -2,14 +2,16 @@ package es.us.isa.httpmutator.core.reader;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.AbstractIterator;
 import es.us.isa.httpmutator.core.model.HttpExchange;
 import es.us.isa.httpmutator.core.model.StandardHttpResponse;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.Objects;
-import java.util.function.Consumer;
 
 /**
  * Streaming reader for JSONL input (one JSON response per line).
@@ -32,57 +34,87 @@ import java.util.function.Consumer;
  * response = parsed {@link StandardHttpResponse}
  * id       = JSON["id"] or line number
  *
- * <p>Fully streaming, no in-memory accumulation.</p>
+ * <p>Fully streaming, no in-memory accumulation. Lines are only read and
+ * parsed when the consumer (or the {@link #iterator(Reader)} cursor) asks for
+ * the next exchange.</p>
+ *
+ * <p>When constructed with an {@link ExchangeFilter}, each line is first
+ * pre-scanned at token level; lines rejected by the filter are skipped without
+ * building a tree. Ids of accepted lines still refer to their original line
+ * number.</p>
  */
 public class JsonlExchangeReader implements HttpExchangeReader {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    /** Optional pre-scan filter; {@code null} accepts every line. */
+    private final ExchangeFilter filter;
+
+    public JsonlExchangeReader() {
+        this.filter = null;
+    }
+
+    public JsonlExchangeReader(ExchangeFilter filter) {
+        this.filter = Objects.requireNonNull(filter, "filter must not be null");
+    }
+
     @Override
-    public void read(Reader in, Consumer<HttpExchange> consumer) throws IOException {
+    public Iterator<HttpExchange> iterator(Reader in) {
         Objects.requireNonNull(in, "reader must not be null");
-        Objects.requireNonNull(consumer, "consumer must not be null");
 
         BufferedReader br = (in instanceof BufferedReader)
                 ? (BufferedReader) in
                 : new BufferedReader(in);
 
-        String line;
-        int lineNumber = 0;
-
-        while ((line = br.readLine()) != null) {
-            lineNumber++;
-
-            if (line.isEmpty()) {
-                continue;
-            }
-
-            JsonNode node;
-            try {
-                node = MAPPER.readTree(line);
-            } catch (Exception e) {
-                throw new IOException("Invalid JSON at line " + lineNumber, e);
-            }
+        return new AbstractIterator<HttpExchange>() {
+            private int lineNumber = 0;
 
-            // Determine id: prefer explicit "id" field, otherwise line number
-            String id;
-            JsonNode idNode = node.get("id");
-            if (idNode != null && !idNode.isNull()) {
-                id = idNode.asText();
-            } else {
-                id = String.valueOf(lineNumber);
+            @Override
+            protected HttpExchange computeNext() {
+                try {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        lineNumber++;
+                        if (line.isEmpty()) {
+                            continue;
+                        }
+                        if (filter == null
+                                || ExchangePreScan.acceptsCanonical(MAPPER.getFactory(), line, filter)) {
+                            return toExchange(line, lineNumber);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return endOfData();
             }
+        };
+    }
 
-            StandardHttpResponse response;
-            try {
-                response = StandardHttpResponse.fromJsonNode(node);
-            } catch (Exception e) {
-                throw new IOException("Invalid canonical StandardHttpResponse at line " + lineNumber, e);
-            }
+    private static HttpExchange toExchange(String line, int lineNumber) throws IOException {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(line);
+        } catch (Exception e) {
+            throw new IOException("Invalid JSON at line " + lineNumber, e);
+        }
 
-            HttpExchange exchange = new HttpExchange(null, response, id);
+        // Determine id: prefer explicit "id" field, otherwise line number
+        String id;
+        JsonNode idNode = node.get("id");
+        if (idNode != null && !idNode.isNull()) {
+            id = idNode.asText();
+        } else {
+            id = String.valueOf(lineNumber);
+        }
 
-            consumer.accept(exchange);
+        StandardHttpResponse response;
+        try {
+            response = StandardHttpResponse.fromJsonNode(node);
+        } catch (Exception e) {
+            throw new IOException("Invalid canonical StandardHttpResponse at line " + lineNumber, e);
         }
+
+        return new HttpExchange(null, response, id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package es.us.isa.httpmutator.core.reader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.AbstractIterator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.MutantId;
+import es.us.isa.httpmutator.core.model.StandardHttpRequest;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.util.JsonPatch;
+import es.us.isa.httpmutator.core.writer.CanonicalJsonl;
+import es.us.isa.httpmutator.core.writer.PatchLogMutantWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for the output of {@link PatchLogMutantWriter}.
+ *
+ * <p>Only the current original response is kept in memory. Each
+ * {@link PatchedMutant} carries its patch and rebuilds the full mutated response
+ * when {@link PatchedMutant#getMutatedResponse()} is called, so callers that
+ * only need the metadata (operator, JSONPath, ...) never pay for the copy.</p>
+ *
+ * <p>Like {@link HttpExchangeReader}, this reader offers a push style
+ * ({@link #read(Reader, Consumer)}) and a pull style ({@link #iterator(Reader)}),
+ * and never closes the input.</p>
+ */
+public class PatchLogReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Feeds every mutant record of {@code in} to {@code consumer}.
+     *
+     * @throws IOException if the input cannot be read or is not a valid patch log
+     */
+    public void read(Reader in, Consumer<PatchedMutant> consumer) throws IOException {
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        Iterator<PatchedMutant> it = iterator(in);
+        while (true) {
+            PatchedMutant mutant;
+            try {
+                if (!it.hasNext()) {
+                    return;
+                }
+                mutant = it.next();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            consumer.accept(mutant);
+        }
+    }
+
+    /**
+     * Opens a lazy cursor over the mutant records of {@code in}. Errors are
+     * reported as {@link UncheckedIOException}.
+     */
+    public Iterator<PatchedMutant> iterator(Reader in) {
+        Objects.requireNonNull(in, "reader must not be null");
+
+        BufferedReader br = (in instanceof BufferedReader)
+                ? (BufferedReader) in
+                : new BufferedReader(in);
+
+        return new AbstractIterator<PatchedMutant>() {
+            private int lineNumber = 0;
+            private HttpExchange exchange;
+            private JsonNode original;
+
+            @Override
+            protected PatchedMutant computeNext() {
+                try {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        lineNumber++;
+                        if (line.isEmpty()) {
+                            continue;
+                        }
+                        JsonNode record = MAPPER.readTree(line);
+                        String type = record.path(PatchLogMutantWriter.META_RECORD).asText();
+
+                        if (PatchLogMutantWriter.RECORD_ORIGINAL.equals(type)) {
+                            readOriginal(record);
+                        } else if (PatchLogMutantWriter.RECORD_MUTANT.equals(type)) {
+                            if (exchange == null) {
+                                throw new IOException("Mutant record without a preceding original at line " + lineNumber);
+                            }
+                            JsonNode patch = record.get(PatchLogMutantWriter.META_PATCH);
+                            if (patch == null || !patch.isArray()) {
+                                throw new IOException("Missing " + PatchLogMutantWriter.META_PATCH + " at line " + lineNumber);
+                            }
+                            return new PatchedMutant(exchange, original, (ArrayNode) patch,
+                                    textOrNull(record, CanonicalJsonl.META_ORIGINAL_JSON_PATH),
+                                    textOrNull(record, CanonicalJsonl.META_MUTATOR),
+                                    textOrNull(record, CanonicalJsonl.META_OPERATOR),
+                                    mutantIdOf(record));
+                        } else {
+                            throw new IOException("Unknown patch log record '" + type + "' at line " + lineNumber);
+                        }
+                    }
+                    return endOfData();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            private void readOriginal(JsonNode record) {
+                ObjectNode response = ((ObjectNode) record).deepCopy();
+                JsonNode request = response.remove(PatchLogMutantWriter.META_REQUEST);
+                String id = textOrNull(response, CanonicalJsonl.META_ORIGINAL_ID);
+                response.remove(PatchLogMutantWriter.META_RECORD);
+                response.remove(CanonicalJsonl.META_ORIGINAL_ID);
+
+                original = response;
+                exchange = new HttpExchange(
+                        request == null || request.isNull() ? null : StandardHttpRequest.fromJsonNode(request),
+                        StandardHttpResponse.fromJsonNode(response),
+                        id);
+            }
+        };
+    }
+
+    private static long mutantIdOf(JsonNode record) {
+        String hex = textOrNull(record, CanonicalJsonl.META_MUTANT_ID);
+        return hex == null ? MutantId.NONE : MutantId.parseHex(hex);
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * One mutant of a patch log: its original exchange, mutation metadata and the
+     * patch that turns the original response into the mutated one.
+     */
+    public static final class PatchedMutant {
+        private final HttpExchange exchange;
+        private final JsonNode original;
+        private final ArrayNode patch;
+        private final String originalJsonPath;
+        private final String mutatorName;
+        private final String operatorName;
+        private final long mutantId;
+
+        PatchedMutant(HttpExchange exchange, JsonNode original, ArrayNode patch,
+                      String originalJsonPath, String mutatorName, String operatorName, long mutantId) {
+            this.exchange = exchange;
+            this.original = original;
+            this.patch = patch;
+            this.originalJsonPath = originalJsonPath;
+            this.mutatorName = mutatorName;
+            this.operatorName = operatorName;
+            this.mutantId = mutantId;
+        }
+
+        /** @return the original exchange (shared by all mutants of the same original record) */
+        public HttpExchange getExchange() {
+            return exchange;
+        }
+
+        /** @return the RFC 6902 operations applied to the original response */
+        public ArrayNode getPatch() {
+            return patch;
+        }
+
+        /** @return the mutated JSONPath, or {@code null} if the writer had no mutant metadata */
+        public String getOriginalJsonPath() {
+            return originalJsonPath;
+        }
+
+        public String getMutatorName() {
+            return mutatorName;
+        }
+
+        public String getOperatorName() {
+            return operatorName;
+        }
+
+        /** @return the mutant's stable id, or {@link MutantId#NONE} if the log has none */
+        public long getMutantId() {
+            return mutantId;
+        }
+
+        /**
+         * Rebuilds the full mutated response by applying the patch to a copy of
+         * the original. Each call builds a new response.
+         */
+        public StandardHttpResponse getMutatedResponse() {
+            return StandardHttpResponse.fromJsonNode(JsonPatch.apply(original, patch));
+        }
+    }
+}
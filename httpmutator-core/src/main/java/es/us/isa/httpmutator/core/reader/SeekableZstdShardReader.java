@@ -0,0 +1,227 @@
+package es.us.isa.httpmutator.core.reader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import es.us.isa.httpmutator.core.writer.ShardedZstdJsonlMutantWriter;
+import es.us.isa.httpmutator.core.writer.ZstdDictionary;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Random-access reader for shards written by {@link ShardedZstdJsonlMutantWriter}
+ * with a frame index.
+ *
+ * <p>On construction the {@code <prefix>-NNNNN.jsonl.zst.idx} sidecars of a
+ * directory are loaded into memory (one small entry per exchange and shard).
+ * Lookups then read only the compressed byte ranges of the requested exchanges
+ * with positional {@link FileChannel} reads and decompress them independently,
+ * which also lets {@link #readLines(Collection, int)} decompress frames in
+ * parallel. A {@code <prefix>.zdict} dictionary in the same directory is picked
+ * up automatically.</p>
+ *
+ * <h2>Index format</h2>
+ * One JSON object per line:
+ * <pre>
+ * {"id":"exchange-1","offset":0,"length":5120,"records":37}
+ * </pre>
+ * An exchange split by shard rotation (or written again later) has several entries.
+ */
+public final class SeekableZstdShardReader {
+
+    public static final String INDEX_EXTENSION = ".idx";
+
+    public static final String INDEX_ID = "id";
+    public static final String INDEX_OFFSET = "offset";
+    public static final String INDEX_LENGTH = "length";
+    public static final String INDEX_RECORDS = "records";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, List<FrameRef>> index = new LinkedHashMap<>();
+    private final byte[] dictionary;
+
+    /**
+     * Loads the frame index of every shard {@code <shardPrefix>-*.jsonl.zst} in {@code dir}.
+     */
+    public SeekableZstdShardReader(Path dir, String shardPrefix) throws IOException {
+        Objects.requireNonNull(dir, "dir must not be null");
+        Objects.requireNonNull(shardPrefix, "shardPrefix must not be null");
+
+        List<Path> indexFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                dir, shardPrefix + "-*.jsonl.zst" + INDEX_EXTENSION)) {
+            for (Path f : files) {
+                indexFiles.add(f);
+            }
+        }
+        Collections.sort(indexFiles);
+
+        for (Path indexFile : indexFiles) {
+            String name = indexFile.getFileName().toString();
+            Path shard = indexFile.resolveSibling(name.substring(0, name.length() - INDEX_EXTENSION.length()));
+            try (BufferedReader r = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    JsonNode e = MAPPER.readTree(line);
+                    index.computeIfAbsent(e.path(INDEX_ID).asText(), k -> new ArrayList<>(1))
+                            .add(new FrameRef(shard,
+                                    e.path(INDEX_OFFSET).asLong(),
+                                    e.path(INDEX_LENGTH).asLong(),
+                                    e.path(INDEX_RECORDS).asLong()));
+                }
+            }
+        }
+
+        Path dictFile = dir.resolve(shardPrefix + ZstdDictionary.FILE_EXTENSION);
+        this.dictionary = Files.exists(dictFile) ? Files.readAllBytes(dictFile) : null;
+    }
+
+    /** @return ids of all indexed exchanges, in shard order */
+    public Set<String> getOriginalIds() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /** @return number of mutant lines stored for {@code originalId} (0 if unknown) */
+    public long getRecordCount(String originalId) {
+        long n = 0;
+        for (FrameRef f : index.getOrDefault(originalId, Collections.emptyList())) {
+            n += f.records;
+        }
+        return n;
+    }
+
+    /**
+     * Decompresses only the frames of {@code originalId} and returns their JSONL
+     * lines (without the trailing newline).
+     *
+     * @return the lines, empty if the id is not indexed
+     */
+    public List<String> readLines(String originalId) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (FrameRef f : index.getOrDefault(originalId, Collections.emptyList())) {
+            lines.addAll(decompress(f));
+        }
+        return lines;
+    }
+
+    /**
+     * Like {@link #readLines(String)} for several ids, decompressing frames on
+     * {@code parallelism} threads. The result keeps the order of {@code originalIds};
+     * unknown ids map to an empty list.
+     */
+    public Map<String, List<String>> readLines(Collection<String> originalIds, int parallelism) throws IOException {
+        Objects.requireNonNull(originalIds, "originalIds must not be null");
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "httpmutator-zstd-seek");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            Map<String, List<Future<List<String>>>> pending = new LinkedHashMap<>();
+            for (String id : originalIds) {
+                List<Future<List<String>>> frames = new ArrayList<>();
+                for (FrameRef f : index.getOrDefault(id, Collections.emptyList())) {
+                    frames.add(pool.submit(() -> decompress(f)));
+                }
+                pending.put(id, frames);
+            }
+
+            Map<String, List<String>> result = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Future<List<String>>>> e : pending.entrySet()) {
+                List<String> lines = new ArrayList<>();
+                for (Future<List<String>> frame : e.getValue()) {
+                    lines.addAll(frame.get());
+                }
+                result.put(e.getKey(), lines);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading frames", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to read frames", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<String> decompress(FrameRef frame) throws IOException {
+        if (frame.length > Integer.MAX_VALUE) {
+            throw new IOException("Frame too large to read at once: " + frame.length + " bytes");
+        }
+        ByteBuffer compressed = ByteBuffer.allocate((int) frame.length);
+        try (FileChannel ch = FileChannel.open(frame.shard, StandardOpenOption.READ)) {
+            long position = frame.offset;
+            while (compressed.hasRemaining()) {
+                int n = ch.read(compressed, position);
+                if (n < 0) {
+                    throw new EOFException("Frame extends past the end of " + frame.shard);
+                }
+                position += n;
+            }
+        }
+
+        List<String> lines = new ArrayList<>((int) Math.min(frame.records, 1 << 16));
+        ZstdInputStream zin = new ZstdInputStream(new ByteArrayInputStream(compressed.array()));
+        if (dictionary != null) {
+            zin.setDict(dictionary);
+        }
+        try (InputStream in = zin;
+             BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /** Location of one indexed frame range. */
+    private static final class FrameRef {
+        final Path shard;
+        final long offset;
+        final long length;
+        final long records;
+
+        FrameRef(Path shard, long offset, long length, long records) {
+            this.shard = shard;
+            this.offset = offset;
+            this.length = length;
+            this.records = records;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package es.us.isa.httpmutator.core.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.collect.AbstractIterator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for Smile (binary JSON) input: a sequence of root-level
+ * objects with the same canonical fields as a JSONL line, such as the output of
+ * {@code SmileMutantWriter}.
+ *
+ * <p>Smile is binary, so only the {@link InputStream} methods are supported
+ * ({@code read}, {@code iterator}, {@code spliterator} and {@code stream}). The
+ * {@link Reader} based ones throw {@link UnsupportedOperationException} as soon
+ * as they are called, before any stream or cursor is built. To read a
+ * {@code .smile.zst} shard, wrap the file stream in a {@code ZstdInputStream}.</p>
+ *
+ * <p>Ids follow {@link JsonlExchangeReader}: the top-level {@code "id"} field if
+ * present, otherwise the 1-based record number.</p>
+ */
+public class SmileExchangeReader implements HttpExchangeReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper(new SmileFactory());
+
+    @Override
+    public void read(InputStream in, Consumer<HttpExchange> consumer) throws IOException {
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        Iterator<HttpExchange> it = iterator(in);
+        while (true) {
+            HttpExchange exchange;
+            try {
+                if (!it.hasNext()) {
+                    return;
+                }
+                exchange = it.next();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            consumer.accept(exchange);
+        }
+    }
+
+    @Override
+    public Iterator<HttpExchange> iterator(InputStream in) throws IOException {
+        Objects.requireNonNull(in, "in must not be null");
+
+        JsonParser parser = MAPPER.getFactory().createParser(in);
+        // The caller keeps ownership of the stream
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+        return new AbstractIterator<HttpExchange>() {
+            private int recordNumber = 0;
+
+            @Override
+            protected HttpExchange computeNext() {
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null) {
+                        parser.close();
+                        return endOfData();
+                    }
+                    recordNumber++;
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new IOException("Expected an object at record " + recordNumber + ", got " + token);
+                    }
+                    return toExchange(MAPPER.readTree(parser), recordNumber);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public Iterator<HttpExchange> iterator(Reader in) {
+        throw new UnsupportedOperationException(
+                "Smile is a binary format: use the InputStream overloads of read, iterator, spliterator or stream");
+    }
+
+    private static HttpExchange toExchange(JsonNode node, int recordNumber) throws IOException {
+        JsonNode idNode = node.get("id");
+        String id = idNode != null && !idNode.isNull() ? idNode.asText() : String.valueOf(recordNumber);
+
+        StandardHttpResponse response;
+        try {
+            response = StandardHttpResponse.fromJsonNode(node);
+        } catch (Exception e) {
+            throw new IOException("Invalid canonical StandardHttpResponse at record " + recordNumber, e);
+        }
+        return new HttpExchange(null, response, id);
+    }
+}
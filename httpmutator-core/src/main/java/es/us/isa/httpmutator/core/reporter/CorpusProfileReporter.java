@@ -0,0 +1,255 @@
+package es.us.isa.httpmutator.core.reporter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import es.us.isa.httpmutator.core.model.Endpoints;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.stats.HyperLogLog;
+import es.us.isa.httpmutator.core.stats.QuantileSketch;
+import es.us.isa.httpmutator.core.stats.SpaceSaving;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Profiles the shape of the traffic being mutated, in memory that does not grow
+ * with the trace: every original response is measured once (when its exchange
+ * finishes) and folded into streaming sketches.
+ *
+ * <ul>
+ *     <li>Body size in bytes, maximum body depth and array lengths:
+ *         {@link QuantileSketch}es (1% relative error).</li>
+ *     <li>Distinct exchange ids, distinct body paths and distinct
+ *         (endpoint, path) pairs: {@link HyperLogLog}s. Paths are templates:
+ *         array indices are collapsed, so {@code /items/0/id} and
+ *         {@code /items/7/id} are one path.</li>
+ *     <li>Value type mix: one counter per JSON node type.</li>
+ *     <li>Most frequent endpoints ({@code METHOD /path}, identifiers templated
+ *         by {@link Endpoints}) and mutator:operator
+ *         pairs of the selected mutants: {@link SpaceSaving} top-K. Each tracked
+ *         endpoint also gets a small HyperLogLog of its distinct paths, dropped
+ *         when the endpoint loses its counter.</li>
+ * </ul>
+ *
+ * <p>{@link #onFinished()} writes the profile as a JSON document. Memory is about
+ * 40 KB plus 1 KB per tracked endpoint ({@code 4 * topK}).</p>
+ *
+ * <p>Thread-safe (methods are synchronized).</p>
+ */
+public class CorpusProfileReporter implements MutantReporter {
+
+    public static final int DEFAULT_TOP_K = 20;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long ROOT_PATH = 0x5bd1e995L;
+    private static final long ARRAY_ELEMENT = 0x9E3779B97F4A7C15L;
+    private static final int ENDPOINT_PATHS_PRECISION = 10;
+    private static final int STACK_CAPACITY = 64;
+    private static final int MAX_KEPT_STACK = 4096;
+
+    private final Path outputFile;
+    private final int topK;
+
+    private long exchanges = 0;
+    private final QuantileSketch bodyBytes = new QuantileSketch();
+    private final QuantileSketch bodyDepth = new QuantileSketch();
+    private final QuantileSketch arrayLengths = new QuantileSketch();
+    private final long[] valueTypes = new long[JsonNodeType.values().length];
+
+    private final HyperLogLog distinctIds = new HyperLogLog();
+    private final HyperLogLog distinctPaths = new HyperLogLog();
+    private final HyperLogLog distinctEndpointPaths = new HyperLogLog();
+
+    private final SpaceSaving<String> endpoints;
+    private final Map<String, HyperLogLog> endpointPaths = new HashMap<>();
+
+    private final OperatorOrdinals ordinals = new OperatorOrdinals();
+    private final SpaceSaving<Integer> operators;
+
+    // Per-body traversal state
+    private HyperLogLog currentEndpointPaths;
+    private long currentEndpointHash;
+    private int currentMaxDepth;
+
+    // Traversal stack, reused across bodies: node, depth and path hash per entry.
+    // A stack grown past MAX_KEPT_STACK by a huge body is dropped after it.
+    private JsonNode[] stackNodes = new JsonNode[STACK_CAPACITY];
+    private int[] stackDepths = new int[STACK_CAPACITY];
+    private long[] stackPaths = new long[STACK_CAPACITY];
+    private int stackSize;
+
+    public CorpusProfileReporter(Path outputFile) {
+        this(outputFile, DEFAULT_TOP_K);
+    }
+
+    public CorpusProfileReporter(Path outputFile, int topK) {
+        this.outputFile = Objects.requireNonNull(outputFile, "outputFile must not be null");
+        if (topK <= 0) throw new IllegalArgumentException("topK must be > 0");
+        this.topK = topK;
+        this.endpoints = new SpaceSaving<>(4 * topK);
+        this.operators = new SpaceSaving<>(4 * topK);
+    }
+
+    @Override
+    public synchronized void onMutant(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant) {
+        operators.add(ordinals.ordinalOf(mutant));
+    }
+
+    @Override
+    public synchronized void onExchangeFinished(HttpExchange exchange) {
+        exchanges++;
+        if (exchange.getId() != null) {
+            distinctIds.add(exchange.getId());
+        }
+
+        // Templated, so /users/1 and /users/2 share a counter and a path sketch
+        String endpoint = Endpoints.keyOf(exchange);
+        String evicted = endpoints.add(endpoint, 1);
+        if (evicted != null) {
+            endpointPaths.remove(evicted);
+        }
+        currentEndpointPaths = endpointPaths.computeIfAbsent(endpoint, k -> new HyperLogLog(ENDPOINT_PATHS_PRECISION));
+        currentEndpointHash = HyperLogLog.mix(endpoint.hashCode());
+
+        StandardHttpResponse response = exchange.getResponse();
+        JsonNode body = response == null ? null : response.getBody();
+        if (body == null) {
+            return;
+        }
+        bodyBytes.add(serializedSize(body));
+        currentMaxDepth = 0;
+        visit(body, 0, ROOT_PATH);
+        bodyDepth.add(currentMaxDepth);
+    }
+
+    @Override
+    public synchronized void onFinished() throws IOException {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("exchanges", exchanges);
+        root.put("distinctExchangeIds", distinctIds.cardinality());
+        root.set("bodyBytes", summary(bodyBytes));
+        root.set("bodyDepth", summary(bodyDepth));
+        root.set("arrayLength", summary(arrayLengths));
+
+        ObjectNode types = root.putObject("valueTypes");
+        for (JsonNodeType type : JsonNodeType.values()) {
+            if (valueTypes[type.ordinal()] > 0) {
+                types.put(type.name(), valueTypes[type.ordinal()]);
+            }
+        }
+
+        root.put("distinctPaths", distinctPaths.cardinality());
+        root.put("distinctEndpointPaths", distinctEndpointPaths.cardinality());
+
+        ArrayNode topEndpoints = root.putArray("topEndpoints");
+        for (SpaceSaving.Entry<String> e : endpoints.top(topK)) {
+            ObjectNode row = topEndpoints.addObject();
+            row.put("endpoint", e.getItem());
+            row.put("count", e.getCount());
+            row.put("error", e.getError());
+            HyperLogLog paths = endpointPaths.get(e.getItem());
+            row.put("distinctPaths", paths == null ? 0 : paths.cardinality());
+        }
+
+        ArrayNode topOperators = root.putArray("topOperators");
+        for (SpaceSaving.Entry<Integer> e : operators.top(topK)) {
+            ObjectNode row = topOperators.addObject();
+            row.put("operator", ordinals.keyOf(e.getItem()));
+            row.put("count", e.getCount());
+            row.put("error", e.getError());
+        }
+
+        MAPPER.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(outputFile.toFile(), root);
+    }
+
+    // -----------------------------
+    // Body traversal
+    // -----------------------------
+    /** Walks {@code root} with an explicit stack, so deep bodies cannot overflow the thread stack. */
+    private void visit(JsonNode root, int rootDepth, long rootPath) {
+        push(root, rootDepth, rootPath);
+        while (stackSize > 0) {
+            stackSize--;
+            JsonNode node = stackNodes[stackSize];
+            int depth = stackDepths[stackSize];
+            long pathHash = stackPaths[stackSize];
+            stackNodes[stackSize] = null;
+
+            valueTypes[node.getNodeType().ordinal()]++;
+            distinctPaths.addHash(pathHash);
+            distinctEndpointPaths.addHash(HyperLogLog.mix(pathHash ^ currentEndpointHash));
+            currentEndpointPaths.addHash(pathHash);
+            if (depth > currentMaxDepth) {
+                currentMaxDepth = depth;
+            }
+
+            if (node.isObject()) {
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    long child = HyperLogLog.mix(pathHash * 31 + field.getKey().hashCode());
+                    push(field.getValue(), depth + 1, child);
+                }
+            } else if (node.isArray()) {
+                arrayLengths.add(node.size());
+                long child = HyperLogLog.mix(pathHash ^ ARRAY_ELEMENT);
+                for (JsonNode element : node) {
+                    push(element, depth + 1, child);
+                }
+            }
+        }
+        if (stackNodes.length > MAX_KEPT_STACK) {
+            stackNodes = new JsonNode[STACK_CAPACITY];
+            stackDepths = new int[STACK_CAPACITY];
+            stackPaths = new long[STACK_CAPACITY];
+        }
+    }
+
+    private void push(JsonNode node, int depth, long pathHash) {
+        if (stackSize == stackNodes.length) {
+            int grown = stackSize * 2;
+            stackNodes = Arrays.copyOf(stackNodes, grown);
+            stackDepths = Arrays.copyOf(stackDepths, grown);
+            stackPaths = Arrays.copyOf(stackPaths, grown);
+        }
+        stackNodes[stackSize] = node;
+        stackDepths[stackSize] = depth;
+        stackPaths[stackSize] = pathHash;
+        stackSize++;
+    }
+
+    private static ObjectNode summary(QuantileSketch sketch) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("count", sketch.getCount());
+        node.put("min", sketch.getMin());
+        node.put("mean", sketch.getMean());
+        node.put("p50", sketch.getQuantile(0.5));
+        node.put("p90", sketch.getQuantile(0.9));
+        node.put("p99", sketch.getQuantile(0.99));
+        node.put("max", sketch.getMax());
+        return node;
+    }
+
+    private static long serializedSize(JsonNode body) {
+        CountingOutputStream out = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try {
+            MAPPER.writeValue(out, body);
+        } catch (IOException e) {
+            return 0;
+        }
+        return out.getCount();
+    }
+}
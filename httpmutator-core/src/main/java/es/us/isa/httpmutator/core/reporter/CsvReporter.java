@@ -4,9 +4,11 @@ import es.us.isa.httpmutator.core.model.HttpExchange;
 import es.us.isa.httpmutator.core.model.Mutant;
 import es.us.isa.httpmutator.core.model.StandardHttpResponse;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,19 +23,55 @@ import java.util.concurrent.ConcurrentHashMap;
  * ex-1,3,0,1,5
  * ex-2,0,2,0,0
  * TOTAL,3,2,1,5
+ *
+ * Memory stays bounded on long traces:
+ *  - Every mutator:operator pair gets an ordinal ({@link OperatorOrdinals}) and
+ *    is counted in an {@code int[]}, without per-mutant strings or boxing.
+ *  - Only exchanges still in flight keep counters. When an exchange finishes
+ *    ({@link #onExchangeFinished(HttpExchange)}) its row is appended to a
+ *    temporary file next to the report and folded into the TOTAL counters.
+ *  - {@link #onFinished()} streams the temporary rows into the report, mapping
+ *    ordinal columns to the sorted header, and deletes the temporary file.
+ *
+ * Rows appear in completion order. An id processed several times (e.g. a
+ * duplicate exchange) still gets a single row, at its first position, with the
+ * counts of all of them: to merge them, {@link #onFinished()} holds the distinct
+ * ids once, and the counts of repeated ids only.
+ *
+ * Ids are written as they are, except that an id containing a line break is
+ * quoted (RFC 4180) so that it stays in its row.
  */
 public class CsvReporter implements MutantReporter {
 
-    /** All distinct operator keys observed globally (mutator:operator). */
-    private final Set<String> allOperators = ConcurrentHashMap.newKeySet();
+    /** Stable column ordinal of every mutator:operator pair. */
+    private final OperatorOrdinals ordinals = new OperatorOrdinals();
+
+    /** Counters of exchanges whose mutants are still being reported. */
+    private final Map<HttpExchange, Counts> inFlight = new ConcurrentHashMap<>();
 
-    /** Per ID → (operator → count). */
-    private final Map<String, Map<String, Integer>> perIdCounts = new ConcurrentHashMap<>();
+    /** Running TOTAL row, by ordinal; guarded by {@code this}. */
+    private long[] totals = new long[0];
 
     private final Path outputFile;
 
+    /** Finished rows, by ordinal; created on the first finished exchange. Guarded by {@code this}. */
+    private Path rowsFile;
+    private BufferedWriter rows;
+
     public CsvReporter(Path outputFile) {
-        this.outputFile = outputFile;
+        this.outputFile = Objects.requireNonNull(outputFile, "outputFile must not be null");
+    }
+
+    /** Per-exchange counters, grown as new ordinals appear. */
+    private static final class Counts {
+        int[] counts = new int[16];
+
+        synchronized void increment(int ordinal) {
+            if (ordinal >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(ordinal + 1, counts.length * 2));
+            }
+            counts[ordinal]++;
+        }
     }
 
     @Override
@@ -42,64 +80,220 @@ public class CsvReporter implements MutantReporter {
             StandardHttpResponse mutated,
             Mutant mutant) {
 
-        String id = exchange.getId();
-
-        String key = mutant.getMutatorClassName() + ":" + mutant.getOperatorClassName();
-
-        allOperators.add(key);
+        int ordinal = ordinals.ordinalOf(mutant);
+        inFlight.computeIfAbsent(exchange, k -> new Counts()).increment(ordinal);
+    }
 
-        perIdCounts
-                .computeIfAbsent(id, k -> new ConcurrentHashMap<>())
-                .merge(key, 1, Integer::sum);
+    @Override
+    public void onExchangeFinished(HttpExchange exchange) throws IOException {
+        Counts counts = inFlight.remove(exchange);
+        if (counts != null) {
+            appendRow(exchange.getId(), counts);
+        }
     }
 
     @Override
     public void onFinished() throws IOException {
 
-        // Sort operator columns alphabetically for stable output
-        List<String> sortedOperators = new ArrayList<>(allOperators);
-        Collections.sort(sortedOperators);
+        // Exchanges reported without an onExchangeFinished call
+        for (Map.Entry<HttpExchange, Counts> e : inFlight.entrySet()) {
+            appendRow(e.getKey().getId(), e.getValue());
+        }
+        inFlight.clear();
 
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(outputFile.toFile()))) {
+        synchronized (this) {
+            if (rows != null) {
+                rows.close();
+                rows = null;
+            }
 
-            // ----------------------------------------------------
-            // 1) Write header
-            // ----------------------------------------------------
-            bw.write("id");
-            for (String op : sortedOperators) {
-                bw.write("," + op);
+            // Sort operator columns alphabetically for stable output
+            List<String> keys = ordinals.keys();
+            Integer[] sorted = new Integer[keys.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = i;
             }
-            bw.write("\n");
+            Arrays.sort(sorted, Comparator.comparing(keys::get));
+
+            try (BufferedWriter bw = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
 
-            // ----------------------------------------------------
-            // 2) Write one row per request ID
-            // ----------------------------------------------------
-            for (Map.Entry<String, Map<String, Integer>> e : perIdCounts.entrySet()) {
-                String id = e.getKey();
-                Map<String, Integer> opCounts = e.getValue();
+                // ----------------------------------------------------
+                // 1) Write header
+                // ----------------------------------------------------
+                bw.write("id");
+                for (Integer ordinal : sorted) {
+                    bw.write("," + keys.get(ordinal));
+                }
+                bw.write("\n");
 
-                bw.write(id);
+                // ----------------------------------------------------
+                // 2) Copy one row per request ID, in column order
+                // ----------------------------------------------------
+                if (rowsFile != null) {
+                    copyRows(bw, sorted);
+                }
 
-                for (String op : sortedOperators) {
-                    int count = opCounts.getOrDefault(op, 0);
-                    bw.write("," + count);
+                // ----------------------------------------------------
+                // 3) Write TOTAL row
+                // ----------------------------------------------------
+                bw.write("TOTAL");
+                for (Integer ordinal : sorted) {
+                    bw.write(",");
+                    bw.write(Long.toString(ordinal < totals.length ? totals[ordinal] : 0));
                 }
                 bw.write("\n");
+            } finally {
+                if (rowsFile != null) {
+                    Files.deleteIfExists(rowsFile);
+                    rowsFile = null;
+                }
             }
+        }
+    }
 
-            // ----------------------------------------------------
-            // 3) Write TOTAL row
-            // ----------------------------------------------------
-            bw.write("TOTAL");
+    // ----------------------------------------------------
+    // Temporary rows: "<n>,<count_0>,...,<count_n-1>,<id>"
+    // (counts by ordinal first, so ids may contain commas;
+    // backslashes and line breaks in ids are escaped)
+    // ----------------------------------------------------
 
-            for (String op : sortedOperators) {
-                int total = 0;
-                for (Map<String, Integer> perId : perIdCounts.values()) {
-                    total += perId.getOrDefault(op, 0);
+    private synchronized void appendRow(String id, Counts counts) throws IOException {
+        int[] c;
+        synchronized (counts) {
+            c = counts.counts;
+        }
+        int n = c.length;
+        while (n > 0 && c[n - 1] == 0) {
+            n--;
+        }
+        if (n > totals.length) {
+            totals = Arrays.copyOf(totals, Math.max(n, ordinals.size()));
+        }
+
+        if (rows == null) {
+            Path dir = outputFile.toAbsolutePath().getParent();
+            rowsFile = Files.createTempFile(dir, outputFile.getFileName().toString(), ".rows");
+            rows = Files.newBufferedWriter(rowsFile, StandardCharsets.UTF_8);
+        }
+        rows.write(Integer.toString(n));
+        for (int i = 0; i < n; i++) {
+            totals[i] += c[i];
+            rows.write(',');
+            rows.write(Integer.toString(c[i]));
+        }
+        rows.write(',');
+        rows.write(escape(String.valueOf(id)));
+        rows.write('\n');
+    }
+
+    private void copyRows(BufferedWriter bw, Integer[] sorted) throws IOException {
+        int[] counts = new int[sorted.length];
+        Map<String, int[]> repeated = sumRepeatedRows(sorted.length);
+
+        try (BufferedReader r = Files.newBufferedReader(rowsFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                Arrays.fill(counts, 0);
+                String id = readRow(line, counts);
+                int[] row = counts;
+                if (repeated.containsKey(id)) {
+                    // Written at the first row of the id; later ones are skipped
+                    row = repeated.put(id, null);
+                    if (row == null) {
+                        continue;
+                    }
+                }
+
+                bw.write(csv(id));
+                for (Integer ordinal : sorted) {
+                    bw.write(",");
+                    bw.write(Integer.toString(row[ordinal]));
+                }
+                bw.write("\n");
+            }
+        }
+    }
+
+    /** @return the ids finished more than once, with the sum of their rows (by ordinal) */
+    private Map<String, int[]> sumRepeatedRows(int columns) throws IOException {
+        Set<String> seen = new HashSet<>();
+        Map<String, int[]> repeated = new HashMap<>();
+        try (BufferedReader r = Files.newBufferedReader(rowsFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                String id = readRow(line, null);
+                if (!seen.add(id)) {
+                    repeated.put(id, new int[columns]);
+                }
+            }
+        }
+        if (repeated.isEmpty()) {
+            return repeated;
+        }
+
+        int[] counts = new int[columns];
+        try (BufferedReader r = Files.newBufferedReader(rowsFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                Arrays.fill(counts, 0);
+                int[] sum = repeated.get(readRow(line, counts));
+                if (sum != null) {
+                    for (int i = 0; i < columns; i++) {
+                        sum[i] += counts[i];
+                    }
                 }
-                bw.write("," + total);
             }
-            bw.write("\n");
         }
+        return repeated;
+    }
+
+    /**
+     * Parses a temporary row into {@code counts} (by ordinal) unless it is {@code null}.
+     *
+     * @return the id of the row
+     */
+    private static String readRow(String line, int[] counts) {
+        int comma = line.indexOf(',');
+        int n = Integer.parseInt(line.substring(0, comma));
+        int pos = comma + 1;
+        for (int i = 0; i < n; i++) {
+            int next = line.indexOf(',', pos);
+            if (counts != null) {
+                counts[i] = Integer.parseInt(line.substring(pos, next));
+            }
+            pos = next + 1;
+        }
+        return unescape(line.substring(pos));
+    }
+
+    private static String escape(String id) {
+        if (id.indexOf('\\') < 0 && id.indexOf('\n') < 0 && id.indexOf('\r') < 0) {
+            return id;
+        }
+        return id.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String id) {
+        if (id.indexOf('\\') < 0) {
+            return id;
+        }
+        StringBuilder sb = new StringBuilder(id.length());
+        for (int i = 0; i < id.length(); i++) {
+            char ch = id.charAt(i);
+            if (ch == '\\' && i + 1 < id.length()) {
+                char next = id.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String csv(String id) {
+        if (id.indexOf('\n') < 0 && id.indexOf('\r') < 0) {
+            return id;
+        }
+        return '"' + id.replace("\"", "\"\"") + '"';
     }
-}
\ No newline at end of file
+}
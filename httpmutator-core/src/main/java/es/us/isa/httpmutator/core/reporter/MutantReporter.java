@@ -20,6 +20,7 @@ import java.io.IOException;
  * <p>The reporter is intended to be used by a high-level mutation pipeline:
  * <ol>
  *     <li>For every selected {@link Mutant}, {@link #onMutant(HttpExchange, StandardHttpResponse, Mutant)} is called</li>
+ *     <li>After the last mutant of an exchange, {@link #onExchangeFinished(HttpExchange)} is called</li>
  *     <li>When the pipeline finishes, {@link #onFinished()} is called exactly once</li>
  * </ol>
  * </p>
@@ -37,6 +38,19 @@ public interface MutantReporter {
                   StandardHttpResponse mutatedResponse,
                   Mutant mutant);
 
+    /**
+     * Called once an exchange has been fully processed, after the
+     * {@link #onMutant} calls for all of its mutants (possibly none). Reporters
+     * can release per-exchange state here instead of keeping it until
+     * {@link #onFinished()}.
+     *
+     * @param exchange the exchange whose mutants have all been reported
+     * @throws IOException if writing per-exchange output fails
+     */
+    default void onExchangeFinished(HttpExchange exchange) throws IOException {
+        // default no-op
+    }
+
     /**
      * Called once after all mutants have been processed.
      *
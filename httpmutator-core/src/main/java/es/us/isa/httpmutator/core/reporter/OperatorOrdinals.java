@@ -0,0 +1,101 @@
+package es.us.isa.httpmutator.core.reporter;
+
+import es.us.isa.httpmutator.core.model.Mutant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each (mutator, operator) pair a dense ordinal ({@code 0, 1, 2, ...})
+ * in first-seen order, so that counters can live in primitive arrays instead of
+ * maps keyed by {@code "mutator:operator"} strings.
+ *
+ * <p>Lookups are keyed by the mutator and operator classes and do not allocate;
+ * the display key ({@link #keyOf(int)}) is built once per pair. Ordinals are
+ * stable for the lifetime of the instance.</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+public final class OperatorOrdinals {
+
+    // mutator key (the mutator class, or a name given by the caller) -> operator class -> ordinal
+    private final ConcurrentHashMap<Object, ConcurrentHashMap<Class<?>, Integer>> ordinals =
+            new ConcurrentHashMap<>();
+    /** Names and display keys by ordinal; guarded by {@code this}. */
+    private final List<String> mutatorNames = new ArrayList<>();
+    private final List<String> operatorNames = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+
+    /**
+     * @return the ordinal of the mutant's (mutator, operator) pair, assigning the
+     *         next one if the pair has not been seen yet
+     */
+    public int ordinalOf(Mutant mutant) {
+        Objects.requireNonNull(mutant, "mutant must not be null");
+        return ordinalOf(mutant.getMutatorClass(), mutant);
+    }
+
+    /**
+     * Like {@link #ordinalOf(Mutant)}, but groups by {@code mutatorName} instead of
+     * the mutator class, for mutators that report several sub-mutators under one
+     * class (e.g. {@code HeaderMutator}).
+     */
+    public int ordinalOf(String mutatorName, Mutant mutant) {
+        Objects.requireNonNull(mutatorName, "mutatorName must not be null");
+        Objects.requireNonNull(mutant, "mutant must not be null");
+        return ordinalOf((Object) mutatorName, mutant);
+    }
+
+    private int ordinalOf(Object mutatorKey, Mutant mutant) {
+        ConcurrentHashMap<Class<?>, Integer> byOperator = ordinals.get(mutatorKey);
+        if (byOperator != null) {
+            Integer ordinal = byOperator.get(mutant.getOperatorClass());
+            if (ordinal != null) {
+                return ordinal;
+            }
+        }
+        return assign(mutatorKey, mutant);
+    }
+
+    private synchronized int assign(Object mutatorKey, Mutant mutant) {
+        ConcurrentHashMap<Class<?>, Integer> byOperator =
+                ordinals.computeIfAbsent(mutatorKey, k -> new ConcurrentHashMap<>());
+        Integer ordinal = byOperator.get(mutant.getOperatorClass());
+        if (ordinal == null) {
+            ordinal = keys.size();
+            String mutatorName = mutatorKey instanceof String ? (String) mutatorKey : mutant.getMutatorClassName();
+            mutatorNames.add(mutatorName);
+            operatorNames.add(mutant.getOperatorClassName());
+            keys.add(mutatorName + ":" + mutant.getOperatorClassName());
+            byOperator.put(mutant.getOperatorClass(), ordinal);
+        }
+        return ordinal;
+    }
+
+    /** @return number of ordinals assigned so far */
+    public synchronized int size() {
+        return keys.size();
+    }
+
+    /** @return the {@code "mutator:operator"} key of {@code ordinal} */
+    public synchronized String keyOf(int ordinal) {
+        return keys.get(ordinal);
+    }
+
+    /** @return a snapshot of all keys, indexed by ordinal */
+    public synchronized List<String> keys() {
+        return new ArrayList<>(keys);
+    }
+
+    /** @return a snapshot of all mutator names, indexed by ordinal */
+    public synchronized List<String> mutatorNames() {
+        return new ArrayList<>(mutatorNames);
+    }
+
+    /** @return a snapshot of all operator names, indexed by ordinal */
+    public synchronized List<String> operatorNames() {
+        return new ArrayList<>(operatorNames);
+    }
+}
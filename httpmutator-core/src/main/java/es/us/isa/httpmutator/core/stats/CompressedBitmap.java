@@ -0,0 +1,275 @@
+package es.us.isa.httpmutator.core.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of non-negative ints stored as a compressed bitmap, in the layout of
+ * Roaring bitmaps (Lemire et al.).
+ *
+ * <p>Values are split by their high 16 bits into chunks of 65536. Each chunk
+ * holds its low 16 bits either as a sorted {@code char[]} (up to
+ * {@value #ARRAY_MAX} values, 2 bytes each) or, once denser, as a 8 KB bitmap.
+ * Sparse sets therefore cost about 2 bytes per value and dense ones 1 bit per
+ * value, and unions of two chunks are merges or word-wise ORs. Run-length
+ * containers are not implemented.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class CompressedBitmap {
+
+    /** Largest number of values kept in an array chunk. */
+    public static final int ARRAY_MAX = 4096;
+
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    /** High 16 bits of each chunk, sorted; parallel to {@link #chunks}. */
+    private char[] keys = new char[4];
+    private Chunk[] chunks = new Chunk[4];
+    private int size = 0;
+
+    /**
+     * Adds {@code value}.
+     *
+     * @return true if it was not present yet
+     */
+    public boolean add(int value) {
+        if (value < 0) throw new IllegalArgumentException("value must be >= 0");
+        char key = (char) (value >>> 16);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, key, new Chunk());
+        }
+        return chunks[i].add((char) value);
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && chunks[i].contains((char) value);
+    }
+
+    /** @return number of values in the set */
+    public long getCardinality() {
+        long n = 0;
+        for (int i = 0; i < size; i++) {
+            n += chunks[i].cardinality;
+        }
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Adds every value of {@code other} to this set. */
+    public void or(CompressedBitmap other) {
+        for (int j = 0; j < other.size; j++) {
+            int i = indexOf(other.keys[j]);
+            if (i < 0) {
+                insert(-i - 1, other.keys[j], other.chunks[j].copy());
+            } else {
+                chunks[i].or(other.chunks[j]);
+            }
+        }
+    }
+
+    /** Calls {@code action} with every value, in increasing order. */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            chunks[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    // -----------------------------
+    // Serialization
+    // -----------------------------
+
+    /**
+     * Writes the set as: chunk count, then per chunk its key, its cardinality and
+     * either the sorted low bits (array) or the 1024 bitmap words.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            Chunk c = chunks[i];
+            out.writeChar(keys[i]);
+            out.writeInt(c.cardinality);
+            if (c.words == null) {
+                for (int k = 0; k < c.cardinality; k++) {
+                    out.writeChar(c.values[k]);
+                }
+            } else {
+                for (long word : c.words) {
+                    out.writeLong(word);
+                }
+            }
+        }
+    }
+
+    /** Reads a set written by {@link #writeTo(DataOutput)}. */
+    public static CompressedBitmap readFrom(DataInput in) throws IOException {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int count = in.readInt();
+        if (count < 0 || count > 1 << 16) throw new IOException("Corrupt bitmap: " + count + " chunks");
+        for (int i = 0; i < count; i++) {
+            char key = in.readChar();
+            if (i > 0 && key <= bitmap.keys[i - 1]) throw new IOException("Corrupt bitmap: unsorted chunks");
+            int cardinality = in.readInt();
+            if (cardinality <= 0 || cardinality > 1 << 16) {
+                throw new IOException("Corrupt bitmap: chunk of " + cardinality + " values");
+            }
+            Chunk c = new Chunk();
+            if (cardinality <= ARRAY_MAX) {
+                c.values = new char[cardinality];
+                for (int k = 0; k < cardinality; k++) {
+                    c.values[k] = in.readChar();
+                    // Lookups binary-search the values
+                    if (k > 0 && c.values[k] <= c.values[k - 1]) {
+                        throw new IOException("Corrupt bitmap: unsorted chunk values");
+                    }
+                }
+            } else {
+                c.values = null;
+                c.words = new long[BITMAP_WORDS];
+                int bits = 0;
+                for (int k = 0; k < BITMAP_WORDS; k++) {
+                    c.words[k] = in.readLong();
+                    bits += Long.bitCount(c.words[k]);
+                }
+                if (bits != cardinality) {
+                    throw new IOException("Corrupt bitmap: chunk of " + cardinality + " values has " + bits + " bits set");
+                }
+            }
+            c.cardinality = cardinality;
+            bitmap.insert(bitmap.size, key, c);
+        }
+        return bitmap;
+    }
+
+    // -----------------------------
+    // Chunks
+    // -----------------------------
+
+    private int indexOf(char key) {
+        // Appends are the common case (ordinals grow)
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int i, char key, Chunk chunk) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(chunks, i, chunks, i + 1, size - i);
+        keys[i] = key;
+        chunks[i] = chunk;
+        size++;
+    }
+
+    /** Low 16 bits of one chunk: a sorted array ({@code words == null}) or a bitmap. */
+    private static final class Chunk {
+        char[] values = new char[4];
+        long[] words;
+        int cardinality;
+
+        boolean contains(char low) {
+            if (words != null) {
+                return (words[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                long after = before | (1L << low);
+                if (before == after) {
+                    return false;
+                }
+                words[low >>> 6] = after;
+                cardinality++;
+                return true;
+            }
+            int pos = cardinality > 0 && values[cardinality - 1] < low
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, low);
+            if (pos >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBitmap();
+                return add(low);
+            }
+            pos = -pos - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+            values[pos] = low;
+            cardinality++;
+            return true;
+        }
+
+        void or(Chunk other) {
+            if (other.words != null) {
+                if (words == null) {
+                    toBitmap();
+                }
+                int n = 0;
+                for (int k = 0; k < BITMAP_WORDS; k++) {
+                    words[k] |= other.words[k];
+                    n += Long.bitCount(words[k]);
+                }
+                cardinality = n;
+            } else {
+                for (int k = 0; k < other.cardinality; k++) {
+                    add(other.values[k]);
+                }
+            }
+        }
+
+        void toBitmap() {
+            words = new long[BITMAP_WORDS];
+            for (int k = 0; k < cardinality; k++) {
+                char low = values[k];
+                words[low >>> 6] |= 1L << low;
+            }
+            values = null;
+        }
+
+        void forEach(int high, IntConsumer action) {
+            if (words == null) {
+                for (int k = 0; k < cardinality; k++) {
+                    action.accept(high | values[k]);
+                }
+                return;
+            }
+            for (int k = 0; k < BITMAP_WORDS; k++) {
+                long word = words[k];
+                while (word != 0) {
+                    action.accept(high | (k << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        Chunk copy() {
+            Chunk c = new Chunk();
+            c.values = values == null ? null : Arrays.copyOf(values, Math.max(cardinality, 1));
+            c.words = words == null ? null : words.clone();
+            c.cardinality = cardinality;
+            return c;
+        }
+    }
+}
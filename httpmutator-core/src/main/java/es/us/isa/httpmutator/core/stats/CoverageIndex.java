@@ -0,0 +1,330 @@
+package es.us.isa.httpmutator.core.stats;
+
+import es.us.isa.httpmutator.core.model.Endpoints;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Records which (endpoint, JSON path, operator) combinations have been exercised,
+ * across runs and machines.
+ *
+ * <p>Paths and {@code "mutator:operator"} pairs get dense ordinals in first-seen
+ * order. A combination is the int {@code pathOrdinal << 8 | operatorOrdinal}, and
+ * each endpoint ({@code METHOD /path} with identifier segments templated, see
+ * {@link Endpoints}) keeps the combinations it covered
+ * in a {@link CompressedBitmap}. Array indices in paths are collapsed
+ * ({@code Body/items/3/id} is {@code Body/items/*}{@code /id}), so covering one
+ * element of an array covers them all.</p>
+ *
+ * <h2>Persistence and merging</h2>
+ * <p>{@link #save(Path)} writes the dictionaries and the bitmaps in a compact
+ * binary file that {@link #load(Path)} reads back. {@link #merge(CoverageIndex)}
+ * unions another index (e.g. from another machine) into this one; its ordinals
+ * are remapped through the dictionaries, unless they agree with this index, in
+ * which case the bitmaps are ORed directly. {@link es.us.isa.httpmutator.core.HttpMutator}
+ * saves an index to its {@link #withFile(Path) file} on close.</p>
+ *
+ * <p>Not thread-safe; owned by a single {@code HttpMutator} while it runs.</p>
+ */
+public final class CoverageIndex {
+
+    /** Operator ordinals take the low bits of a combination, so at most 256 pairs. */
+    public static final int OPERATOR_BITS = 8;
+    public static final int MAX_OPERATORS = 1 << OPERATOR_BITS;
+    public static final int MAX_PATHS = 1 << (31 - OPERATOR_BITS);
+
+    private static final int MAGIC = 0x484D4349; // "HMCI"
+    /** 2: strings as an int byte length and UTF-8 (1 used {@code writeUTF}, limited to 65535 bytes). */
+    private static final int VERSION = 2;
+    private static final int MAX_STRING_BYTES = 1 << 24;
+
+    private final List<String> paths = new ArrayList<>();
+    private final Map<String, Integer> pathOrdinals = new HashMap<>();
+    private final List<String> operators = new ArrayList<>();
+    private final Map<String, Integer> operatorOrdinals = new HashMap<>();
+    private final Map<String, CompressedBitmap> endpoints = new TreeMap<>();
+
+    private Path file;
+
+    /** File the owning {@code HttpMutator} saves this index to when it closes. */
+    public CoverageIndex withFile(Path file) {
+        this.file = Objects.requireNonNull(file, "file must not be null");
+        return this;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // ===================== Coverage =====================
+
+    /** @return true if the mutant's path and operator were already covered on the exchange's endpoint */
+    public boolean isCovered(HttpExchange exchange, Mutant mutant) {
+        return isCovered(endpointOf(exchange), mutant);
+    }
+
+    public boolean isCovered(String endpoint, Mutant mutant) {
+        CompressedBitmap covered = endpoints.get(endpoint);
+        if (covered == null) {
+            return false;
+        }
+        Integer path = pathOrdinals.get(templateOf(mutant.getOriginalJsonPath()));
+        Integer operator = operatorOrdinals.get(operatorKey(mutant));
+        return path != null && operator != null && covered.contains(combine(path, operator));
+    }
+
+    /**
+     * Marks the mutant's path and operator as covered on the exchange's endpoint.
+     *
+     * @return true if the combination was not covered yet
+     */
+    public boolean record(HttpExchange exchange, Mutant mutant) {
+        return record(endpointOf(exchange), mutant);
+    }
+
+    public boolean record(String endpoint, Mutant mutant) {
+        Objects.requireNonNull(endpoint, "endpoint must not be null");
+        Objects.requireNonNull(mutant, "mutant must not be null");
+        int path = ordinal(templateOf(mutant.getOriginalJsonPath()), paths, pathOrdinals, MAX_PATHS);
+        int operator = ordinal(operatorKey(mutant), operators, operatorOrdinals, MAX_OPERATORS);
+        return endpoints.computeIfAbsent(endpoint, k -> new CompressedBitmap()).add(combine(path, operator));
+    }
+
+    /** Adds every combination covered by {@code other} to this index. */
+    public void merge(CoverageIndex other) {
+        Objects.requireNonNull(other, "other must not be null");
+        if (isPrefix(other.paths, paths) && isPrefix(other.operators, operators)) {
+            for (Map.Entry<String, CompressedBitmap> e : other.endpoints.entrySet()) {
+                endpoints.computeIfAbsent(e.getKey(), k -> new CompressedBitmap()).or(e.getValue());
+            }
+            return;
+        }
+        int[] pathMap = remap(other.paths, paths, pathOrdinals, MAX_PATHS);
+        int[] operatorMap = remap(other.operators, operators, operatorOrdinals, MAX_OPERATORS);
+        for (Map.Entry<String, CompressedBitmap> e : other.endpoints.entrySet()) {
+            CompressedBitmap target = endpoints.computeIfAbsent(e.getKey(), k -> new CompressedBitmap());
+            e.getValue().forEach(c ->
+                    target.add(combine(pathMap[c >>> OPERATOR_BITS], operatorMap[c & (MAX_OPERATORS - 1)])));
+        }
+    }
+
+    /** @return number of covered (endpoint, path, operator) combinations */
+    public long getCoveredCount() {
+        long n = 0;
+        for (CompressedBitmap covered : endpoints.values()) {
+            n += covered.getCardinality();
+        }
+        return n;
+    }
+
+    /** @return the endpoints with coverage, sorted */
+    public List<String> getEndpoints() {
+        return Collections.unmodifiableList(new ArrayList<>(endpoints.keySet()));
+    }
+
+    public int getPathCount() {
+        return paths.size();
+    }
+
+    public int getOperatorCount() {
+        return operators.size();
+    }
+
+    /** @return the endpoint key of {@code exchange}, e.g. {@code GET /users/{id}} */
+    public static String endpointOf(HttpExchange exchange) {
+        return Endpoints.keyOf(exchange);
+    }
+
+    /**
+     * Collapses array indices (all-digit segments) of a mutant path into {@code *}.
+     */
+    public static String templateOf(String path) {
+        StringBuilder sb = null;
+        int start = 0;
+        int n = path.length();
+        for (int i = 0; i <= n; i++) {
+            if (i < n && path.charAt(i) != '/') {
+                continue;
+            }
+            if (i > start && isDigits(path, start, i)) {
+                if (sb == null) {
+                    sb = new StringBuilder(n).append(path, 0, start);
+                }
+                sb.append('*');
+            } else if (sb != null) {
+                sb.append(path, start, i);
+            }
+            if (sb != null && i < n) {
+                sb.append('/');
+            }
+            start = i + 1;
+        }
+        return sb == null ? path : sb.toString();
+    }
+
+    // ===================== Persistence =====================
+
+    /** Writes the index to {@code target}, replacing it atomically where the file system allows. */
+    public void save(Path target) throws IOException {
+        Objects.requireNonNull(target, "target must not be null");
+        Path dir = target.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeStrings(out, paths);
+                writeStrings(out, operators);
+                out.writeInt(endpoints.size());
+                for (Map.Entry<String, CompressedBitmap> e : endpoints.entrySet()) {
+                    writeString(out, e.getKey());
+                    e.getValue().writeTo(out);
+                }
+            }
+            AtomicFiles.move(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Writes the index to its {@link #withFile(Path) file}, if any. */
+    public void save() throws IOException {
+        if (file != null) {
+            save(file);
+        }
+    }
+
+    /** Reads an index written by {@link #save(Path)}. */
+    public static CoverageIndex load(Path source) throws IOException {
+        Objects.requireNonNull(source, "source must not be null");
+        CoverageIndex index = new CoverageIndex();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a coverage index: " + source);
+            }
+            int version = in.readInt();
+            if (version != VERSION && version != 1) {
+                throw new IOException("Unsupported coverage index version " + version + ": " + source);
+            }
+            readStrings(in, version, index.paths, index.pathOrdinals, MAX_PATHS);
+            readStrings(in, version, index.operators, index.operatorOrdinals, MAX_OPERATORS);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String endpoint = readString(in, version);
+                index.endpoints.put(endpoint, CompressedBitmap.readFrom(in));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Loads {@code file} if it exists (an empty index otherwise) and sets it as
+     * the index's {@link #withFile(Path) file}.
+     */
+    public static CoverageIndex open(Path file) throws IOException {
+        CoverageIndex index = Files.exists(file) ? load(file) : new CoverageIndex();
+        return index.withFile(file);
+    }
+
+    // -----------------------------
+    // Helpers
+    // -----------------------------
+
+    private static int combine(int path, int operator) {
+        return path << OPERATOR_BITS | operator;
+    }
+
+    private static String operatorKey(Mutant mutant) {
+        return mutant.getMutatorClassName() + ":" + mutant.getOperatorClassName();
+    }
+
+    private static int ordinal(String key, List<String> keys, Map<String, Integer> ordinals, int max) {
+        Integer ordinal = ordinals.get(key);
+        if (ordinal == null) {
+            if (keys.size() == max) {
+                throw new IllegalStateException("Coverage index is full: more than " + max + " distinct keys");
+            }
+            ordinal = keys.size();
+            keys.add(key);
+            ordinals.put(key, ordinal);
+        }
+        return ordinal;
+    }
+
+    private static int[] remap(List<String> from, List<String> keys, Map<String, Integer> ordinals, int max) {
+        int[] map = new int[from.size()];
+        for (int i = 0; i < map.length; i++) {
+            map[i] = ordinal(from.get(i), keys, ordinals, max);
+        }
+        return map;
+    }
+
+    /** @return true if the ordinals of {@code a} mean the same as in {@code b} */
+    private static boolean isPrefix(List<String> a, List<String> b) {
+        return a.size() <= b.size() && a.equals(b.subList(0, a.size()));
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String v : values) {
+            writeString(out, v);
+        }
+    }
+
+    private static void readStrings(DataInputStream in, int version, List<String> keys, Map<String, Integer> ordinals,
+                                    int max) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > max) throw new IOException("Corrupt coverage index: " + count + " keys");
+        for (int i = 0; i < count; i++) {
+            String key = readString(in, version);
+            keys.add(key);
+            ordinals.put(key, i);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, int version) throws IOException {
+        if (version == 1) {
+            return in.readUTF();
+        }
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Corrupt coverage index: string of " + length + " bytes");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package es.us.isa.httpmutator.core.stats;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog estimate of the number of distinct elements, in
+ * {@code 2^precision} bytes (Flajolet et al., with linear counting for small
+ * cardinalities). The standard error is about {@code 1.04 / sqrt(2^precision)}:
+ * 0.8% at the default precision of 14 (16 KB).
+ *
+ * <p>Elements are added as 64-bit hashes ({@link #addHash(long)}); strings are
+ * hashed with murmur3. Not thread-safe.</p>
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) throw new IllegalArgumentException("precision must be in [4, 18]");
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(String value) {
+        addHash(HASH.hashString(value, StandardCharsets.UTF_8).asLong());
+    }
+
+    /** Adds an element by its 64-bit hash, which must be well mixed. */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first 1-bit in the remaining bits; a sentinel bit bounds it
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /** @return the estimated number of distinct elements added */
+    public long cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /** 64-bit finalizer of murmur3, for combining hashes before {@link #addHash(long)}. */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -4,15 +4,24 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import es.us.isa.httpmutator.core.headers.HeaderMutator;
 import es.us.isa.httpmutator.core.headers.charset.CharsetMutator;
 import es.us.isa.httpmutator.core.headers.location.LocationMutator;
 import es.us.isa.httpmutator.core.headers.mediaType.MediaTypeMutator;
+import es.us.isa.httpmutator.core.reporter.OperatorOrdinals;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
@@ -24,6 +33,14 @@ import es.us.isa.httpmutator.core.model.Mutant;
  * Tracks usage counts of mutator-operator combinations, doesn't store complete Mutant objects
  * to avoid memory explosion. Supports both per-test-ID grouping and global statistics.
  * <p>
+ * Thread-safe and lock-free on the recording path: every mutator-operator
+ * combination gets an ordinal ({@link OperatorOrdinals}) the first time it is
+ * seen, and counts live in {@link LongAdder}s indexed by that ordinal, so
+ * concurrent tests (or CLI workers) recording the same combination do not
+ * contend on one counter and no key string is built per record. Reads and exports sum the adders without
+ * blocking writers; a snapshot taken while records are in flight may miss
+ * some of them. Combinations and test IDs keep their first-seen order.
+ * <p>
  * Usage example:
  * <pre>
  *   MutationStatistics stats = MutationStatistics.getInstance();
@@ -36,11 +53,15 @@ import es.us.isa.httpmutator.core.model.Mutant;
 public class MutationStatistics {
     private static final MutationStatistics INSTANCE = new MutationStatistics();
 
-    // Global statistics: "MutatorName-OperatorName" -> count
-    private final Map<String, Long> globalCombinationCounts = new LinkedHashMap<>();
+    // Combination ordinals; header mutants are keyed by the mutator reported for their path
+    private final OperatorOrdinals ordinals = new OperatorOrdinals();
+
+    // Global statistics, by ordinal
+    private volatile Counters global = new Counters(0);
 
-    // Per-test statistics: testId -> ("MutatorName-OperatorName" -> count)
-    private final Map<String, Map<String, Long>> combinationCountsByTest = new LinkedHashMap<>();
+    // Per-test statistics: testId -> counts by ordinal
+    private final Map<String, Counters> countersByTest = new ConcurrentHashMap<>();
+    private final AtomicLong testSequence = new AtomicLong();
 
     public MutationStatistics() {}
 
@@ -48,6 +69,65 @@ public class MutationStatistics {
         return INSTANCE;
     }
 
+    /**
+     * Striped counters indexed by ordinal. Slots are created on first use; the
+     * order of creation is kept for exports.
+     */
+    private static final class Counters {
+        /** Creation order among tests. */
+        final long sequence;
+        private volatile AtomicReferenceArray<LongAdder> adders = new AtomicReferenceArray<>(16);
+        // ordinals in first-seen order; guarded by "this"
+        private int[] order = new int[16];
+        private int orderSize = 0;
+
+        Counters(long sequence) {
+            this.sequence = sequence;
+        }
+
+        void increment(int ordinal) {
+            AtomicReferenceArray<LongAdder> a = adders;
+            LongAdder adder = ordinal < a.length() ? a.get(ordinal) : null;
+            if (adder == null) {
+                adder = slot(ordinal);
+            }
+            adder.increment();
+        }
+
+        private synchronized LongAdder slot(int ordinal) {
+            AtomicReferenceArray<LongAdder> a = adders;
+            if (ordinal >= a.length()) {
+                AtomicReferenceArray<LongAdder> grown =
+                        new AtomicReferenceArray<>(Math.max(ordinal + 1, a.length() * 2));
+                for (int i = 0; i < a.length(); i++) {
+                    grown.set(i, a.get(i));
+                }
+                adders = a = grown;
+            }
+            LongAdder adder = a.get(ordinal);
+            if (adder == null) {
+                adder = new LongAdder();
+                a.set(ordinal, adder);
+                if (orderSize == order.length) {
+                    order = Arrays.copyOf(order, orderSize * 2);
+                }
+                order[orderSize++] = ordinal;
+            }
+            return adder;
+        }
+
+        /** @return ordinals with a counter, in first-seen order */
+        synchronized int[] ordinals() {
+            return Arrays.copyOf(order, orderSize);
+        }
+
+        long get(int ordinal) {
+            AtomicReferenceArray<LongAdder> a = adders;
+            LongAdder adder = ordinal < a.length() ? a.get(ordinal) : null;
+            return adder == null ? 0 : adder.sum();
+        }
+    }
+
     /**
      * Creates a combined key from mutator and operator class names
      */
@@ -55,6 +135,27 @@ public class MutationStatistics {
         return mutatorName + "-" + operatorName;
     }
 
+    /**
+     * Resolves the ordinal of a mutant's combination, assigning one on first sight.
+     */
+    private int ordinalOf(Mutant mutant) {
+        if (mutant.getMutatorClass() == HeaderMutator.class) {
+            return ordinals.ordinalOf(headerMutatorName(mutant.getOriginalJsonPath()), mutant);
+        }
+        return ordinals.ordinalOf(mutant);
+    }
+
+    private static String headerMutatorName(String jsonNodePath) {
+        if (jsonNodePath.equals("Headers/location")) {
+            return LocationMutator.class.getSimpleName();
+        } else if (jsonNodePath.equals("Headers/content-type/mediaType")) {
+            return MediaTypeMutator.class.getSimpleName();
+        } else if (jsonNodePath.equals("Headers/content-type/charset")) {
+            return CharsetMutator.class.getSimpleName();
+        }
+        throw new IllegalArgumentException("Unknown header path for HeaderMutator: " + jsonNodePath);
+    }
+
     /**
      * Records statistics for a single mutant
      */
@@ -66,31 +167,17 @@ public class MutationStatistics {
             throw new NullPointerException("mutant cannot be null");
         }
 
-        String mutantorName = mutant.getMutatorClassName();
-        String jsonNodePath = mutant.getOriginalJsonPath();
-        String operatorName = mutant.getOperatorClassName();
-        if (mutantorName.equals(HeaderMutator.class.getSimpleName())) {
-            if (jsonNodePath.equals("Headers/location")) {
-                mutantorName = LocationMutator.class.getSimpleName();
-            } else if (jsonNodePath.equals("Headers/content-type/mediaType")) {
-                mutantorName = MediaTypeMutator.class.getSimpleName();
-            } else if (jsonNodePath.equals("Headers/content-type/charset")) {
-                mutantorName = CharsetMutator.class.getSimpleName();
-            } else {
-                throw new IllegalArgumentException("Unknown header path for HeaderMutator: " + jsonNodePath);
-            }
-        }
-        String combinationKey = createCombinationKey(
-                mutantorName,
-                operatorName
-        );
+        int ordinal = ordinalOf(mutant);
 
         // Update global counts
-        globalCombinationCounts.merge(combinationKey, 1L, Long::sum);
+        global.increment(ordinal);
 
-        // Update per-test counts
-        combinationCountsByTest.computeIfAbsent(testId, k -> new LinkedHashMap<>())
-                .merge(combinationKey, 1L, Long::sum);
+        // Update per-test counts (get first: computeIfAbsent may lock even when present)
+        Counters perTest = countersByTest.get(testId);
+        if (perTest == null) {
+            perTest = countersByTest.computeIfAbsent(testId, k -> new Counters(testSequence.getAndIncrement()));
+        }
+        perTest.increment(ordinal);
     }
 
     /**
@@ -109,38 +196,47 @@ public class MutationStatistics {
      * Gets global mutator-operator combination statistics
      */
     public Map<String, Long> getGlobalCombinationCounts() {
-        return new LinkedHashMap<>(globalCombinationCounts);
+        return toMap(global);
     }
 
     /**
      * Gets mutator-operator combination statistics for a specific test
      */
     public Map<String, Long> getCombinationCounts(String testId) {
-        Map<String, Long> counts = combinationCountsByTest.get(testId);
-        return counts == null ? new HashMap<>() : new LinkedHashMap<>(counts);
+        Counters counts = countersByTest.get(testId);
+        return counts == null ? new HashMap<>() : toMap(counts);
     }
 
     /**
      * Gets all test IDs
      */
-    public java.util.Set<String> getAllTestIds() {
-        return combinationCountsByTest.keySet();
+    public Set<String> getAllTestIds() {
+        List<Map.Entry<String, Counters>> tests = new ArrayList<>(countersByTest.entrySet());
+        tests.sort((a, b) -> Long.compare(a.getValue().sequence, b.getValue().sequence));
+        Set<String> ids = new LinkedHashSet<>();
+        for (Map.Entry<String, Counters> test : tests) {
+            ids.add(test.getKey());
+        }
+        return ids;
     }
 
     /**
      * Gets total mutant count across all tests
      */
     public long getTotalMutantCount() {
-        return globalCombinationCounts.values().stream()
-                .mapToLong(Long::longValue)
-                .sum();
+        Counters counters = global;
+        long total = 0;
+        for (int ordinal : counters.ordinals()) {
+            total += counters.get(ordinal);
+        }
+        return total;
     }
 
     /**
      * Gets total number of unique mutator-operator combinations
      */
     public int getUniqueCombinationCount() {
-        return globalCombinationCounts.size();
+        return global.ordinals().length;
     }
 
     /**
@@ -148,19 +244,16 @@ public class MutationStatistics {
      * Format: mutatorName,operatorName,count
      */
     public void exportGlobalCsv(Path file) throws IOException {
+        Counters counters = global;
+        int[] recorded = counters.ordinals();
+        // Names after ordinals: every recorded ordinal has its names
+        String[][] names = names();
         try (BufferedWriter writer = Files.newBufferedWriter(file);
              CSVPrinter printer = new CSVPrinter(writer,
                      CSVFormat.DEFAULT.withHeader("mutatorName", "operatorName", "count"))) {
 
-            for (Map.Entry<String, Long> entry : globalCombinationCounts.entrySet()) {
-                String combination = entry.getKey();
-                Long count = entry.getValue();
-
-                String[] parts = combination.split("-", 2);
-                String mutatorName = parts[0];
-                String operatorName = parts.length > 1 ? parts[1] : "";
-
-                printer.printRecord(mutatorName, operatorName, count);
+            for (int ordinal : recorded) {
+                printer.printRecord(names[0][ordinal], names[1][ordinal], counters.get(ordinal));
             }
         }
     }
@@ -170,22 +263,21 @@ public class MutationStatistics {
      * Format: testId,mutatorName,operatorName,count
      */
     public void exportDetailedCsv(Path file) throws IOException {
+        String[][] names = names();
         try (BufferedWriter writer = Files.newBufferedWriter(file);
              CSVPrinter printer = new CSVPrinter(writer,
                      CSVFormat.DEFAULT.withHeader("testId", "mutatorName", "operatorName", "count"))) {
 
             for (String testId : getAllTestIds()) {
-                Map<String, Long> combinationCounts = combinationCountsByTest.get(testId);
-
-                for (Map.Entry<String, Long> entry : combinationCounts.entrySet()) {
-                    String combination = entry.getKey();
-                    Long count = entry.getValue();
-
-                    String[] parts = combination.split("-", 2);
-                    String mutatorName = parts[0];
-                    String operatorName = parts.length > 1 ? parts[1] : "";
-
-                    printer.printRecord(testId, mutatorName, operatorName, count);
+                Counters counters = countersByTest.get(testId);
+                if (counters == null) {
+                    continue; // cleared meanwhile
+                }
+                for (int ordinal : counters.ordinals()) {
+                    if (ordinal >= names[0].length) {
+                        continue; // combination first seen after the export started
+                    }
+                    printer.printRecord(testId, names[0][ordinal], names[1][ordinal], counters.get(ordinal));
                 }
             }
         }
@@ -195,23 +287,41 @@ public class MutationStatistics {
      * Clears all statistics
      */
     public void clear() {
-        globalCombinationCounts.clear();
-        combinationCountsByTest.clear();
+        global = new Counters(0);
+        countersByTest.clear();
     }
 
     /**
      * Clears statistics for a specific test
      */
     public void clearTest(String testId) {
-        combinationCountsByTest.remove(testId);
+        countersByTest.remove(testId);
         // Note: Don't clear global statistics as they are cumulative
     }
 
+    private Map<String, Long> toMap(Counters counters) {
+        int[] recorded = counters.ordinals();
+        String[][] names = names();
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int ordinal : recorded) {
+            map.put(createCombinationKey(names[0][ordinal], names[1][ordinal]), counters.get(ordinal));
+        }
+        return map;
+    }
+
+    /** @return {mutatorNames, operatorNames} covering every ordinal assigned so far */
+    private String[][] names() {
+        String[] operators = ordinals.operatorNames().toArray(new String[0]);
+        // Operators first: a combination assigned in between only makes mutators longer
+        String[] mutators = ordinals.mutatorNames().toArray(new String[0]);
+        return new String[][]{Arrays.copyOf(mutators, operators.length), operators};
+    }
+
     @Override
     public String toString() {
         return String.format("MutationStatistics{testCount=%d, totalMutants=%d, uniqueCombinations=%d}",
-                getAllTestIds().size(),
+                countersByTest.size(),
                 getTotalMutantCount(),
                 getUniqueCombinationCount());
     }
-}
\ No newline at end of file
+}
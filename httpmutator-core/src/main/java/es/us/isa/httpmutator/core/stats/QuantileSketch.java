@@ -0,0 +1,104 @@
+package es.us.isa.httpmutator.core.stats;
+
+/**
+ * Quantile sketch of non-negative values with a fixed relative error, in fixed
+ * memory (a logarithmic histogram, as in DDSketch).
+ *
+ * <p>Values in {@code [1, maxValue]} fall into buckets
+ * {@code ceil(log(v) / log(gamma))} with {@code gamma = (1 + a) / (1 - a)}, so any
+ * reported quantile is within a relative error {@code a} of a value of the input
+ * at that rank. Zero has its own bucket; values above {@code maxValue} are
+ * clamped to the last one (and still count for {@link #getMax()}).</p>
+ *
+ * <p>With the defaults (1% error, values up to 2^40) the sketch holds about 1400
+ * counters, whatever the number of values. Not thread-safe.</p>
+ */
+public final class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    public static final long DEFAULT_MAX_VALUE = 1L << 40;
+
+    private final double gamma;
+    private final double logGamma;
+    private final long[] counts;
+
+    private long zeros = 0;
+    private long count = 0;
+    private double sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_VALUE);
+    }
+
+    public QuantileSketch(double relativeAccuracy, long maxValue) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("relativeAccuracy must be in (0, 1)");
+        }
+        if (maxValue < 1) throw new IllegalArgumentException("maxValue must be >= 1");
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.counts = new long[bucketOf(maxValue) + 1];
+    }
+
+    public void add(long value) {
+        if (value < 0) throw new IllegalArgumentException("value must be >= 0");
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (value == 0) {
+            zeros++;
+        } else {
+            counts[Math.min(bucketOf(value), counts.length - 1)]++;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** @return smallest value added, or 0 if empty */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /** @return largest value added, or 0 if empty */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * @param quantile in {@code [0, 1]}
+     * @return the estimated value at that quantile, or 0 if empty
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) throw new IllegalArgumentException("quantile must be in [0, 1]");
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        if (rank <= zeros) {
+            return 0;
+        }
+        long seen = zeros;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Midpoint (in relative terms) of bucket i: (gamma^(i-1), gamma^i]
+                double value = 2 * Math.pow(gamma, i) / (gamma + 1);
+                return Math.max(getMin(), Math.min(getMax(), value));
+            }
+        }
+        return getMax();
+    }
+
+    private int bucketOf(long value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+}
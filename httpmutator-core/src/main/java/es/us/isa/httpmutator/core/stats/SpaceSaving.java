@@ -0,0 +1,113 @@
+package es.us.isa.httpmutator.core.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Top-K heavy hitters with the Space-Saving algorithm (Metwally et al.), in
+ * memory bounded by {@code capacity} counters.
+ *
+ * <p>A new item takes over the smallest counter when all are in use and
+ * inherits its count as over-estimation error. Any item more frequent than
+ * {@code total / capacity} is guaranteed to be tracked, and a tracked item's true
+ * count lies in {@code [count - error, count]}.</p>
+ *
+ * <p>Finding the smallest counter scans them, so keep the capacity in the
+ * hundreds. Not thread-safe.</p>
+ *
+ * @param <T> item type, with proper {@code equals}/{@code hashCode}
+ */
+public final class SpaceSaving<T> {
+
+    /** A tracked item. */
+    public static final class Entry<T> {
+        private final T item;
+        private long count;
+        private long error;
+
+        Entry(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        /** @return upper bound of the item's count */
+        public long getCount() {
+            return count;
+        }
+
+        /** @return maximum over-estimation of {@link #getCount()} */
+        public long getError() {
+            return error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<T, Entry<T>> entries;
+    private long total = 0;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+    }
+
+    /** Counts one occurrence of {@code item}. */
+    public void add(T item) {
+        add(item, 1);
+    }
+
+    /**
+     * Counts {@code n} occurrences of {@code item}.
+     *
+     * @return the item that lost its counter to {@code item}, or {@code null}
+     */
+    public T add(T item, long n) {
+        Objects.requireNonNull(item, "item must not be null");
+        total += n;
+        Entry<T> entry = entries.get(item);
+        if (entry != null) {
+            entry.count += n;
+            return null;
+        }
+        if (entries.size() < capacity) {
+            entries.put(item, new Entry<>(item, n, 0));
+            return null;
+        }
+        Entry<T> smallest = null;
+        for (Entry<T> e : entries.values()) {
+            if (smallest == null || e.count < smallest.count) {
+                smallest = e;
+            }
+        }
+        entries.remove(smallest.item);
+        entries.put(item, new Entry<>(item, smallest.count + n, smallest.count));
+        return smallest.item;
+    }
+
+    /** @return true if {@code item} currently holds a counter */
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    /** @return occurrences counted so far, tracked or not */
+    public long getTotal() {
+        return total;
+    }
+
+    /** @return the {@code k} most frequent tracked items, by decreasing count */
+    public List<Entry<T>> top(int k) {
+        List<Entry<T>> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparingLong((Entry<T> e) -> e.count).reversed()
+                .thenComparingLong(e -> e.error));
+        return sorted.subList(0, Math.min(k, sorted.size()));
+    }
+}
@@ -0,0 +1,55 @@
+package es.us.isa.httpmutator.core.util;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+
+/**
+ * Replaces output files so that readers see either the old or the new content,
+ * never a partial file.
+ *
+ * <p>Files are written next to their target as {@code <name>.tmp} and then
+ * moved with {@link StandardCopyOption#ATOMIC_MOVE}; file systems that cannot
+ * move atomically fall back to a plain replacing move.</p>
+ */
+public final class AtomicFiles {
+
+    /** Suffix of files that are still being written. */
+    public static final String TMP_SUFFIX = ".tmp";
+
+    private AtomicFiles() {
+        // utility class
+    }
+
+    /**
+     * Moves {@code from} to {@code to}, atomically where the file system allows,
+     * replacing {@code to} if it exists.
+     */
+    public static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Writes {@code bytes} to {@code <target>.tmp} and moves it to {@code target}. */
+    public static void write(Path target, byte[] bytes) throws IOException {
+        Objects.requireNonNull(target, "target must not be null");
+        Path tmp = tmpPathOf(target);
+        try {
+            Files.write(tmp, bytes);
+            move(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** @return the {@code .tmp} sibling of {@code target} */
+    public static Path tmpPathOf(Path target) {
+        return target.resolveSibling(target.getFileName() + TMP_SUFFIX);
+    }
+}
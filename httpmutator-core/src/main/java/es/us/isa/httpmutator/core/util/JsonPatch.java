@@ -0,0 +1,263 @@
+package es.us.isa.httpmutator.core.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Minimal RFC 6902 (JSON Patch) support: {@code add}, {@code remove} and
+ * {@code replace} operations addressed by RFC 6901 JSON Pointers.
+ *
+ * <p>{@link #diff(JsonNode, JsonNode)} walks both trees and emits one operation
+ * per differing node, so a mutant that changes a single field of a large
+ * response yields a single small {@code replace}. Array differences are
+ * reduced to their middle part (after the common prefix and suffix), which
+ * covers element insertion, removal and replacement done by the mutators.</p>
+ *
+ * <p>{@link #apply(JsonNode, ArrayNode)} works on a deep copy; the source tree is
+ * never modified.</p>
+ */
+public final class JsonPatch {
+
+    public static final String OP = "op";
+    public static final String PATH = "path";
+    public static final String VALUE = "value";
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private JsonPatch() {
+        // utility class
+    }
+
+    // ===================== Diff =====================
+
+    /**
+     * Computes the operations that turn {@code source} into {@code target}.
+     *
+     * @return the patch; empty if both trees are equal
+     */
+    public static ArrayNode diff(JsonNode source, JsonNode target) {
+        return diff("", source, target);
+    }
+
+    /**
+     * Computes the operations that turn the node at {@code path} of a document
+     * from {@code source} into {@code target}; operation paths are prefixed with
+     * {@code path}.
+     *
+     * @param path JSON Pointer of both nodes ({@code ""} for the root)
+     * @return the patch; empty if both trees are equal
+     */
+    public static ArrayNode diff(String path, JsonNode source, JsonNode target) {
+        Objects.requireNonNull(path, "path must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+        ArrayNode patch = NODES.arrayNode();
+        diff(patch, path, source, target);
+        return patch;
+    }
+
+    /** @return a patch with the single operation removing the node at {@code path} */
+    public static ArrayNode remove(String path) {
+        ArrayNode patch = NODES.arrayNode();
+        addOp(patch, "remove", path, null);
+        return patch;
+    }
+
+    private static void diff(ArrayNode patch, String path, JsonNode source, JsonNode target) {
+        if (source.equals(target)) {
+            return;
+        }
+        if (source.isObject() && target.isObject()) {
+            diffObjects(patch, path, source, target);
+        } else if (source.isArray() && target.isArray()) {
+            diffArrays(patch, path, source, target);
+        } else {
+            addOp(patch, "replace", path, target);
+        }
+    }
+
+    private static void diffObjects(ArrayNode patch, String path, JsonNode source, JsonNode target) {
+        Iterator<Map.Entry<String, JsonNode>> fields = source.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String childPath = path + "/" + escape(field.getKey());
+            JsonNode other = target.get(field.getKey());
+            if (other == null) {
+                addOp(patch, "remove", childPath, null);
+            } else {
+                diff(patch, childPath, field.getValue(), other);
+            }
+        }
+        fields = target.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!source.has(field.getKey())) {
+                addOp(patch, "add", path + "/" + escape(field.getKey()), field.getValue());
+            }
+        }
+    }
+
+    private static void diffArrays(ArrayNode patch, String path, JsonNode source, JsonNode target) {
+        int n = source.size();
+        int m = target.size();
+
+        int prefix = 0;
+        while (prefix < n && prefix < m && source.get(prefix).equals(target.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < n - prefix && suffix < m - prefix
+                && source.get(n - 1 - suffix).equals(target.get(m - 1 - suffix))) {
+            suffix++;
+        }
+
+        int sourceMiddle = n - prefix - suffix;
+        int targetMiddle = m - prefix - suffix;
+        int common = Math.min(sourceMiddle, targetMiddle);
+        for (int i = 0; i < common; i++) {
+            diff(patch, path + "/" + (prefix + i), source.get(prefix + i), target.get(prefix + i));
+        }
+        // Removing at the same index shifts the following elements down
+        for (int i = common; i < sourceMiddle; i++) {
+            addOp(patch, "remove", path + "/" + (prefix + common), null);
+        }
+        for (int i = common; i < targetMiddle; i++) {
+            addOp(patch, "add", path + "/" + (prefix + i), target.get(prefix + i));
+        }
+    }
+
+    private static void addOp(ArrayNode patch, String op, String path, JsonNode value) {
+        ObjectNode o = patch.addObject();
+        o.put(OP, op);
+        o.put(PATH, path);
+        if (value != null) {
+            o.set(VALUE, value);
+        }
+    }
+
+    // ===================== Apply =====================
+
+    /**
+     * Applies {@code patch} to a deep copy of {@code source}.
+     *
+     * @return the patched tree
+     * @throws IllegalArgumentException if an operation is unsupported or its path does not resolve
+     */
+    public static JsonNode apply(JsonNode source, ArrayNode patch) {
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(patch, "patch must not be null");
+
+        JsonNode root = source.deepCopy();
+        for (JsonNode operation : patch) {
+            String op = operation.path(OP).asText();
+            String path = operation.path(PATH).asText();
+            JsonNode value = operation.get(VALUE);
+
+            if (path.isEmpty()) {
+                if (!"replace".equals(op) && !"add".equals(op)) {
+                    throw new IllegalArgumentException("Unsupported root operation: " + op);
+                }
+                root = value;
+                continue;
+            }
+
+            int slash = path.lastIndexOf('/');
+            JsonNode parent = resolve(root, path.substring(0, slash));
+            String token = unescape(path.substring(slash + 1));
+            switch (op) {
+                case "add":
+                    add(parent, token, value, path);
+                    break;
+                case "remove":
+                    remove(parent, token, path);
+                    break;
+                case "replace":
+                    replace(parent, token, value, path);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported patch operation: " + op);
+            }
+        }
+        return root;
+    }
+
+    private static JsonNode resolve(JsonNode root, String pointer) {
+        JsonNode node = root;
+        if (pointer.isEmpty()) {
+            return node;
+        }
+        for (String raw : pointer.substring(1).split("/", -1)) {
+            String token = unescape(raw);
+            node = node.isArray() ? node.get(index(token, pointer)) : node.get(token);
+            if (node == null) {
+                throw new IllegalArgumentException("Path does not exist: " + pointer);
+            }
+        }
+        return node;
+    }
+
+    private static void add(JsonNode parent, String token, JsonNode value, String path) {
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(token, value);
+        } else if (parent.isArray()) {
+            ArrayNode array = (ArrayNode) parent;
+            if ("-".equals(token)) {
+                array.add(value);
+            } else {
+                array.insert(index(token, path), value);
+            }
+        } else {
+            throw new IllegalArgumentException("Parent is not a container: " + path);
+        }
+    }
+
+    private static void remove(JsonNode parent, String token, String path) {
+        JsonNode removed;
+        if (parent.isObject()) {
+            removed = ((ObjectNode) parent).remove(token);
+        } else if (parent.isArray()) {
+            removed = ((ArrayNode) parent).remove(index(token, path));
+        } else {
+            removed = null;
+        }
+        if (removed == null) {
+            throw new IllegalArgumentException("Path does not exist: " + path);
+        }
+    }
+
+    /** Replaces in place, so object fields keep their position. */
+    private static void replace(JsonNode parent, String token, JsonNode value, String path) {
+        if (parent.isObject() && parent.has(token)) {
+            ((ObjectNode) parent).set(token, value);
+        } else if (parent.isArray() && index(token, path) < parent.size()) {
+            ((ArrayNode) parent).set(index(token, path), value);
+        } else {
+            throw new IllegalArgumentException("Path does not exist: " + path);
+        }
+    }
+
+    private static int index(String token, String path) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid array index in path: " + path, e);
+        }
+    }
+
+    // ===================== JSON Pointer escaping =====================
+
+    /** @return {@code token} escaped as one JSON Pointer reference token */
+    public static String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
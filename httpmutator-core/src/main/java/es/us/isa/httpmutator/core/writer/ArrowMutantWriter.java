@@ -0,0 +1,257 @@
+package es.us.isa.httpmutator.core.writer;
+
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link MutantWriter} that writes mutants as an Apache Arrow IPC file
+ * (the Feather v2 format), one row per mutant.
+ *
+ * <p>Metadata lives in plain typed columns, so analytics tools (pandas, Polars,
+ * DuckDB, ...) can filter and aggregate over millions of mutants while reading
+ * only the columns they touch. The full response is kept as canonical JSON
+ * bytes (the same object a {@link JsonlMutantWriter} line holds, without
+ * metadata) in a binary column.</p>
+ *
+ * <h2>Schema</h2>
+ * <ul>
+ *     <li>{@code original_id} (utf8): {@link HttpExchange#getId()}</li>
+ *     <li>{@code mutant_id} (int64): {@link Mutant#getId()}, null if not assigned</li>
+ *     <li>{@code json_path} (utf8): {@link Mutant#getOriginalJsonPath()}</li>
+ *     <li>{@code mutator} (utf8): {@link Mutant#getMutatorClassName()}</li>
+ *     <li>{@code operator} (utf8): {@link Mutant#getOperatorClassName()}</li>
+ *     <li>{@code status_code} (int32): status code of the mutated response</li>
+ *     <li>{@code body_size} (int64): size in bytes of the serialized body</li>
+ *     <li>{@code response} (binary): canonical JSON of the mutated response</li>
+ * </ul>
+ *
+ * <p>Rows are buffered in off-heap vectors and written as one record batch every
+ * {@code batchSize} mutants. The file footer is only written by {@link #close()};
+ * a file that was not closed cannot be read.</p>
+ *
+ * <p>Arrow is an optional dependency of this module: callers using this writer
+ * add {@code arrow-vector} and {@code arrow-memory-unsafe} (or
+ * {@code arrow-memory-netty}) themselves. On JDK 9+ Arrow's memory module needs
+ * {@code --add-opens=java.base/java.nio=ALL-UNNAMED}.</p>
+ */
+public class ArrowMutantWriter implements CanonicalBytesWriter {
+
+    public static final String COLUMN_ORIGINAL_ID = "original_id";
+    public static final String COLUMN_MUTANT_ID = "mutant_id";
+    public static final String COLUMN_JSON_PATH = "json_path";
+    public static final String COLUMN_MUTATOR = "mutator";
+    public static final String COLUMN_OPERATOR = "operator";
+    public static final String COLUMN_STATUS_CODE = "status_code";
+    public static final String COLUMN_BODY_SIZE = "body_size";
+    public static final String COLUMN_RESPONSE = "response";
+
+    /** Default number of rows per record batch. */
+    public static final int DEFAULT_BATCH_SIZE = 8_192;
+
+    /** Arrow schema of the files written by this class. */
+    public static final Schema SCHEMA = new Schema(Arrays.asList(
+            Field.nullable(COLUMN_ORIGINAL_ID, ArrowType.Utf8.INSTANCE),
+            Field.nullable(COLUMN_MUTANT_ID, new ArrowType.Int(64, true)),
+            Field.nullable(COLUMN_JSON_PATH, ArrowType.Utf8.INSTANCE),
+            Field.nullable(COLUMN_MUTATOR, ArrowType.Utf8.INSTANCE),
+            Field.nullable(COLUMN_OPERATOR, ArrowType.Utf8.INSTANCE),
+            new Field(COLUMN_STATUS_CODE, FieldType.notNullable(new ArrowType.Int(32, true)), null),
+            new Field(COLUMN_BODY_SIZE, FieldType.notNullable(new ArrowType.Int(64, true)), null),
+            new Field(COLUMN_RESPONSE, FieldType.notNullable(ArrowType.Binary.INSTANCE), null)));
+
+    private final int batchSize;
+
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final ArrowFileWriter writer;
+
+    private final VarCharVector originalIds;
+    private final BigIntVector mutantIds;
+    private final VarCharVector jsonPaths;
+    private final VarCharVector mutators;
+    private final VarCharVector operators;
+    private final IntVector statusCodes;
+    private final BigIntVector bodySizes;
+    private final VarBinaryVector responses;
+
+    /** Used by {@link #write} only, when no shared buffer is handed in. */
+    private CanonicalJsonBuffer ownBuffer;
+
+    private int rows = 0;
+    private long totalRows = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates an Arrow writer with {@link #DEFAULT_BATCH_SIZE} rows per batch.
+     *
+     * @param out the stream receiving the Arrow IPC file
+     */
+    public ArrowMutantWriter(OutputStream out) throws IOException {
+        this(out, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an Arrow writer.
+     *
+     * @param out       the stream receiving the Arrow IPC file
+     * @param batchSize number of rows per record batch
+     */
+    public ArrowMutantWriter(OutputStream out, int batchSize) throws IOException {
+        Objects.requireNonNull(out, "out must not be null");
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0");
+        }
+        this.batchSize = batchSize;
+
+        this.allocator = new RootAllocator();
+        try {
+            this.root = VectorSchemaRoot.create(SCHEMA, allocator);
+            this.originalIds = (VarCharVector) root.getVector(COLUMN_ORIGINAL_ID);
+            this.mutantIds = (BigIntVector) root.getVector(COLUMN_MUTANT_ID);
+            this.jsonPaths = (VarCharVector) root.getVector(COLUMN_JSON_PATH);
+            this.mutators = (VarCharVector) root.getVector(COLUMN_MUTATOR);
+            this.operators = (VarCharVector) root.getVector(COLUMN_OPERATOR);
+            this.statusCodes = (IntVector) root.getVector(COLUMN_STATUS_CODE);
+            this.bodySizes = (BigIntVector) root.getVector(COLUMN_BODY_SIZE);
+            this.responses = (VarBinaryVector) root.getVector(COLUMN_RESPONSE);
+            root.allocateNew();
+
+            WritableByteChannel channel = Channels.newChannel(
+                    new BufferedOutputStream(out, JsonlMutantWriter.DEFAULT_BUFFER_SIZE));
+            this.writer = new ArrowFileWriter(root, null, channel);
+            writer.start();
+        } catch (IOException | RuntimeException e) {
+            allocator.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(HttpExchange exchange,
+                      StandardHttpResponse mutatedResponse,
+                      Mutant mutant) throws IOException {
+        if (mutatedResponse == null) {
+            return;
+        }
+        if (ownBuffer == null) {
+            ownBuffer = new CanonicalJsonBuffer();
+        }
+        writeCanonical(exchange, mutatedResponse, mutant, ownBuffer.serialize(mutatedResponse));
+    }
+
+    @Override
+    public void writeCanonical(HttpExchange exchange,
+                               StandardHttpResponse mutatedResponse,
+                               Mutant mutant,
+                               CanonicalJsonBuffer canonical) throws IOException {
+        if (closed) {
+            throw new IOException("ArrowMutantWriter is already closed");
+        }
+        if (mutatedResponse == null) {
+            return;
+        }
+
+        int row = rows;
+        setString(originalIds, row, exchange == null ? null : exchange.getId());
+        if (mutant != null && mutant.hasId()) {
+            mutantIds.setSafe(row, mutant.getId());
+        } else {
+            mutantIds.setNull(row);
+        }
+        setString(jsonPaths, row, mutant == null ? null : mutant.getOriginalJsonPath());
+        setString(mutators, row, mutant == null ? null : mutant.getMutatorClassName());
+        setString(operators, row, mutant == null ? null : mutant.getOperatorClassName());
+        statusCodes.setSafe(row, mutatedResponse.getStatusCode());
+        bodySizes.setSafe(row, canonical.bodyLength());
+        responses.setSafe(row, canonical.array(), 0, canonical.length());
+
+        if (++rows >= batchSize) {
+            writeBatch();
+        }
+    }
+
+    /** @return number of rows written so far, including rows not yet flushed as a batch */
+    public long getRowCount() {
+        return totalRows + rows;
+    }
+
+    /**
+     * Writes the pending rows as a (possibly short) record batch. Frequent
+     * flushes produce many small batches, which readers handle less efficiently.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        writeBatch();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeBatch();
+            writer.end();
+        } finally {
+            try {
+                // Closes the channel, and with it the buffer and the caller's stream
+                writer.close();
+            } finally {
+                root.close();
+                allocator.close();
+            }
+        }
+    }
+
+    // -----------------------------
+    // Batching
+    // -----------------------------
+    private void writeBatch() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        root.setRowCount(rows);
+        writer.writeBatch();
+        totalRows += rows;
+        rows = 0;
+        // Keep the buffers: the next batch overwrites them from row 0
+        for (FieldVector vector : root.getFieldVectors()) {
+            vector.reset();
+        }
+    }
+
+    private static void setString(VarCharVector vector, int row, String value) {
+        if (value == null) {
+            vector.setNull(row);
+        } else {
+            vector.setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
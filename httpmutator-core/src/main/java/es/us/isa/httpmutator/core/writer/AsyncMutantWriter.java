@@ -0,0 +1,358 @@
+package es.us.isa.httpmutator.core.writer;
+
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link MutantWriter} decorator that moves the delegate's I/O onto a dedicated
+ * writer thread, so that mutation and output (serialization, compression, disk)
+ * overlap.
+ *
+ * <p>Mutants are handed over through a bounded ring of preallocated slots.
+ * Only references are enqueued: the exchange, mutated response and
+ * {@link Mutant} produced by the pipeline are not modified after being written,
+ * so no copy is needed. The delegate is only ever called from the writer
+ * thread.</p>
+ *
+ * <p>When the delegate is a {@link CanonicalBytesWriter}, so is this writer:
+ * the canonical bytes shared by {@code HttpMutator} are only valid during the
+ * call, so they are copied into the slot and handed to the delegate's
+ * {@link CanonicalBytesWriter#writeCanonical} on the writer thread, which keeps
+ * the response serialized once.</p>
+ *
+ * <h2>Backpressure</h2>
+ * <ul>
+ *     <li>{@link #AsyncMutantWriter(MutantWriter, int)}: when the ring is full,
+ *         {@link #write} blocks until the writer thread frees a slot.</li>
+ *     <li>{@link #AsyncMutantWriter(MutantWriter, int, long, TimeUnit)}: waits at
+ *         most the given time for a free slot and then fails the write with an
+ *         {@link IOException}. A timeout of {@code 0} fails immediately.</li>
+ * </ul>
+ *
+ * <h2>Flush and close</h2>
+ * <p>{@link #flush()} waits until every previously written mutant has reached the
+ * delegate and the delegate has been flushed. {@link #close()} drains the ring,
+ * closes the delegate on the writer thread and joins it.</p>
+ *
+ * <h2>Failure Behavior</h2>
+ * <p>The first exception thrown by the delegate is recorded; the writer thread
+ * then discards remaining mutants (so producers never dead-lock) and every
+ * subsequent {@link #write}, {@link #flush()} and {@link #close()} throws an
+ * {@link IOException} carrying it as the cause.</p>
+ *
+ * <p>{@code write} may be called from several threads.</p>
+ */
+public final class AsyncMutantWriter implements CanonicalBytesWriter, MeteredMutantWriter {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private enum Kind { MUTANT, FLUSH, CLOSE }
+
+    private static final class Slot {
+        Kind kind;
+        HttpExchange exchange;
+        StandardHttpResponse response;
+        Mutant mutant;
+        /** Copy of the canonical bytes, or {@code null} to call {@code write}. */
+        byte[] canonical;
+        int bodyLength;
+    }
+
+    private final MutantWriter delegate;
+    private final Slot[] ring;
+
+    /** Negative: block indefinitely. */
+    private final long offerTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition progressed = lock.newCondition();
+
+    /** Sequence of the next slot to consume / publish, and of slots fully processed. */
+    private long head = 0;
+    private long tail = 0;
+    private long completed = 0;
+
+    private volatile Throwable failure;
+    private boolean closed = false;
+
+    private final Thread worker;
+
+    public AsyncMutantWriter(MutantWriter delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param delegate writer that performs the actual output
+     * @param capacity number of ring slots
+     */
+    public AsyncMutantWriter(MutantWriter delegate, int capacity) {
+        this(delegate, capacity, -1L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param delegate     writer that performs the actual output
+     * @param capacity     number of ring slots
+     * @param offerTimeout maximum time {@link #write} waits for a free slot
+     * @param unit         unit of {@code offerTimeout}
+     */
+    public AsyncMutantWriter(MutantWriter delegate, int capacity, long offerTimeout, TimeUnit unit) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        Objects.requireNonNull(unit, "unit must not be null");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.offerTimeoutNanos = offerTimeout < 0 ? -1L : unit.toNanos(offerTimeout);
+
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+        }
+
+        this.worker = new Thread(this::drainLoop, "httpmutator-async-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void write(HttpExchange exchange,
+                      StandardHttpResponse mutatedResponse,
+                      Mutant mutant) throws IOException {
+        throwIfFailed();
+        publish(Kind.MUTANT, exchange, mutatedResponse, mutant, null, 0, offerTimeoutNanos);
+    }
+
+    @Override
+    public void writeCanonical(HttpExchange exchange,
+                               StandardHttpResponse mutatedResponse,
+                               Mutant mutant,
+                               CanonicalJsonBuffer canonical) throws IOException {
+        throwIfFailed();
+        if (!acceptsCanonicalBytes()) {
+            publish(Kind.MUTANT, exchange, mutatedResponse, mutant, null, 0, offerTimeoutNanos);
+            return;
+        }
+        publish(Kind.MUTANT, exchange, mutatedResponse, mutant,
+                Arrays.copyOf(canonical.array(), canonical.length()), canonical.bodyLength(), offerTimeoutNanos);
+    }
+
+    /** @return whether the delegate is a {@link CanonicalBytesWriter} that accepts the bytes */
+    @Override
+    public boolean acceptsCanonicalBytes() {
+        return delegate instanceof CanonicalBytesWriter && ((CanonicalBytesWriter) delegate).acceptsCanonicalBytes();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long seq = publish(Kind.FLUSH, null, null, null, null, 0, -1L);
+        awaitCompleted(seq);
+        throwIfFailed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+
+        publish(Kind.CLOSE, null, null, null, null, 0, -1L);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing AsyncMutantWriter");
+        }
+        throwIfFailed();
+    }
+
+    /** Number of mutants currently waiting for the writer thread. */
+    @Override
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return (int) (tail - head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /** @return the delegate's count if it is a {@link MeteredMutantWriter}, else {@code 0} */
+    @Override
+    public long getUncompressedBytes() {
+        return delegate instanceof MeteredMutantWriter ? ((MeteredMutantWriter) delegate).getUncompressedBytes() : 0;
+    }
+
+    /** @return the delegate's count if it is a {@link MeteredMutantWriter}, else {@code 0} */
+    @Override
+    public long getCompressedBytes() {
+        return delegate instanceof MeteredMutantWriter ? ((MeteredMutantWriter) delegate).getCompressedBytes() : 0;
+    }
+
+    // ===================== producer side =====================
+
+    /**
+     * Claims the next slot, waiting according to {@code timeoutNanos}, and returns
+     * the sequence number that {@link #completed} reaches once it is processed.
+     */
+    private long publish(Kind kind,
+                         HttpExchange exchange,
+                         StandardHttpResponse response,
+                         Mutant mutant,
+                         byte[] canonical,
+                         int bodyLength,
+                         long timeoutNanos) throws IOException {
+        lock.lock();
+        try {
+            if (closed && kind != Kind.CLOSE) {
+                throw new IOException("AsyncMutantWriter is already closed");
+            }
+            long nanos = timeoutNanos;
+            while (tail - head == ring.length) {
+                if (nanos < 0) {
+                    notFull.await();
+                } else if (nanos == 0) {
+                    throw new IOException("AsyncMutantWriter queue is full (capacity " + ring.length + ")");
+                } else {
+                    nanos = Math.max(notFull.awaitNanos(nanos), 0);
+                }
+            }
+
+            Slot slot = ring[(int) (tail % ring.length)];
+            slot.kind = kind;
+            slot.exchange = exchange;
+            slot.response = response;
+            slot.mutant = mutant;
+            slot.canonical = canonical;
+            slot.bodyLength = bodyLength;
+            tail++;
+            notEmpty.signal();
+            return tail;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free AsyncMutantWriter slot");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitCompleted(long seq) throws IOException {
+        lock.lock();
+        try {
+            while (completed < seq) {
+                progressed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing AsyncMutantWriter");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void throwIfFailed() throws IOException {
+        Throwable t = failure;
+        if (t != null) {
+            throw new IOException("Asynchronous write failed: " + t.getMessage(), t);
+        }
+    }
+
+    // ===================== writer thread =====================
+
+    private void drainLoop() {
+        // Only used when the slot carries canonical bytes
+        CanonicalJsonBuffer buffer = null;
+        while (true) {
+            Kind kind;
+            HttpExchange exchange;
+            StandardHttpResponse response;
+            Mutant mutant;
+            byte[] canonical;
+            int bodyLength;
+
+            lock.lock();
+            try {
+                while (head == tail) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                Slot slot = ring[(int) (head % ring.length)];
+                kind = slot.kind;
+                exchange = slot.exchange;
+                response = slot.response;
+                mutant = slot.mutant;
+                canonical = slot.canonical;
+                bodyLength = slot.bodyLength;
+                // Release references so the slot does not keep mutants alive
+                slot.exchange = null;
+                slot.response = null;
+                slot.mutant = null;
+                slot.canonical = null;
+                head++;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                switch (kind) {
+                    case MUTANT:
+                        if (failure == null && canonical != null) {
+                            if (buffer == null) {
+                                buffer = new CanonicalJsonBuffer();
+                            }
+                            ((CanonicalBytesWriter) delegate).writeCanonical(exchange, response, mutant,
+                                    buffer.load(canonical, bodyLength));
+                        } else if (failure == null) {
+                            delegate.write(exchange, response, mutant);
+                        }
+                        break;
+                    case FLUSH:
+                        if (failure == null) {
+                            delegate.flush();
+                        }
+                        break;
+                    case CLOSE:
+                        delegate.close();
+                        break;
+                    default:
+                        break;
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+
+            lock.lock();
+            try {
+                completed++;
+                progressed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            if (kind == Kind.CLOSE) {
+                return;
+            }
+        }
+    }
+}
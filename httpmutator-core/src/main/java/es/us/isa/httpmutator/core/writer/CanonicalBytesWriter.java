@@ -0,0 +1,43 @@
+package es.us.isa.httpmutator.core.writer;
+
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * A {@link MutantWriter} that can consume a mutant already serialized to
+ * canonical JSON bytes.
+ *
+ * <p>When at least one registered writer implements this interface,
+ * {@code HttpMutator} serializes each mutated response once into a shared
+ * {@link CanonicalJsonBuffer} and calls {@link #writeCanonical} instead of
+ * {@link #write}. The output must be the same as {@link #write} would produce
+ * for the same arguments.</p>
+ */
+public interface CanonicalBytesWriter extends MutantWriter {
+
+    /**
+     * Writes a mutant whose canonical JSON is held in {@code canonical}.
+     *
+     * @param exchange        original HTTP exchange
+     * @param mutatedResponse mutated canonical response (for writers that need more than the bytes)
+     * @param mutant          metadata about the applied mutation
+     * @param canonical       serialized {@code mutatedResponse}; only valid during this call
+     * @throws IOException if a write error occurs
+     */
+    void writeCanonical(HttpExchange exchange,
+                        StandardHttpResponse mutatedResponse,
+                        Mutant mutant,
+                        CanonicalJsonBuffer canonical) throws IOException;
+
+    /**
+     * @return whether {@link #writeCanonical} makes use of the bytes; a decorator
+     *         whose target would serialize the response again returns {@code false},
+     *         so that {@code HttpMutator} does not serialize for it
+     */
+    default boolean acceptsCanonicalBytes() {
+        return true;
+    }
+}
@@ -0,0 +1,108 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Reusable buffer holding the canonical JSON of one mutated response:
+ * {@code {"Status Code":...,"Headers":{...},"Body":...}} as UTF-8, without a
+ * trailing newline.
+ *
+ * <p>{@code HttpMutator} serializes each mutant into one of these once and hands
+ * it to every {@link CanonicalBytesWriter}, so registering several byte-oriented
+ * writers does not multiply serialization work. The backing array and the
+ * generator are reused across mutants; content is only valid until the next
+ * {@link #serialize(StandardHttpResponse)}.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class CanonicalJsonBuffer {
+
+    private static final JsonFactory FACTORY = new ObjectMapper().getFactory();
+
+    private final Bytes bytes = new Bytes(8192);
+    private final JsonGenerator gen;
+    private int bodyLength;
+
+    public CanonicalJsonBuffer() {
+        try {
+            this.gen = CanonicalJsonl.configureForLines(FACTORY.createGenerator(bytes, JsonEncoding.UTF8));
+        } catch (IOException e) {
+            // Creating a generator over an in-memory stream performs no I/O
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replaces the buffer content with the canonical JSON of {@code response}.
+     *
+     * @return this buffer
+     */
+    public CanonicalJsonBuffer serialize(StandardHttpResponse response) throws IOException {
+        bytes.reset();
+        gen.writeStartObject();
+        CanonicalJsonl.writeStatusAndHeaders(gen, response);
+        gen.writeFieldName("Body");
+        gen.flush();
+        int bodyStart = bytes.size();
+        CanonicalJsonl.writeBody(gen, response);
+        gen.flush();
+        // The generator emits the ':' separator together with the value
+        bodyLength = bytes.size() - bodyStart - 1;
+        gen.writeEndObject();
+        gen.flush();
+        return this;
+    }
+
+    /**
+     * Replaces the buffer content with bytes previously copied out of a buffer
+     * ({@link #array()} up to {@link #length()}).
+     *
+     * @return this buffer
+     */
+    CanonicalJsonBuffer load(byte[] canonical, int bodyLength) {
+        bytes.reset();
+        bytes.write(canonical, 0, canonical.length);
+        this.bodyLength = bodyLength;
+        return this;
+    }
+
+    /** @return size in bytes of the serialized {@code "Body"} value ({@code 4} for {@code null}) */
+    public int bodyLength() {
+        return bodyLength;
+    }
+
+    /** @return the backing array; only the first {@link #length()} bytes are valid */
+    public byte[] array() {
+        return bytes.array();
+    }
+
+    /** @return number of valid bytes */
+    public int length() {
+        return bytes.size();
+    }
+
+    /** Writes the whole canonical object to {@code out}. */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes.array(), 0, bytes.size());
+    }
+
+    /** {@link ByteArrayOutputStream} exposing its array, so readers need no copy. */
+    private static final class Bytes extends ByteArrayOutputStream {
+        Bytes(int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.MutantId;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Shared streaming serialization of canonical responses for the JSONL-based
+ * writers.
+ *
+ * <p>Fields are written straight from the {@link StandardHttpResponse} getters
+ * onto a {@link JsonGenerator}, so no intermediate {@code ObjectNode} is built
+ * and the mutant tree is never modified. The field order matches
+ * {@link StandardHttpResponse#toJsonNode()}.</p>
+ *
+ * <p>Only the metadata field names are public, for readers of the output; the
+ * serialization helpers are internal to the writers.</p>
+ */
+public final class CanonicalJsonl {
+
+    public static final String META_ORIGINAL_ID = "_hm_original_id";
+    public static final String META_MUTANT_ID = "_hm_mutant_id";
+    public static final String META_ORIGINAL_JSON_PATH = "_hm_original_json_path";
+    public static final String META_MUTATOR = "_hm_mutator";
+    public static final String META_OPERATOR = "_hm_operator";
+
+    private static final byte[] FIELD_ORIGINAL_ID = fieldPrefix(META_ORIGINAL_ID);
+    private static final byte[] FIELD_MUTANT_ID = fieldPrefix(META_MUTANT_ID);
+    private static final byte[] FIELD_ORIGINAL_JSON_PATH = fieldPrefix(META_ORIGINAL_JSON_PATH);
+    private static final byte[] FIELD_MUTATOR = fieldPrefix(META_MUTATOR);
+    private static final byte[] FIELD_OPERATOR = fieldPrefix(META_OPERATOR);
+
+    private CanonicalJsonl() {
+        // utility class
+    }
+
+    /**
+     * Prepares a generator for writing one JSON object per line: the target is
+     * never closed by the generator and no separator is inserted between root
+     * values (lines are terminated explicitly with {@code '\n'}).
+     */
+    static JsonGenerator configureForLines(JsonGenerator gen) {
+        gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        gen.setRootValueSeparator(null);
+        return gen;
+    }
+
+    /**
+     * Writes {@code "Status Code"}, {@code "Headers"} and {@code "Body"} into the
+     * object currently open on {@code gen}.
+     */
+    static void writeResponseFields(JsonGenerator gen, StandardHttpResponse response) throws IOException {
+        writeStatusAndHeaders(gen, response);
+        gen.writeFieldName("Body");
+        writeBody(gen, response);
+    }
+
+    /** Writes {@code "Status Code"} and {@code "Headers"}. */
+    static void writeStatusAndHeaders(JsonGenerator gen, StandardHttpResponse response) throws IOException {
+        gen.writeNumberField("Status Code", response.getStatusCode());
+
+        Map<String, Object> headers = response.getHeaders();
+        gen.writeFieldName("Headers");
+        if (headers == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject();
+            for (Map.Entry<String, Object> h : headers.entrySet()) {
+                gen.writeFieldName(h.getKey());
+                gen.writeObject(h.getValue());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /** Writes the value of {@code "Body"} (the field name must already be written). */
+    static void writeBody(JsonGenerator gen, StandardHttpResponse response) throws IOException {
+        if (response.getBody() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeTree(response.getBody());
+        }
+    }
+
+    /**
+     * Writes the {@code _hm_*} mutation metadata fields into the object currently
+     * open on {@code gen}. Fields whose value is {@code null} are omitted, as on
+     * the splicing path.
+     */
+    static void writeMetaFields(JsonGenerator gen, HttpExchange exchange, Mutant mutant) throws IOException {
+        writeIdFields(gen, exchange, mutant);
+        writeStringField(gen, META_ORIGINAL_JSON_PATH, mutant.getOriginalJsonPath());
+        writeStringField(gen, META_MUTATOR, mutant.getMutatorClassName());
+        writeStringField(gen, META_OPERATOR, mutant.getOperatorClassName());
+    }
+
+    /**
+     * Writes {@code _hm_original_id} and, if the mutant has one,
+     * {@code _hm_mutant_id} into the object currently open on {@code gen}.
+     */
+    static void writeIdFields(JsonGenerator gen, HttpExchange exchange, Mutant mutant) throws IOException {
+        writeStringField(gen, META_ORIGINAL_ID, exchange.getId());
+        if (mutant != null && mutant.hasId()) {
+            gen.writeStringField(META_MUTANT_ID, MutantId.toHex(mutant.getId()));
+        }
+    }
+
+    private static void writeStringField(JsonGenerator gen, String name, String value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(name, value);
+        }
+    }
+
+    // ===================== Splicing onto canonical bytes =====================
+
+    /**
+     * Writes {@code canonical} as one line, with the fields of
+     * {@link #writeIdFields} spliced in before the closing brace. Same bytes as a
+     * generator writing the response fields followed by the ids.
+     */
+    static void writeLineWithIds(OutputStream out, CanonicalJsonBuffer canonical,
+                                 HttpExchange exchange, Mutant mutant) throws IOException {
+        out.write(canonical.array(), 0, canonical.length() - 1);
+        writeStringField(out, FIELD_ORIGINAL_ID, exchange.getId());
+        writeMutantId(out, mutant);
+        out.write('}');
+        out.write('\n');
+    }
+
+    /**
+     * Writes {@code canonical} as one line, with the fields of
+     * {@link #writeMetaFields} spliced in before the closing brace.
+     */
+    static void writeLineWithMeta(OutputStream out, CanonicalJsonBuffer canonical,
+                                  HttpExchange exchange, Mutant mutant) throws IOException {
+        out.write(canonical.array(), 0, canonical.length() - 1);
+        writeStringField(out, FIELD_ORIGINAL_ID, exchange.getId());
+        writeMutantId(out, mutant);
+        writeStringField(out, FIELD_ORIGINAL_JSON_PATH, mutant.getOriginalJsonPath());
+        writeStringField(out, FIELD_MUTATOR, mutant.getMutatorClassName());
+        writeStringField(out, FIELD_OPERATOR, mutant.getOperatorClassName());
+        out.write('}');
+        out.write('\n');
+    }
+
+    private static void writeMutantId(OutputStream out, Mutant mutant) throws IOException {
+        if (mutant != null && mutant.hasId()) {
+            // Hex digits need no escaping
+            out.write(FIELD_MUTANT_ID);
+            out.write('"');
+            out.write(MutantId.toHex(mutant.getId()).getBytes(StandardCharsets.US_ASCII));
+            out.write('"');
+        }
+    }
+
+    private static void writeStringField(OutputStream out, byte[] fieldPrefix, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        out.write(fieldPrefix);
+        out.write('"');
+        out.write(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+        out.write('"');
+    }
+
+    private static byte[] fieldPrefix(String name) {
+        // The canonical object always has fields, so a comma is always needed
+        return (",\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+}
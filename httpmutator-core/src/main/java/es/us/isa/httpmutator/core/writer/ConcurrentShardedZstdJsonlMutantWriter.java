@@ -0,0 +1,412 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Concurrent variant of {@link ShardedZstdJsonlMutantWriter} that keeps K shard
+ * sequences ("lanes") open at once, each compressed on its own worker thread.
+ *
+ * Key properties:
+ *  - {@link #write} may be called from any number of producer threads. Lines are
+ *    dealt round-robin to the lanes; the producer serializes its line to UTF-8
+ *    bytes (same format as {@link ShardedZstdJsonlMutantWriter}) in its lane's
+ *    buffer, so JSON encoding runs in parallel across lanes.
+ *  - Lines reach the lanes through bounded queues; a full queue blocks the
+ *    producer (backpressure).
+ *  - Lane {@code L} writes {@code <prefix>-LL-00000.jsonl.zst},
+ *    {@code <prefix>-LL-00001.jsonl.zst}, ... and rotates by line count and
+ *    approximate uncompressed bytes, like the sequential writer.
+ *  - Shards keep the "*.tmp" then atomic move commit ({@link ZstdShardSequence}).
+ *  - zstd-jni native workers ({@code zstdWorkers}) can be combined with lanes.
+ *  - Line order is preserved within a lane, not across lanes.
+ *  - {@link #writeCanonical} copies the shared canonical bytes instead of serializing.
+ *
+ * The first failure on any lane is recorded; later {@link #write}, {@link #flush()}
+ * and {@link #close()} calls rethrow it as an {@link IOException}.
+ *
+ * Options other than the lane count are set through {@link #builder(Path, String, int)}.
+ */
+public final class ConcurrentShardedZstdJsonlMutantWriter implements CanonicalBytesWriter, MeteredMutantWriter {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /** Queue sentinel asking a lane to commit its shard and stop. */
+    private static final Object POISON = new Object();
+
+    private final JsonFactory factory = new ObjectMapper().getFactory();
+
+    private final Lane[] lanes;
+    private final AtomicLong nextLane = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /** Producers hold the read lock while enqueueing; close() takes the write lock. */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed = false;
+
+    public ConcurrentShardedZstdJsonlMutantWriter(Path outputDir, String shardPrefix, int lanes) throws IOException {
+        this(builder(outputDir, shardPrefix, lanes));
+    }
+
+    private ConcurrentShardedZstdJsonlMutantWriter(Builder b) throws IOException {
+        Files.createDirectories(b.outputDir);
+
+        this.lanes = new Lane[b.lanes];
+        for (int i = 0; i < b.lanes; i++) {
+            ZstdShardSequence shards = new ZstdShardSequence(
+                    b.outputDir, String.format("%s-%02d", b.shardPrefix, i), b.zstdLevel, b.zstdWorkers, b.bufferBytes);
+            this.lanes[i] = new Lane(i, shards, b.queueCapacity, b.maxLinesPerShard, b.maxUncompressedBytes);
+        }
+        for (Lane lane : this.lanes) {
+            lane.start();
+        }
+    }
+
+    /**
+     * @return a builder for a writer of {@code lanes} shard sequences
+     *         {@code shardPrefix-LL-NNNNN.jsonl.zst} in {@code outputDir}
+     */
+    public static Builder builder(Path outputDir, String shardPrefix, int lanes) {
+        return new Builder(outputDir, shardPrefix, lanes);
+    }
+
+    /**
+     * Options of a {@link ConcurrentShardedZstdJsonlMutantWriter}; every option
+     * starts at its {@code DEFAULT_*} value (see {@link ShardedZstdJsonlMutantWriter}).
+     */
+    public static final class Builder {
+        private final Path outputDir;
+        private final String shardPrefix;
+        private final int lanes;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private long maxLinesPerShard = ShardedZstdJsonlMutantWriter.DEFAULT_MAX_LINES_PER_SHARD;
+        private long maxUncompressedBytes = ShardedZstdJsonlMutantWriter.DEFAULT_MAX_UNCOMPRESSED_BYTES;
+        private int zstdLevel = ShardedZstdJsonlMutantWriter.DEFAULT_ZSTD_LEVEL;
+        private int bufferBytes = ShardedZstdJsonlMutantWriter.DEFAULT_BUFFER_BYTES;
+        private int zstdWorkers = 0;
+
+        private Builder(Path outputDir, String shardPrefix, int lanes) {
+            this.outputDir = Objects.requireNonNull(outputDir, "outputDir must not be null");
+            this.shardPrefix = Objects.requireNonNull(shardPrefix, "shardPrefix must not be null");
+            if (lanes <= 0) throw new IllegalArgumentException("lanes must be > 0");
+            this.lanes = lanes;
+        }
+
+        /** Pending lines per lane before producers block. */
+        public Builder withQueueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity must be > 0");
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder withMaxLinesPerShard(long maxLinesPerShard) {
+            if (maxLinesPerShard <= 0) throw new IllegalArgumentException("maxLinesPerShard must be > 0");
+            this.maxLinesPerShard = maxLinesPerShard;
+            return this;
+        }
+
+        /** Rotates a shard once about this many bytes were written to it before compression. */
+        public Builder withMaxUncompressedBytes(long maxUncompressedBytes) {
+            if (maxUncompressedBytes <= 0) throw new IllegalArgumentException("maxUncompressedBytes must be > 0");
+            this.maxUncompressedBytes = maxUncompressedBytes;
+            return this;
+        }
+
+        public Builder withZstdLevel(int zstdLevel) {
+            this.zstdLevel = zstdLevel;
+            return this;
+        }
+
+        public Builder withBufferBytes(int bufferBytes) {
+            if (bufferBytes <= 0) throw new IllegalArgumentException("bufferBytes must be > 0");
+            this.bufferBytes = bufferBytes;
+            return this;
+        }
+
+        /**
+         * @param zstdWorkers native zstd-jni threads per lane; {@code 0} compresses
+         *                    on the lane thread
+         */
+        public Builder withZstdWorkers(int zstdWorkers) {
+            if (zstdWorkers < 0) throw new IllegalArgumentException("zstdWorkers must be >= 0");
+            this.zstdWorkers = zstdWorkers;
+            return this;
+        }
+
+        public ConcurrentShardedZstdJsonlMutantWriter build() throws IOException {
+            return new ConcurrentShardedZstdJsonlMutantWriter(this);
+        }
+    }
+
+    // -----------------------------
+    // MutantWriter implementation
+    // -----------------------------
+    @Override
+    public void write(HttpExchange exchange,
+                      StandardHttpResponse mutatedResponse,
+                      Mutant mutant) throws IOException {
+        throwIfFailed();
+        if (mutatedResponse == null) {
+            return;
+        }
+
+        Lane lane = nextLane();
+        byte[] line;
+        synchronized (lane.lineBuffer) {
+            line = serialize(lane.lineBuffer, exchange, mutatedResponse, mutant);
+        }
+        enqueue(lane, line);
+    }
+
+    @Override
+    public void writeCanonical(HttpExchange exchange,
+                               StandardHttpResponse mutatedResponse,
+                               Mutant mutant,
+                               CanonicalJsonBuffer canonical) throws IOException {
+        throwIfFailed();
+
+        // The canonical buffer is reused by the caller: the queued line must be a copy
+        Lane lane = nextLane();
+        byte[] line;
+        synchronized (lane.lineBuffer) {
+            lane.lineBuffer.reset();
+            CanonicalJsonl.writeLineWithIds(lane.lineBuffer, canonical, exchange, mutant);
+            line = lane.lineBuffer.toByteArray();
+        }
+        enqueue(lane, line);
+    }
+
+    private Lane nextLane() {
+        return lanes[(int) Math.floorMod(nextLane.getAndIncrement(), (long) lanes.length)];
+    }
+
+    private void enqueue(Lane lane, byte[] line) throws IOException {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IOException("ConcurrentShardedZstdJsonlMutantWriter is already closed");
+            }
+            lane.queue.put(line);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while enqueueing a mutant");
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits until every line enqueued before this call has been handed to its
+     * shard stream, and flushes the streams.
+     */
+    @Override
+    public void flush() throws IOException {
+        CountDownLatch done = new CountDownLatch(lanes.length);
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            for (Lane lane : lanes) {
+                lane.queue.put(done);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing");
+        } finally {
+            closeLock.readLock().unlock();
+        }
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing");
+        }
+        throwIfFailed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        try {
+            for (Lane lane : lanes) {
+                lane.queue.put(POISON);
+            }
+            for (Lane lane : lanes) {
+                lane.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing");
+        }
+        throwIfFailed();
+    }
+
+    // -----------------------------
+    // Serialization (producer threads)
+    // -----------------------------
+    /** Serializes one line into {@code buffer}, which the caller holds the lock of. */
+    private byte[] serialize(ByteArrayBuilder buffer, HttpExchange exchange, StandardHttpResponse response,
+                             Mutant mutant) throws IOException {
+        buffer.reset();
+        try (JsonGenerator gen = CanonicalJsonl.configureForLines(
+                factory.createGenerator(buffer, JsonEncoding.UTF8))) {
+            gen.writeStartObject();
+            CanonicalJsonl.writeResponseFields(gen, response);
+            CanonicalJsonl.writeIdFields(gen, exchange, mutant);
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+        return buffer.toByteArray();
+    }
+
+    private void throwIfFailed() throws IOException {
+        Throwable t = failure.get();
+        if (t != null) {
+            throw new IOException("Concurrent shard writer failed: " + t.getMessage(), t);
+        }
+    }
+
+    // -----------------------------
+    // Metrics
+    // -----------------------------
+    /** @return lines waiting in the lane queues */
+    @Override
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public long getUncompressedBytes() {
+        long total = 0;
+        for (Lane lane : lanes) {
+            total += lane.shards.getUncompressedBytes();
+        }
+        return total;
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        long total = 0;
+        for (Lane lane : lanes) {
+            total += lane.shards.getCompressedBytes();
+        }
+        return total;
+    }
+
+    // -----------------------------
+    // Lanes (one worker thread each)
+    // -----------------------------
+    private final class Lane implements Runnable {
+        final BlockingQueue<Object> queue;
+        final Thread thread;
+        /** Serialization buffer of the producers writing to this lane, used under its own lock. */
+        final ByteArrayBuilder lineBuffer = new ByteArrayBuilder();
+
+        private final ZstdShardSequence shards;
+        private final long maxLines;
+        private final long maxBytes;
+        private long lines = 0;
+
+        Lane(int index, ZstdShardSequence shards, int queueCapacity, long maxLines, long maxBytes) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.shards = shards;
+            this.maxLines = maxLines;
+            this.maxBytes = maxBytes;
+            this.thread = new Thread(this, "httpmutator-zstd-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void start() throws IOException {
+            // Every lane leaves at least one (possibly empty) shard behind, like the sequential writer
+            shards.openNext();
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Object item;
+                try {
+                    item = queue.take();
+                } catch (InterruptedException e) {
+                    // Lanes only stop on POISON so that no enqueued line is lost
+                    continue;
+                }
+                if (item == POISON) {
+                    break;
+                }
+                try {
+                    if (item instanceof CountDownLatch) {
+                        CountingOutputStream out = shards.current();
+                        if (out != null && failure.get() == null) {
+                            out.flush();
+                        }
+                    } else if (failure.get() == null) {
+                        writeLine((byte[]) item);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    if (item instanceof CountDownLatch) {
+                        ((CountDownLatch) item).countDown();
+                    }
+                }
+            }
+
+            try {
+                shards.commit();
+            } catch (IOException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private void writeLine(byte[] line) throws IOException {
+            CountingOutputStream out = shards.current();
+            if (out == null) {
+                out = shards.openNext();
+            }
+            out.write(line);
+            lines++;
+
+            // Rotate AFTER writing, as in the sequential writer; the next shard opens lazily
+            if (lines >= maxLines || out.getCount() >= maxBytes) {
+                shards.commit();
+                lines = 0;
+            }
+        }
+    }
+}
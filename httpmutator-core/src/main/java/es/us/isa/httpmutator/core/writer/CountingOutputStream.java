@@ -0,0 +1,50 @@
+package es.us.isa.httpmutator.core.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Pass-through stream that counts the bytes written to it. Used by the file
+ * writers to measure uncompressed output for size-based rotation.
+ */
+final class CountingOutputStream extends OutputStream {
+    private final OutputStream delegate;
+    private long count = 0;
+
+    CountingOutputStream(OutputStream delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        delegate.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        delegate.write(b);
+        count += b.length;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        delegate.write(b, off, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,86 @@
+package es.us.isa.httpmutator.core.writer;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of equally sized direct {@link ByteBuffer}s for {@link FileChannelSink}.
+ *
+ * <p>Direct buffers are expensive to allocate and only freed by the garbage
+ * collector, so sinks that are opened and closed often (one per shard) borrow
+ * them from here instead. Buffer sizes are rounded up to a multiple of
+ * {@link #ALIGNMENT}, so that full-buffer writes start and end on file system
+ * block boundaries.</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+public final class DirectBufferPool {
+
+    /** Alignment of buffer sizes (a common file system block size). */
+    public static final int ALIGNMENT = 4096;
+
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+    public static final int DEFAULT_MAX_POOLED = 16;
+
+    private static final DirectBufferPool SHARED = new DirectBufferPool(DEFAULT_BUFFER_BYTES, DEFAULT_MAX_POOLED);
+
+    private final int bufferBytes;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    /**
+     * @param bufferBytes size of each buffer, rounded up to a multiple of {@link #ALIGNMENT}
+     * @param maxPooled   maximum number of idle buffers kept for reuse
+     */
+    public DirectBufferPool(int bufferBytes, int maxPooled) {
+        if (bufferBytes <= 0) throw new IllegalArgumentException("bufferBytes must be > 0");
+        if (maxPooled < 0) throw new IllegalArgumentException("maxPooled must be >= 0");
+        this.bufferBytes = (int) Math.min(Integer.MAX_VALUE - ALIGNMENT + 1,
+                ((long) bufferBytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT);
+        this.maxPooled = maxPooled;
+    }
+
+    /** @return a process-wide pool of {@link #DEFAULT_BUFFER_BYTES} buffers */
+    public static DirectBufferPool shared() {
+        return SHARED;
+    }
+
+    /** @return a cleared buffer of {@link #getBufferBytes()} bytes */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            pooled.decrementAndGet();
+            // Cast: ByteBuffer.clear() returning ByteBuffer does not exist on Java 8
+            ((Buffer) buffer).clear();
+            return buffer;
+        }
+        allocated.incrementAndGet();
+        return ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    /** Returns a buffer obtained from {@link #acquire()}; it must not be used afterwards. */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferBytes || !buffer.isDirect()) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            // Dropped: the collector frees it
+            pooled.decrementAndGet();
+        }
+    }
+
+    public int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    /** @return number of buffers allocated so far (a low number means good reuse) */
+    public int getAllocatedCount() {
+        return allocated.get();
+    }
+}
@@ -0,0 +1,249 @@
+package es.us.isa.httpmutator.core.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link OutputStream} writing to a file through a {@link FileChannel} and a
+ * direct {@link ByteBuffer} borrowed from a {@link DirectBufferPool}.
+ *
+ * <p>It replaces the {@code FileOutputStream} + {@code BufferedOutputStream}
+ * stack under the JSONL and zstd writers: records are copied once into
+ * off-heap memory and reach the file as full-buffer writes (aligned to
+ * {@link DirectBufferPool#ALIGNMENT} in size and offset), so the kernel sees a
+ * few large writes instead of many small ones and no extra heap-to-direct copy
+ * happens inside the channel. Only {@link #flush()} and {@link #close()} write a
+ * partial buffer; {@link #flushFullBlocks()} is the cheap flush for callers that
+ * flush often (e.g. once per zstd frame) and only need the data handed on
+ * eventually.</p>
+ *
+ * <h2>Durability</h2>
+ * <p>A {@link SyncPolicy} decides when written data is forced to the device:</p>
+ * <ul>
+ *     <li>{@link SyncPolicy#none()}: never; the OS writes back pages when it likes.</li>
+ *     <li>{@link SyncPolicy#onClose()}: once, when the sink is closed.</li>
+ *     <li>{@link SyncPolicy#groupCommit(long, long, TimeUnit)}: after a group of
+ *         writes totalling at least the given bytes, or once the given time has
+ *         passed since the last sync, and on close. One {@code fsync} then covers
+ *         many records.</li>
+ * </ul>
+ *
+ * <p>There is no background thread: the time trigger of a group commit is only
+ * checked when the sink writes to the channel or is flushed. Data written before
+ * the sink goes idle is synced by the next write, flush or {@link #close()}, so
+ * long-lived idle sinks should be flushed or closed by their owner.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class FileChannelSink extends OutputStream {
+
+    /**
+     * When a {@link FileChannelSink} forces its data to the device.
+     */
+    public static final class SyncPolicy {
+
+        private static final SyncPolicy NONE = new SyncPolicy(false, Long.MAX_VALUE, Long.MAX_VALUE);
+        private static final SyncPolicy ON_CLOSE = new SyncPolicy(true, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        private final boolean syncOnClose;
+        private final long groupBytes;
+        private final long groupNanos;
+
+        private SyncPolicy(boolean syncOnClose, long groupBytes, long groupNanos) {
+            this.syncOnClose = syncOnClose;
+            this.groupBytes = groupBytes;
+            this.groupNanos = groupNanos;
+        }
+
+        public static SyncPolicy none() {
+            return NONE;
+        }
+
+        public static SyncPolicy onClose() {
+            return ON_CLOSE;
+        }
+
+        /**
+         * @param groupBytes bytes written since the last sync that trigger a new one
+         * @param maxDelay   time since the last sync after which the next write or
+         *                   flush syncs (checked then only, not by a timer)
+         */
+        public static SyncPolicy groupCommit(long groupBytes, long maxDelay, TimeUnit unit) {
+            if (groupBytes <= 0) throw new IllegalArgumentException("groupBytes must be > 0");
+            if (maxDelay <= 0) throw new IllegalArgumentException("maxDelay must be > 0");
+            Objects.requireNonNull(unit, "unit must not be null");
+            return new SyncPolicy(true, groupBytes, unit.toNanos(maxDelay));
+        }
+    }
+
+    private final FileChannel channel;
+    private final DirectBufferPool pool;
+    private final SyncPolicy sync;
+
+    private ByteBuffer buffer;
+    private long bytesWritten = 0;
+    private long bytesSinceSync = 0;
+    private long lastSyncNanos = System.nanoTime();
+    private long syncCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates (or truncates) {@code file} with the shared pool and no syncing.
+     */
+    public FileChannelSink(Path file) throws IOException {
+        this(file, DirectBufferPool.shared(), SyncPolicy.none());
+    }
+
+    /**
+     * Creates (or truncates) {@code file}.
+     */
+    public FileChannelSink(Path file, DirectBufferPool pool, SyncPolicy sync) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        this.pool = Objects.requireNonNull(pool, "pool must not be null");
+        this.sync = Objects.requireNonNull(sync, "sync must not be null");
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = pool.acquire();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if ((off | len) < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes buffered bytes to the channel (possibly a partial buffer). Does not
+     * sync beyond what the policy asks for.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * Writes the buffered bytes up to the last {@link DirectBufferPool#ALIGNMENT}
+     * boundary of the file and keeps the partial block buffered, so frequent
+     * flushes do not turn into small unaligned writes. Once the group commit
+     * delay has passed, the partial block is written as well and synced.
+     */
+    public void flushFullBlocks() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (sync.groupNanos != Long.MAX_VALUE && System.nanoTime() - lastSyncNanos >= sync.groupNanos) {
+            drain();
+            return;
+        }
+        int buffered = buffer.position();
+        // Relative to the file offset: an earlier partial write may have left it unaligned
+        int full = buffered - (int) ((bytesWritten + buffered) % DirectBufferPool.ALIGNMENT);
+        if (full <= 0) {
+            return;
+        }
+        ((Buffer) buffer).flip();
+        ((Buffer) buffer).limit(full);
+        writeRemaining();
+        ((Buffer) buffer).limit(buffered);
+        buffer.compact();
+        maybeGroupCommit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            drain();
+            if (sync.syncOnClose && (bytesSinceSync > 0 || syncCount == 0)) {
+                // Metadata too: the file length must survive a crash
+                channel.force(true);
+                syncCount++;
+            }
+        } finally {
+            closed = true;
+            pool.release(buffer);
+            buffer = null;
+            channel.close();
+        }
+    }
+
+    /** @return bytes handed to the channel so far */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /** @return number of {@code fsync}s performed so far */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    // -----------------------------
+    // Internals
+    // -----------------------------
+    private void drain() throws IOException {
+        // Cast: ByteBuffer's covariant overrides do not exist on Java 8
+        ((Buffer) buffer).flip();
+        writeRemaining();
+        ((Buffer) buffer).clear();
+        maybeGroupCommit();
+    }
+
+    private void writeRemaining() throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.write(buffer);
+            bytesWritten += n;
+            bytesSinceSync += n;
+        }
+    }
+
+    private void maybeGroupCommit() throws IOException {
+        if (sync.groupBytes == Long.MAX_VALUE || bytesSinceSync == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (bytesSinceSync >= sync.groupBytes || now - lastSyncNanos >= sync.groupNanos) {
+            channel.force(false);
+            syncCount++;
+            bytesSinceSync = 0;
+            lastSyncNanos = now;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("FileChannelSink is already closed");
+        }
+    }
+}
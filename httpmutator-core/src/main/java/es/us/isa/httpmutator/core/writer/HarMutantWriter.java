@@ -1,27 +1,38 @@
 package es.us.isa.httpmutator.core.writer;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import es.us.isa.httpmutator.core.converter.ConversionException;
 import es.us.isa.httpmutator.core.converter.impl.HarConverter;
 import es.us.isa.httpmutator.core.model.HttpExchange;
 import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.MutantId;
 import es.us.isa.httpmutator.core.model.StandardHttpRequest;
 import es.us.isa.httpmutator.core.model.StandardHttpResponse;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.net.URLEncoder;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Objects;
 
 /**
- * HAR writer with viewer-friendly compatibility:
+ * Streaming HAR writer with viewer-friendly compatibility:
  * - entry.startedDateTime fixed to millisecond precision
  * - entry.time present
  * - request is never null
@@ -29,6 +40,19 @@ import java.time.format.DateTimeFormatter;
  * - if request/url missing -> synthesize a unique URL per entry and encode operator/mutator in query
  * - response includes common fields and bodySize aligns with content.size when possible
  * - log.pages present (empty)
+ *
+ * <p>The {@code log} preamble is emitted first, each entry is streamed through a
+ * single {@link JsonGenerator} as soon as it is written, and the JSON structure is
+ * closed on {@link #close()}. Only the entry being written is held in memory.
+ * {@link #flush()} pushes buffered bytes to the target; writing may continue
+ * afterwards.</p>
+ *
+ * <p>The {@link #HarMutantWriter(Path, String, long, long)} constructor rotates to
+ * a new, self-contained HAR file ({@code <prefix>-00000.har},
+ * {@code <prefix>-00001.har}, ...) every {@code maxEntriesPerFile} entries or
+ * once roughly {@code maxBytesPerFile} bytes have been written, so that each
+ * file stays small enough to open in a viewer. Files are written as
+ * {@code *.tmp} and moved to their final name once complete.</p>
  */
 public class HarMutantWriter implements MutantWriter {
 
@@ -41,38 +65,74 @@ public class HarMutantWriter implements MutantWriter {
     /** Base URL used when we have no real request URL. */
     private static final String SYN_BASE = "http://httpmutator.local/exchange/";
 
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20; // 1 MiB
+
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory factory = objectMapper.getFactory();
     private final HarConverter converter = new HarConverter();
-    private final Writer out;
-
-    private final ObjectNode root;
-    private final ObjectNode log;
-    private final ArrayNode entries;
 
-    private boolean flushed = false;
-    private boolean closed = false;
+    // Single-target mode
+    private final Closeable out;
 
-    public HarMutantWriter(Writer out) {
-        this.out = out;
-        // Prevent Jackson from closing the underlying Writer in writeValue(...)
-        this.objectMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    // Rotating mode
+    private final Path outputDir;
+    private final String filePrefix;
+    private final long maxEntriesPerFile;
+    private final long maxBytesPerFile;
+    private int fileIndex = 0;
+    private Path currentTmpPath;
+    private Path currentFinalPath;
+    private CountingOutputStream countOut;
 
-        this.root = objectMapper.createObjectNode();
-        this.log = objectMapper.createObjectNode();
-        this.entries = objectMapper.createArrayNode();
+    /** Generator of the HAR currently being written ({@code null} between rotated files). */
+    private JsonGenerator gen;
+    private long entriesInFile = 0;
 
-        log.put("version", "1.2");
+    private boolean closed = false;
 
-        ObjectNode creator = objectMapper.createObjectNode();
-        creator.put("name", "HttpMutator");
-        creator.put("version", "1.0.0");
-        log.set("creator", creator);
+    public HarMutantWriter(Writer out) {
+        this.out = Objects.requireNonNull(out, "out must not be null");
+        this.outputDir = null;
+        this.filePrefix = null;
+        this.maxEntriesPerFile = Long.MAX_VALUE;
+        this.maxBytesPerFile = Long.MAX_VALUE;
+        try {
+            this.gen = configure(factory.createGenerator(out));
+        } catch (IOException e) {
+            // Creating a generator over a Writer performs no I/O
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        // Many viewers expect pages[] to exist.
-        log.set("pages", objectMapper.createArrayNode());
+    public HarMutantWriter(OutputStream out) throws IOException {
+        this.out = Objects.requireNonNull(out, "out must not be null");
+        this.outputDir = null;
+        this.filePrefix = null;
+        this.maxEntriesPerFile = Long.MAX_VALUE;
+        this.maxBytesPerFile = Long.MAX_VALUE;
+        this.gen = configure(factory.createGenerator(
+                new BufferedOutputStream(out, DEFAULT_BUFFER_BYTES), JsonEncoding.UTF8));
+    }
 
-        log.set("entries", entries);
-        root.set("log", log);
+    /**
+     * Creates a rotating HAR writer.
+     *
+     * @param outputDir         directory receiving {@code <filePrefix>-NNNNN.har} files
+     * @param filePrefix        file name prefix
+     * @param maxEntriesPerFile entries after which a new file is started
+     * @param maxBytesPerFile   approximate uncompressed size after which a new file is started
+     */
+    public HarMutantWriter(Path outputDir, String filePrefix,
+                           long maxEntriesPerFile, long maxBytesPerFile) throws IOException {
+        this.outputDir = Objects.requireNonNull(outputDir, "outputDir must not be null");
+        this.filePrefix = Objects.requireNonNull(filePrefix, "filePrefix must not be null");
+        if (maxEntriesPerFile <= 0) throw new IllegalArgumentException("maxEntriesPerFile must be > 0");
+        if (maxBytesPerFile <= 0) throw new IllegalArgumentException("maxBytesPerFile must be > 0");
+        this.maxEntriesPerFile = maxEntriesPerFile;
+        this.maxBytesPerFile = maxBytesPerFile;
+        this.out = null;
+
+        Files.createDirectories(outputDir);
     }
 
     @Override
@@ -83,8 +143,11 @@ public class HarMutantWriter implements MutantWriter {
         if (closed) {
             throw new IOException("HarMutantWriter is already closed");
         }
-        if (flushed) {
-            throw new IOException("HarMutantWriter is already flushed; no further writes are allowed");
+        if (gen == null) {
+            openNextFile();
+        }
+        if (entriesInFile == 0) {
+            writePreamble();
         }
 
         ObjectNode entry = objectMapper.createObjectNode();
@@ -104,11 +167,19 @@ public class HarMutantWriter implements MutantWriter {
         entry.set("cache", objectMapper.createObjectNode());
 
         entry.put("_hm_original_id", exchange.getId());
+        if (mutant.hasId()) {
+            entry.put("_hm_mutant_id", MutantId.toHex(mutant.getId()));
+        }
         entry.put("_hm_mutator", mutant.getMutatorClassName());
         entry.put("_hm_operator", mutant.getOperatorClassName());
         entry.put("_hm_original_json_path", mutant.getOriginalJsonPath());
 
-        entries.add(entry);
+        gen.writeTree(entry);
+        entriesInFile++;
+
+        if (outputDir != null && shouldRotate()) {
+            finishCurrentFile();
+        }
     }
 
     /**
@@ -299,12 +370,9 @@ public class HarMutantWriter implements MutantWriter {
         if (closed) {
             throw new IOException("HarMutantWriter is already closed");
         }
-        if (flushed) {
-            return;
+        if (gen != null) {
+            gen.flush();
         }
-        objectMapper.writeValue(out, root);
-        out.flush();
-        flushed = true;
     }
 
     @Override
@@ -312,15 +380,24 @@ public class HarMutantWriter implements MutantWriter {
         if (closed) {
             return;
         }
+        closed = true;
 
-        IOException first = null;
-
-        if (!flushed) {
-            try {
-                flush();
-            } catch (IOException e) {
-                first = e;
+        if (outputDir != null) {
+            // Always leave at least one (possibly empty) HAR behind
+            if (gen == null && fileIndex == 0) {
+                openNextFile();
             }
+            if (gen != null) {
+                finishCurrentFile();
+            }
+            return;
+        }
+
+        IOException first = null;
+        try {
+            finishStructure();
+        } catch (IOException e) {
+            first = e;
         }
 
         try {
@@ -328,12 +405,85 @@ public class HarMutantWriter implements MutantWriter {
         } catch (IOException e) {
             if (first == null) first = e;
             else first.addSuppressed(e);
-        } finally {
-            closed = true;
         }
 
         if (first != null) {
             throw first;
         }
     }
+
+    // ===================== streaming structure =====================
+
+    private static JsonGenerator configure(JsonGenerator gen) {
+        // The writer owns and closes the underlying target itself
+        gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        return gen;
+    }
+
+    /** Emits {@code {"log":{...,"entries":[} up to the first entry. */
+    private void writePreamble() throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName("log");
+        gen.writeStartObject();
+        gen.writeStringField("version", "1.2");
+
+        gen.writeFieldName("creator");
+        gen.writeStartObject();
+        gen.writeStringField("name", "HttpMutator");
+        gen.writeStringField("version", "1.0.0");
+        gen.writeEndObject();
+
+        // Many viewers expect pages[] to exist.
+        gen.writeFieldName("pages");
+        gen.writeStartArray();
+        gen.writeEndArray();
+
+        gen.writeFieldName("entries");
+        gen.writeStartArray();
+    }
+
+    /** Closes {@code entries}, {@code log} and the root object, then flushes. */
+    private void finishStructure() throws IOException {
+        if (entriesInFile == 0) {
+            writePreamble();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.close();
+        gen = null;
+    }
+
+    private boolean shouldRotate() {
+        return entriesInFile >= maxEntriesPerFile
+                || countOut.getCount() + Math.max(gen.getOutputBuffered(), 0) >= maxBytesPerFile;
+    }
+
+    private void openNextFile() throws IOException {
+        String baseName = String.format("%s-%05d.har", filePrefix, fileIndex++);
+        currentFinalPath = outputDir.resolve(baseName);
+        currentTmpPath = outputDir.resolve(baseName + ".tmp");
+
+        Files.deleteIfExists(currentTmpPath);
+        countOut = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(currentTmpPath), DEFAULT_BUFFER_BYTES));
+        gen = configure(factory.createGenerator(countOut, JsonEncoding.UTF8));
+        entriesInFile = 0;
+    }
+
+    private void finishCurrentFile() throws IOException {
+        try {
+            finishStructure();
+        } finally {
+            countOut.close();
+            countOut = null;
+        }
+
+        try {
+            Files.move(currentTmpPath, currentFinalPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(currentTmpPath, currentFinalPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        entriesInFile = 0;
+    }
 }
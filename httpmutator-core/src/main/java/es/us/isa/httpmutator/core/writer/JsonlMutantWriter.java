@@ -1,22 +1,41 @@
 package es.us.isa.httpmutator.core.writer;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import es.us.isa.httpmutator.core.model.HttpExchange;
 import es.us.isa.httpmutator.core.model.Mutant;
 import es.us.isa.httpmutator.core.model.StandardHttpResponse;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.Closeable;
-import java.io.Flushable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.Objects;
 
 /**
  * A {@link MutantWriter} implementation that writes mutated responses as JSONL
- * (one JSON object per line), using an internal buffer to batch writes and
- * reduce IO overhead.
+ * (one JSON object per line).
+ *
+ * <p>Each line is streamed through a single, reused {@link JsonGenerator}
+ * straight from the {@link StandardHttpResponse} getters: the response is never
+ * converted to an intermediate tree, the {@code _hm_*} metadata fields are
+ * emitted by the generator (the mutant tree is left untouched), and no
+ * per-line {@code String} is created. Output is batched by a buffer of
+ * configurable size in front of the target.</p>
+ *
+ * <p>Prefer the {@link OutputStream} constructors: the generator then encodes
+ * UTF-8 bytes directly. The {@link Writer} constructors are kept for callers
+ * that already hold a character stream. A {@link FileChannelSink} target is
+ * used as is, without the extra buffer.</p>
+ *
+ * <p>As a {@link CanonicalBytesWriter}, a writer over a byte stream copies the
+ * shared canonical bytes and splices the metadata in, without serializing the
+ * response again. Writers over a {@link Writer} fall back to {@link #write}.</p>
  *
  * <p>This writer is agnostic to the request: it never inspects or serializes
  * {@link HttpExchange#getRequest()}, and only uses:</p>
@@ -27,20 +46,52 @@ import java.util.Objects;
  *     <li>The mutation metadata from {@link Mutant}</li>
  * </ul>
  */
-public class JsonlMutantWriter implements MutantWriter{
+public class JsonlMutantWriter implements CanonicalBytesWriter {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final Writer out;
-    private final boolean includeMeta;
+    /** Default buffer size in front of the target (1 MB). */
+    public static final int DEFAULT_BUFFER_SIZE = 1_048_576;
 
-    /** Internal buffer used to batch JSONL writes. */
-    private final StringBuilder buffer;
+    private static final JsonFactory FACTORY = new ObjectMapper().getFactory();
 
-    /** Threshold (in characters) at which the buffer is flushed to the underlying writer. */
-    private final int flushThreshold;
+    private final Closeable out;
+    private final JsonGenerator gen;
+    /** Buffered byte target for spliced canonical lines; {@code null} for {@link Writer} targets. */
+    private final OutputStream bytesOut;
+    private final boolean includeMeta;
 
     private boolean closed = false;
 
+    /**
+     * Creates a JSONL writer over a byte stream with a default 1 MB buffer.
+     *
+     * @param out         the underlying stream to which UTF-8 JSONL lines will be written
+     * @param includeMeta whether to attach mutation metadata fields to each JSON object
+     */
+    public JsonlMutantWriter(OutputStream out, boolean includeMeta) throws IOException {
+        this(out, includeMeta, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a JSONL writer over a byte stream with a configurable buffer size.
+     *
+     * @param out         the underlying stream to which UTF-8 JSONL lines will be written
+     * @param includeMeta whether to attach mutation metadata fields to each JSON object
+     * @param bufferBytes buffer size (in bytes) at which data is handed to {@code out}
+     */
+    public JsonlMutantWriter(OutputStream out, boolean includeMeta, int bufferBytes) throws IOException {
+        Objects.requireNonNull(out, "out must not be null");
+        if (bufferBytes <= 0) {
+            throw new IllegalArgumentException("bufferBytes must be > 0");
+        }
+        this.out = out;
+        this.includeMeta = includeMeta;
+        // A FileChannelSink already buffers: another layer would only add a copy
+        this.bytesOut = out instanceof FileChannelSink ? out : new BufferedOutputStream(out, bufferBytes);
+        this.gen = CanonicalJsonl.configureForLines(FACTORY.createGenerator(bytesOut, JsonEncoding.UTF8));
+        // Generator and spliced lines share bytesOut: draining the generator must not flush it
+        this.gen.configure(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM, false);
+    }
+
     /**
      * Creates a JSONL writer with a default 1 MB buffer.
      *
@@ -48,7 +99,7 @@ public class JsonlMutantWriter implements MutantWriter{
      * @param includeMeta whether to attach mutation metadata fields to each JSON object
      */
     public JsonlMutantWriter(Writer out, boolean includeMeta) {
-        this(out, includeMeta, 1_048_576); // 1 MB default
+        this(out, includeMeta, DEFAULT_BUFFER_SIZE);
     }
 
     /**
@@ -56,13 +107,23 @@ public class JsonlMutantWriter implements MutantWriter{
      *
      * @param out            the underlying writer to which JSONL lines will be written
      * @param includeMeta    whether to attach mutation metadata fields to each JSON object
-     * @param flushThreshold buffer size (in characters) at which data is flushed
+     * @param flushThreshold buffer size (in characters) at which data is handed to {@code out}
      */
     public JsonlMutantWriter(Writer out, boolean includeMeta, int flushThreshold) {
-        this.out = Objects.requireNonNull(out, "out must not be null");
+        Objects.requireNonNull(out, "out must not be null");
+        if (flushThreshold <= 0) {
+            throw new IllegalArgumentException("flushThreshold must be > 0");
+        }
+        this.out = out;
         this.includeMeta = includeMeta;
-        this.flushThreshold = flushThreshold;
-        this.buffer = new StringBuilder(flushThreshold);
+        this.bytesOut = null;
+        try {
+            this.gen = CanonicalJsonl.configureForLines(
+                    FACTORY.createGenerator(new BufferedWriter(out, flushThreshold)));
+        } catch (IOException e) {
+            // Creating a generator over a Writer performs no I/O
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -80,51 +141,41 @@ public class JsonlMutantWriter implements MutantWriter{
         if (closed) {
             throw new IOException("JsonlMutantWriter is already closed");
         }
-
-        // 1) Convert StandardHttpResponse to canonical JsonNode
-        JsonNode canonical = mutatedResponse.toJsonNode();
-        if (canonical == null || canonical.isNull()) {
+        if (mutatedResponse == null) {
             // Defensive: should not happen in normal pipelines
             return;
         }
 
-        // 2) Ensure we always serialize an ObjectNode
-        final ObjectNode lineObject;
-        if (canonical instanceof ObjectNode) {
-            lineObject = (ObjectNode) canonical;
-        } else {
-            lineObject = objectMapper.createObjectNode();
-            lineObject.set("Body", canonical);
-        }
-
-        // 3) Optionally attach metadata
+        gen.writeStartObject();
+        CanonicalJsonl.writeResponseFields(gen, mutatedResponse);
         if (includeMeta) {
-            String originalId = exchange.getId();
-            if (originalId != null) {
-                lineObject.put("_hm_original_id", originalId);
-            }
-            lineObject.put("_hm_original_json_path", mutant.getOriginalJsonPath());
-            lineObject.put("_hm_mutator", mutant.getMutatorClassName());
-            lineObject.put("_hm_operator", mutant.getOperatorClassName());
-        }
-
-        // 4) Append one JSON line into buffer
-        buffer.append(objectMapper.writeValueAsString(lineObject))
-                .append('\n');
-
-        // 5) Flush when exceeding the threshold
-        if (buffer.length() >= flushThreshold) {
-            flushBuffer();
+            CanonicalJsonl.writeMetaFields(gen, exchange, mutant);
         }
+        gen.writeEndObject();
+        gen.writeRaw('\n');
     }
 
-    private void flushBuffer() throws IOException {
-        if (buffer.length() == 0) {
+    @Override
+    public void writeCanonical(HttpExchange exchange,
+                               StandardHttpResponse mutatedResponse,
+                               Mutant mutant,
+                               CanonicalJsonBuffer canonical) throws IOException {
+        if (bytesOut == null) {
+            write(exchange, mutatedResponse, mutant);
             return;
         }
-        out.write(buffer.toString());
-        buffer.setLength(0);
-        out.flush();
+        if (closed) {
+            throw new IOException("JsonlMutantWriter is already closed");
+        }
+
+        // Keep line order with anything still buffered in the generator
+        gen.flush();
+        if (includeMeta) {
+            CanonicalJsonl.writeLineWithMeta(bytesOut, canonical, exchange, mutant);
+        } else {
+            canonical.writeTo(bytesOut);
+            bytesOut.write('\n');
+        }
     }
 
     @Override
@@ -132,18 +183,26 @@ public class JsonlMutantWriter implements MutantWriter{
         if (closed) {
             return;
         }
-        flushBuffer();
+        gen.flush();
+        if (bytesOut != null) {
+            bytesOut.flush();
+        }
     }
 
     @Override
     public void close() throws IOException {
         if (!closed) {
+            closed = true;
             try {
-                flushBuffer();
+                gen.close();
             } finally {
-                closed = true;
-                out.close();
+                // bytesOut holds whatever the generator drained without flushing
+                if (bytesOut != null) {
+                    bytesOut.close();
+                } else {
+                    out.close();
+                }
             }
         }
     }
-}
\ No newline at end of file
+}
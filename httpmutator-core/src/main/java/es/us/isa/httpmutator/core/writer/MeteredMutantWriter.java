@@ -0,0 +1,21 @@
+package es.us.isa.httpmutator.core.writer;
+
+/**
+ * A {@link MutantWriter} that exposes its progress to {@code MutationMetrics}.
+ *
+ * <p>Getters may be called from any thread while the writer is in use and
+ * return approximate values.</p>
+ */
+public interface MeteredMutantWriter extends MutantWriter {
+
+    /** @return mutants accepted but not yet handed to the output; {@code 0} for synchronous writers */
+    default int getQueueDepth() {
+        return 0;
+    }
+
+    /** @return bytes produced before compression */
+    long getUncompressedBytes();
+
+    /** @return bytes produced after compression (equal to the uncompressed count without compression) */
+    long getCompressedBytes();
+}
@@ -0,0 +1,273 @@
+package es.us.isa.httpmutator.core.writer;
+
+import es.us.isa.httpmutator.core.model.Endpoints;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link MutantWriter} that routes every mutant to a per-partition sub-writer,
+ * so that consumers interested in one operator family or one endpoint only read
+ * their own files.
+ *
+ * <p>The partition of a mutant is computed by a {@link PartitionKey} (see
+ * {@link #byMutator()}, {@link #byOperator()}, {@link #byMutatorAndOperator()}
+ * and {@link #byEndpoint()}). Sub-writers are created lazily by a
+ * {@link PartitionWriterFactory}; {@link #shardedZstd(Path, long, int)} gives each
+ * partition its own {@link ShardedZstdJsonlMutantWriter} in
+ * {@code <root>/<key>/}.</p>
+ *
+ * <h2>Open partitions</h2>
+ * <p>At most {@code maxOpenPartitions} sub-writers are open at once. Opening one
+ * more closes the least recently written partition, which commits its files. If
+ * that partition receives mutants again, the factory is asked for a new writer
+ * with the next <em>generation</em> number, which must not overwrite the output
+ * of earlier generations (the sharded factory uses it in the shard prefix).
+ * With keys of bounded cardinality, a cap above that cardinality never
+ * evicts.</p>
+ *
+ * <p>As a {@link CanonicalBytesWriter}, shared canonical bytes are passed on to
+ * sub-writers that accept them.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class PartitioningMutantWriter implements CanonicalBytesWriter {
+
+    public static final int DEFAULT_MAX_OPEN_PARTITIONS = 64;
+
+    /**
+     * Computes the partition of a mutant. Keys are used as directory names by
+     * {@link #shardedZstd(Path, long, int)} after {@link #sanitize(String)}.
+     */
+    @FunctionalInterface
+    public interface PartitionKey {
+        String keyOf(HttpExchange exchange, Mutant mutant);
+    }
+
+    /**
+     * Creates the sub-writer of a partition.
+     */
+    @FunctionalInterface
+    public interface PartitionWriterFactory {
+        /**
+         * @param key        partition key
+         * @param generation {@code 0} the first time the partition is opened, then
+         *                   incremented each time it is reopened after eviction
+         */
+        MutantWriter open(String key, int generation) throws IOException;
+    }
+
+    private final PartitionKey partitionKey;
+    private final PartitionWriterFactory factory;
+    private final int maxOpenPartitions;
+
+    /** Open sub-writers in access order: the first entry is the least recently written. */
+    private final LinkedHashMap<String, MutantWriter> open = new LinkedHashMap<>(16, 0.75f, true);
+    /** Number of times each partition has been opened. */
+    private final Map<String, Integer> generations = new LinkedHashMap<>();
+
+    private long evictions = 0;
+    private boolean closed = false;
+
+    public PartitioningMutantWriter(PartitionKey partitionKey, PartitionWriterFactory factory) {
+        this(partitionKey, factory, DEFAULT_MAX_OPEN_PARTITIONS);
+    }
+
+    /**
+     * @param maxOpenPartitions maximum number of sub-writers open at the same time
+     */
+    public PartitioningMutantWriter(PartitionKey partitionKey,
+                                    PartitionWriterFactory factory,
+                                    int maxOpenPartitions) {
+        this.partitionKey = Objects.requireNonNull(partitionKey, "partitionKey must not be null");
+        this.factory = Objects.requireNonNull(factory, "factory must not be null");
+        if (maxOpenPartitions <= 0) {
+            throw new IllegalArgumentException("maxOpenPartitions must be > 0");
+        }
+        this.maxOpenPartitions = maxOpenPartitions;
+    }
+
+    // ===================== Keys =====================
+
+    /** Partitions by mutator, e.g. {@code StringMutator}. */
+    public static PartitionKey byMutator() {
+        return (exchange, mutant) -> mutant.getMutatorClassName();
+    }
+
+    /** Partitions by operator, e.g. {@code StringReplacementOperator}. */
+    public static PartitionKey byOperator() {
+        return (exchange, mutant) -> mutant.getOperatorClassName();
+    }
+
+    /** Partitions by mutator and operator, e.g. {@code StringMutator.StringReplacementOperator}. */
+    public static PartitionKey byMutatorAndOperator() {
+        return (exchange, mutant) -> mutant.getMutatorClassName() + "." + mutant.getOperatorClassName();
+    }
+
+    /**
+     * Partitions by endpoint: request method and templated path, e.g.
+     * {@code GET /users/{id}} (see {@link Endpoints}). Exchanges without a request
+     * go to {@code "unknown"}.
+     */
+    public static PartitionKey byEndpoint() {
+        return (exchange, mutant) -> Endpoints.keyOf(exchange);
+    }
+
+    // ===================== Factories =====================
+
+    /**
+     * Writes each partition to {@code <root>/<sanitized key>/} as
+     * {@link ShardedZstdJsonlMutantWriter} shards with prefix {@code mutants-gNNN},
+     * where {@code NNN} is the generation.
+     */
+    public static PartitionWriterFactory shardedZstd(Path root, long maxLinesPerShard, int zstdLevel) {
+        Objects.requireNonNull(root, "root must not be null");
+        return (key, generation) -> {
+            Path dir = root.resolve(sanitize(key));
+            Files.createDirectories(dir);
+            return ShardedZstdJsonlMutantWriter.builder(dir, String.format("mutants-g%03d", generation))
+                    .withMaxLinesPerShard(maxLinesPerShard)
+                    .withZstdLevel(zstdLevel)
+                    .build();
+        };
+    }
+
+    /**
+     * Maps a key to a file name: characters other than letters, digits,
+     * {@code .}, {@code _} and {@code -} become {@code _}. When anything had to be
+     * replaced, the hash of the key is appended so that keys such as
+     * {@code GET /a/b} and {@code GET /a_b} stay apart.
+     */
+    public static String sanitize(String key) {
+        if (key == null || key.isEmpty()) {
+            return "_";
+        }
+        StringBuilder sb = new StringBuilder(key.length() + 9);
+        boolean replaced = false;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == '-';
+            sb.append(safe ? c : '_');
+            replaced |= !safe;
+        }
+        // "." and ".." would not name a directory of their own
+        if (replaced || sb.charAt(0) == '.') {
+            sb.append('-').append(String.format("%08x", key.hashCode()));
+        }
+        return sb.toString();
+    }
+
+    // ===================== Writing =====================
+
+    @Override
+    public void write(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant)
+            throws IOException {
+        partitionFor(exchange, mutant).write(exchange, mutatedResponse, mutant);
+    }
+
+    @Override
+    public void writeCanonical(HttpExchange exchange,
+                               StandardHttpResponse mutatedResponse,
+                               Mutant mutant,
+                               CanonicalJsonBuffer canonical) throws IOException {
+        MutantWriter target = partitionFor(exchange, mutant);
+        if (target instanceof CanonicalBytesWriter) {
+            ((CanonicalBytesWriter) target).writeCanonical(exchange, mutatedResponse, mutant, canonical);
+        } else {
+            target.write(exchange, mutatedResponse, mutant);
+        }
+    }
+
+    private MutantWriter partitionFor(HttpExchange exchange, Mutant mutant) throws IOException {
+        if (closed) {
+            throw new IOException("PartitioningMutantWriter is already closed");
+        }
+        String key = partitionKey.keyOf(exchange, mutant);
+        MutantWriter writer = open.get(key);
+        if (writer != null) {
+            return writer;
+        }
+
+        if (open.size() >= maxOpenPartitions) {
+            Iterator<Map.Entry<String, MutantWriter>> eldest = open.entrySet().iterator();
+            MutantWriter evicted = eldest.next().getValue();
+            eldest.remove();
+            evictions++;
+            evicted.close();
+        }
+
+        int generation = generations.getOrDefault(key, 0);
+        writer = factory.open(key, generation);
+        generations.put(key, generation + 1);
+        open.put(key, writer);
+        return writer;
+    }
+
+    // ===================== Stats =====================
+
+    /** @return number of partitions currently open */
+    public int getOpenPartitionCount() {
+        return open.size();
+    }
+
+    /** @return every key seen so far, in first-seen order */
+    public List<String> getPartitionKeys() {
+        return new ArrayList<>(generations.keySet());
+    }
+
+    /** @return number of partitions closed to respect {@code maxOpenPartitions} */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    // ===================== Lifecycle =====================
+
+    @Override
+    public void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        for (MutantWriter writer : open.values()) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Closes every open partition. All of them are closed even if one fails; the
+     * first failure is rethrown.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException failure = null;
+        for (MutantWriter writer : open.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        open.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.util.JsonPatch;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * A {@link MutantWriter} that writes each original response once and every
+ * mutant as an RFC 6902 patch against it ("patch log").
+ *
+ * <p>Output is JSONL with two kinds of records, tagged by {@code "_hm_record"}:</p>
+ * <pre>
+ * {"_hm_record":"original","_hm_original_id":"...","Status Code":200,"Headers":{...},"Body":{...},"_hm_request":{...}}
+ * {"_hm_record":"mutant","_hm_original_id":"...","_hm_mutant_id":"...","_hm_original_json_path":"...","_hm_mutator":"...",
+ *  "_hm_operator":"...","_hm_patch":[{"op":"replace","path":"/Body/price","value":-1}]}
+ * </pre>
+ *
+ * <p>An original record is emitted whenever the exchange differs from the one of
+ * the previous mutant, so every mutant record refers to the closest original
+ * above it. {@code _hm_request} is only present when the exchange carries a
+ * request. Because mutants usually touch a single node, a large response with
+ * thousands of mutants shrinks from thousands of full copies to one copy plus
+ * thousands of one-operation patches.</p>
+ *
+ * <p>The patch of a body mutant is built from its {@link Mutant#getOriginalJsonPath()
+ * path} alone: only the node at that path is compared (a single
+ * {@code replace}/{@code remove} for a value, a local diff for a container), so
+ * writing a mutant does not walk the whole response. Paths are not escaped, so a
+ * key containing {@code /} may send them to the wrong node or nowhere: a path
+ * that cannot be followed, or whose node did not change, falls back to a diff of
+ * the whole body. Status code and header mutants and mutants without metadata
+ * fall back to a full {@link JsonPatch#diff(JsonNode, JsonNode) diff}.</p>
+ *
+ * <p>{@link es.us.isa.httpmutator.core.reader.PatchLogReader} reads the format
+ * back and rebuilds full mutated responses on demand.</p>
+ */
+public class PatchLogMutantWriter implements MutantWriter {
+
+    public static final String META_RECORD = "_hm_record";
+    public static final String META_PATCH = "_hm_patch";
+    public static final String META_REQUEST = "_hm_request";
+    public static final String RECORD_ORIGINAL = "original";
+    public static final String RECORD_MUTANT = "mutant";
+
+    private static final String BODY = "Body";
+
+    private static final JsonFactory FACTORY = new ObjectMapper().getFactory();
+
+    private final OutputStream out;
+    private final JsonGenerator gen;
+
+    /** Exchange whose original record was written last, and its tree for diffing. */
+    private HttpExchange currentExchange;
+    private JsonNode currentOriginal;
+
+    private long originalCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a patch log writer with a {@link JsonlMutantWriter#DEFAULT_BUFFER_SIZE} buffer.
+     */
+    public PatchLogMutantWriter(OutputStream out) throws IOException {
+        this(out, JsonlMutantWriter.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param out         the underlying stream to which UTF-8 JSONL records are written
+     * @param bufferBytes buffer size (in bytes) at which data is handed to {@code out}
+     */
+    public PatchLogMutantWriter(OutputStream out, int bufferBytes) throws IOException {
+        Objects.requireNonNull(out, "out must not be null");
+        if (bufferBytes <= 0) {
+            throw new IllegalArgumentException("bufferBytes must be > 0");
+        }
+        this.out = out;
+        this.gen = CanonicalJsonl.configureForLines(
+                FACTORY.createGenerator(new BufferedOutputStream(out, bufferBytes), JsonEncoding.UTF8));
+    }
+
+    @Override
+    public void write(HttpExchange exchange,
+                      StandardHttpResponse mutatedResponse,
+                      Mutant mutant) throws IOException {
+        if (closed) {
+            throw new IOException("PatchLogMutantWriter is already closed");
+        }
+        if (mutatedResponse == null) {
+            return;
+        }
+
+        if (exchange != currentExchange) {
+            writeOriginal(exchange);
+        }
+
+        gen.writeStartObject();
+        gen.writeStringField(META_RECORD, RECORD_MUTANT);
+        if (mutant != null) {
+            CanonicalJsonl.writeMetaFields(gen, exchange, mutant);
+        } else {
+            CanonicalJsonl.writeIdFields(gen, exchange, null);
+        }
+        gen.writeFieldName(META_PATCH);
+        ArrayNode patch = mutant == null ? null : bodyPatch(currentExchange.getResponse(), mutatedResponse, mutant);
+        gen.writeTree(patch != null ? patch : JsonPatch.diff(currentOriginal, mutatedResponse.toJsonNode()));
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+
+    private void writeOriginal(HttpExchange exchange) throws IOException {
+        StandardHttpResponse original = exchange.getResponse();
+
+        gen.writeStartObject();
+        gen.writeStringField(META_RECORD, RECORD_ORIGINAL);
+        if (exchange.getId() != null) {
+            gen.writeStringField(CanonicalJsonl.META_ORIGINAL_ID, exchange.getId());
+        }
+        CanonicalJsonl.writeResponseFields(gen, original);
+        if (exchange.getRequest() != null) {
+            gen.writeFieldName(META_REQUEST);
+            gen.writeTree(exchange.getRequest().toJsonNode());
+        }
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+
+        currentExchange = exchange;
+        currentOriginal = original.toJsonNode();
+        originalCount++;
+    }
+
+    /**
+     * Builds the patch of a body mutant by following its path in both bodies, or
+     * by diffing the bodies when the path does not lead to the change.
+     *
+     * @return the patch, or {@code null} if a full diff is needed (not a body
+     *         path, or status or headers changed)
+     */
+    private static ArrayNode bodyPatch(StandardHttpResponse original, StandardHttpResponse mutated, Mutant mutant) {
+        String path = mutant.getOriginalJsonPath();
+        if (path == null || !(path.equals(BODY) || path.startsWith(BODY + "/"))
+                || original.getStatusCode() != mutated.getStatusCode()
+                || !Objects.equals(original.getHeaders(), mutated.getHeaders())) {
+            return null;
+        }
+        JsonNode source = original.getBody();
+        JsonNode target = mutated.getBody();
+        if (source == null || target == null) {
+            return null;
+        }
+        ArrayNode patch = pathPatch(path, source, target);
+        if (patch == null || patch.size() == 0) {
+            // Keys containing '/' make the path ambiguous: it led nowhere or to an unchanged node
+            return JsonPatch.diff("/" + BODY, source, target);
+        }
+        return patch;
+    }
+
+    /**
+     * @return the patch of the node at {@code path} in both bodies, or {@code null}
+     *         if the path cannot be followed
+     */
+    private static ArrayNode pathPatch(String path, JsonNode source, JsonNode target) {
+        StringBuilder pointer = new StringBuilder("/").append(BODY);
+        int start = BODY.length() + 1;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            String segment = path.substring(start, end);
+            // An element removed or inserted before the path shifts the array: diff it instead
+            if (source.isArray() && (!target.isArray() || source.size() != target.size())) {
+                return null;
+            }
+            JsonNode sourceChild = child(source, segment);
+            if (sourceChild == null) {
+                return null;
+            }
+            pointer.append('/').append(JsonPatch.escape(segment));
+            JsonNode targetChild = child(target, segment);
+            if (targetChild == null) {
+                if (end < path.length() || !target.isObject()) {
+                    return null;
+                }
+                return JsonPatch.remove(pointer.toString());
+            }
+            source = sourceChild;
+            target = targetChild;
+            start = end + 1;
+        }
+        return JsonPatch.diff(pointer.toString(), source, target);
+    }
+
+    private static JsonNode child(JsonNode node, String segment) {
+        if (node.isObject()) {
+            return node.get(segment);
+        }
+        if (node.isArray() && !segment.isEmpty() && segment.length() < 10) {
+            for (int i = 0; i < segment.length(); i++) {
+                if (segment.charAt(i) < '0' || segment.charAt(i) > '9') {
+                    return null;
+                }
+            }
+            return node.get(Integer.parseInt(segment));
+        }
+        return null;
+    }
+
+    /** @return number of original records written so far */
+    public long getOriginalCount() {
+        return originalCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        gen.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            currentExchange = null;
+            currentOriginal = null;
+            try {
+                gen.close();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -1,25 +1,25 @@
 package es.us.isa.httpmutator.core.writer;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.JsonGenerator.Feature;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.github.luben.zstd.ZstdOutputStream;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdException;
 import es.us.isa.httpmutator.core.model.HttpExchange;
 import es.us.isa.httpmutator.core.model.Mutant;
 import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.reader.SeekableZstdShardReader;
+import es.us.isa.httpmutator.core.util.AtomicFiles;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -27,14 +27,31 @@ import java.util.Objects;
  *
  * Key properties (final version):
  *  - Writes JSONL as UTF-8 bytes via JsonGenerator (no writeValueAsString per row).
- *  - Avoids deep-copy of huge JSON trees: if canonical is ObjectNode, we stream its fields.
- *  - Appends only "_hm_original_id" to each line.
- *  - Writes to "*.tmp" first and then moves to final name on shard commit.
+ *  - Avoids deep-copy of huge JSON trees: response fields are streamed from the model.
+ *  - Appends only "_hm_original_id" and "_hm_mutant_id" to each line.
+ *  - Writes to "*.tmp" first and then moves to final name on shard commit ({@link ZstdShardSequence}).
+ *  - Optionally lets zstd-jni compress with native worker threads (zstdWorkers).
  *  - Uses a large BufferedOutputStream to improve throughput on large records.
  *  - Maintains an approximate "uncompressed bytes" counter (bytes emitted to generator),
  *    allowing rotation by bytes as well as by line count.
+ *  - Optionally compresses every shard with a zstd dictionary ({@link ZstdDictionary}),
+ *    stored as {@code <shardPrefix>.zdict} next to the shards. A dictionary trained
+ *    from the first mutants delays the first shard until enough lines are buffered;
+ *    if training fails (e.g. too few samples) the shards are written without one,
+ *    a warning is logged and the cause is kept in {@link #getDictionaryFailure()}.
+ *  - Optionally ("frame index") ends a zstd frame whenever the original exchange id
+ *    changes and records every frame in a {@code <shard>.idx} sidecar, so that
+ *    {@link SeekableZstdShardReader} can fetch the mutants of a single exchange
+ *    without decompressing the whole shard. Smaller frames cost some compression
+ *    ratio; an explicit {@link #flush()} also ends the current frame and indexes it,
+ *    so an exchange flushed midway simply spans two indexed frames.
+ *  - Optionally writes shards through a {@link FileChannelSink} (direct buffers reused
+ *    across shards, large aligned writes, fsync/group-commit policy) instead of a
+ *    buffered file stream.
+ *  - As a {@link CanonicalBytesWriter}, splices the ids onto the shared
+ *    canonical bytes instead of serializing the response again.
  */
-public final class ShardedZstdJsonlMutantWriter implements MutantWriter {
+public final class ShardedZstdJsonlMutantWriter implements CanonicalBytesWriter, MeteredMutantWriter {
 
     // -----------------------------
     // Defaults tuned for throughput
@@ -44,28 +61,35 @@ public final class ShardedZstdJsonlMutantWriter implements MutantWriter {
     public static final int  DEFAULT_ZSTD_LEVEL = 3;                  // throughput-friendly
     public static final int  DEFAULT_BUFFER_BYTES = 1 << 20;          // 1 MiB buffer
 
+    private static final Logger logger = LogManager.getLogger(ShardedZstdJsonlMutantWriter.class.getName());
+
     private final ObjectMapper mapper;
     private final JsonFactory factory;
 
+    private final ZstdShardSequence shards;
     private final Path outputDir;
     private final String shardPrefix;
+    private final int zstdLevel;
+
+    // dictionary support: samples buffered until training, then the digested dictionary
+    private final ZstdDictionary dictionary;
+    private List<byte[]> pendingSamples;
+    private List<String> pendingIds;
+    private ZstdDictCompress dictCompress;
+    private Exception dictionaryFailure;
 
     private final long maxLinesPerShard;
     private final long maxUncompressedBytesApprox;
-    private final int zstdLevel;
-    private final int bufferBytes;
 
-    private int shardIndex = 0;
     private long currentLines = 0;
 
     // counts bytes emitted to JsonGenerator (pre-compression bytes), approximates "uncompressed size"
     private long currentUncompressedBytes = 0;
 
-    private Path currentTmpPath;
-    private Path currentFinalPath;
+    // frame index: exchange id of the open frame and lines written to it
+    private String frameId;
+    private long frameRecords = 0;
 
-    private OutputStream fileOut;
-    private ZstdOutputStream zstdOut;
     private CountingOutputStream countOut;
     private JsonGenerator gen;
 
@@ -110,24 +134,141 @@ public final class ShardedZstdJsonlMutantWriter implements MutantWriter {
             int zstdLevel,
             int bufferBytes
     ) throws IOException {
-        this.outputDir = Objects.requireNonNull(outputDir, "outputDir must not be null");
-        this.shardPrefix = Objects.requireNonNull(shardPrefix, "shardPrefix must not be null");
-        if (maxLinesPerShard <= 0) throw new IllegalArgumentException("maxLinesPerShard must be > 0");
-        if (maxUncompressedBytesApprox <= 0) throw new IllegalArgumentException("maxUncompressedBytesApprox must be > 0");
-        if (bufferBytes <= 0) throw new IllegalArgumentException("bufferBytes must be > 0");
+        this(builder(outputDir, shardPrefix)
+                .withMaxLinesPerShard(maxLinesPerShard)
+                .withMaxUncompressedBytes(maxUncompressedBytesApprox)
+                .withZstdLevel(zstdLevel)
+                .withBufferBytes(bufferBytes));
+    }
 
-        this.maxLinesPerShard = maxLinesPerShard;
-        this.maxUncompressedBytesApprox = maxUncompressedBytesApprox;
-        this.zstdLevel = zstdLevel;
-        this.bufferBytes = bufferBytes;
+    /**
+     * Creates a writer from a {@link Builder}, which also configures native zstd
+     * workers, a dictionary, the frame index and the file channel sink.
+     */
+    private ShardedZstdJsonlMutantWriter(Builder b) throws IOException {
+        this.shards = new ZstdShardSequence(b.outputDir, b.shardPrefix, b.zstdLevel, b.zstdWorkers, b.bufferBytes,
+                b.frameIndex);
+        if (b.fileSync != null) {
+            // One shard is open at a time: its buffer goes back to the pool for the next one
+            shards.setFileChannelSink(new DirectBufferPool(b.bufferBytes, 1), b.fileSync);
+        }
+        this.maxLinesPerShard = b.maxLinesPerShard;
+        this.maxUncompressedBytesApprox = b.maxUncompressedBytes;
+        this.outputDir = b.outputDir;
+        this.shardPrefix = b.shardPrefix;
+        this.zstdLevel = b.zstdLevel;
+        this.dictionary = b.dictionary;
 
         this.mapper = new ObjectMapper();
         this.factory = mapper.getFactory();
 
-        Files.createDirectories(this.outputDir);
+        Files.createDirectories(outputDir);
+        if (dictionary != null && !dictionary.isTrained()) {
+            // The first shard opens once the dictionary has been trained
+            pendingSamples = new ArrayList<>(Math.min(dictionary.getSampleCount(), 4096));
+            pendingIds = new ArrayList<>(Math.min(dictionary.getSampleCount(), 4096));
+            return;
+        }
+        if (dictionary != null) {
+            useDictionary(dictionary.bytes());
+        }
         openNextShard();
     }
 
+    /** @return a builder for a writer of {@code shardPrefix-NNNNN.jsonl.zst} shards in {@code outputDir} */
+    public static Builder builder(Path outputDir, String shardPrefix) {
+        return new Builder(outputDir, shardPrefix);
+    }
+
+    /**
+     * Options of a {@link ShardedZstdJsonlMutantWriter}; every option starts at its
+     * {@code DEFAULT_*} value (or disabled).
+     */
+    public static final class Builder {
+        private final Path outputDir;
+        private final String shardPrefix;
+        private long maxLinesPerShard = DEFAULT_MAX_LINES_PER_SHARD;
+        private long maxUncompressedBytes = DEFAULT_MAX_UNCOMPRESSED_BYTES;
+        private int zstdLevel = DEFAULT_ZSTD_LEVEL;
+        private int bufferBytes = DEFAULT_BUFFER_BYTES;
+        private int zstdWorkers = 0;
+        private ZstdDictionary dictionary;
+        private boolean frameIndex = false;
+        private FileChannelSink.SyncPolicy fileSync;
+
+        private Builder(Path outputDir, String shardPrefix) {
+            this.outputDir = Objects.requireNonNull(outputDir, "outputDir must not be null");
+            this.shardPrefix = Objects.requireNonNull(shardPrefix, "shardPrefix must not be null");
+        }
+
+        public Builder withMaxLinesPerShard(long maxLinesPerShard) {
+            if (maxLinesPerShard <= 0) throw new IllegalArgumentException("maxLinesPerShard must be > 0");
+            this.maxLinesPerShard = maxLinesPerShard;
+            return this;
+        }
+
+        /** Rotates a shard once about this many bytes were written to it before compression. */
+        public Builder withMaxUncompressedBytes(long maxUncompressedBytes) {
+            if (maxUncompressedBytes <= 0) throw new IllegalArgumentException("maxUncompressedBytes must be > 0");
+            this.maxUncompressedBytes = maxUncompressedBytes;
+            return this;
+        }
+
+        public Builder withZstdLevel(int zstdLevel) {
+            this.zstdLevel = zstdLevel;
+            return this;
+        }
+
+        public Builder withBufferBytes(int bufferBytes) {
+            if (bufferBytes <= 0) throw new IllegalArgumentException("bufferBytes must be > 0");
+            this.bufferBytes = bufferBytes;
+            return this;
+        }
+
+        /**
+         * @param zstdWorkers number of native zstd-jni compression threads
+         *                    ({@code ZstdOutputStream#setWorkers}); {@code 0} compresses
+         *                    on the calling thread
+         */
+        public Builder withZstdWorkers(int zstdWorkers) {
+            if (zstdWorkers < 0) throw new IllegalArgumentException("zstdWorkers must be >= 0");
+            this.zstdWorkers = zstdWorkers;
+            return this;
+        }
+
+        /**
+         * @param dictionary zstd dictionary, either already trained/loaded or pending
+         *                   training on the first mutants; {@code null} disables it
+         */
+        public Builder withDictionary(ZstdDictionary dictionary) {
+            this.dictionary = dictionary;
+            return this;
+        }
+
+        /**
+         * @param frameIndex whether to end a frame at each exchange boundary and write
+         *                   a {@code .idx} sidecar per shard for {@link SeekableZstdShardReader}
+         */
+        public Builder withFrameIndex(boolean frameIndex) {
+            this.frameIndex = frameIndex;
+            return this;
+        }
+
+        /**
+         * @param fileSync when non-null, shards are written through a {@link FileChannelSink}
+         *                 with direct buffers of {@code bufferBytes} (pooled across shards)
+         *                 and this sync policy; {@code null} keeps the buffered file stream
+         */
+        public Builder withFileSync(FileChannelSink.SyncPolicy fileSync) {
+            this.fileSync = fileSync;
+            return this;
+        }
+
+        public ShardedZstdJsonlMutantWriter build() throws IOException {
+            return new ShardedZstdJsonlMutantWriter(this);
+        }
+    }
+
     // -----------------------------
     // MutantWriter implementation
     // -----------------------------
@@ -140,69 +281,188 @@ public final class ShardedZstdJsonlMutantWriter implements MutantWriter {
             throw new IOException("ShardedZstdJsonlMutantWriter is already closed");
         }
 
-        final JsonNode canonical = mutatedResponse.toJsonNode();
-        if (canonical == null || canonical.isNull()) {
+        if (mutatedResponse == null) {
             return;
         }
 
+        if (pendingSamples != null) {
+            pendingSamples.add(serializeLine(exchange, mutatedResponse, mutant));
+            pendingIds.add(exchange.getId());
+            if (pendingSamples.size() >= dictionary.getSampleCount()) {
+                trainDictionaryAndReplaySamples();
+            }
+            return;
+        }
+
+        beforeLine(exchange.getId());
         // JSONL: exactly one JSON object per line, followed by '\n'
-        writeOneJsonlObject(exchange, canonical);
+        writeOneJsonlObject(gen, exchange, mutatedResponse, mutant);
+        lineWritten();
+    }
 
-        currentLines++;
-        currentUncompressedBytes = countOut.getCount(); // bytes emitted so far in this shard
+    @Override
+    public void writeCanonical(HttpExchange exchange,
+                               StandardHttpResponse mutatedResponse,
+                               Mutant mutant,
+                               CanonicalJsonBuffer canonical) throws IOException {
+        if (closed) {
+            throw new IOException("ShardedZstdJsonlMutantWriter is already closed");
+        }
 
-        // Rotate AFTER writing (so a single huge record is allowed; it just triggers a rotate right after)
-        if (shouldRotateShard()) {
-            rotateShard();
+        if (pendingSamples != null) {
+            ByteArrayBuilder line = new ByteArrayBuilder(canonical.length() + 64);
+            CanonicalJsonl.writeLineWithIds(line, canonical, exchange, mutant);
+            pendingSamples.add(line.toByteArray());
+            pendingIds.add(exchange.getId());
+            if (pendingSamples.size() >= dictionary.getSampleCount()) {
+                trainDictionaryAndReplaySamples();
+            }
+            return;
         }
+
+        beforeLine(exchange.getId());
+        // Keep line order with anything still buffered in the generator
+        gen.flush();
+        CanonicalJsonl.writeLineWithIds(countOut, canonical, exchange, mutant);
+        lineWritten();
     }
 
     @Override
     public void flush() throws IOException {
+        // Lines still buffered as dictionary samples are not written until training
         if (closed) return;
-        if (gen != null) gen.flush();
-        if (zstdOut != null) zstdOut.flush();
-        if (fileOut != null) fileOut.flush();
+        // Drain the generator, then push through zstd, buffer and file
+        if (gen == null) {
+            return;
+        }
+        if (shards.hasFrameIndex()) {
+            // A zstd flush closes the frame: index it, or later offsets would be wrong
+            endCurrentFrame();
+        } else {
+            gen.flush();
+            countOut.flush();
+        }
+        // Frame flushes keep a partial block buffered in a file channel sink
+        shards.flushFile();
     }
 
     @Override
     public void close() throws IOException {
         if (closed) return;
         closed = true;
-        closeCurrentShardAndCommit();
+        try {
+            if (pendingSamples != null) {
+                trainDictionaryAndReplaySamples();
+            }
+            closeCurrentShardAndCommit();
+        } finally {
+            if (dictCompress != null) {
+                dictCompress.close();
+            }
+        }
+    }
+
+    // -----------------------------
+    // Metrics
+    // -----------------------------
+    /** @return bytes written to shards before compression; lines buffered as dictionary samples are not counted */
+    @Override
+    public long getUncompressedBytes() {
+        return shards.getUncompressedBytes();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return shards.getCompressedBytes();
+    }
+
+    /**
+     * @return why training the dictionary on the first mutants failed, in which case
+     *         the shards were written without one; {@code null} otherwise
+     */
+    public Exception getDictionaryFailure() {
+        return dictionaryFailure;
     }
 
     // -----------------------------
     // Core writing logic (no deep-copy)
     // -----------------------------
-    private void writeOneJsonlObject(HttpExchange exchange, JsonNode canonical) throws IOException {
+    private static void writeOneJsonlObject(JsonGenerator gen,
+                                            HttpExchange exchange,
+                                            StandardHttpResponse response,
+                                            Mutant mutant) throws IOException {
         gen.writeStartObject();
 
-        if (canonical instanceof ObjectNode) {
-            // Stream existing top-level fields without copying the tree
-            Iterator<Map.Entry<String, JsonNode>> it = canonical.fields();
-            while (it.hasNext()) {
-                Map.Entry<String, JsonNode> e = it.next();
-                String fieldName = e.getKey();
-
-                // Safety: if input already contains _hm_original_id, we will overwrite with our value later.
-                // We still stream it now; last write wins.
-                gen.writeFieldName(fieldName);
-                gen.writeTree(e.getValue());
-            }
-        } else {
-            // Keep prior semantics: wrap non-object canonical under "Body"
-            gen.writeFieldName("Body");
-            gen.writeTree(canonical);
+        // Stream the response fields straight from the model, without building a tree
+        CanonicalJsonl.writeResponseFields(gen, response);
+        CanonicalJsonl.writeIdFields(gen, exchange, mutant);
+
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+
+    private byte[] serializeLine(HttpExchange exchange, StandardHttpResponse response, Mutant mutant) throws IOException {
+        ByteArrayBuilder buffer = new ByteArrayBuilder();
+        try (JsonGenerator lineGen = CanonicalJsonl.configureForLines(
+                factory.createGenerator(buffer, JsonEncoding.UTF8))) {
+            writeOneJsonlObject(lineGen, exchange, response, mutant);
         }
+        return buffer.toByteArray();
+    }
 
-        String originalId = exchange.getId();
-        if (originalId != null) {
-            gen.writeStringField("_hm_original_id", originalId);
+    private void beforeLine(String originalId) throws IOException {
+        if (frameRecords > 0 && !Objects.equals(frameId, originalId)) {
+            endCurrentFrame();
         }
+        frameId = originalId;
+    }
 
-        gen.writeEndObject();
-        gen.writeRaw('\n');
+    private void lineWritten() throws IOException {
+        currentLines++;
+        frameRecords++;
+        currentUncompressedBytes = countOut.getCount(); // bytes emitted so far in this shard
+
+        // Rotate AFTER writing (so a single huge record is allowed; it just triggers a rotate right after)
+        if (shouldRotateShard()) {
+            rotateShard();
+        }
+    }
+
+    // -----------------------------
+    // Dictionary
+    // -----------------------------
+    private void trainDictionaryAndReplaySamples() throws IOException {
+        List<byte[]> samples = pendingSamples;
+        List<String> ids = pendingIds;
+        pendingSamples = null;
+        pendingIds = null;
+
+        byte[] trained = null;
+        try {
+            trained = ZstdDictionary.train(samples, dictionary.getMaxDictBytes());
+        } catch (IOException | ZstdException e) {
+            // Not enough material to train on: plain shards are still valid output
+            dictionaryFailure = e;
+            logger.warn("zstd dictionary training on " + samples.size() + " lines failed, writing "
+                    + shardPrefix + " shards without a dictionary: " + e.getMessage());
+        }
+        if (trained != null) {
+            useDictionary(trained);
+        }
+
+        openNextShard();
+        for (int i = 0; i < samples.size(); i++) {
+            beforeLine(ids.get(i));
+            gen.flush();
+            countOut.write(samples.get(i));
+            lineWritten();
+        }
+    }
+
+    private void useDictionary(byte[] bytes) throws IOException {
+        AtomicFiles.write(outputDir.resolve(shardPrefix + ZstdDictionary.FILE_EXTENSION), bytes);
+        dictCompress = new ZstdDictCompress(bytes, zstdLevel);
+        shards.setDictionary(dictCompress);
     }
 
     // -----------------------------
@@ -219,125 +479,54 @@ public final class ShardedZstdJsonlMutantWriter implements MutantWriter {
     }
 
     private void openNextShard() throws IOException {
-        String baseName = String.format("%s-%05d.jsonl.zst", shardPrefix, shardIndex++);
-        currentFinalPath = outputDir.resolve(baseName);
-        currentTmpPath = outputDir.resolve(baseName + ".tmp");
-
-        Files.deleteIfExists(currentTmpPath);
-
-        fileOut = Files.newOutputStream(currentTmpPath);
-        OutputStream buffered = new BufferedOutputStream(fileOut, bufferBytes);
-
-        zstdOut = new ZstdOutputStream(buffered, zstdLevel);
+        countOut = shards.openNext();
 
-        // Count bytes BEFORE compression: place counter ABOVE zstdOut (so it sees uncompressed JSONL bytes).
-        // Note: we count "bytes emitted by JsonGenerator", which is the uncompressed UTF-8 JSONL stream.
-        countOut = new CountingOutputStream(zstdOut);
-
-        gen = factory.createGenerator(countOut);
-        // We want explicit control over closing underlying streams
-        gen.configure(Feature.AUTO_CLOSE_TARGET, false);
+        // We want explicit control over closing underlying streams, and '\n' (not ' ') between lines
+        gen = CanonicalJsonl.configureForLines(factory.createGenerator(countOut));
+        // Raw lines are written to countOut between generator writes: draining the
+        // generator must not flush zstd (which would end a frame in frame index mode)
+        gen.configure(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM, false);
 
         currentLines = 0;
         currentUncompressedBytes = 0;
     }
 
+    private void endCurrentFrame() throws IOException {
+        gen.flush();
+        shards.endFrame(frameId, frameRecords);
+        frameRecords = 0;
+    }
+
     private void closeCurrentShardAndCommit() throws IOException {
         if (gen == null) {
             return;
         }
 
+        // 0) Index the frame still open (no-op without a frame index)
+        endCurrentFrame();
+
         IOException closeError = null;
 
-        // 1) Flush generator buffers
+        // 1) Flush and close generator (won't close streams due to AUTO_CLOSE_TARGET=false)
         try {
-            gen.flush();
+            gen.close();
         } catch (IOException e) {
             closeError = e;
+        } finally {
+            gen = null;
+            countOut = null;
         }
 
-        // 2) Close generator (won't close streams due to AUTO_CLOSE_TARGET=false)
+        // 2) Close streams and commit tmp -> final
         try {
-            gen.close();
+            shards.commit();
         } catch (IOException e) {
             if (closeError == null) closeError = e;
-        } finally {
-            gen = null;
+            else closeError.addSuppressed(e);
         }
 
-        // 3) Close streams (in order)
-        closeQuietly(countOut, closeError);
-        countOut = null;
-
-        closeQuietly(zstdOut, closeError);
-        zstdOut = null;
-
-        closeQuietly(fileOut, closeError);
-        fileOut = null;
-
         if (closeError != null) {
             throw closeError;
         }
-
-        // 4) Commit tmp -> final
-        try {
-            Files.move(currentTmpPath, currentFinalPath, StandardCopyOption.ATOMIC_MOVE);
-        } catch (AtomicMoveNotSupportedException e) {
-            Files.move(currentTmpPath, currentFinalPath, StandardCopyOption.REPLACE_EXISTING);
-        }
-    }
-
-    private static void closeQuietly(OutputStream os, IOException prior) throws IOException {
-        if (os == null) return;
-        try {
-            os.close();
-        } catch (IOException e) {
-            // prefer the first error, but if there wasn't one, propagate this
-            if (prior == null) throw e;
-        }
-    }
-
-    // -----------------------------
-    // CountingOutputStream
-    // -----------------------------
-    private static final class CountingOutputStream extends OutputStream {
-        private final OutputStream delegate;
-        private long count = 0;
-
-        CountingOutputStream(OutputStream delegate) {
-            this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
-        }
-
-        long getCount() {
-            return count;
-        }
-
-        @Override
-        public void write(int b) throws IOException {
-            delegate.write(b);
-            count++;
-        }
-
-        @Override
-        public void write(byte[] b) throws IOException {
-            delegate.write(b);
-            count += b.length;
-        }
-
-        @Override
-        public void write(byte[] b, int off, int len) throws IOException {
-            delegate.write(b, off, len);
-            count += len;
-        }
-
-        @Override
-        public void flush() throws IOException {
-            delegate.flush();
-        }
-
-        @Override
-        public void close() throws IOException {
-            delegate.close();
-        }
     }
 }
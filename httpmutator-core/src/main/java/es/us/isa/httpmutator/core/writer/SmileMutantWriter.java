@@ -0,0 +1,184 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A {@link MutantWriter} that writes mutated responses in Smile, Jackson's
+ * binary JSON encoding, as a sequence of root-level objects.
+ *
+ * <p>Each record has the same fields as a {@link JsonlMutantWriter} line
+ * ({@code "Status Code"}, {@code "Headers"}, {@code "Body"} and, if enabled, the
+ * {@code _hm_*} metadata), so consumers can switch formats without changing
+ * their model. Smile avoids text number parsing and back-references repeated
+ * field names and short strings, which makes reading large corpora much
+ * cheaper. Read it back with {@code SmileExchangeReader}.</p>
+ *
+ * <h2>Modes</h2>
+ * <ul>
+ *     <li>{@link #SmileMutantWriter(OutputStream, boolean)}: one stream.</li>
+ *     <li>{@link #SmileMutantWriter(Path, String, long, int, boolean)}: zstd-compressed
+ *         shards {@code <prefix>-NNNNN.smile.zst} with at most
+ *         {@code maxRecordsPerShard} records each, committed like
+ *         {@link ShardedZstdJsonlMutantWriter} shards ({@code *.tmp}, then atomic
+ *         move). Every shard starts with its own Smile header and can be read on
+ *         its own. A shard is opened by the first record written to it, so no
+ *         empty shard is left behind.</li>
+ * </ul>
+ */
+public class SmileMutantWriter implements MutantWriter {
+
+    public static final String SHARD_EXTENSION = ".smile.zst";
+
+    private static final JsonFactory FACTORY = new ObjectMapper(new SmileFactory()).getFactory();
+
+    private final boolean includeMeta;
+
+    /** Single-stream mode: the caller's stream. */
+    private final OutputStream out;
+
+    /**
+     * Sharded mode: shard files and rotation policy; {@code null} in single-stream mode.
+     * {@link #gen} is {@code null} while no shard is open.
+     */
+    private final ZstdShardSequence shards;
+    private final long maxRecordsPerShard;
+    private long currentRecords = 0;
+
+    private JsonGenerator gen;
+    private boolean closed = false;
+
+    /**
+     * Creates a Smile writer over a byte stream with a
+     * {@link JsonlMutantWriter#DEFAULT_BUFFER_SIZE} buffer.
+     *
+     * @param out         the underlying stream
+     * @param includeMeta whether to attach mutation metadata fields to each record
+     */
+    public SmileMutantWriter(OutputStream out, boolean includeMeta) throws IOException {
+        this.out = Objects.requireNonNull(out, "out must not be null");
+        this.includeMeta = includeMeta;
+        this.shards = null;
+        this.maxRecordsPerShard = Long.MAX_VALUE;
+        this.gen = configure(FACTORY.createGenerator(
+                new BufferedOutputStream(out, JsonlMutantWriter.DEFAULT_BUFFER_SIZE)));
+    }
+
+    /**
+     * Creates a writer producing zstd-compressed Smile shards in {@code outputDir}.
+     *
+     * @param maxRecordsPerShard records per shard before rotating
+     * @param zstdLevel          zstd compression level
+     * @param includeMeta        whether to attach all mutation metadata fields; when
+     *                           {@code false} only {@code _hm_original_id} and
+     *                           {@code _hm_mutant_id} are written,
+     *                           as in {@link ShardedZstdJsonlMutantWriter}
+     */
+    public SmileMutantWriter(Path outputDir,
+                             String shardPrefix,
+                             long maxRecordsPerShard,
+                             int zstdLevel,
+                             boolean includeMeta) throws IOException {
+        Objects.requireNonNull(outputDir, "outputDir must not be null");
+        if (maxRecordsPerShard <= 0) throw new IllegalArgumentException("maxRecordsPerShard must be > 0");
+
+        this.out = null;
+        this.includeMeta = includeMeta;
+        this.maxRecordsPerShard = maxRecordsPerShard;
+        this.shards = new ZstdShardSequence(outputDir, shardPrefix, SHARD_EXTENSION, zstdLevel, 0,
+                ShardedZstdJsonlMutantWriter.DEFAULT_BUFFER_BYTES, false);
+
+        Files.createDirectories(outputDir);
+    }
+
+    @Override
+    public void write(HttpExchange exchange,
+                      StandardHttpResponse mutatedResponse,
+                      Mutant mutant) throws IOException {
+        if (closed) {
+            throw new IOException("SmileMutantWriter is already closed");
+        }
+        if (mutatedResponse == null) {
+            return;
+        }
+        if (gen == null) {
+            openNextShard();
+        }
+
+        gen.writeStartObject();
+        CanonicalJsonl.writeResponseFields(gen, mutatedResponse);
+        if (includeMeta && mutant != null) {
+            CanonicalJsonl.writeMetaFields(gen, exchange, mutant);
+        } else if (shards != null) {
+            CanonicalJsonl.writeIdFields(gen, exchange, mutant);
+        }
+        gen.writeEndObject();
+
+        // Rotate AFTER writing; the next shard opens with the next record
+        if (shards != null && ++currentRecords >= maxRecordsPerShard) {
+            commitShard();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (closed || gen == null) {
+            return;
+        }
+        gen.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (shards != null) {
+            if (gen != null) {
+                commitShard();
+            }
+            return;
+        }
+        try {
+            gen.close();
+        } finally {
+            out.close();
+        }
+    }
+
+    // -----------------------------
+    // Sharding
+    // -----------------------------
+    private void openNextShard() throws IOException {
+        gen = configure(FACTORY.createGenerator(shards.openNext()));
+        currentRecords = 0;
+    }
+
+    private void commitShard() throws IOException {
+        try {
+            gen.close();
+        } finally {
+            gen = null;
+            shards.commit();
+        }
+    }
+
+    private static JsonGenerator configure(JsonGenerator gen) {
+        // The writer closes (or commits) the target itself
+        gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        return gen;
+    }
+}
@@ -0,0 +1,151 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A zstd dictionary for {@link ShardedZstdJsonlMutantWriter}.
+ *
+ * <p>Mutants of one exchange differ in a single field, so a dictionary trained
+ * on a few of them lets every frame reference the shared structure instead of
+ * rediscovering it, which pays off most with small shards.</p>
+ *
+ * <h2>Sources</h2>
+ * <ul>
+ *     <li>{@link #trainFromFirstMutants(int, int)}: the writer buffers the first
+ *         {@code sampleCount} serialized lines, trains on them and only then
+ *         starts writing shards.</li>
+ *     <li>{@link #trainFromSampleFile(Path, int)}: trains immediately on the lines
+ *         of a JSONL file ({@code .zst} compressed or not), e.g. a previous run.
+ *         Only the first {@value #SAMPLE_BYTES_PER_DICT_BYTE}&times; {@code maxDictBytes}
+ *         bytes of lines are read, which is plenty for zstd and keeps large
+ *         corpora out of memory.</li>
+ *     <li>{@link #load(Path)}: reuses a dictionary saved by an earlier run.</li>
+ * </ul>
+ *
+ * <p>The writer stores the dictionary as {@code <shardPrefix>.zdict} next to the
+ * shards. Readers must pass the same bytes to {@code ZstdInputStream#setDict}
+ * (see {@link #openShard(Path, Path)}).</p>
+ */
+public final class ZstdDictionary {
+
+    /** zstd's own default maximum dictionary size (110 KiB). */
+    public static final int DEFAULT_MAX_DICT_BYTES = 112_640;
+    public static final int DEFAULT_SAMPLE_COUNT = 2_000;
+
+    /** Sample bytes read per byte of dictionary by {@link #trainFromSampleFile(Path, int)}. */
+    public static final int SAMPLE_BYTES_PER_DICT_BYTE = 100;
+
+    /** File extension used for dictionaries stored next to the shards. */
+    public static final String FILE_EXTENSION = ".zdict";
+
+    private final int sampleCount;
+    private final int maxDictBytes;
+    private final byte[] bytes;
+
+    private ZstdDictionary(int sampleCount, int maxDictBytes, byte[] bytes) {
+        this.sampleCount = sampleCount;
+        this.maxDictBytes = maxDictBytes;
+        this.bytes = bytes;
+    }
+
+    public static ZstdDictionary trainFromFirstMutants() {
+        return trainFromFirstMutants(DEFAULT_SAMPLE_COUNT, DEFAULT_MAX_DICT_BYTES);
+    }
+
+    public static ZstdDictionary trainFromFirstMutants(int sampleCount, int maxDictBytes) {
+        if (sampleCount <= 0) throw new IllegalArgumentException("sampleCount must be > 0");
+        if (maxDictBytes <= 0) throw new IllegalArgumentException("maxDictBytes must be > 0");
+        return new ZstdDictionary(sampleCount, maxDictBytes, null);
+    }
+
+    public static ZstdDictionary trainFromSampleFile(Path samples, int maxDictBytes) throws IOException {
+        Objects.requireNonNull(samples, "samples must not be null");
+        if (maxDictBytes <= 0) throw new IllegalArgumentException("maxDictBytes must be > 0");
+
+        long budget = (long) maxDictBytes * SAMPLE_BYTES_PER_DICT_BYTE;
+        long read = 0;
+        List<byte[]> lines = new ArrayList<>();
+        try (InputStream raw = Files.newInputStream(samples);
+             InputStream in = samples.getFileName().toString().endsWith(".zst") ? new ZstdInputStream(raw) : raw;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while (read < budget && (line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    byte[] sample = (line + "\n").getBytes(StandardCharsets.UTF_8);
+                    lines.add(sample);
+                    read += sample.length;
+                }
+            }
+        }
+        return new ZstdDictionary(lines.size(), maxDictBytes, train(lines, maxDictBytes));
+    }
+
+    public static ZstdDictionary load(Path dictionaryFile) throws IOException {
+        Objects.requireNonNull(dictionaryFile, "dictionaryFile must not be null");
+        byte[] bytes = Files.readAllBytes(dictionaryFile);
+        return new ZstdDictionary(0, bytes.length, bytes);
+    }
+
+    /**
+     * Opens a shard written with the dictionary stored at {@code dictionaryFile}.
+     */
+    public static ZstdInputStream openShard(Path shard, Path dictionaryFile) throws IOException {
+        byte[] dict = Files.readAllBytes(dictionaryFile);
+        InputStream raw = Files.newInputStream(shard);
+        try {
+            return new ZstdInputStream(raw).setDict(dict);
+        } catch (IOException | RuntimeException e) {
+            raw.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Trains a dictionary from {@code samples}.
+     *
+     * @throws IOException if zstd rejects the samples (typically too few or too small)
+     */
+    static byte[] train(List<byte[]> samples, int maxDictBytes) throws IOException {
+        byte[] buffer = new byte[maxDictBytes];
+        long size = Zstd.trainFromBuffer(samples.toArray(new byte[0][]), buffer);
+        if (Zstd.isError(size)) {
+            throw new IOException("zstd dictionary training failed: " + Zstd.getErrorName(size));
+        }
+        return Arrays.copyOf(buffer, (int) size);
+    }
+
+    /** @return {@code true} if the dictionary bytes are available (not waiting for samples) */
+    public boolean isTrained() {
+        return bytes != null;
+    }
+
+    /** @return the dictionary content; {@code null} until trained */
+    public byte[] getBytes() {
+        return bytes == null ? null : bytes.clone();
+    }
+
+    int getSampleCount() {
+        return sampleCount;
+    }
+
+    int getMaxDictBytes() {
+        return maxDictBytes;
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+}
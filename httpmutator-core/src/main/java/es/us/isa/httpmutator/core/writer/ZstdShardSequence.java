@@ -0,0 +1,306 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdOutputStream;
+import es.us.isa.httpmutator.core.reader.SeekableZstdShardReader;
+import es.us.isa.httpmutator.core.util.AtomicFiles;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * File mechanics of a numbered sequence of Zstandard shards
+ * ({@code <prefix>-00000.jsonl.zst}, {@code <prefix>-00001.jsonl.zst}, ...; the
+ * extension is configurable).
+ *
+ * <p>Each shard is written to {@code <name>.tmp} and atomically moved to its
+ * final name by {@link #commit()}, so readers never observe a partial shard.
+ * The stream returned by {@link #openNext()} counts uncompressed bytes, which
+ * callers use for size-based rotation. Rotation policy itself is left to the
+ * caller.</p>
+ *
+ * <p>With a frame index enabled, {@link #endFrame(String, long)} closes the
+ * current zstd frame so that the bytes written since the previous call form
+ * independently decompressible frames, and records their compressed offset,
+ * length and record count in a sidecar {@code <name>.idx} file (JSONL, see
+ * {@link SeekableZstdShardReader}). The index is committed together with its
+ * shard. Through a {@link FileChannelSink}, these per-frame flushes only write
+ * full aligned blocks ({@link FileChannelSink#flushFullBlocks()}); the partial
+ * block follows with the next frames, {@link #flushFile()} or {@link #commit()}.</p>
+ *
+ * <p>Not thread-safe: each sequence is owned by a single thread at a time.</p>
+ */
+final class ZstdShardSequence {
+
+    private final Path outputDir;
+    private final String shardPrefix;
+    private final String extension;
+    private final int zstdLevel;
+    private final int zstdWorkers;
+    private final int bufferBytes;
+    private final boolean frameIndex;
+
+    private static final JsonFactory INDEX_FACTORY = new JsonFactory();
+
+    /** Optional pre-digested dictionary applied to every shard opened after it is set. */
+    private ZstdDictCompress dictionary;
+
+    /** Optional {@link FileChannelSink} settings; {@code null} writes through a buffered file stream. */
+    private DirectBufferPool sinkPool;
+    private FileChannelSink.SyncPolicy sinkSync;
+
+    private int shardIndex = 0;
+    private Path currentTmpPath;
+    private Path currentFinalPath;
+    private CountingOutputStream current;
+    // file sink of the open shard, or null without setFileChannelSink
+    private FileChannelSink sink;
+
+    // compressed byte counter of the open shard (file offsets for the frame index)
+    private CountingOutputStream compressed;
+    // totals of committed shards, for metrics
+    private long committedUncompressedBytes = 0;
+    private long committedCompressedBytes = 0;
+
+    // frame index state (frameIndex only): index file and start of the open frame
+    private Path currentIndexTmpPath;
+    private Path currentIndexFinalPath;
+    private JsonGenerator indexGen;
+    private long frameStart;
+
+    /**
+     * @param zstdWorkers number of native zstd compression threads per shard;
+     *                    {@code 0} compresses on the calling thread
+     */
+    ZstdShardSequence(Path outputDir, String shardPrefix, int zstdLevel, int zstdWorkers, int bufferBytes) {
+        this(outputDir, shardPrefix, zstdLevel, zstdWorkers, bufferBytes, false);
+    }
+
+    /**
+     * @param frameIndex whether {@link #endFrame(String, long)} closes frames and
+     *                   writes a sidecar index per shard
+     */
+    ZstdShardSequence(Path outputDir, String shardPrefix, int zstdLevel, int zstdWorkers, int bufferBytes,
+                      boolean frameIndex) {
+        this(outputDir, shardPrefix, ".jsonl.zst", zstdLevel, zstdWorkers, bufferBytes, frameIndex);
+    }
+
+    /**
+     * @param extension shard file extension, e.g. {@code ".jsonl.zst"}
+     */
+    ZstdShardSequence(Path outputDir, String shardPrefix, String extension, int zstdLevel, int zstdWorkers,
+                      int bufferBytes, boolean frameIndex) {
+        this.outputDir = Objects.requireNonNull(outputDir, "outputDir must not be null");
+        this.shardPrefix = Objects.requireNonNull(shardPrefix, "shardPrefix must not be null");
+        this.extension = Objects.requireNonNull(extension, "extension must not be null");
+        if (zstdWorkers < 0) throw new IllegalArgumentException("zstdWorkers must be >= 0");
+        if (bufferBytes <= 0) throw new IllegalArgumentException("bufferBytes must be > 0");
+        this.zstdLevel = zstdLevel;
+        this.zstdWorkers = zstdWorkers;
+        this.bufferBytes = bufferBytes;
+        this.frameIndex = frameIndex;
+    }
+
+    /**
+     * Opens the next shard and returns a stream accepting uncompressed bytes.
+     */
+    CountingOutputStream openNext() throws IOException {
+        if (current != null) {
+            throw new IllegalStateException("Current shard must be committed before opening the next one");
+        }
+        String baseName = String.format("%s-%05d%s", shardPrefix, shardIndex++, extension);
+        currentFinalPath = outputDir.resolve(baseName);
+        currentTmpPath = outputDir.resolve(baseName + ".tmp");
+
+        Files.deleteIfExists(currentTmpPath);
+
+        sink = sinkSync != null ? new FileChannelSink(currentTmpPath, sinkPool, sinkSync) : null;
+        OutputStream fileOut = sink != null ? sink : Files.newOutputStream(currentTmpPath);
+        try {
+            // The sink buffers in its own direct buffer; zstd flushes (one per frame) write full blocks only
+            OutputStream buffered = sink != null
+                    ? new FullBlockFlushingStream(sink)
+                    : new BufferedOutputStream(fileOut, bufferBytes);
+            // Counts compressed bytes, i.e. file offsets once the frame is flushed
+            compressed = new CountingOutputStream(buffered);
+            buffered = compressed;
+            ZstdOutputStream zstdOut = new ZstdOutputStream(buffered, zstdLevel);
+            if (frameIndex) {
+                zstdOut.setCloseFrameOnFlush(true);
+            }
+            if (zstdWorkers > 0) {
+                zstdOut.setWorkers(zstdWorkers);
+            }
+            if (dictionary != null) {
+                zstdOut.setDict(dictionary);
+            }
+            // Count bytes BEFORE compression: the counter sits above zstdOut.
+            current = new CountingOutputStream(zstdOut);
+        } catch (IOException | RuntimeException e) {
+            fileOut.close();
+            throw e;
+        }
+
+        if (frameIndex) {
+            currentIndexFinalPath = outputDir.resolve(baseName + SeekableZstdShardReader.INDEX_EXTENSION);
+            currentIndexTmpPath = outputDir.resolve(baseName + SeekableZstdShardReader.INDEX_EXTENSION + ".tmp");
+            indexGen = CanonicalJsonl.configureForLines(INDEX_FACTORY.createGenerator(
+                    Files.newBufferedWriter(currentIndexTmpPath, StandardCharsets.UTF_8)));
+            frameStart = 0;
+        }
+        return current;
+    }
+
+    /**
+     * Ends the zstd frame holding the records written since the previous call
+     * and indexes it under {@code originalId}. No-op without a frame index or
+     * when {@code records} is zero.
+     */
+    void endFrame(String originalId, long records) throws IOException {
+        if (!frameIndex || records == 0 || current == null) {
+            return;
+        }
+        // closeFrameOnFlush: the flush finishes the frame, so the counter holds its end offset
+        current.flush();
+        long end = compressed.getCount();
+
+        indexGen.writeStartObject();
+        indexGen.writeStringField(SeekableZstdShardReader.INDEX_ID, originalId);
+        indexGen.writeNumberField(SeekableZstdShardReader.INDEX_OFFSET, frameStart);
+        indexGen.writeNumberField(SeekableZstdShardReader.INDEX_LENGTH, end - frameStart);
+        indexGen.writeNumberField(SeekableZstdShardReader.INDEX_RECORDS, records);
+        indexGen.writeEndObject();
+        indexGen.writeRaw('\n');
+
+        frameStart = end;
+    }
+
+    /**
+     * Pushes everything written so far to the file, including a partial block
+     * that per-frame flushes keep buffered. Call after {@link #endFrame(String, long)}
+     * or a flush of {@link #current()} when the caller asked for a full flush.
+     */
+    void flushFile() throws IOException {
+        if (sink != null) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Sets the dictionary used by subsequently opened shards. The caller keeps
+     * ownership and closes it once the sequence is done.
+     */
+    void setDictionary(ZstdDictCompress dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Writes subsequently opened shards through a {@link FileChannelSink} instead
+     * of a buffered file stream; the pool's buffer size replaces {@code bufferBytes}.
+     */
+    void setFileChannelSink(DirectBufferPool pool, FileChannelSink.SyncPolicy sync) {
+        this.sinkPool = Objects.requireNonNull(pool, "pool must not be null");
+        this.sinkSync = Objects.requireNonNull(sync, "sync must not be null");
+    }
+
+    /** @return true if flushes end zstd frames that are recorded in an {@code .idx} sidecar */
+    boolean hasFrameIndex() {
+        return frameIndex;
+    }
+
+    /** @return the stream of the open shard, or {@code null} if none is open */
+    CountingOutputStream current() {
+        return current;
+    }
+
+    /**
+     * Finishes the zstd frame, closes the file and moves {@code *.tmp} to the final
+     * name. No-op if no shard is open.
+     */
+    void commit() throws IOException {
+        if (current == null) {
+            return;
+        }
+        CountingOutputStream closing = current;
+        current = null;
+
+        // Closing the counter cascades through zstd -> buffer -> file
+        try {
+            closing.close();
+        } finally {
+            committedUncompressedBytes += closing.getCount();
+            committedCompressedBytes += compressed.getCount();
+            compressed = null;
+            sink = null;
+            if (indexGen != null) {
+                JsonGenerator closingIndex = indexGen;
+                indexGen = null;
+                closingIndex.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, true);
+                closingIndex.close();
+            }
+        }
+
+        AtomicFiles.move(currentTmpPath, currentFinalPath);
+        if (frameIndex) {
+            // The index appears only once its shard is complete
+            AtomicFiles.move(currentIndexTmpPath, currentIndexFinalPath);
+        }
+    }
+
+    /** @return uncompressed bytes written to all shards so far (approximate from other threads) */
+    long getUncompressedBytes() {
+        CountingOutputStream open = current;
+        return committedUncompressedBytes + (open == null ? 0 : open.getCount());
+    }
+
+    /**
+     * @return compressed bytes written to all shards so far; data still held by
+     *         zstd or not yet flushed is not included (approximate from other threads)
+     */
+    long getCompressedBytes() {
+        CountingOutputStream open = compressed;
+        return committedCompressedBytes + (open == null ? 0 : open.getCount());
+    }
+
+    /** Number of shards opened so far. */
+    int getShardCount() {
+        return shardIndex;
+    }
+
+    /** Forwards to a {@link FileChannelSink}, turning flushes into {@link FileChannelSink#flushFullBlocks()}. */
+    private static final class FullBlockFlushingStream extends OutputStream {
+
+        private final FileChannelSink sink;
+
+        FullBlockFlushingStream(FileChannelSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            sink.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            sink.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sink.flushFullBlocks();
+        }
+
+        @Override
+        public void close() throws IOException {
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package es.us.isa.httpmutator.core;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.reader.JsonlExchangeReader;
+import es.us.isa.httpmutator.core.reporter.MutantReporter;
+import es.us.isa.httpmutator.core.strategy.RandomSingleStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link HttpMutator} facade pipeline.
+ */
+public class HttpMutatorTest {
+
+    private static final String SAME = "\"Status Code\":200,\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"},\"tags\":[\"x\",\"y\"]}}";
+
+    private static final String INPUT =
+            "{\"id\":\"a\"," + SAME + "\n" +
+            "{\"id\":\"b\",\"Status Code\":404,\"Headers\":{},\"Body\":{\"error\":\"nope\"}}\n" +
+            "{\"id\":\"c\"," + SAME + "\n";
+
+    @Test
+    public void deduplicationReplaysMutantsUnderDuplicateIds() throws Exception {
+        Map<String, List<Mutant>> perId = new LinkedHashMap<>();
+        MutantReporter recorder = new MutantReporter() {
+            @Override
+            public void onMutant(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant) {
+                perId.computeIfAbsent(exchange.getId(), k -> new ArrayList<>()).add(mutant);
+            }
+        };
+
+        HttpMutator mutator = new HttpMutator(7L)
+                .withMutationStrategy(new RandomSingleStrategy())
+                .withDeduplication(16)
+                .addReporter(recorder);
+        mutator.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+
+        Assert.assertEquals(1, mutator.getDeduplicatedExchangeCount());
+        Assert.assertEquals(3, perId.size());
+        Assert.assertFalse(perId.get("a").isEmpty());
+        // The random strategy would normally pick different mutants; the duplicate reuses the cached set
+        Assert.assertEquals(perId.get("a"), perId.get("c"));
+    }
+
+    @Test
+    public void deduplicationCacheStaysWithinItsByteBudget() {
+        ExchangeDeduplicator dedup = new ExchangeDeduplicator(100, 1000);
+        List<ExchangeDeduplicator.EmittedMutant> none = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            StandardHttpResponse response = StandardHttpResponse.of(200,
+                    new TextNode("response-" + i + "-padded-to-some-length"));
+            dedup.store(dedup.fingerprint(response), response, none);
+            Assert.assertTrue(dedup.getCachedBytes() <= 1000);
+        }
+        Assert.assertTrue(dedup.getCachedCount() > 0);
+        Assert.assertTrue(dedup.getCachedCount() < 50);
+
+        StandardHttpResponse huge = StandardHttpResponse.of(200,
+                new TextNode(new String(new char[2000]).replace('\0', 'x')));
+        int before = dedup.getCachedCount();
+        dedup.store(dedup.fingerprint(huge), huge, none);
+        Assert.assertEquals(before, dedup.getCachedCount());
+        Assert.assertNull(dedup.lookup(dedup.fingerprint(huge), huge));
+    }
+
+    @Test
+    public void deduplicationDoesNotCacheBeyondTheMemoryBudget() throws Exception {
+        HttpMutator small = new HttpMutator(7L)
+                .withMutationStrategy(new RandomSingleStrategy())
+                .withDeduplication(16)
+                .withMemoryBudget(new MemoryBudget(2048, MemoryBudget.Policy.SPLIT));
+        small.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+        // The mutants of "a" outweigh the budget, so "c" is mutated again instead of replayed
+        Assert.assertEquals(0, small.getDeduplicatedExchangeCount());
+
+        HttpMutator large = new HttpMutator(7L)
+                .withMutationStrategy(new RandomSingleStrategy())
+                .withDeduplication(16)
+                .withMemoryBudget(new MemoryBudget(1 << 20, MemoryBudget.Policy.SPLIT));
+        large.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+        Assert.assertEquals(1, large.getDeduplicatedExchangeCount());
+
+        ExchangeDeduplicator dedup = new ExchangeDeduplicator(16, 1 << 20);
+        StandardHttpResponse response = StandardHttpResponse.of(200, new TextNode("body"));
+        ExchangeDeduplicator.Recording recording = dedup.record(dedup.fingerprint(response), response, 100, 250);
+        recording.add(response, null);
+        recording.add(response, null);
+        Assert.assertEquals(2, recording.size());
+        recording.add(response, null);
+        Assert.assertTrue(recording.isDropped());
+        Assert.assertEquals(0, recording.size());
+        dedup.store(recording);
+        Assert.assertEquals(0, dedup.getCachedCount());
+    }
+
+    @Test
+    public void withoutDeduplicationEveryExchangeIsMutated() throws Exception {
+        HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new RandomSingleStrategy());
+        mutator.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+
+        Assert.assertEquals(0, mutator.getDeduplicatedExchangeCount());
+    }
+}
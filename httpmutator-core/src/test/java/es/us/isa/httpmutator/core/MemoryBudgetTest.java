@@ -0,0 +1,95 @@
+package es.us.isa.httpmutator.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.MutantGroup;
+import es.us.isa.httpmutator.core.reader.JsonlExchangeReader;
+import es.us.isa.httpmutator.core.strategy.MutationStrategy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the split and sample policies of {@link MemoryBudget}.
+ */
+public class MemoryBudgetTest {
+
+    private static final String BODY = "{\"items\":[{\"a\":1},{\"a\":2},{\"a\":3}],\"name\":\"x\"}";
+    private static final String INPUT = "{\"id\":\"big\",\"Status Code\":200,\"Headers\":{},\"Body\":" + BODY + "}\n";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /** Keeps every mutant and records the size of every body group. */
+    private static final class RecordingStrategy implements MutationStrategy {
+        final List<Integer> bodyGroupSizes = new ArrayList<>();
+        int bodyMutants = 0;
+
+        @Override
+        public List<Mutant> selectMutants(MutantGroup group) {
+            if (group.getIdentifier().startsWith("Body")) {
+                bodyGroupSizes.add(group.getMutants().size());
+                bodyMutants += group.getMutants().size();
+            }
+            return group.getMutants();
+        }
+    }
+
+    private RecordingStrategy run(MemoryBudget budget) throws Exception {
+        RecordingStrategy strategy = new RecordingStrategy();
+        HttpMutator mutator = new HttpMutator(3L).withMutationStrategy(strategy);
+        if (budget != null) {
+            mutator.withMemoryBudget(budget);
+        }
+        mutator.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+        return strategy;
+    }
+
+    private static long twoCopies() throws Exception {
+        JsonNode body = new ObjectMapper().readTree(BODY);
+        return 2 * MemoryBudget.estimateCopyBytes(body);
+    }
+
+    @Test
+    public void splitKeepsEveryMutantInSmallerGroups() throws Exception {
+        RecordingStrategy unlimited = run(null);
+        Assert.assertTrue(unlimited.bodyGroupSizes.stream().anyMatch(n -> n > 2));
+
+        Path report = tmp.getRoot().toPath().resolve("budget.csv");
+        MemoryBudget budget = new MemoryBudget(twoCopies(), MemoryBudget.Policy.SPLIT).withReport(report);
+        RecordingStrategy split = run(budget);
+
+        Assert.assertEquals(unlimited.bodyMutants, split.bodyMutants);
+        Assert.assertTrue(split.bodyGroupSizes.stream().allMatch(n -> n <= 2));
+        Assert.assertTrue(budget.getLimitedGroups() > 0);
+        Assert.assertEquals(0, budget.getDroppedMutants());
+
+        List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+        Assert.assertEquals(MemoryBudget.REPORT_HEADER, lines.get(0));
+        Assert.assertEquals(budget.getLimitedGroups() + 1, lines.size());
+        Assert.assertTrue(lines.get(1).startsWith("big,Body"));
+    }
+
+    @Test
+    public void sampleBoundsEveryGroup() throws Exception {
+        RecordingStrategy unlimited = run(null);
+        MemoryBudget budget = new MemoryBudget(twoCopies(), MemoryBudget.Policy.SAMPLE);
+        RecordingStrategy sampled = run(budget);
+
+        Assert.assertTrue(sampled.bodyGroupSizes.stream().allMatch(n -> n <= 2));
+        Assert.assertEquals(unlimited.bodyMutants - sampled.bodyMutants, budget.getDroppedMutants());
+        for (MemoryBudget.Decision d : budget.getDecisions()) {
+            Assert.assertEquals(2, d.kept);
+            Assert.assertEquals(1, d.groups);
+        }
+    }
+}
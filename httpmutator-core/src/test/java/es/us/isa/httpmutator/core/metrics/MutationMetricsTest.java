@@ -0,0 +1,90 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.reader.JsonlExchangeReader;
+import es.us.isa.httpmutator.core.reporter.MutantReporter;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import es.us.isa.httpmutator.core.writer.ShardedZstdJsonlMutantWriter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks the counters, byte gauges and JMX registration of {@link MutationMetrics}.
+ */
+public class MutationMetricsTest {
+
+    private static final String INPUT =
+            "{\"id\":\"a\",\"Status Code\":200,\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"},\"tags\":[\"x\",\"y\"]}}\n" +
+            "{\"id\":\"b\",\"Status Code\":404,\"Headers\":{},\"Body\":{\"error\":\"nope\"}}\n";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void countsExchangesAndPublishesMBean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        AtomicReference<Object> readViaJmx = new AtomicReference<>();
+        HttpMutator mutator = new HttpMutator(1L)
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(new ShardedZstdJsonlMutantWriter(tmp.getRoot().toPath(), "mutants", 1000, Long.MAX_VALUE, 3))
+                .withMetrics("metrics-test");
+        MutationMetrics metrics = mutator.getMetrics();
+        ObjectName name = metrics.getObjectName();
+        Assert.assertTrue(server.isRegistered(name));
+        // Reporters finish before the MBean is unregistered
+        mutator.addReporter(new MutantReporter() {
+            @Override
+            public void onMutant(HttpExchange exchange, StandardHttpResponse mutated, Mutant mutant) {
+            }
+
+            @Override
+            public void onFinished() throws IOException {
+                try {
+                    readViaJmx.set(server.getAttribute(name, "ExchangesRead"));
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+
+        mutator.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+
+        Assert.assertEquals(2L, readViaJmx.get());
+        Assert.assertTrue(metrics.getMutantsGenerated() > 0);
+        Assert.assertEquals(metrics.getMutantsSelected(), metrics.getMutantsWritten());
+        Assert.assertEquals(2L, metrics.getParseLatency().getCount());
+        Assert.assertEquals(2L, metrics.getWriteLatency().getCount());
+        Assert.assertFalse(server.isRegistered(name));
+        // Shards are committed on close; the gauges still read after unregistering
+        Assert.assertTrue(metrics.getBytesBeforeCompression() > 0);
+        Assert.assertTrue(metrics.getBytesAfterCompression() > 0);
+        Assert.assertTrue(metrics.getBytesAfterCompression() < metrics.getBytesBeforeCompression());
+    }
+
+    @Test
+    public void histogramQuantilesStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long p50 = histogram.getQuantileNanos(0.5);
+        long p99 = histogram.getQuantileNanos(0.99);
+        // 4 sub-buckets per power of two: at most 25% over the true value
+        Assert.assertTrue(p50 >= 500_000L && p50 <= 625_000L);
+        Assert.assertTrue(p99 >= 990_000L && p99 <= 1_237_500L);
+        Assert.assertEquals(1000L, histogram.snapshot().getCount());
+    }
+}
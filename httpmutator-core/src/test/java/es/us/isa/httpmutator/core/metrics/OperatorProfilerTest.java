@@ -0,0 +1,62 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.reader.JsonlExchangeReader;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Checks the operator profiling mode of {@link HttpMutator}.
+ */
+public class OperatorProfilerTest {
+
+    private static final String INPUT =
+            "{\"id\":\"a\",\"Status Code\":200,\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"},\"tags\":[\"x\",\"y\"]}}\n";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void profileIsWrittenSortedOnClose() throws Exception {
+        Path report = tmp.getRoot().toPath().resolve("profile.csv");
+        HttpMutator mutator = new HttpMutator(1L)
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .withOperatorProfiling(report);
+        mutator.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+
+        List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+        Assert.assertEquals(OperatorProfiler.HEADER, lines.get(0));
+
+        long previousTotal = Long.MAX_VALUE;
+        boolean sawNested = false;
+        for (OperatorProfiler.Row row : mutator.getOperatorProfiler().rows()) {
+            Assert.assertTrue(row.invocations > 0);
+            Assert.assertTrue(row.mutantBytes > 0);
+            if (row.depth < 0) {
+                Assert.assertTrue(row.totalNanos <= previousTotal);
+                previousTotal = row.totalNanos;
+            }
+            // "/user/id" is at depth 2
+            sawNested |= row.depth == 2 && row.mutator.equals("LongMutator");
+        }
+        Assert.assertTrue(sawNested);
+        Assert.assertTrue(lines.stream().anyMatch(l -> l.startsWith("StatusCodeMutator,") && l.contains(",all,")));
+    }
+
+    @Test
+    public void depthCountsPathSegments() {
+        Assert.assertEquals(0, OperatorProfiler.depthOf(""));
+        Assert.assertEquals(1, OperatorProfiler.depthOf("/user"));
+        Assert.assertEquals(3, OperatorProfiler.depthOf("/user/tags/0"));
+    }
+}
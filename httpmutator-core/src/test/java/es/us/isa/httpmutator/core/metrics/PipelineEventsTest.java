@@ -0,0 +1,75 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.reader.JsonlExchangeReader;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import es.us.isa.httpmutator.core.writer.JsonlMutantWriter;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks that {@link PipelineEvents} reach a Flight Recorder recording.
+ */
+public class PipelineEventsTest {
+
+    private static final String INPUT =
+            "{\"id\":\"a\",\"Status Code\":200,\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"}}}\n";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void pipelinePhasesAreRecorded() throws Exception {
+        Assume.assumeTrue(PipelineEvents.isAvailable());
+        Path dump = tmp.getRoot().toPath().resolve("run.jfr");
+
+        try (Recording recording = new Recording()) {
+            for (String type : new String[]{"ExchangeRead", "MutantGeneration", "StrategySelection", "MutantWrite"}) {
+                recording.enable("es.us.isa.httpmutator." + type).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            HttpMutator mutator = new HttpMutator(1L)
+                    .withMutationStrategy(new AllOperatorsStrategy())
+                    .addWriter(new JsonlMutantWriter(new ByteArrayOutputStream(), false));
+            mutator.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        int generated = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            String name = event.getEventType().getName();
+            if (!name.startsWith("es.us.isa.httpmutator.")) {
+                continue;
+            }
+            Assert.assertEquals("a", event.getString("exchangeId"));
+            counts.merge(name.substring("es.us.isa.httpmutator.".length()), 1, Integer::sum);
+            if (name.endsWith("MutantGeneration")) {
+                generated += event.getInt("mutants");
+            }
+            if (name.endsWith("MutantWrite")) {
+                Assert.assertTrue(event.getLong("bytes") > 0);
+            }
+        }
+        Assert.assertEquals(Integer.valueOf(1), counts.get("ExchangeRead"));
+        Assert.assertEquals(Integer.valueOf(3), counts.get("MutantGeneration"));
+        Assert.assertTrue(counts.get("StrategySelection") > 0);
+        // The all-operators strategy writes every generated mutant
+        Assert.assertEquals(Integer.valueOf(generated), counts.get("MutantWrite"));
+    }
+}
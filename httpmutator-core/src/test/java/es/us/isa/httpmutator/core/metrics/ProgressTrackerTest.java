@@ -0,0 +1,59 @@
+package es.us.isa.httpmutator.core.metrics;
+
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.reader.JsonlExchangeReader;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the progress reports of a streaming run.
+ */
+public class ProgressTrackerTest {
+
+    private static final String EXCHANGE =
+            "\"Status Code\":200,\"Headers\":{},\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"}}}\n";
+    private static final String INPUT =
+            "{\"id\":\"a\"," + EXCHANGE + "{\"id\":\"b\"," + EXCHANGE + "{\"id\":\"c\"," + EXCHANGE;
+
+    @Test
+    public void reportsConsumedInputUntilComplete() throws Exception {
+        List<Progress> reports = new ArrayList<>();
+        ProgressTracker tracker = new ProgressTracker(reports::add, 1, TimeUnit.NANOSECONDS)
+                .withTotalBytes(INPUT.length())
+                .withOutputSize(() -> 42L);
+
+        new HttpMutator(1L)
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .withProgress(tracker)
+                .mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+
+        Assert.assertTrue(reports.size() >= 2);
+        for (int i = 1; i < reports.size(); i++) {
+            Assert.assertTrue(reports.get(i).getExchanges() >= reports.get(i - 1).getExchanges());
+        }
+        Progress last = reports.get(reports.size() - 1);
+        Assert.assertTrue(last.isFinished());
+        Assert.assertEquals(3, last.getExchanges());
+        Assert.assertTrue(last.getMutants() > 0);
+        Assert.assertEquals(INPUT.length(), last.getInputBytes());
+        Assert.assertEquals(100.0, last.getPercentComplete(), 0.0);
+        Assert.assertEquals(0, last.getEtaNanos());
+        Assert.assertEquals(42L, last.getOutputBytes());
+        Assert.assertTrue(last.toString().startsWith("done | "));
+        Assert.assertFalse(tracker.isCounting());
+    }
+
+    @Test
+    public void etaExtrapolatesMeanInputRate() {
+        Progress halfway = new Progress(TimeUnit.SECONDS.toNanos(10), 500, 1000, 5, 50, 50, 5, -1, false);
+        Assert.assertEquals(50.0, halfway.getPercentComplete(), 0.0);
+        Assert.assertEquals(TimeUnit.SECONDS.toNanos(10), halfway.getEtaNanos());
+        Assert.assertTrue(halfway.toString().contains("ETA 0:00:10"));
+    }
+}
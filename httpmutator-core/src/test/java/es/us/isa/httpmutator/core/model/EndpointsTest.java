@@ -0,0 +1,32 @@
+package es.us.isa.httpmutator.core.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the templating of identifier path segments in endpoint keys.
+ */
+public class EndpointsTest {
+
+    @Test
+    public void identifierSegmentsAreTemplated() {
+        Assert.assertEquals("/users/{id}/orders/{id}", Endpoints.templatePath("/users/42/orders/7"));
+        Assert.assertEquals("/items/{id}",
+                Endpoints.templatePath("/items/123e4567-e89b-12d3-a456-426614174000"));
+        Assert.assertEquals("/objects/{id}", Endpoints.templatePath("/objects/507f1f77bcf86cd799439011"));
+        Assert.assertEquals("/v1/users/", Endpoints.templatePath("/v1/users/"));
+        // Short hex-looking words and hex without digits stay literal
+        Assert.assertEquals("/cafe/facade/deadbeefcafe", Endpoints.templatePath("/cafe/facade/deadbeefcafe"));
+        Assert.assertEquals("/", Endpoints.templatePath("/"));
+    }
+
+    @Test
+    public void keyIgnoresHostAndQuery() {
+        HttpExchange exchange = new HttpExchange(
+                StandardHttpRequest.of("GET", "http://api.example.org/users/17?expand=orders"),
+                StandardHttpResponse.of(200, null), "ex");
+        Assert.assertEquals("GET /users/{id}", Endpoints.keyOf(exchange));
+        Assert.assertEquals(Endpoints.UNKNOWN,
+                Endpoints.keyOf(new HttpExchange(null, StandardHttpResponse.of(200, null), "ex")));
+    }
+}
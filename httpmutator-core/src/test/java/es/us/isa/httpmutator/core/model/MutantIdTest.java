@@ -0,0 +1,95 @@
+package es.us.isa.httpmutator.core.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Checks that mutant ids are stable for a seed, unique within a run and
+ * survive their hex form.
+ */
+public class MutantIdTest {
+
+    private static final String RESPONSE =
+            "{\"Status Code\":200,\"Headers\":{\"content-type\":\"application/json\"},"
+                    + "\"Body\":{\"name\":\"x\",\"tags\":[\"a\",\"b\"],\"count\":3}}";
+
+    @Test
+    public void idsAreStableForTheSameSeedAndUnique() throws Exception {
+        List<Long> first = ids(7L);
+        List<Long> second = ids(7L);
+        List<Long> otherSeed = ids(8L);
+
+        Assert.assertFalse(first.isEmpty());
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.size(), new HashSet<>(first).size());
+        Assert.assertFalse(first.contains(MutantId.NONE));
+        Assert.assertNotEquals(first.get(0), otherSeed.get(0));
+
+        for (long id : first) {
+            String hex = MutantId.toHex(id);
+            Assert.assertEquals(16, hex.length());
+            Assert.assertEquals(id, MutantId.parseHex(hex));
+        }
+    }
+
+    @Test
+    public void generatedExchangeIdsAreUnique() {
+        StandardHttpResponse response = StandardHttpResponse.of(200, null);
+        HashSet<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(ids.add(new HttpExchange(null, response).getId()));
+        }
+    }
+
+    @Test
+    public void idsOfExchangesWithoutInputIdsAreStableAcrossRuns() throws Exception {
+        List<Long> first = idsOfTwoExchanges(7L, null);
+        List<Long> second = idsOfTwoExchanges(7L, null);
+
+        Assert.assertFalse(first.isEmpty());
+        // The generated exchange ids differ between runs; the mutant ids do not
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.size(), new HashSet<>(first).size());
+    }
+
+    @Test
+    public void exchangesSharingAnInputIdShareMutantIds() throws Exception {
+        List<Long> ids = idsOfTwoExchanges(7L, "same");
+        int half = ids.size() / 2;
+
+        Assert.assertTrue(half > 0);
+        Assert.assertEquals(ids.subList(0, half), ids.subList(half, ids.size()));
+    }
+
+    /** Mutant ids of two exchanges with the same response and the given id ({@code null}: generated). */
+    private static List<Long> idsOfTwoExchanges(long seed, String exchangeId) throws Exception {
+        StandardHttpResponse response = StandardHttpResponse.fromJsonNode(new ObjectMapper().readTree(RESPONSE));
+        List<HttpExchange> exchanges = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            exchanges.add(new HttpExchange(null, response, exchangeId));
+        }
+        List<Long> ids = new ArrayList<>();
+        new HttpMutator(seed)
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addReporter((exchange, mutated, mutant) -> ids.add(mutant.getId()))
+                .mutateStream(exchanges.iterator());
+        return ids;
+    }
+
+    private static List<Long> ids(long seed) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (HttpMutator mutator = new HttpMutator(seed)
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addReporter((exchange, response, mutant) -> ids.add(mutant.getId()))) {
+            mutator.mutate(new ObjectMapper().readTree(RESPONSE), "ex-1", n -> { });
+        }
+        return ids;
+    }
+}
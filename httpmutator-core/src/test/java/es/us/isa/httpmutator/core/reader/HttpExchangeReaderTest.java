@@ -0,0 +1,178 @@
+package es.us.isa.httpmutator.core.reader;
+
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for the pull-style cursor API ({@code iterator}/{@code spliterator}/{@code stream})
+ * and {@link ExchangeFilter} pre-scan of the built-in {@link HttpExchangeReader} implementations.
+ */
+public class HttpExchangeReaderTest {
+
+    private static final String RESOURCE_PATH = "/httpmutatorInput.jsonl";
+
+    private static final String HAR =
+            "{\"log\":{\"version\":\"1.2\",\"creator\":{\"name\":\"t\"},\"pages\":[{\"id\":\"p\"}],\"entries\":[" +
+            "{\"id\":\"a\",\"request\":{\"method\":\"GET\",\"url\":\"http://x/a\",\"headers\":[]}," +
+            "\"response\":{\"status\":200,\"headers\":[{\"name\":\"content-type\",\"value\":\"application/json\"}]," +
+            "\"content\":{\"mimeType\":\"application/json\",\"text\":\"{\\\"k\\\":1}\"}}}," +
+            "{\"request\":{\"method\":\"GET\",\"url\":\"http://x/b\",\"headers\":[]}," +
+            "\"response\":{\"status\":404,\"headers\":[],\"content\":{\"mimeType\":\"text/plain\",\"text\":\"nope\"}}}" +
+            "]},\"trailing\":{\"ignored\":true}}";
+
+    @Test
+    public void jsonlIteratorMatchesPushRead() throws Exception {
+        List<String> pushed = new ArrayList<>();
+        try (Reader in = resource()) {
+            new JsonlExchangeReader().read(in, e -> pushed.add(e.getId()));
+        }
+
+        List<String> pulled = new ArrayList<>();
+        try (Reader in = resource()) {
+            Iterator<HttpExchange> it = new JsonlExchangeReader().iterator(in);
+            while (it.hasNext()) {
+                pulled.add(it.next().getId());
+            }
+        }
+
+        Assert.assertFalse(pushed.isEmpty());
+        Assert.assertEquals(pushed, pulled);
+    }
+
+    @Test
+    public void jsonlStreamStopsEarly() throws Exception {
+        String input = "{\"Status Code\":200,\"Headers\":{},\"Body\":{}}\n" +
+                "\n" +
+                "{\"Status Code\":201,\"Headers\":{},\"Body\":{}}\n" +
+                "this line is never parsed\n";
+
+        List<HttpExchange> firstTwo = new JsonlExchangeReader()
+                .stream(new StringReader(input), false)
+                .limit(2)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(2, firstTwo.size());
+        Assert.assertEquals("1", firstTwo.get(0).getId());
+        Assert.assertEquals("3", firstTwo.get(1).getId());
+        Assert.assertEquals(201, firstTwo.get(1).getResponse().getStatusCode());
+    }
+
+    @Test
+    public void jsonlParallelStreamSeesEveryExchange() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("{\"id\":\"").append(i).append("\",\"Status Code\":200,\"Headers\":{},\"Body\":{\"n\":")
+                    .append(i).append("}}\n");
+        }
+
+        long sum = new JsonlExchangeReader()
+                .stream(new StringReader(sb.toString()), true)
+                .mapToLong(e -> e.getResponse().getBody().get("n").asLong())
+                .sum();
+
+        Assert.assertEquals(499L * 500L / 2L, sum);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void jsonlIteratorReportsInvalidLines() throws Exception {
+        Iterator<HttpExchange> it = new JsonlExchangeReader().iterator(new StringReader("{not json}\n"));
+        it.next();
+    }
+
+    @Test
+    public void harIteratorStreamsEntries() throws Exception {
+        Iterator<HttpExchange> it = new HarExchangeReader().iterator(new StringReader(HAR));
+
+        Assert.assertTrue(it.hasNext());
+        HttpExchange first = it.next();
+        Assert.assertEquals("a", first.getId());
+        Assert.assertEquals(200, first.getResponse().getStatusCode());
+        Assert.assertEquals(1, first.getResponse().getBody().get("k").asInt());
+        Assert.assertEquals("http://x/a", first.getRequest().getUrl());
+
+        HttpExchange second = it.next();
+        Assert.assertEquals("2", second.getId());
+        Assert.assertEquals(404, second.getResponse().getStatusCode());
+
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void harIteratorRejectsNonObjectEntries() throws Exception {
+        Iterator<HttpExchange> it = new HarExchangeReader().iterator(new StringReader("{\"log\":{\"entries\":[1]}}"));
+        it.hasNext();
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void harWithoutEntriesIsRejected() throws Exception {
+        new HarExchangeReader().read(new StringReader("{\"log\":{\"version\":\"1.2\"}}"), e -> { });
+    }
+
+    @Test
+    public void jsonlFilterSkipsRejectedLines() throws Exception {
+        String input = "{\"Status Code\":200,\"Headers\":{\"Content-Type\":\"application/json; charset=utf-8\"},\"Body\":{\"a\":1}}\n" +
+                "{\"Status Code\":500,\"Headers\":{\"content-type\":\"application/json\"},\"Body\":{}}\n" +
+                "{\"Status Code\":204,\"Headers\":{\"content-type\":\"text/plain\"},\"Body\":\"\"}\n" +
+                "{\"Status Code\":201,\"Headers\":{\"content-type\":\"application/json\"},\"Body\":{\"big\":\"0123456789\"}}\n";
+
+        ExchangeFilter filter = new ExchangeFilter()
+                .withStatusRange(200, 299)
+                .withContentType("application/json");
+        List<String> ids = new JsonlExchangeReader(filter).stream(new StringReader(input), false)
+                .map(HttpExchange::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("1", "4"), ids);
+
+        filter.withBodySizeRange(0, 10);
+        ids = new JsonlExchangeReader(filter).stream(new StringReader(input), false)
+                .map(HttpExchange::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(Collections.singletonList("1"), ids);
+
+        // canonical JSONL has no request URL, so a URL criterion rejects every line
+        ids = new JsonlExchangeReader(new ExchangeFilter().withUrlPattern("/api")).stream(new StringReader(input), false)
+                .map(HttpExchange::getId)
+                .collect(Collectors.toList());
+        Assert.assertTrue(ids.isEmpty());
+    }
+
+    @Test
+    public void harFilterSkipsRejectedEntries() throws Exception {
+        List<HttpExchange> byStatus = new HarExchangeReader(new ExchangeFilter().withStatusRange(400, 499))
+                .stream(new StringReader(HAR), false)
+                .collect(Collectors.toList());
+        Assert.assertEquals(1, byStatus.size());
+        Assert.assertEquals("2", byStatus.get(0).getId());
+
+        List<HttpExchange> byUrlAndType = new HarExchangeReader(
+                new ExchangeFilter().withUrlPattern("/a$").withContentType("application/*"))
+                .stream(new StringReader(HAR), false)
+                .collect(Collectors.toList());
+        Assert.assertEquals(1, byUrlAndType.size());
+        Assert.assertEquals("a", byUrlAndType.get(0).getId());
+
+        List<HttpExchange> bySize = new HarExchangeReader(new ExchangeFilter().withBodySizeRange(0, 5))
+                .stream(new StringReader(HAR), false)
+                .collect(Collectors.toList());
+        Assert.assertEquals(1, bySize.size());
+        Assert.assertEquals("2", bySize.get(0).getId());
+    }
+
+    private static Reader resource() {
+        return new InputStreamReader(
+                HttpExchangeReaderTest.class.getResourceAsStream(RESOURCE_PATH), StandardCharsets.UTF_8);
+    }
+}
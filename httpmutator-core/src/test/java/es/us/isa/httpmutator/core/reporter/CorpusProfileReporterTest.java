@@ -0,0 +1,60 @@
+package es.us.isa.httpmutator.core.reporter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.StandardHttpRequest;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the profile written by {@link CorpusProfileReporter}.
+ */
+public class CorpusProfileReporterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void profilesShapeOfOriginalResponses() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<HttpExchange> exchanges = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            String url = i < 4 ? "http://api/users/" + (100 + i) : "http://api/orders?page=" + i;
+            JsonNode body = mapper.readTree("{\"items\":[{\"id\":1},{\"id\":2,\"tags\":[\"a\"]}],\"total\":2}");
+            exchanges.add(new HttpExchange(StandardHttpRequest.of("GET", url), StandardHttpResponse.of(200, body), "ex-" + i));
+        }
+        Path out = tmp.getRoot().toPath().resolve("profile.json");
+        new HttpMutator(1L)
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addReporter(new CorpusProfileReporter(out, 5))
+                .mutateStream(exchanges.iterator());
+
+        JsonNode profile = mapper.readTree(out.toFile());
+        Assert.assertEquals(6, profile.get("exchanges").asLong());
+        Assert.assertEquals(6, profile.get("distinctExchangeIds").asLong());
+        Assert.assertEquals(4, profile.get("bodyDepth").get("max").asLong());
+        Assert.assertEquals(2, profile.get("arrayLength").get("max").asLong());
+        // "", /items, /items/*, /items/*/id, /items/*/tags, /items/*/tags/*, /total
+        Assert.assertEquals(7, profile.get("distinctPaths").asLong());
+        Assert.assertEquals(14, profile.get("distinctEndpointPaths").asLong());
+        Assert.assertEquals(6 * 2, profile.get("valueTypes").get("ARRAY").asLong());
+
+        JsonNode top = profile.get("topEndpoints");
+        // One templated endpoint for the four user ids
+        Assert.assertEquals("GET /users/{id}", top.get(0).get("endpoint").asText());
+        Assert.assertEquals(4, top.get(0).get("count").asLong());
+        Assert.assertEquals(7, top.get(0).get("distinctPaths").asLong());
+        Assert.assertEquals("GET /orders", top.get(1).get("endpoint").asText());
+        Assert.assertTrue(profile.get("topOperators").size() > 0);
+    }
+}
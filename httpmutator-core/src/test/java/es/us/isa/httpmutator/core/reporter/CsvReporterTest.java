@@ -0,0 +1,134 @@
+package es.us.isa.httpmutator.core.reporter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.body.value.string0.StringMutator;
+import es.us.isa.httpmutator.core.body.value.string0.operator.StringReplacementOperator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import es.us.isa.httpmutator.core.writer.JsonlMutantWriter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that the streamed CSV report matches the mutants actually emitted.
+ */
+public class CsvReporterTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final Mutant MUTANT = new Mutant("Body", NullNode.getInstance(),
+            StringMutator.class, StringReplacementOperator.class);
+    private static final String KEY = MUTANT.getMutatorClassName() + ":" + MUTANT.getOperatorClassName();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void rowsAndTotalMatchEmittedMutants() throws Exception {
+        Path report = tmp.getRoot().toPath().resolve("report.csv");
+        ByteArrayOutputStream jsonl = new ByteArrayOutputStream();
+        try (HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(new JsonlMutantWriter(jsonl, true))
+                .addReporter(new CsvReporter(report))) {
+            mutator.mutate(JSON.readTree("{\"Status Code\":200,\"Headers\":{},\"Body\":{\"id\":1,\"name\":\"a\"}}"),
+                    "ex,1");
+            mutator.mutate(JSON.readTree("{\"Status Code\":404,\"Headers\":{},\"Body\":[true,2.5]}"), "ex-2");
+        }
+
+        // expected counts per "id|mutator:operator"
+        Map<String, Integer> expected = new HashMap<>();
+        for (String line : new String(jsonl.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            JsonNode node = JSON.readTree(line);
+            String key = node.get("_hm_mutator").asText() + ":" + node.get("_hm_operator").asText();
+            expected.merge(node.get("_hm_original_id").asText() + "|" + key, 1, Integer::sum);
+            expected.merge("TOTAL|" + key, 1, Integer::sum);
+        }
+
+        List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+        Assert.assertEquals(4, lines.size());
+        String[] header = lines.get(0).split(",");
+        Assert.assertEquals("id", header[0]);
+        for (int i = 2; i < header.length; i++) {
+            Assert.assertTrue(header[i - 1].compareTo(header[i]) < 0);
+        }
+
+        int checked = 0;
+        for (String row : lines.subList(1, lines.size())) {
+            String[] cells = row.split(",");
+            // ids may contain commas: counts are the last header.length - 1 cells
+            int idCells = cells.length - (header.length - 1);
+            String id = String.join(",", Arrays.copyOfRange(cells, 0, idCells));
+            for (int c = 1; c < header.length; c++) {
+                int count = Integer.parseInt(cells[idCells + c - 1]);
+                Assert.assertEquals(row, (int) expected.getOrDefault(id + "|" + header[c], 0), count);
+                checked += count;
+            }
+        }
+        Assert.assertEquals(2 * expected.entrySet().stream()
+                .filter(e -> e.getKey().startsWith("TOTAL|")).mapToInt(Map.Entry::getValue).sum(), checked);
+        Assert.assertEquals("TOTAL", lines.get(3).split(",")[0]);
+
+        String[] leftovers = tmp.getRoot().list((d, name) -> name.endsWith(".rows"));
+        Assert.assertNotNull(leftovers);
+        Assert.assertEquals(0, leftovers.length);
+    }
+
+    @Test
+    public void idsWithLineBreaksStayInTheirRow() throws Exception {
+        Path report = tmp.getRoot().toPath().resolve("report.csv");
+        CsvReporter reporter = new CsvReporter(report);
+        for (String id : new String[]{"a\nb", "c\r", "d\\n", "e,\"f\""}) {
+            finish(reporter, exchange(id), 1);
+        }
+        reporter.onFinished();
+
+        Assert.assertEquals("id," + KEY + "\n" +
+                        "\"a\nb\",1\n" +
+                        "\"c\r\",1\n" +
+                        "d\\n,1\n" +
+                        "e,\"f\",1\n" +
+                        "TOTAL,4\n",
+                new String(Files.readAllBytes(report), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void repeatedIdsGetOneRow() throws Exception {
+        Path report = tmp.getRoot().toPath().resolve("report.csv");
+        CsvReporter reporter = new CsvReporter(report);
+        finish(reporter, exchange("x"), 1);
+        finish(reporter, exchange("y"), 1);
+        finish(reporter, exchange("x"), 2);
+        reporter.onFinished();
+
+        Assert.assertEquals(Arrays.asList("id," + KEY, "x,3", "y,1", "TOTAL,4"),
+                Files.readAllLines(report, StandardCharsets.UTF_8));
+    }
+
+    private static HttpExchange exchange(String id) {
+        return new HttpExchange(null, StandardHttpResponse.of(200, NullNode.getInstance()), id);
+    }
+
+    private static void finish(CsvReporter reporter, HttpExchange exchange, int mutants) throws Exception {
+        for (int i = 0; i < mutants; i++) {
+            reporter.onMutant(exchange, exchange.getResponse(), MUTANT);
+        }
+        reporter.onExchangeFinished(exchange);
+    }
+}
@@ -0,0 +1,171 @@
+package es.us.isa.httpmutator.core.stats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.body.array.ArrayMutator;
+import es.us.isa.httpmutator.core.body.array.operator.ArrayEmptyOperator;
+import es.us.isa.httpmutator.core.body.value.string0.StringMutator;
+import es.us.isa.httpmutator.core.body.value.string0.operator.StringReplacementOperator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpRequest;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks {@link CompressedBitmap} and the recording, persistence, merging and
+ * skipping of {@link CoverageIndex}.
+ */
+public class CoverageIndexTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void bitmapSwitchesToDenseChunksAndRoundTrips() throws Exception {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int v = 0; v < 10_000; v += 2) {
+            Assert.assertTrue(bitmap.add(v));
+        }
+        Assert.assertFalse(bitmap.add(4));
+        bitmap.add(1 << 20);
+        Assert.assertEquals(5001, bitmap.getCardinality());
+        Assert.assertTrue(bitmap.contains(9998));
+        Assert.assertFalse(bitmap.contains(9999));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bitmap.writeTo(new DataOutputStream(bytes));
+        CompressedBitmap read = CompressedBitmap.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(5001, read.getCardinality());
+        Assert.assertTrue(read.contains(1 << 20));
+
+        CompressedBitmap odd = new CompressedBitmap();
+        odd.add(1);
+        odd.add(3);
+        read.or(odd);
+        Assert.assertEquals(5003, read.getCardinality());
+        List<Integer> first = new ArrayList<>();
+        read.forEach(v -> {
+            if (first.size() < 4) {
+                first.add(v);
+            }
+        });
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), first);
+    }
+
+    @Test
+    public void bitmapChunkWithWrongCardinalityIsRejected() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1);
+        out.writeChar(0);
+        // Claims a dense chunk of 5000 values but sets a single bit
+        out.writeInt(5000);
+        out.writeLong(1L);
+        for (int k = 1; k < 1024; k++) {
+            out.writeLong(0L);
+        }
+        try {
+            CompressedBitmap.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            Assert.fail("Expected a corrupt bitmap");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Corrupt bitmap"));
+        }
+    }
+
+    @Test
+    public void recordsSavesAndMergesCoverage() throws Exception {
+        Mutant item = mutant("Body/items/0/name", StringMutator.class, StringReplacementOperator.class);
+        Mutant otherItem = mutant("Body/items/5/name", StringMutator.class, StringReplacementOperator.class);
+        Mutant array = mutant("Body/items", ArrayMutator.class, ArrayEmptyOperator.class);
+
+        CoverageIndex a = new CoverageIndex();
+        Assert.assertTrue(a.record("GET /users", item));
+        Assert.assertFalse(a.record("GET /users", otherItem)); // same template
+        Assert.assertTrue(a.isCovered("GET /users", otherItem));
+        Assert.assertFalse(a.isCovered("GET /orders", item));
+        Assert.assertFalse(a.isCovered("GET /users", array));
+
+        Path file = tmp.getRoot().toPath().resolve("coverage.bin");
+        a.save(file);
+        CoverageIndex loaded = CoverageIndex.load(file);
+        Assert.assertEquals(1, loaded.getCoveredCount());
+        Assert.assertTrue(loaded.isCovered("GET /users", item));
+
+        // Different first-seen order: ordinals must be remapped
+        CoverageIndex b = new CoverageIndex();
+        b.record("GET /orders", array);
+        b.record("GET /users", array);
+        b.record("GET /orders", item);
+        loaded.merge(b);
+        Assert.assertEquals(4, loaded.getCoveredCount());
+        Assert.assertTrue(loaded.isCovered("GET /users", array));
+        Assert.assertTrue(loaded.isCovered("GET /orders", item));
+        Assert.assertEquals(Collections.singletonList("GET /orders"), loaded.getEndpoints().subList(0, 1));
+    }
+
+    @Test
+    public void keysLongerThan64KbRoundTrip() throws Exception {
+        // Two UTF-8 bytes per character: well past the 65535-byte limit of writeUTF
+        String endpoint = "GET /" + new String(new char[40_000]).replace('\0', '\u00e9');
+        Mutant longPath = mutant("Body/" + new String(new char[40_000]).replace('\0', '\u00f1'),
+                StringMutator.class, StringReplacementOperator.class);
+
+        CoverageIndex index = new CoverageIndex();
+        index.record(endpoint, longPath);
+        Path file = tmp.getRoot().toPath().resolve("coverage.bin");
+        index.save(file);
+
+        CoverageIndex loaded = CoverageIndex.load(file);
+        Assert.assertEquals(Collections.singletonList(endpoint), loaded.getEndpoints());
+        Assert.assertTrue(loaded.isCovered(endpoint, longPath));
+    }
+
+    @Test
+    public void mutatorSkipsCombinationsCoveredByPreviousRuns() throws Exception {
+        Path file = tmp.getRoot().toPath().resolve("coverage.bin");
+        int first = run(CoverageIndex.open(file), "http://api/users/1");
+        // Another id of the same templated endpoint
+        int second = run(CoverageIndex.open(file), "http://api/users/2");
+        int otherEndpoint = run(CoverageIndex.open(file), "http://api/orders");
+
+        Assert.assertTrue(first > 0);
+        Assert.assertEquals(0, second);
+        Assert.assertEquals(first, otherEndpoint);
+    }
+
+    private static int run(CoverageIndex coverage, String url) throws Exception {
+        HttpExchange exchange = new HttpExchange(
+                StandardHttpRequest.of("GET", url),
+                StandardHttpResponse.of(200, new ObjectMapper().readTree("{\"name\":\"x\",\"tags\":[\"a\",\"b\"]}")),
+                "ex");
+        AtomicInteger emitted = new AtomicInteger();
+        new HttpMutator(1L)
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .withCoverage(coverage, true)
+                .addReporter((ex, response, mutant) -> emitted.incrementAndGet())
+                .mutateStream(Collections.singletonList(exchange).iterator());
+        return emitted.get();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Mutant mutant(String path, Class mutator, Class operator) throws Exception {
+        return new Mutant(path, new ObjectMapper().readTree("{}"), mutator, operator);
+    }
+}
@@ -0,0 +1,98 @@
+package es.us.isa.httpmutator.core.stats;
+
+import com.fasterxml.jackson.databind.node.NullNode;
+import es.us.isa.httpmutator.core.body.value.common.operator.NullOperator;
+import es.us.isa.httpmutator.core.body.value.string0.StringMutator;
+import es.us.isa.httpmutator.core.body.value.string0.operator.StringReplacementOperator;
+import es.us.isa.httpmutator.core.headers.HeaderMutator;
+import es.us.isa.httpmutator.core.headers.location.operator.LocationMutationOperator;
+import es.us.isa.httpmutator.core.model.Mutant;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks the CSV exports and concurrent recording of {@link MutationStatistics}.
+ */
+public class MutationStatisticsTest {
+
+    private static final Mutant REPLACE = new Mutant("Body/name", NullNode.getInstance(),
+            StringMutator.class, StringReplacementOperator.class);
+    private static final Mutant NULL = new Mutant("Body/name", NullNode.getInstance(),
+            StringMutator.class, NullOperator.class);
+    private static final Mutant LOCATION = new Mutant("Headers/location", NullNode.getInstance(),
+            HeaderMutator.class, LocationMutationOperator.class);
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void exportsKeepFirstSeenOrder() throws Exception {
+        MutationStatistics stats = new MutationStatistics();
+        stats.record("t2", NULL);
+        stats.record("t2", LOCATION);
+        stats.record("t1", REPLACE);
+        stats.record("t1", NULL);
+        stats.record("t2", NULL);
+
+        Path global = tmp.getRoot().toPath().resolve("global.csv");
+        Path detailed = tmp.getRoot().toPath().resolve("detailed.csv");
+        stats.exportGlobalCsv(global);
+        stats.exportDetailedCsv(detailed);
+
+        Assert.assertEquals(Arrays.asList(
+                "mutatorName,operatorName,count",
+                "StringMutator,NullOperator,3",
+                "LocationMutator,LocationMutationOperator,1",
+                "StringMutator,StringReplacementOperator,1"),
+                Files.readAllLines(global, StandardCharsets.UTF_8));
+        Assert.assertEquals(Arrays.asList(
+                "testId,mutatorName,operatorName,count",
+                "t2,StringMutator,NullOperator,2",
+                "t2,LocationMutator,LocationMutationOperator,1",
+                "t1,StringMutator,StringReplacementOperator,1",
+                "t1,StringMutator,NullOperator,1"),
+                Files.readAllLines(detailed, StandardCharsets.UTF_8));
+        Assert.assertEquals(Long.valueOf(2), stats.getCombinationCounts("t2").get("StringMutator-NullOperator"));
+        Assert.assertEquals(5, stats.getTotalMutantCount());
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws Exception {
+        MutationStatistics stats = new MutationStatistics();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String testId = "t" + (t % 4);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        stats.record(testId, i % 2 == 0 ? REPLACE : NULL);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertEquals(80_000, stats.getTotalMutantCount());
+        Assert.assertEquals(Long.valueOf(40_000), stats.getGlobalCombinationCounts().get("StringMutator-NullOperator"));
+        Assert.assertEquals(4, stats.getAllTestIds().size());
+        Assert.assertEquals(Long.valueOf(10_000),
+                stats.getCombinationCounts("t3").get("StringMutator-StringReplacementOperator"));
+    }
+}
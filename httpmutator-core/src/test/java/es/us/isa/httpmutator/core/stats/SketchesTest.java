@@ -0,0 +1,56 @@
+package es.us.isa.httpmutator.core.stats;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Accuracy checks of {@link QuantileSketch}, {@link HyperLogLog} and {@link SpaceSaving}.
+ */
+public class SketchesTest {
+
+    @Test
+    public void quantilesStayWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int v = 0; v <= 10_000; v++) {
+            sketch.add(v);
+        }
+        Assert.assertEquals(10_001, sketch.getCount());
+        Assert.assertEquals(5_000, sketch.getQuantile(0.5), 5_000 * 0.01);
+        Assert.assertEquals(9_900, sketch.getQuantile(0.99), 9_900 * 0.01);
+        Assert.assertEquals(0, sketch.getQuantile(0), 0);
+        Assert.assertEquals(10_000, sketch.getMax());
+    }
+
+    @Test
+    public void hyperLogLogEstimatesDistinctCount() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            hll.add("id-" + (i % 50_000));
+        }
+        Assert.assertEquals(50_000, hll.cardinality(), 50_000 * 0.03);
+
+        HyperLogLog small = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            small.add("x" + i);
+        }
+        Assert.assertEquals(100, small.cardinality(), 2);
+    }
+
+    @Test
+    public void spaceSavingKeepsHeavyHitters() {
+        SpaceSaving<String> top = new SpaceSaving<>(10);
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            int r = random.nextInt(100);
+            // "hot" gets ~30%, "warm" ~20%, the rest is spread over 1000 items
+            top.add(r < 30 ? "hot" : r < 50 ? "warm" : "cold-" + random.nextInt(1000));
+        }
+        Assert.assertEquals("hot", top.top(2).get(0).getItem());
+        Assert.assertEquals("warm", top.top(2).get(1).getItem());
+        SpaceSaving.Entry<String> hot = top.top(1).get(0);
+        Assert.assertTrue(hot.getCount() - hot.getError() <= 6_500 && hot.getCount() >= 5_500);
+        Assert.assertEquals(20_000, top.getTotal());
+    }
+}
@@ -0,0 +1,86 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.SeekableReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.util.ByteArrayReadableSeekableByteChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that the Arrow file holds one row per mutant, with metadata columns
+ * and response bytes matching the JSONL output.
+ */
+public class ArrowMutantWriterTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final String RESPONSE = "{\"Status Code\":200," +
+            "\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"},\"tags\":[\"x\",\"y\"]}}";
+
+    @Test
+    public void rowsMatchJsonlLines() throws Exception {
+        ByteArrayOutputStream jsonl = new ByteArrayOutputStream();
+        ByteArrayOutputStream arrow = new ByteArrayOutputStream();
+        try (HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(new JsonlMutantWriter(jsonl, false))
+                .addWriter(new ArrowMutantWriter(arrow, 4))) {
+            mutator.mutate(JSON.readTree(RESPONSE), "ex-1", n -> { });
+        }
+        String[] lines = new String(jsonl.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+        List<String> responses = new ArrayList<>();
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowFileReader reader = new ArrowFileReader(new SeekableReadChannel(
+                     new ByteArrayReadableSeekableByteChannel(arrow.toByteArray())), allocator)) {
+            Assert.assertEquals(ArrowMutantWriter.SCHEMA, reader.getVectorSchemaRoot().getSchema());
+            List<ArrowBlock> batches = reader.getRecordBlocks();
+            Assert.assertEquals((lines.length + 3) / 4, batches.size());
+
+            for (ArrowBlock batch : batches) {
+                Assert.assertTrue(reader.loadRecordBatch(batch));
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                VarCharVector ids = (VarCharVector) root.getVector(ArrowMutantWriter.COLUMN_ORIGINAL_ID);
+                VarCharVector mutators = (VarCharVector) root.getVector(ArrowMutantWriter.COLUMN_MUTATOR);
+                IntVector status = (IntVector) root.getVector(ArrowMutantWriter.COLUMN_STATUS_CODE);
+                BigIntVector bodySizes = (BigIntVector) root.getVector(ArrowMutantWriter.COLUMN_BODY_SIZE);
+                VarBinaryVector payloads = (VarBinaryVector) root.getVector(ArrowMutantWriter.COLUMN_RESPONSE);
+
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    String response = new String(payloads.get(row), StandardCharsets.UTF_8);
+                    responses.add(response);
+                    Assert.assertEquals("ex-1", ids.getObject(row).toString());
+                    Assert.assertNotNull(mutators.getObject(row));
+                    Assert.assertEquals(JSON.readTree(response).get("Status Code").asInt(), status.get(row));
+                    // "Body" is the last field: its value runs up to the closing brace
+                    byte[] bytes = payloads.get(row);
+                    int bodyStart = response.indexOf("\"Body\":") + "\"Body\":".length();
+                    Assert.assertEquals(bytes.length - 1 - response.substring(0, bodyStart)
+                            .getBytes(StandardCharsets.UTF_8).length, bodySizes.get(row));
+                }
+            }
+        }
+
+        Assert.assertEquals(lines.length, responses.size());
+        for (int i = 0; i < lines.length; i++) {
+            Assert.assertEquals(lines[i], responses.get(i));
+        }
+    }
+}
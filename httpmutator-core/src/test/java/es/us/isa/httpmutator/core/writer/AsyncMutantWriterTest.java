@@ -0,0 +1,152 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests ordering, flush, backpressure, error propagation and canonical bytes of {@link AsyncMutantWriter}.
+ */
+public class AsyncMutantWriterTest {
+
+    private static final StandardHttpResponse RESPONSE = StandardHttpResponse.of(200, TextNode.valueOf("ok"));
+
+    @Test
+    public void deliversInOrderAndFlushWaitsForDelegate() throws Exception {
+        RecordingWriter delegate = new RecordingWriter();
+        AsyncMutantWriter writer = new AsyncMutantWriter(delegate, 8);
+
+        for (int i = 0; i < 100; i++) {
+            writer.write(exchange(i), RESPONSE, null);
+        }
+        writer.flush();
+        Assert.assertEquals(100, delegate.ids.size());
+        Assert.assertEquals(1, delegate.flushes);
+
+        writer.close();
+        Assert.assertTrue(delegate.closed);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(String.valueOf(i), delegate.ids.get(i));
+        }
+    }
+
+    @Test
+    public void failsWhenRingStaysFullPastTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingWriter delegate = new RecordingWriter() {
+            @Override
+            public void write(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(exchange, mutatedResponse, mutant);
+            }
+        };
+        AsyncMutantWriter writer = new AsyncMutantWriter(delegate, 2, 50, TimeUnit.MILLISECONDS);
+
+        try {
+            // one slot is taken by the blocked writer thread, two more fill the ring
+            for (int i = 0; i < 4; i++) {
+                writer.write(exchange(i), RESPONSE, null);
+            }
+            Assert.fail("expected the write to time out");
+        } catch (IOException expected) {
+            Assert.assertTrue(expected.getMessage().contains("queue is full"));
+        } finally {
+            release.countDown();
+            writer.close();
+        }
+    }
+
+    @Test
+    public void delegateErrorIsRethrownOnClose() throws Exception {
+        RecordingWriter delegate = new RecordingWriter() {
+            @Override
+            public void write(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant) {
+                throw new IllegalStateException("disk full");
+            }
+        };
+        AsyncMutantWriter writer = new AsyncMutantWriter(delegate, 4);
+        writer.write(exchange(0), RESPONSE, null);
+
+        try {
+            writer.close();
+            Assert.fail("expected close() to report the delegate failure");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertTrue("delegate must still be closed", delegate.closed);
+    }
+
+    @Test
+    public void canonicalBytesReachACanonicalDelegate() throws Exception {
+        CanonicalRecordingWriter delegate = new CanonicalRecordingWriter();
+        AsyncMutantWriter writer = new AsyncMutantWriter(delegate, 8);
+        Assert.assertTrue(writer.acceptsCanonicalBytes());
+
+        CanonicalJsonBuffer canonical = new CanonicalJsonBuffer();
+        writer.writeCanonical(exchange(0), RESPONSE, null, canonical.serialize(RESPONSE));
+        String expected = new String(canonical.array(), 0, canonical.length(), StandardCharsets.UTF_8);
+        // The caller reuses its buffer right away: the queued mutant must not see it
+        StandardHttpResponse other = StandardHttpResponse.of(500, TextNode.valueOf("other"));
+        writer.writeCanonical(exchange(1), other, null, canonical.serialize(other));
+        writer.close();
+
+        Assert.assertEquals(Arrays.asList(expected,
+                new String(canonical.array(), 0, canonical.length(), StandardCharsets.UTF_8)), delegate.canonical);
+        Assert.assertTrue(delegate.ids.isEmpty());
+
+        AsyncMutantWriter plain = new AsyncMutantWriter(new RecordingWriter(), 8);
+        Assert.assertFalse(plain.acceptsCanonicalBytes());
+        plain.close();
+    }
+
+    private static HttpExchange exchange(int i) {
+        return new HttpExchange(null, RESPONSE, String.valueOf(i));
+    }
+
+    private static class RecordingWriter implements MutantWriter {
+        final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+        volatile int flushes;
+        volatile boolean closed;
+
+        @Override
+        public void write(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant) {
+            ids.add(exchange.getId());
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static class CanonicalRecordingWriter extends RecordingWriter implements CanonicalBytesWriter {
+        final List<String> canonical = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void writeCanonical(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant,
+                                   CanonicalJsonBuffer bytes) {
+            canonical.add(new String(bytes.array(), 0, bytes.length(), StandardCharsets.UTF_8));
+        }
+    }
+}
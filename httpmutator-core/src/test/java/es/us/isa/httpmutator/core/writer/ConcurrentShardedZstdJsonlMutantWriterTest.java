@@ -0,0 +1,93 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.github.luben.zstd.ZstdInputStream;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks that concurrent producers and lanes produce complete, committed shards.
+ */
+public class ConcurrentShardedZstdJsonlMutantWriterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void everyLineFromEveryProducerIsCommitted() throws Exception {
+        Path dir = tmp.newFolder("zst").toPath();
+        int producers = 4;
+        int perProducer = 1500;
+
+        ConcurrentShardedZstdJsonlMutantWriter writer = ConcurrentShardedZstdJsonlMutantWriter.builder(dir, "mutants", 3)
+                .withQueueCapacity(64)
+                .withMaxLinesPerShard(500)
+                .withMaxUncompressedBytes(Long.MAX_VALUE)
+                .withBufferBytes(1 << 16)
+                .withZstdWorkers(2)
+                .build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        StandardHttpResponse response = StandardHttpResponse.of(200, IntNode.valueOf(i));
+                        writer.write(new HttpExchange(null, response, producer + "-" + i), response, null);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        writer.close();
+
+        Set<String> ids = new HashSet<>();
+        File[] files = dir.toFile().listFiles();
+        Assert.assertNotNull(files);
+        for (File f : files) {
+            Assert.assertTrue(f.getName(), f.getName().matches("mutants-\\d{2}-\\d{5}\\.jsonl\\.zst"));
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(
+                    new ZstdInputStream(new FileInputStream(f)), StandardCharsets.UTF_8))) {
+                int lines = 0;
+                String line;
+                while ((line = r.readLine()) != null) {
+                    JsonNode node = MAPPER.readTree(line);
+                    Assert.assertEquals(200, node.get("Status Code").asInt());
+                    ids.add(node.get("_hm_original_id").asText());
+                    lines++;
+                }
+                Assert.assertTrue(lines <= 500);
+            }
+        }
+        Assert.assertEquals(producers * perProducer, ids.size());
+    }
+}
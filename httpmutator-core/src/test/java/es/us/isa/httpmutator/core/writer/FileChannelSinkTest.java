@@ -0,0 +1,86 @@
+package es.us.isa.httpmutator.core.writer;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that {@link FileChannelSink} writes exactly the bytes it is given,
+ * honours group commit and reuses pooled buffers.
+ */
+public class FileChannelSinkTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void writesAllBytesAndGroupCommits() throws Exception {
+        DirectBufferPool pool = new DirectBufferPool(5000, 4);
+        Assert.assertEquals(2 * DirectBufferPool.ALIGNMENT, pool.getBufferBytes());
+
+        Random random = new Random(42);
+        for (int file = 0; file < 3; file++) {
+            Path path = tmp.getRoot().toPath().resolve("out-" + file);
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            FileChannelSink sink = new FileChannelSink(path, pool,
+                    FileChannelSink.SyncPolicy.groupCommit(32 * 1024, 1, TimeUnit.HOURS));
+            for (int record = 0; record < 200; record++) {
+                byte[] bytes = new byte[random.nextInt(1500)];
+                random.nextBytes(bytes);
+                sink.write(bytes);
+                sink.write('\n');
+                expected.write(bytes);
+                expected.write('\n');
+            }
+            sink.close();
+
+            Assert.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(path));
+            Assert.assertEquals(expected.size(), sink.getBytesWritten());
+            // One sync per 32 KiB group plus the final one
+            Assert.assertEquals(expected.size() / (32 * 1024) + 1, sink.getSyncCount(), 1);
+        }
+        Assert.assertEquals(1, pool.getAllocatedCount());
+    }
+
+    @Test
+    public void fullBlockFlushesKeepThePartialBlockBuffered() throws Exception {
+        DirectBufferPool pool = new DirectBufferPool(4 * DirectBufferPool.ALIGNMENT, 1);
+        Path path = tmp.getRoot().toPath().resolve("frames");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (FileChannelSink sink = new FileChannelSink(path, pool, FileChannelSink.SyncPolicy.none())) {
+            byte[] frame = new byte[1000];
+            new Random(7).nextBytes(frame);
+
+            sink.write(frame);
+            expected.write(frame);
+            sink.flushFullBlocks();
+            Assert.assertEquals(0, sink.getBytesWritten());
+
+            for (int i = 0; i < 9; i++) {
+                sink.write(frame);
+                expected.write(frame);
+                sink.flushFullBlocks();
+                Assert.assertEquals(0, sink.getBytesWritten() % DirectBufferPool.ALIGNMENT);
+            }
+            Assert.assertEquals(2 * DirectBufferPool.ALIGNMENT, sink.getBytesWritten());
+
+            // A full flush writes the partial block; later full-block flushes realign
+            sink.flush();
+            Assert.assertEquals(10 * frame.length, sink.getBytesWritten());
+            for (int i = 0; i < 3; i++) {
+                sink.write(frame);
+                expected.write(frame);
+            }
+            sink.flushFullBlocks();
+            Assert.assertEquals(3 * DirectBufferPool.ALIGNMENT, sink.getBytesWritten());
+        }
+        Assert.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(path));
+    }
+}
@@ -0,0 +1,82 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Checks that the streaming {@link HarMutantWriter} emits well-formed HAR
+ * documents, both to a single stream and when rotating across files.
+ */
+public class HarMutantWriterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String RESPONSE = "{\"Status Code\":200," +
+            "\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"},\"tags\":[\"x\",\"y\"]}}";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void singleStreamIsOneValidHar() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int produced = runMutator(new HarMutantWriter(bytes));
+
+        JsonNode har = MAPPER.readTree(bytes.toByteArray());
+        Assert.assertEquals("1.2", har.path("log").path("version").asText());
+        Assert.assertTrue(har.path("log").path("pages").isArray());
+        Assert.assertEquals(produced, har.path("log").path("entries").size());
+        Assert.assertEquals("ex-1", har.path("log").path("entries").get(0).path("_hm_original_id").asText());
+    }
+
+    @Test
+    public void emptyOutputIsStillValidHar() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new HarMutantWriter(bytes).close();
+
+        JsonNode har = MAPPER.readTree(bytes.toByteArray());
+        Assert.assertEquals(0, har.path("log").path("entries").size());
+    }
+
+    @Test
+    public void rotatesEveryNEntries() throws Exception {
+        Path dir = tmp.newFolder("har").toPath();
+        int produced = runMutator(new HarMutantWriter(dir, "mutants", 5, Long.MAX_VALUE));
+
+        File[] files = dir.toFile().listFiles();
+        Assert.assertNotNull(files);
+        Arrays.sort(files);
+        Assert.assertEquals((produced + 4) / 5, files.length);
+
+        int total = 0;
+        for (File f : files) {
+            Assert.assertTrue(f.getName().matches("mutants-\\d{5}\\.har"));
+            int entries = MAPPER.readTree(f).path("log").path("entries").size();
+            Assert.assertTrue(entries > 0 && entries <= 5);
+            total += entries;
+        }
+        Assert.assertEquals(produced, total);
+    }
+
+    private static int runMutator(HarMutantWriter writer) throws Exception {
+        int[] count = {0};
+        try (HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(writer)) {
+            mutator.mutate(MAPPER.readTree(RESPONSE), "ex-1", n -> count[0]++);
+        }
+        return count[0];
+    }
+}
@@ -0,0 +1,97 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.body.value.string0.StringMutator;
+import es.us.isa.httpmutator.core.body.value.string0.operator.StringReplacementOperator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import es.us.isa.httpmutator.core.model.MutantId;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.reporter.MutantReporter;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that the streaming {@link JsonlMutantWriter} produces byte-identical lines to
+ * serializing {@link StandardHttpResponse#toJsonNode()} with the metadata fields
+ * attached, without modifying the mutant trees.
+ */
+public class JsonlMutantWriterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String RESPONSE = "{\"Status Code\":200," +
+            "\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"},\"tags\":[\"x\",\"y\"]}}";
+
+    @Test
+    public void streamedLinesMatchTreeSerialization() throws Exception {
+        List<ObjectNode> expected = new ArrayList<>();
+        List<JsonNode> mutantTrees = new ArrayList<>();
+        MutantReporter recorder = new MutantReporter() {
+            @Override
+            public void onMutant(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant) {
+                ObjectNode line = (ObjectNode) mutatedResponse.toJsonNode();
+                line.put("_hm_original_id", exchange.getId());
+                line.put("_hm_mutant_id", MutantId.toHex(mutant.getId()));
+                line.put("_hm_original_json_path", mutant.getOriginalJsonPath());
+                line.put("_hm_mutator", mutant.getMutatorClassName());
+                line.put("_hm_operator", mutant.getOperatorClassName());
+                expected.add(line);
+                mutantTrees.add(mutant.getMutatedNode());
+            }
+        };
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(new JsonlMutantWriter(bytes, true, 256))
+                .addReporter(recorder)) {
+            mutator.mutate(MAPPER.readTree(RESPONSE), "ex-1", n -> { });
+        }
+
+        String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected.size() + 1, lines.length);
+        Assert.assertEquals("", lines[lines.length - 1]);
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(MAPPER.writeValueAsString(expected.get(i)), lines[i]);
+        }
+        for (JsonNode tree : mutantTrees) {
+            Assert.assertFalse(tree.has("_hm_original_id"));
+        }
+    }
+
+    @Test
+    public void canonicalBytesPathMatchesGeneratorPath() throws Exception {
+        StandardHttpResponse response = StandardHttpResponse.fromJson(RESPONSE);
+        // the id needs escaping, so the spliced field must be quoted like the generator does
+        HttpExchange exchange = new HttpExchange(null, response, "ex\"1\\\u00e9\n");
+        Mutant mutant = new Mutant("$.user.name", response.toJsonNode(),
+                StringMutator.class, StringReplacementOperator.class);
+
+        ByteArrayOutputStream viaGenerator = new ByteArrayOutputStream();
+        try (JsonlMutantWriter writer = new JsonlMutantWriter(viaGenerator, true)) {
+            writer.write(exchange, response, mutant);
+            writer.write(exchange, response, mutant);
+        }
+
+        ByteArrayOutputStream viaCanonical = new ByteArrayOutputStream();
+        CanonicalJsonBuffer canonical = new CanonicalJsonBuffer().serialize(response);
+        try (JsonlMutantWriter writer = new JsonlMutantWriter(viaCanonical, true)) {
+            writer.write(exchange, response, mutant);
+            writer.writeCanonical(exchange, response, mutant, canonical);
+        }
+
+        Assert.assertArrayEquals(viaGenerator.toByteArray(), viaCanonical.toByteArray());
+    }
+}
@@ -0,0 +1,98 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks routing by key, the open-partition cap and the sharded layout.
+ */
+public class PartitioningMutantWriterTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final String RESPONSE = "{\"Status Code\":200," +
+            "\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"},\"tags\":[\"x\",\"y\"]}}";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void routesByOperatorAndReopensEvictedPartitions() throws Exception {
+        Map<String, List<ByteArrayOutputStream>> outputs = new HashMap<>();
+        PartitioningMutantWriter partitioned = new PartitioningMutantWriter(
+                PartitioningMutantWriter.byOperator(),
+                (key, generation) -> {
+                    List<ByteArrayOutputStream> generations = outputs.computeIfAbsent(key, k -> new ArrayList<>());
+                    Assert.assertEquals(generations.size(), generation);
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    generations.add(out);
+                    return new JsonlMutantWriter(out, true);
+                },
+                2);
+
+        int mutants;
+        try (HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(partitioned)) {
+            mutants = mutator.mutate(JSON.readTree(RESPONSE), "ex-1").size();
+            mutator.mutate(JSON.readTree(RESPONSE), "ex-2");
+            Assert.assertTrue(partitioned.getOpenPartitionCount() <= 2);
+        }
+
+        Assert.assertTrue(partitioned.getPartitionKeys().size() > 2);
+        Assert.assertTrue(partitioned.getEvictionCount() > 0);
+        Assert.assertEquals(0, partitioned.getOpenPartitionCount());
+
+        int lines = 0;
+        for (Map.Entry<String, List<ByteArrayOutputStream>> partition : outputs.entrySet()) {
+            for (ByteArrayOutputStream out : partition.getValue()) {
+                String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+                for (String line : text.split("\n")) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    Assert.assertEquals(partition.getKey(),
+                            JSON.readTree(line).get(CanonicalJsonl.META_OPERATOR).asText());
+                    lines++;
+                }
+            }
+        }
+        Assert.assertEquals(2 * mutants, lines);
+    }
+
+    @Test
+    public void shardedFactoryWritesOneDirectoryPerPartition() throws Exception {
+        Path root = tmp.newFolder("partitions").toPath();
+        PartitioningMutantWriter partitioned = new PartitioningMutantWriter(
+                PartitioningMutantWriter.byMutator(), PartitioningMutantWriter.shardedZstd(root, 1_000, 3));
+        try (HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(partitioned)) {
+            mutator.mutate(JSON.readTree(RESPONSE), "ex-1");
+        }
+
+        for (String key : partitioned.getPartitionKeys()) {
+            File dir = root.resolve(PartitioningMutantWriter.sanitize(key)).toFile();
+            String[] shards = dir.list((d, name) -> name.startsWith("mutants-g000") && name.endsWith(".jsonl.zst"));
+            Assert.assertNotNull(shards);
+            Assert.assertEquals(1, shards.length);
+        }
+        Assert.assertNotEquals(PartitioningMutantWriter.sanitize("GET /a/b"),
+                PartitioningMutantWriter.sanitize("GET /a_b"));
+    }
+}
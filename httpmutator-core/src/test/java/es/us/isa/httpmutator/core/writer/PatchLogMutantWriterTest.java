@@ -0,0 +1,126 @@
+package es.us.isa.httpmutator.core.writer;
+
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.Mutant;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import es.us.isa.httpmutator.core.body.value.string0.StringMutator;
+import es.us.isa.httpmutator.core.body.value.string0.operator.StringReplacementOperator;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.reader.JsonlExchangeReader;
+import es.us.isa.httpmutator.core.reader.PatchLogReader;
+import es.us.isa.httpmutator.core.reporter.MutantReporter;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Round-trips mutants through {@link PatchLogMutantWriter} and {@link PatchLogReader}.
+ */
+public class PatchLogMutantWriterTest {
+
+    private static final String INPUT =
+            "{\"id\":\"a\",\"Status Code\":200,\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\",\"roles\":[\"admin\",\"dev\"]},\"total\":2.5}}\n" +
+            "{\"id\":\"b\",\"Status Code\":404,\"Headers\":{},\"Body\":{\"error\":\"nope\"}}\n";
+
+    @Test
+    public void readerRebuildsEveryMutant() throws Exception {
+        List<String> expected = new ArrayList<>();
+        List<String> expectedIds = new ArrayList<>();
+        MutantReporter recorder = new MutantReporter() {
+            @Override
+            public void onMutant(HttpExchange exchange, StandardHttpResponse mutatedResponse, Mutant mutant) {
+                expected.add(mutatedResponse.toJsonString());
+                expectedIds.add(exchange.getId());
+            }
+        };
+
+        ByteArrayOutputStream patchLog = new ByteArrayOutputStream();
+        ByteArrayOutputStream fullJsonl = new ByteArrayOutputStream();
+        HttpMutator mutator = new HttpMutator(3L)
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(new PatchLogMutantWriter(patchLog))
+                .addWriter(new JsonlMutantWriter(fullJsonl, true))
+                .addReporter(recorder);
+        mutator.mutateStream(new JsonlExchangeReader(), new StringReader(INPUT));
+        mutator.close();
+
+        List<PatchLogReader.PatchedMutant> read = new ArrayList<>();
+        new PatchLogReader().read(
+                new StringReader(new String(patchLog.toByteArray(), StandardCharsets.UTF_8)), read::add);
+
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected.size(), read.size());
+        for (int i = 0; i < expected.size(); i++) {
+            PatchLogReader.PatchedMutant m = read.get(i);
+            Assert.assertEquals(expectedIds.get(i), m.getExchange().getId());
+            Assert.assertNotNull(m.getOperatorName());
+            // Compared as text: numbers re-read from the log may come back as a different node type
+            Assert.assertEquals(expected.get(i), m.getMutatedResponse().toJsonString());
+        }
+        Assert.assertTrue(patchLog.size() < fullJsonl.size());
+
+        // Value mutants are patched at their own path only
+        int leafMutants = 0;
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : new String(patchLog.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            JsonNode record = mapper.readTree(line);
+            if ("Body/user/name".equals(record.path(CanonicalJsonl.META_ORIGINAL_JSON_PATH).asText())) {
+                JsonNode patch = record.get(PatchLogMutantWriter.META_PATCH);
+                Assert.assertEquals(1, patch.size());
+                Assert.assertEquals("/Body/user/name", patch.get(0).get("path").asText());
+                leafMutants++;
+            }
+        }
+        Assert.assertTrue(leafMutants > 0);
+    }
+
+    @Test
+    public void keysContainingSlashesFallBackToABodyDiff() throws Exception {
+        // "Body/a/b" names the "a/b" key, but is followed to "b" inside "a" (unchanged), or nowhere
+        String[] bodies = {
+                "{\"a/b\":\"slash\",\"a\":{\"b\":\"nested\"}}",
+                "{\"a/b\":\"slash\"}"
+        };
+        List<String> expected = new ArrayList<>();
+        ByteArrayOutputStream patchLog = new ByteArrayOutputStream();
+        ObjectMapper mapper = new ObjectMapper();
+        try (PatchLogMutantWriter writer = new PatchLogMutantWriter(patchLog)) {
+            for (int i = 0; i < bodies.length; i++) {
+                JsonNode body = mapper.readTree(bodies[i]);
+                StandardHttpResponse original = StandardHttpResponse.of(200, body);
+                JsonNode mutatedBody = body.deepCopy();
+                ((ObjectNode) mutatedBody).put("a/b", "mutated");
+                StandardHttpResponse mutated = StandardHttpResponse.of(200, mutatedBody);
+                Mutant mutant = new Mutant("Body/a/b", mutated.toJsonNode(),
+                        StringMutator.class, StringReplacementOperator.class);
+                writer.write(new HttpExchange(null, original, "x" + i), mutated, mutant);
+                expected.add(mutated.toJsonString());
+            }
+        }
+
+        List<PatchLogReader.PatchedMutant> read = new ArrayList<>();
+        new PatchLogReader().read(
+                new StringReader(new String(patchLog.toByteArray(), StandardCharsets.UTF_8)), read::add);
+        Assert.assertEquals(expected.size(), read.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i), read.get(i).getMutatedResponse().toJsonString());
+        }
+        for (String line : new String(patchLog.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            JsonNode patch = mapper.readTree(line).get(PatchLogMutantWriter.META_PATCH);
+            if (patch != null) {
+                Assert.assertEquals(1, patch.size());
+                Assert.assertEquals("/Body/a~1b", patch.get(0).get("path").asText());
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.reader.SeekableZstdShardReader;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks dictionary training, the frame index and the file channel sink of
+ * {@link ShardedZstdJsonlMutantWriter}.
+ */
+public class ShardedZstdJsonlMutantWriterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int LINES = 600;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void dictionaryShardsAreReadableAndSmaller() throws Exception {
+        Path plainDir = tmp.newFolder("plain").toPath();
+        Path dictDir = tmp.newFolder("dict").toPath();
+
+        writeCorpus(new ShardedZstdJsonlMutantWriter(plainDir, "mutants", 10, Long.MAX_VALUE, 3));
+        writeCorpus(ShardedZstdJsonlMutantWriter.builder(dictDir, "mutants")
+                .withMaxLinesPerShard(10)
+                .withBufferBytes(1 << 16)
+                .withDictionary(ZstdDictionary.trainFromFirstMutants(200, 16 * 1024))
+                .build());
+
+        Path dictFile = dictDir.resolve("mutants" + ZstdDictionary.FILE_EXTENSION);
+        Assert.assertTrue(Files.exists(dictFile));
+
+        File[] shards = dictDir.toFile().listFiles((d, name) -> name.endsWith(".jsonl.zst"));
+        Assert.assertNotNull(shards);
+        Arrays.sort(shards);
+        int i = 0;
+        for (File shard : shards) {
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(
+                    ZstdDictionary.openShard(shard.toPath(), dictFile), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    JsonNode node = MAPPER.readTree(line);
+                    Assert.assertEquals(String.valueOf(i), node.get("_hm_original_id").asText());
+                    i++;
+                }
+            }
+        }
+        Assert.assertEquals(LINES, i);
+        Assert.assertTrue(shardBytes(dictDir) < shardBytes(plainDir));
+    }
+
+    @Test
+    public void frameIndexGivesRandomAccessByOriginalId() throws Exception {
+        Path dir = tmp.newFolder("seekable").toPath();
+        ShardedZstdJsonlMutantWriter writer = ShardedZstdJsonlMutantWriter.builder(dir, "mutants")
+                .withMaxLinesPerShard(25)
+                .withBufferBytes(1 << 16)
+                .withFrameIndex(true)
+                .build();
+        // 40 exchanges with 10 mutants each: exchanges straddle shard boundaries
+        for (int e = 0; e < 40; e++) {
+            StandardHttpResponse original = StandardHttpResponse.of(200, MAPPER.createObjectNode().put("e", e));
+            HttpExchange exchange = new HttpExchange(null, original, "ex-" + e);
+            for (int m = 0; m < 10; m++) {
+                ObjectNode body = MAPPER.createObjectNode().put("e", e).put("m", m);
+                writer.write(exchange, StandardHttpResponse.of(200, body), null);
+                if (e % 3 == 0 && m == 4) {
+                    // Flushing midway splits the exchange over two indexed frames
+                    writer.flush();
+                    writer.flush();
+                }
+            }
+        }
+        writer.close();
+
+        SeekableZstdShardReader reader = new SeekableZstdShardReader(dir, "mutants");
+        Assert.assertEquals(40, reader.getOriginalIds().size());
+        Assert.assertEquals(10, reader.getRecordCount("ex-7"));
+
+        List<String> lines = reader.readLines("ex-7");
+        Assert.assertEquals(10, lines.size());
+        for (int m = 0; m < 10; m++) {
+            JsonNode node = MAPPER.readTree(lines.get(m));
+            Assert.assertEquals(7, node.get("Body").get("e").asInt());
+            Assert.assertEquals(m, node.get("Body").get("m").asInt());
+        }
+
+        Map<String, List<String>> many = reader.readLines(Arrays.asList("ex-2", "ex-39", "missing"), 3);
+        Assert.assertEquals(10, many.get("ex-2").size());
+        Assert.assertEquals(10, many.get("ex-39").size());
+        Assert.assertTrue(many.get("missing").isEmpty());
+    }
+
+    @Test
+    public void fileChannelSinkWritesTheSameShards() throws Exception {
+        Path streamDir = tmp.newFolder("stream").toPath();
+        Path sinkDir = tmp.newFolder("sink").toPath();
+
+        writeCorpus(new ShardedZstdJsonlMutantWriter(streamDir, "mutants", 100, Long.MAX_VALUE, 3));
+        writeCorpus(ShardedZstdJsonlMutantWriter.builder(sinkDir, "mutants")
+                .withMaxLinesPerShard(100)
+                .withBufferBytes(4096)
+                .withFileSync(FileChannelSink.SyncPolicy.groupCommit(8192, 1, TimeUnit.SECONDS))
+                .build());
+
+        String[] names = streamDir.toFile().list((d, name) -> name.endsWith(".jsonl.zst"));
+        Assert.assertNotNull(names);
+        Assert.assertTrue(names.length >= LINES / 100);
+        Assert.assertEquals(names.length, sinkDir.toFile().list((d, name) -> name.endsWith(".jsonl.zst")).length);
+        for (String name : names) {
+            Assert.assertArrayEquals(Files.readAllBytes(streamDir.resolve(name)),
+                    Files.readAllBytes(sinkDir.resolve(name)));
+        }
+    }
+
+    @Test
+    public void failedDictionaryTrainingIsReportedAndShardsStayPlain() throws Exception {
+        Path dir = tmp.newFolder("untrained").toPath();
+        ShardedZstdJsonlMutantWriter writer = ShardedZstdJsonlMutantWriter.builder(dir, "mutants")
+                .withDictionary(ZstdDictionary.trainFromFirstMutants(200, 16 * 1024))
+                .build();
+        StandardHttpResponse response = StandardHttpResponse.of(200, MAPPER.createObjectNode().put("id", 1));
+        writer.write(new HttpExchange(null, response, "1"), response, null);
+        writer.close();
+
+        Assert.assertNotNull(writer.getDictionaryFailure());
+        Assert.assertFalse(Files.exists(dir.resolve("mutants" + ZstdDictionary.FILE_EXTENSION)));
+        Assert.assertEquals(1, dir.toFile().list((d, name) -> name.endsWith(".jsonl.zst")).length);
+    }
+
+    private static void writeCorpus(ShardedZstdJsonlMutantWriter writer) throws Exception {
+        for (int i = 0; i < LINES; i++) {
+            ObjectNode body = MAPPER.createObjectNode();
+            body.put("id", i);
+            body.put("name", "customer-name-" + (i % 7));
+            body.put("email", "someone" + (i % 13) + "@example.org");
+            body.putObject("address").put("street", "Avenida de la Reina Mercedes").put("city", "Sevilla");
+            body.putArray("tags").add("alpha").add("beta").add("gamma");
+            StandardHttpResponse response = StandardHttpResponse.of(200, body);
+            writer.write(new HttpExchange(null, response, String.valueOf(i)), response, null);
+        }
+        writer.close();
+    }
+
+    private static long shardBytes(Path dir) {
+        long total = 0;
+        for (File f : dir.toFile().listFiles((d, name) -> name.endsWith(".jsonl.zst"))) {
+            total += f.length();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,131 @@
+package es.us.isa.httpmutator.core.writer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.ZstdInputStream;
+import es.us.isa.httpmutator.core.HttpMutator;
+import es.us.isa.httpmutator.core.model.HttpExchange;
+import es.us.isa.httpmutator.core.model.StandardHttpResponse;
+import es.us.isa.httpmutator.core.reader.SmileExchangeReader;
+import es.us.isa.httpmutator.core.strategy.AllOperatorsStrategy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that Smile output carries the same records as JSONL and reads back
+ * through {@link SmileExchangeReader}, with and without zstd sharding.
+ */
+public class SmileMutantWriterTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+
+    private static final String RESPONSE = "{\"Status Code\":200," +
+            "\"Headers\":{\"content-type\":\"application/json\"}," +
+            "\"Body\":{\"user\":{\"id\":1,\"name\":\"Alice\"},\"tags\":[\"x\",\"y\"]}}";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void smileRecordsMatchJsonlLines() throws Exception {
+        ByteArrayOutputStream jsonl = new ByteArrayOutputStream();
+        ByteArrayOutputStream smile = new ByteArrayOutputStream();
+        try (HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(new JsonlMutantWriter(jsonl, true))
+                .addWriter(new SmileMutantWriter(smile, true))) {
+            mutator.mutate(JSON.readTree(RESPONSE), "ex-1", n -> { });
+        }
+
+        String[] lines = new String(jsonl.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        List<JsonNode> records = new ArrayList<>();
+        try (MappingIterator<JsonNode> it = SMILE.readerFor(JsonNode.class).readValues(smile.toByteArray())) {
+            it.forEachRemaining(records::add);
+        }
+
+        Assert.assertEquals(lines.length, records.size());
+        for (int i = 0; i < lines.length; i++) {
+            Assert.assertEquals(lines[i], JSON.writeValueAsString(records.get(i)));
+        }
+        Assert.assertTrue(smile.size() < jsonl.size());
+
+        List<HttpExchange> exchanges = new ArrayList<>();
+        new SmileExchangeReader().read(new ByteArrayInputStream(smile.toByteArray()), exchanges::add);
+        Assert.assertEquals(lines.length, exchanges.size());
+        Assert.assertEquals("1", exchanges.get(0).getId());
+
+        SmileExchangeReader reader = new SmileExchangeReader();
+        Assert.assertEquals(lines.length, reader.stream(new ByteArrayInputStream(smile.toByteArray()), true).count());
+        try {
+            reader.stream(new StringReader(""), false);
+            Assert.fail("the Reader overloads must be rejected up front");
+        } catch (UnsupportedOperationException expected) {
+            // binary format
+        }
+    }
+
+    @Test
+    public void shardedOutputIsReadableShardByShard() throws Exception {
+        Path dir = tmp.newFolder("smile").toPath();
+        int mutants;
+        try (HttpMutator mutator = new HttpMutator()
+                .withMutationStrategy(new AllOperatorsStrategy())
+                .addWriter(new SmileMutantWriter(dir, "mutants", 5, 3, false))) {
+            mutants = mutator.mutate(JSON.readTree(RESPONSE), "ex-1").size();
+        }
+
+        File[] shards = dir.toFile().listFiles((d, name) -> name.endsWith(SmileMutantWriter.SHARD_EXTENSION));
+        Assert.assertNotNull(shards);
+        Arrays.sort(shards);
+        Assert.assertEquals((mutants + 4) / 5, shards.length);
+
+        int read = 0;
+        for (File shard : shards) {
+            try (InputStream in = new ZstdInputStream(Files.newInputStream(shard.toPath()))) {
+                List<HttpExchange> exchanges = new ArrayList<>();
+                new SmileExchangeReader().read(in, exchanges::add);
+                Assert.assertTrue(exchanges.size() <= 5);
+                Assert.assertFalse(exchanges.isEmpty());
+                read += exchanges.size();
+            }
+        }
+        Assert.assertEquals(mutants, read);
+    }
+
+    @Test
+    public void shardsAreOnlyOpenedForRecords() throws Exception {
+        Path empty = tmp.newFolder("empty").toPath();
+        new SmileMutantWriter(empty, "mutants", 5, 3, false).close();
+        Assert.assertArrayEquals(new String[0], empty.toFile().list());
+
+        Path exact = tmp.newFolder("exact").toPath();
+        StandardHttpResponse response = StandardHttpResponse.of(200, JSON.readTree(RESPONSE).get("Body"));
+        try (SmileMutantWriter writer = new SmileMutantWriter(exact, "mutants", 5, 3, false)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(new HttpExchange(null, response, "ex-" + i), response, null);
+            }
+        }
+        String[] names = exact.toFile().list();
+        Assert.assertNotNull(names);
+        Arrays.sort(names);
+        Assert.assertArrayEquals(new String[]{"mutants-00000" + SmileMutantWriter.SHARD_EXTENSION,
+                "mutants-00001" + SmileMutantWriter.SHARD_EXTENSION}, names);
+    }
+}